@@ -0,0 +1,98 @@
+package com.example.demo.config;
+
+import com.example.demo.model.Alert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурационный класс для последовательности ID инцидентов.
+ * ID инцидентов раньше выдавались столбцом IDENTITY, а теперь - последовательностью alerts_seq
+ * блоками по {@link Alert#ID_ALLOCATION_SIZE}, что позволяет вставлять инциденты пакетами JDBC.
+ * В существующей базе данных PostgreSQL последовательность нужно сдвинуть за максимальный ID,
+ * уже выданный столбцом IDENTITY, до того как Hibernate выделит первый блок ID. Поэтому проверка
+ * выполняется при создании {@link AlertIdSequenceInitializer}, от которого зависит EntityManagerFactory:
+ * ни одна транзакция JPA и ни один HTTP-запрос не начнутся раньше нее.
+ * Так как проверка выполняется до схемы Hibernate (ddl-auto), последовательность при необходимости
+ * создается здесь с теми же параметрами, что создал бы Hibernate. Если таблицы alerts еще нет,
+ * последовательность сдвигается не меньше чем до {@link Alert#ID_ALLOCATION_SIZE}: загрузка COPY
+ * ({@code AlertCopyLoader}) считает значение последовательности верхней границей блока ID, и блок
+ * первого значения новой последовательности ушел бы в неположительные ID.
+ * Значение последовательности никогда не уменьшается.
+ */
+@Configuration
+public class AlertIdSequenceConfig {
+    private static final Logger log = LoggerFactory.getLogger(AlertIdSequenceConfig.class);
+
+    static final String POSTGRES_CREATE_STATEMENT = "CREATE SEQUENCE IF NOT EXISTS alerts_seq START WITH 1 INCREMENT BY "
+            + Alert.ID_ALLOCATION_SIZE;
+
+    static final String POSTGRES_TABLE_EXISTS_QUERY = "SELECT to_regclass('alerts') IS NOT NULL";
+
+    static final String POSTGRES_MIN_VALUE_STATEMENT = "SELECT setval('alerts_seq', GREATEST("
+            + Alert.ID_ALLOCATION_SIZE + ", last_value)) FROM alerts_seq";
+
+    static final String POSTGRES_ALIGN_STATEMENT = "SELECT setval('alerts_seq', GREATEST("
+            + "(SELECT COALESCE(MAX(id), 0) FROM alerts) + " + Alert.ID_ALLOCATION_SIZE + ", "
+            + "(SELECT last_value FROM alerts_seq)))";
+
+    /**
+     * Создает компонент, сдвигающий последовательность ID инцидентов за существующие ID.
+     *
+     * @param dataSource источник данных
+     * @return компонент проверки последовательности
+     */
+    @Bean
+    AlertIdSequenceInitializer alertIdSequenceInitializer(DataSource dataSource) {
+        return new AlertIdSequenceInitializer(new JdbcTemplate(dataSource));
+    }
+
+    /**
+     * Делает EntityManagerFactory зависимой от проверки последовательности ID инцидентов.
+     *
+     * @return постпроцессор зависимостей EntityManagerFactory
+     */
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor alertIdSequenceDependency() {
+        return new EntityManagerFactoryDependsOnPostProcessor("alertIdSequenceInitializer");
+    }
+
+    /**
+     * Проверяет последовательность ID инцидентов при создании, если приложение работает с PostgreSQL.
+     */
+    static class AlertIdSequenceInitializer implements InitializingBean {
+        private final JdbcTemplate jdbcTemplate;
+
+        AlertIdSequenceInitializer(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        @Override
+        public void afterPropertiesSet() {
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                return;
+            }
+            try {
+                jdbcTemplate.execute(POSTGRES_CREATE_STATEMENT);
+                boolean tableExists = Boolean.TRUE.equals(
+                        jdbcTemplate.queryForObject(POSTGRES_TABLE_EXISTS_QUERY, Boolean.class));
+                Long value = jdbcTemplate.queryForObject(
+                        tableExists ? POSTGRES_ALIGN_STATEMENT : POSTGRES_MIN_VALUE_STATEMENT, Long.class);
+                log.info("Последовательность ID инцидентов проверена: текущее значение {}", value);
+            } catch (DataAccessException e) {
+                log.warn("Не удалось проверить последовательность ID инцидентов: {}",
+                        e.getMostSpecificCause().getMessage());
+            }
+        }
+    }
+}
@@ -1,40 +1,260 @@
 package com.example.demo.config;
 
+import com.example.demo.controller.JsonResponseCache;
+import com.example.demo.service.AlertInboxService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Конфигурационный класс для настройки кэширования в приложении.
  * Включает кэширование и определяет имена кэшей, используемых в приложении.
+ * Кэши построены на Caffeine: каждый ограничен по весу и времени жизни записей
+ * и собирает статистику попаданий, промахов и вытеснений, которая публикуется через Actuator.
+ * Одновременные промахи по одному ключу в методах с {@code @Cacheable(sync = true)} объединяются
+ * в одну загрузку (см. {@link CoalescingCaffeineCache}), а часто читаемые записи обновляются
+ * заранее в фоне до истечения срока жизни (см. {@link RefreshAheadCacheLoader}).
+ * Перехватчик кэша выполняется снаружи транзакционного перехватчика (см. {@link TransactionConfig}),
+ * чтобы попадание в кэш не открывало транзакцию и не занимало соединение с базой данных.
  */
 @Configuration
-@EnableCaching
+@EnableCaching(order = CacheConfig.CACHE_ADVISOR_ORDER)
 public class CacheConfig {
+    private static final Logger log = LoggerFactory.getLogger(CacheConfig.class);
+
+    /**
+     * Порядок перехватчика кэша среди AOP-советников: меньше порядка транзакционного перехватчика.
+     */
+    public static final int CACHE_ADVISOR_ORDER = TransactionConfig.TRANSACTION_ADVISOR_ORDER - 1;
+
+    /**
+     * Имена кэшей, используемых в приложении.
+     */
+    public static final List<String> CACHE_NAMES = List.of(
+        "alerts",           // Кэш для уведомлений
+        "alertsByStatus",   // Кэш для уведомлений по статусу
+        "alertsByBus",      // Кэш для уведомлений по автобусу
+        "alertsByUser",     // Кэш для уведомлений по пользователю
+        "alertInbox",       // Кэш входящих открытых уведомлений пользователя
+        "userDetails",      // Кэш для деталей пользователя
+        "buses",            // Кэш для списка автобусов
+        "bus",              // Кэш для одного автобуса
+        "jsonResponses"     // Кэш сериализованных JSON-ответов списочных эндпоинтов
+    );
+
+    /**
+     * Создает ограниченный пул опережающего обновления кэшей.
+     *
+     * @param properties параметры кэшей
+     * @return пул обновления
+     */
+    @Bean
+    public CacheRefreshExecutor cacheRefreshExecutor(CacheSpecProperties properties) {
+        return new CacheRefreshExecutor(properties.getRefresh());
+    }
 
     /**
      * Создает и настраивает менеджер кэша для приложения.
-     * Определяет имена кэшей, которые будут использоваться для хранения различных типов данных.
+     * Кэши с заданным refreshAfterWrite и зарегистрированным {@link CacheReloader}
+     * обновляются заранее в пуле {@link CacheRefreshExecutor}.
      *
+     * @param properties параметры кэшей
+     * @param reloaders загрузчики для опережающего обновления
+     * @param refreshExecutor пул опережающего обновления
      * @return настроенный менеджер кэша
      */
     @Bean
-    public CacheManager cacheManager() {
-        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
-        cacheManager.setCacheNames(List.of(
-            "alerts",           // Кэш для уведомлений
-            "alertsByStatus",   // Кэш для уведомлений по статусу
-            "alertsByBus",      // Кэш для уведомлений по автобусу
-            "alertsByUser",     // Кэш для уведомлений по пользователю
-            "userDetails",      // Кэш для деталей пользователя
-            "buses",            // Кэш для списка автобусов
-            "bus"               // Кэш для одного автобуса
-        ));
+    public CacheManager cacheManager(CacheSpecProperties properties, ObjectProvider<CacheReloader> reloaders,
+                                     CacheRefreshExecutor refreshExecutor) {
+        return buildCacheManager(properties, reloaders.orderedStream().toList(), refreshExecutor.executor());
+    }
+
+    /**
+     * Создает менеджер кэша.
+     * Для каждого имени кэша создается отдельный ограниченный кэш Caffeine
+     * с параметрами из {@link CacheSpecProperties}. Создание кэшей с другими именами запрещено,
+     * чтобы в приложении не появлялись неограниченные кэши.
+     *
+     * @param properties параметры кэшей
+     * @param reloaders загрузчики для опережающего обновления
+     * @param refreshExecutor пул, в котором выполняются опережающие обновления
+     * @return настроенный менеджер кэша
+     */
+    public static CacheManager buildCacheManager(CacheSpecProperties properties, List<CacheReloader> reloaders,
+                                                 Executor refreshExecutor) {
+        Map<String, RefreshAheadCacheLoader> refreshLoaders = new HashMap<>();
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                return new CoalescingCaffeineCache(name, cache, isAllowNullValues(), refreshLoaders.get(name));
+            }
+        };
+        cacheManager.setCacheNames(List.of()); // Статический режим: только зарегистрированные ниже кэши
         cacheManager.setAllowNullValues(false); // Не разрешать null значения в кэше
+
+        Map<String, CacheReloader> reloadersByCache = new HashMap<>();
+        for (CacheReloader reloader : reloaders) {
+            reloadersByCache.put(reloader.cacheName(), reloader);
+        }
+
+        for (String cacheName : CACHE_NAMES) {
+            CacheSpecProperties.Spec spec = properties.specFor(cacheName);
+            RefreshAheadCacheLoader loader = null;
+            if (spec.getRefreshAfterWrite() != null) {
+                CacheReloader reloader = reloadersByCache.get(cacheName);
+                if (reloader != null) {
+                    loader = new RefreshAheadCacheLoader(reloader);
+                    refreshLoaders.put(cacheName, loader);
+                } else {
+                    log.warn("Для кэша '{}' задан refreshAfterWrite, но нет загрузчика - опережающее обновление отключено",
+                            cacheName);
+                }
+            }
+            cacheManager.registerCustomCache(cacheName, buildCache(cacheName, spec, loader, refreshExecutor));
+        }
         return cacheManager;
     }
-}
\ No newline at end of file
+
+    /**
+     * Регистрирует метрики кэшей, дополняющие стандартную статистику Caffeine:
+     * <ul>
+     *   <li>cache.loads.coalesced - вызовы, дождавшиеся уже выполняющейся загрузки того же ключа;</li>
+     *   <li>cache.refresh - число и длительность опережающих обновлений;</li>
+     *   <li>cache.refresh.failures - ошибки и отклоненные пулом обновления;</li>
+     *   <li>cache.refresh.staleness - возраст значения, замененного последним обновлением;</li>
+     *   <li>cache.refresh.queue - число обновлений, ожидающих в пуле.</li>
+     * </ul>
+     *
+     * @param cacheManager менеджер кэша
+     * @param refreshExecutor пул опережающего обновления
+     * @return регистратор метрик кэшей
+     */
+    @Bean
+    public MeterBinder cacheLoadMetrics(CacheManager cacheManager, CacheRefreshExecutor refreshExecutor) {
+        return registry -> {
+            for (String cacheName : cacheManager.getCacheNames()) {
+                if (!(cacheManager.getCache(cacheName) instanceof CoalescingCaffeineCache cache)) {
+                    continue;
+                }
+                FunctionCounter.builder("cache.loads.coalesced", cache, CoalescingCaffeineCache::getCoalescedLoads)
+                        .tag("cache", cacheName)
+                        .description("Промахи кэша, дождавшиеся уже выполняющейся загрузки")
+                        .register(registry);
+
+                RefreshAheadCacheLoader loader = cache.getRefreshLoader();
+                if (loader == null) {
+                    continue;
+                }
+                FunctionTimer.builder("cache.refresh", loader,
+                                RefreshAheadCacheLoader::getRefreshCount,
+                                RefreshAheadCacheLoader::getRefreshTotalNanos, TimeUnit.NANOSECONDS)
+                        .tag("cache", cacheName)
+                        .description("Опережающие обновления записей кэша")
+                        .register(registry);
+                FunctionCounter.builder("cache.refresh.failures", loader, RefreshAheadCacheLoader::getFailureCount)
+                        .tag("cache", cacheName)
+                        .description("Неуспешные или отклоненные опережающие обновления")
+                        .register(registry);
+                Gauge.builder("cache.refresh.staleness", loader, RefreshAheadCacheLoader::getLastStalenessSeconds)
+                        .tag("cache", cacheName)
+                        .baseUnit("seconds")
+                        .description("Возраст значения, замененного последним опережающим обновлением")
+                        .register(registry);
+            }
+            Gauge.builder("cache.refresh.queue", refreshExecutor, CacheRefreshExecutor::getQueueSize)
+                    .description("Опережающие обновления, ожидающие в пуле")
+                    .register(registry);
+        };
+    }
+
+    /**
+     * Создает кэш Caffeine по заданным параметрам без опережающего обновления.
+     *
+     * @param cacheName имя кэша (для журнала)
+     * @param spec параметры кэша
+     * @return кэш Caffeine со сбором статистики
+     */
+    static Cache<Object, Object> buildCache(String cacheName, CacheSpecProperties.Spec spec) {
+        return buildCache(cacheName, spec, null, null);
+    }
+
+    /**
+     * Создает кэш Caffeine по заданным параметрам.
+     * Если передан загрузчик, записи старше refreshAfterWrite обновляются заранее в пуле refreshExecutor.
+     *
+     * @param cacheName имя кэша (для журнала)
+     * @param spec параметры кэша
+     * @param loader загрузчик опережающего обновления (может быть null)
+     * @param refreshExecutor пул опережающего обновления (используется только с загрузчиком)
+     * @return кэш Caffeine со сбором статистики
+     */
+    static Cache<Object, Object> buildCache(String cacheName, CacheSpecProperties.Spec spec,
+                                            RefreshAheadCacheLoader loader, Executor refreshExecutor) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumWeight(spec.getMaximumWeight())
+                .weigher(CacheConfig::weigh)
+                .recordStats();
+
+        if (spec.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(spec.getExpireAfterWrite());
+        }
+        if (spec.getExpireAfterAccess() != null) {
+            builder.expireAfterAccess(spec.getExpireAfterAccess());
+        }
+
+        Cache<Object, Object> cache;
+        if (loader != null) {
+            builder.refreshAfterWrite(spec.getRefreshAfterWrite()).executor(refreshExecutor);
+            cache = builder.build(loader);
+            loader.bind(cache);
+        } else {
+            cache = builder.build();
+        }
+
+        log.info("Кэш '{}' настроен: максимальный вес={}, expireAfterWrite={}, expireAfterAccess={}, refreshAfterWrite={}",
+                cacheName, spec.getMaximumWeight(), spec.getExpireAfterWrite(), spec.getExpireAfterAccess(),
+                loader != null ? spec.getRefreshAfterWrite() : null);
+        return cache;
+    }
+
+    /**
+     * Вычисляет вес записи кэша.
+     * Списки весят столько, сколько в них элементов, входящие пользователя - сколько в них
+     * открытых инцидентов и записей журнала изменений, сериализованные ответы - сколько в них
+     * полных килобайт, одиночные значения - 1.
+     *
+     * @param key ключ записи
+     * @param value значение записи
+     * @return вес записи
+     */
+    static int weigh(Object key, Object value) {
+        if (value instanceof Collection<?> collection) {
+            return Math.max(1, collection.size());
+        }
+        if (value instanceof AlertInboxService.UserInbox inbox) {
+            return Math.max(1, inbox.weight());
+        }
+        if (value instanceof JsonResponseCache.SerializedJson serialized) {
+            return Math.max(1, serialized.size() / 1024);
+        }
+        return 1;
+    }
+}
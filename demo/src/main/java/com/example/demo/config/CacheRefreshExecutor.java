@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограниченный фоновый пул для опережающего обновления кэшей.
+ * Сам не является {@link Executor}-бином, чтобы не подменять пул задач Spring Boot по умолчанию.
+ * При переполнении очереди новые обновления отклоняются, и запись обновится при следующем обращении
+ * (или загрузится заново после истечения срока жизни).
+ */
+public class CacheRefreshExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor executor;
+
+    public CacheRefreshExecutor(CacheSpecProperties.Refresh refresh) {
+        this.executor = new ThreadPoolExecutor(
+                refresh.getThreads(), refresh.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(refresh.getQueueCapacity()),
+                new CustomizableThreadFactory("cache-refresh-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Возвращает пул для передачи в Caffeine.
+     *
+     * @return пул обновления
+     */
+    public Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Возвращает число обновлений, ожидающих в очереди.
+     *
+     * @return длина очереди
+     */
+    public int getQueueSize() {
+        return executor.getQueue().size();
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.config;
+
+import java.util.function.Function;
+
+/**
+ * Загрузчик значения кэша для опережающего обновления (refresh-ahead).
+ * Вызывается в фоновом потоке незадолго до истечения срока жизни записи,
+ * к которой продолжают обращаться, и должен прочитать актуальное значение из источника данных.
+ */
+public interface CacheReloader {
+
+    /**
+     * Возвращает имя кэша, записи которого обновляет загрузчик.
+     *
+     * @return имя кэша
+     */
+    String cacheName();
+
+    /**
+     * Загружает актуальное значение для ключа кэша.
+     *
+     * @param key ключ записи кэша
+     * @return новое значение (null - удалить запись из кэша)
+     */
+    Object reload(Object key);
+
+    /**
+     * Создает загрузчик из имени кэша и функции загрузки.
+     *
+     * @param cacheName имя кэша
+     * @param loader функция загрузки значения по ключу
+     * @return загрузчик для опережающего обновления
+     */
+    static CacheReloader of(String cacheName, Function<Object, Object> loader) {
+        return new CacheReloader() {
+            @Override
+            public String cacheName() {
+                return cacheName;
+            }
+
+            @Override
+            public Object reload(Object key) {
+                return loader.apply(key);
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Класс конфигурации для настройки параметров кэшей приложения.
+ * Позволяет задать для каждого именованного кэша максимальный вес и время жизни записей
+ * из application.properties/yml файла с префиксом "cache".
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache")
+public class CacheSpecProperties {
+    private Spec defaults = new Spec();              // Параметры для кэшей без собственной настройки
+    private Map<String, Spec> specs = new LinkedHashMap<>(); // Параметры отдельных кэшей по имени
+    private Refresh refresh = new Refresh();         // Параметры пула опережающего обновления
+    private Invalidation invalidation = new Invalidation(); // Параметры межузловой инвалидации кэшей
+    private Snapshot snapshot = new Snapshot();      // Параметры снимка кэшей на диске
+
+    /**
+     * Возвращает параметры кэша по имени или параметры по умолчанию, если кэш не настроен отдельно.
+     *
+     * @param cacheName имя кэша
+     * @return параметры кэша
+     */
+    public Spec specFor(String cacheName) {
+        return specs.getOrDefault(cacheName, defaults);
+    }
+
+    /**
+     * Параметры одного кэша.
+     * Вес записи равен размеру закэшированного списка (или 1 для одиночного значения),
+     * поэтому maximumWeight ограничивает общее число объектов, удерживаемых кэшем.
+     */
+    @Data
+    public static class Spec {
+        private long maximumWeight = 10_000;    // Максимальный суммарный вес записей
+        private Duration expireAfterWrite = Duration.ofMinutes(10); // Время жизни записи после записи (null - без ограничения)
+        private Duration expireAfterAccess;     // Время жизни записи после последнего обращения (null - без ограничения)
+        private Duration refreshAfterWrite;     // Возраст записи, после которого она обновляется заранее (null - без обновления)
+    }
+
+    /**
+     * Параметры фонового пула опережающего обновления кэшей.
+     * Пул ограничен по числу потоков и длине очереди, чтобы обновления не конкурировали
+     * с обработкой запросов за соединения с базой данных.
+     */
+    @Data
+    public static class Refresh {
+        private int threads = 2;                // Число потоков обновления
+        private int queueCapacity = 100;        // Максимальное число ожидающих обновлений
+    }
+
+    /**
+     * Параметры межузловой инвалидации кэшей через PostgreSQL LISTEN/NOTIFY.
+     * Включается только при работе с PostgreSQL.
+     */
+    @Data
+    public static class Invalidation {
+        private boolean enabled = true;         // Рассылать и принимать сообщения об изменениях
+        private String channel = "cache_invalidation"; // Канал NOTIFY (имя идентификатора PostgreSQL)
+        private Duration pollTimeout = Duration.ofMillis(500); // Максимальное ожидание уведомлений за один опрос
+        private Duration reconnectDelay = Duration.ofSeconds(5); // Пауза перед переподключением слушателя и отправки
+        private int outboxCapacity = 10_000;    // Размер очереди неотправленных сообщений
+    }
+
+    /**
+     * Параметры снимка кэшей инцидентов и автобусов, сохраняемого в локальный файл.
+     * Снимок записывается периодически и при остановке, а при старте загружается,
+     * если версии данных в базе данных не изменились.
+     */
+    @Data
+    public static class Snapshot {
+        private boolean enabled = false;        // Сохранять снимок и прогревать кэши из него при старте
+        private Path file = Path.of("cache-snapshot.bin"); // Файл снимка
+        private Duration interval = Duration.ofMinutes(5); // Период записи снимка
+        private Duration listenerTimeout = Duration.ofSeconds(10); // Максимальное ожидание подключения слушателя инвалидации перед загрузкой
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш Caffeine, объединяющий одновременные загрузки одного ключа.
+ * Для методов с {@code @Cacheable(sync = true)} Spring вызывает {@link #get(Object, Callable)},
+ * а Caffeine выполняет загрузку атомарно: первый промах загружает значение из базы данных,
+ * остальные вызывающие с тем же ключом ждут завершения этой загрузки и получают ее результат.
+ * Класс дополнительно подсчитывает таких ожидающих вызывающих для метрики cache.loads.coalesced.
+ */
+public class CoalescingCaffeineCache extends CaffeineCache {
+
+    private final Set<Object> loadsInFlight = ConcurrentHashMap.newKeySet();
+    private final LongAdder coalescedLoads = new LongAdder();
+    private final RefreshAheadCacheLoader refreshLoader;
+
+    public CoalescingCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                                   RefreshAheadCacheLoader refreshLoader) {
+        super(name, cache, allowNullValues);
+        this.refreshLoader = refreshLoader;
+    }
+
+    /**
+     * Ищет значение без загрузки: кэши с опережающим обновлением построены как LoadingCache,
+     * но обычные чтения (например, при точечном обновлении списков) не должны загружать записи.
+     */
+    @Override
+    protected Object lookup(Object key) {
+        return getNativeCache().getIfPresent(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        if (loadsInFlight.contains(key)) {
+            coalescedLoads.increment(); // Загрузка уже идет - вызывающий дождется ее результата
+        }
+        return super.get(key, () -> {
+            loadsInFlight.add(key);
+            try {
+                return valueLoader.call();
+            } finally {
+                loadsInFlight.remove(key);
+            }
+        });
+    }
+
+    /**
+     * Возвращает количество вызовов, которые дождались уже выполняющейся загрузки
+     * вместо того, чтобы выполнить собственную.
+     *
+     * @return количество объединенных загрузок
+     */
+    public long getCoalescedLoads() {
+        return coalescedLoads.sum();
+    }
+
+    /**
+     * Возвращает загрузчик опережающего обновления кэша.
+     *
+     * @return загрузчик или null, если опережающее обновление для кэша не настроено
+     */
+    public RefreshAheadCacheLoader getRefreshLoader() {
+        return refreshLoader;
+    }
+}
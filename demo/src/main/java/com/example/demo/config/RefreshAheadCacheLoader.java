@@ -0,0 +1,139 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Загрузчик Caffeine для опережающего обновления записей кэша.
+ * Caffeine вызывает {@link #reload(Object, Object)} в фоновом пуле, когда к записи обращаются
+ * после истечения refreshAfterWrite; до завершения обновления вызывающие получают текущее значение,
+ * а при ошибке обновления текущее значение остается в кэше.
+ * Обычные промахи загружаются методами с {@code @Cacheable}, поэтому {@link #load(Object)}
+ * ничего не загружает.
+ * Загрузчик собирает статистику: число и длительность обновлений, число ошибок
+ * и возраст заменяемого значения.
+ */
+public class RefreshAheadCacheLoader implements CacheLoader<Object, Object> {
+    private static final Logger log = LoggerFactory.getLogger(RefreshAheadCacheLoader.class);
+
+    private final CacheReloader reloader;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder refreshNanos = new LongAdder();
+    private final AtomicLong lastStalenessMillis = new AtomicLong();
+
+    private volatile Cache<Object, Object> cache;
+
+    public RefreshAheadCacheLoader(CacheReloader reloader) {
+        this.reloader = reloader;
+    }
+
+    /**
+     * Связывает загрузчик с построенным кэшем, чтобы определять возраст обновляемых записей.
+     *
+     * @param cache кэш, записи которого обновляет загрузчик
+     */
+    void bind(Cache<Object, Object> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public Object load(Object key) {
+        return null; // Промахи загружаются через @Cacheable, загрузчик только обновляет записи
+    }
+
+    @Override
+    public Object reload(Object key, Object oldValue) {
+        recordStaleness(key);
+        long start = System.nanoTime();
+        try {
+            Object value = reloader.reload(key);
+            log.debug("Запись кэша {}[{}] обновлена заранее за {} мс",
+                    reloader.cacheName(), key, Duration.ofNanos(System.nanoTime() - start).toMillis());
+            return value;
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("Не удалось заранее обновить запись кэша {}[{}], остается текущее значение: {}",
+                    reloader.cacheName(), key, e.getMessage());
+            throw e;
+        } finally {
+            refreshes.increment();
+            refreshNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) throws Exception {
+        try {
+            return CacheLoader.super.asyncReload(key, oldValue, executor);
+        } catch (RejectedExecutionException e) {
+            failures.increment(); // Пул обновления переполнен - запись обновится при следующем обращении
+            throw e;
+        }
+    }
+
+    private void recordStaleness(Object key) {
+        Cache<Object, Object> boundCache = cache;
+        if (boundCache == null) {
+            return;
+        }
+        boundCache.policy().refreshAfterWrite()
+                .flatMap(refresh -> refresh.ageOf(key))
+                .ifPresent(age -> lastStalenessMillis.set(age.toMillis()));
+    }
+
+    /**
+     * Возвращает имя обновляемого кэша.
+     *
+     * @return имя кэша
+     */
+    public String getCacheName() {
+        return reloader.cacheName();
+    }
+
+    /**
+     * Возвращает число выполненных обновлений (успешных и неуспешных).
+     *
+     * @return число обновлений
+     */
+    public long getRefreshCount() {
+        return refreshes.sum();
+    }
+
+    /**
+     * Возвращает суммарную длительность обновлений в наносекундах.
+     *
+     * @return суммарная длительность обновлений
+     */
+    public double getRefreshTotalNanos() {
+        return refreshNanos.sum();
+    }
+
+    /**
+     * Возвращает число неуспешных или отклоненных пулом обновлений.
+     *
+     * @return число ошибок обновления
+     */
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Возвращает возраст значения, замененного последним обновлением, в секундах.
+     *
+     * @return возраст последнего обновленного значения
+     */
+    public double getLastStalenessSeconds() {
+        return lastStalenessMillis.get() / 1000.0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.demo.config;
+
+import com.example.demo.mapper.BusMapper;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+
+/**
+ * Конфигурационный класс загрузчиков опережающего обновления для часто читаемых кэшей.
+ * Загрузчики читают те же данные, что и соответствующие методы с {@code @Cacheable}
+ * (CachedAlertService.findAll, CachedAlertService.findByStatus, BusService.getAllBuses),
+ * но обращаются к репозиториям напрямую, минуя кэш. Чтение выполняется
+ * в отдельной транзакции только для чтения в фоновом потоке.
+ */
+@Configuration
+public class RefreshAheadConfig {
+
+    /**
+     * Загрузчик для кэша всех инцидентов.
+     *
+     * @param alertRepository репозиторий инцидентов
+     * @param transactionManager менеджер транзакций
+     * @return загрузчик кэша alerts
+     */
+    @Bean
+    public CacheReloader alertsReloader(AlertRepository alertRepository,
+                                        PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = readOnlyTemplate(transactionManager);
+        return CacheReloader.of("alerts", key -> readOnly.execute(
+                status -> Collections.unmodifiableList(alertRepository.findAllCached())));
+    }
+
+    /**
+     * Загрузчик для кэша инцидентов по статусу. Ключ кэша - имя статуса.
+     *
+     * @param alertRepository репозиторий инцидентов
+     * @param transactionManager менеджер транзакций
+     * @return загрузчик кэша alertsByStatus
+     */
+    @Bean
+    public CacheReloader alertsByStatusReloader(AlertRepository alertRepository,
+                                                PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = readOnlyTemplate(transactionManager);
+        return CacheReloader.of("alertsByStatus", key -> readOnly.execute(
+                status -> Collections.unmodifiableList(alertRepository.findCachedByStatus(StatusType.valueOf((String) key)))));
+    }
+
+    /**
+     * Загрузчик для кэша списка автобусов.
+     *
+     * @param busRepository репозиторий автобусов
+     * @param transactionManager менеджер транзакций
+     * @return загрузчик кэша buses
+     */
+    @Bean
+    public CacheReloader busesReloader(BusRepository busRepository,
+                                       PlatformTransactionManager transactionManager) {
+        TransactionTemplate readOnly = readOnlyTemplate(transactionManager);
+        return CacheReloader.of("buses", key -> readOnly.execute(
+                status -> busRepository.findAll().stream().map(BusMapper::toDto).toList()));
+    }
+
+    private static TransactionTemplate readOnlyTemplate(PlatformTransactionManager transactionManager) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+}
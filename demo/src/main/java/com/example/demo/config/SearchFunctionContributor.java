@@ -0,0 +1,40 @@
+package com.example.demo.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Регистрирует в Hibernate функции полнотекстового поиска, используемые в спецификациях.
+ * На PostgreSQL функция {@value #FTS_MATCH} разворачивается в сравнение tsvector с tsquery
+ * с русской морфологией, которое обслуживается GIN-индексом (см. {@link SearchIndexConfig}).
+ * На других СУБД (H2 в тестах) используется поиск подстроки без учета регистра.
+ * Подключается через META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class SearchFunctionContributor implements FunctionContributor {
+
+    /**
+     * Имя функции полнотекстового совпадения: fts_match(текст, запрос).
+     */
+    public static final String FTS_MATCH = "fts_match";
+
+    /**
+     * Конфигурация текстового поиска PostgreSQL. Должна совпадать с выражением GIN-индекса.
+     */
+    public static final String TEXT_SEARCH_CONFIG = "russian";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<Boolean> booleanType = functionContributions.getTypeConfiguration()
+                .getBasicTypeRegistry()
+                .resolve(StandardBasicTypes.BOOLEAN);
+
+        String pattern = functionContributions.getDialect() instanceof PostgreSQLDialect
+                ? "(to_tsvector('" + TEXT_SEARCH_CONFIG + "', ?1) @@ plainto_tsquery('" + TEXT_SEARCH_CONFIG + "', ?2))"
+                : "(lower(?1) like concat('%', lower(?2), '%'))";
+
+        functionContributions.getFunctionRegistry().registerPattern(FTS_MATCH, pattern, booleanType);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.demo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Конфигурационный класс для индексов текстового поиска по инцидентам.
+ * Схема создается Hibernate (ddl-auto), который не умеет создавать расширения и GIN-индексы
+ * по выражениям, поэтому при старте на PostgreSQL они создаются здесь:
+ * триграммный индекс по lower(location) для поиска подстроки (LIKE '%x%')
+ * и индекс tsvector по description для полнотекстового поиска.
+ * Индексы строятся с CONCURRENTLY вне транзакции, чтобы не блокировать запись в большую таблицу alerts.
+ * Если индексы создать не удалось (например, нет прав на CREATE EXTENSION),
+ * поиск продолжает работать, но без индексов.
+ */
+@Configuration
+public class SearchIndexConfig {
+    private static final Logger log = LoggerFactory.getLogger(SearchIndexConfig.class);
+
+    static final String CREATE_EXTENSION = "CREATE EXTENSION IF NOT EXISTS pg_trgm";
+
+    /**
+     * Индексы текстового поиска: имя индекса - определение (метод и выражение по таблице alerts).
+     */
+    static final Map<String, String> POSTGRES_INDEXES = Map.of(
+        "idx_alerts_location_trgm", "gin (lower(location) gin_trgm_ops)",
+        "idx_alerts_description_fts", "gin (to_tsvector('" + SearchFunctionContributor.TEXT_SEARCH_CONFIG
+                + "', description))"
+    );
+
+    @Value("${alerts.search.create-indexes:true}")
+    private boolean createIndexes = true;
+
+    /**
+     * Создает индексы текстового поиска, если приложение работает с PostgreSQL.
+     *
+     * @param jdbcTemplate шаблон для выполнения SQL-запросов
+     * @return CommandLineRunner для создания индексов
+     */
+    @Bean
+    CommandLineRunner searchIndexInitializer(JdbcTemplate jdbcTemplate) {
+        return args -> {
+            if (!createIndexes) {
+                log.info("Создание индексов текстового поиска отключено");
+                return;
+            }
+
+            String product = jdbcTemplate.execute(
+                    (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            if (!"PostgreSQL".equalsIgnoreCase(product)) {
+                log.info("Индексы текстового поиска не создаются для СУБД: {}", product);
+                return;
+            }
+
+            execute(jdbcTemplate, CREATE_EXTENSION);
+            POSTGRES_INDEXES.forEach((name, definition) -> createIndex(jdbcTemplate, name, definition));
+            log.info("Индексы текстового поиска по инцидентам проверены");
+        };
+    }
+
+    /**
+     * Создает индекс без блокировки записи в таблицу (CREATE INDEX CONCURRENTLY).
+     * Такой индекс нельзя создавать в транзакции, поэтому команда выполняется в режиме autocommit.
+     * Если прошлое построение было прервано, остается невалидный индекс, который IF NOT EXISTS
+     * не пересоздаст, - он удаляется и строится заново.
+     */
+    private void createIndex(JdbcTemplate jdbcTemplate, String name, String definition) {
+        List<Boolean> valid = jdbcTemplate.queryForList(
+                "SELECT i.indisvalid FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname = ?",
+                Boolean.class, name);
+        if (valid.contains(Boolean.FALSE)) {
+            log.warn("Индекс {} невалиден (построение было прервано), он будет пересоздан", name);
+            execute(jdbcTemplate, "DROP INDEX CONCURRENTLY IF EXISTS " + name);
+        }
+        execute(jdbcTemplate, "CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON alerts USING " + definition);
+    }
+
+    private void execute(JdbcTemplate jdbcTemplate, String statement) {
+        try {
+            jdbcTemplate.execute(statement);
+        } catch (DataAccessException e) {
+            log.warn("Не удалось выполнить '{}': {}. Поиск будет работать без индекса",
+                    statement, e.getMostSpecificCause().getMessage());
+        }
+    }
+}
@@ -1,15 +1,24 @@
 package com.example.demo.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
  * Конфигурационный класс для управления транзакциями в приложении.
  * Включает поддержку аннотаций @Transactional для управления транзакциями.
+ * Порядок транзакционного перехватчика задан явно: он выполняется внутри перехватчика кэша
+ * (см. {@link CacheConfig}), поэтому ответ из кэша возвращается до открытия транзакции
+ * и получения JDBC-соединения из пула.
  */
 @Configuration
-@EnableTransactionManagement
+@EnableTransactionManagement(order = TransactionConfig.TRANSACTION_ADVISOR_ORDER)
 public class TransactionConfig {
     // Управление транзакциями включается автоматически в Spring Boot
-    // Этот класс конфигурации явно включает его для ясности
+    // Этот класс конфигурации явно включает его для ясности и задает порядок перехватчика
+
+    /**
+     * Порядок транзакционного перехватчика среди AOP-советников.
+     */
+    public static final int TRANSACTION_ADVISOR_ORDER = Ordered.LOWEST_PRECEDENCE - 10;
 }
\ No newline at end of file
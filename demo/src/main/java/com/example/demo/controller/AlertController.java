@@ -1,19 +1,36 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AlertInbox;
+import com.example.demo.dto.AlertPage;
+import com.example.demo.dto.AlertSearchCriteria;
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.AlertTextSearchPage;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.mapper.AlertMapper;
 import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
 import com.example.demo.model.StatusType;
+import com.example.demo.service.AlertInboxService;
 import com.example.demo.service.CachedAlertService;
+import com.example.demo.service.DataVersionTracker;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.net.URI;
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,34 +47,148 @@ public class AlertController {
     private static final Logger log = LoggerFactory.getLogger(AlertController.class);
 
     private final CachedAlertService alertService;
+    private final DataVersionTracker dataVersions;
+    private final JsonResponseCache jsonResponses;
+    private final AlertInboxService inboxService;
 
-    public AlertController(CachedAlertService alertService) {
+    public AlertController(CachedAlertService alertService, DataVersionTracker dataVersions,
+                           JsonResponseCache jsonResponses, AlertInboxService inboxService) {
         this.alertService = alertService;
+        this.dataVersions = dataVersions;
+        this.jsonResponses = jsonResponses;
+        this.inboxService = inboxService;
     }
 
     /**
      * Получает список всех инцидентов с возможностью фильтрации по статусу.
+     * Инциденты возвращаются в облегченном представлении (без описания и пути к файлу).
+     * Ответ содержит ETag версии данных; при совпадении If-None-Match возвращается 304.
+     * Готовый JSON берется из {@link JsonResponseCache}, пока список в кэше сервиса не изменился.
      * Доступно пользователям с ролью USER, ADMIN или MANAGER.
      *
      * @param status статус инцидентов для фильтрации (опционально)
-     * @return список инцидентов
+     * @param request текущий запрос (для проверки If-None-Match и Accept-Encoding)
+     * @return JSON со списком инцидентов или null, если ответ 304 уже сформирован
      */
     @Operation(summary = "Получить все инциденты", description = "Получает список всех инцидентов с возможностью фильтрации по статусу")
+    @ApiResponse(responseCode = "200", description = "Список инцидентов",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = AlertSummary.class))))
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
-    public List<Alert> getAllAlerts(@RequestParam(required = false) StatusType status) {
+    public ResponseEntity<byte[]> getAllAlerts(@RequestParam(required = false) StatusType status,
+                                               ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(DataVersionTracker.DataSet.ALERTS))) {
+            log.debug("Список инцидентов не изменился, ответ 304");
+            return null;
+        }
         log.debug("Получение всех инцидентов, фильтр по статусу: {}", status != null ? status : "нет");
 
-        List<Alert> alerts;
         if (status != null) {
-            alerts = alertService.findByStatus(status);
+            List<CachedAlert> alerts = alertService.findByStatus(status);
             log.info("Получено {} инцидентов со статусом: {}", alerts.size(), status);
-        } else {
-            alerts = alertService.findAll();
-            log.info("Получено {} инцидентов", alerts.size());
+            return jsonResponses.respond("alertsByStatus:" + status.name(), alerts, AlertMapper::toSummaries, request);
         }
+        List<CachedAlert> alerts = alertService.findAll();
+        log.info("Получено {} инцидентов", alerts.size());
+        return jsonResponses.respond("alerts", alerts, AlertMapper::toSummaries, request);
+    }
+
+    /**
+     * Получает страницу инцидентов с курсорной пагинацией.
+     * Инциденты сортируются по времени и ID; для получения следующей страницы
+     * нужно передать курсор nextCursor из предыдущего ответа.
+     * Доступно пользователям с ролью USER, ADMIN или MANAGER.
+     *
+     * @param status статус инцидентов для фильтрации (опционально)
+     * @param busId ID автобуса для фильтрации (опционально)
+     * @param location часть местоположения для фильтрации (опционально)
+     * @param cursor курсор следующей страницы (опционально)
+     * @param size размер страницы (опционально)
+     * @param direction направление сортировки по времени: asc или desc (по умолчанию desc)
+     * @return страница инцидентов
+     */
+    @Operation(summary = "Получить страницу инцидентов", description = "Получает инциденты постранично с курсорной пагинацией и фильтрами")
+    @GetMapping("/page")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
+    public AlertPage getAlertsPage(@RequestParam(required = false) StatusType status,
+                                   @RequestParam(required = false) Long busId,
+                                   @RequestParam(required = false) String location,
+                                   @RequestParam(required = false) String cursor,
+                                   @RequestParam(required = false) Integer size,
+                                   @RequestParam(defaultValue = "desc") String direction) {
+        log.debug("Получение страницы инцидентов: статус={}, автобус={}, размер={}, направление={}",
+                 status, busId, size, direction);
+
+        AlertPage page = alertService.findPage(status, busId, location, cursor, size, direction);
+        log.info("Возвращена страница из {} инцидентов", page.items().size());
+
+        return page;
+    }
+
+    /**
+     * Ищет инциденты по нескольким критериям одновременно с курсорной пагинацией.
+     * Все критерии необязательны и объединяются через И.
+     * Доступно пользователям с ролью USER, ADMIN или MANAGER.
+     *
+     * @param status статус инцидентов (опционально)
+     * @param type тип инцидентов (опционально)
+     * @param busId ID автобуса (опционально)
+     * @param assignedToUserId ID назначенного пользователя (опционально)
+     * @param from начало временного диапазона, включительно (опционально)
+     * @param to конец временного диапазона, не включительно (опционально)
+     * @param location часть местоположения (опционально)
+     * @param q полнотекстовый запрос по описанию (опционально)
+     * @param cursor курсор следующей страницы (опционально)
+     * @param size размер страницы (опционально)
+     * @param direction направление сортировки по времени: asc или desc (по умолчанию desc)
+     * @return страница найденных инцидентов
+     */
+    @Operation(summary = "Поиск инцидентов", description = "Ищет инциденты по статусу, типу, автобусу, пользователю, времени, местоположению и описанию")
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
+    public AlertPage searchAlerts(@RequestParam(required = false) StatusType status,
+                                  @RequestParam(required = false) EventType type,
+                                  @RequestParam(required = false) Long busId,
+                                  @RequestParam(required = false) Long assignedToUserId,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                  @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                  @RequestParam(required = false) String location,
+                                  @RequestParam(required = false) String q,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer size,
+                                  @RequestParam(defaultValue = "desc") String direction) {
+        AlertSearchCriteria criteria = new AlertSearchCriteria(status, type, busId, assignedToUserId, from, to, location, q);
+        log.debug("Поиск инцидентов: {}, размер={}, направление={}", criteria, size, direction);
+
+        AlertPage page = alertService.search(criteria, cursor, size, direction);
+        log.info("Найдено {} инцидентов на странице", page.items().size());
 
-        return alerts;
+        return page;
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск инцидентов по описанию.
+     * Результаты упорядочены по релевантности и разбиты на страницы.
+     * Доступно пользователям с ролью USER, ADMIN или MANAGER.
+     *
+     * @param q поисковый запрос
+     * @param page номер страницы с нуля (опционально)
+     * @param size размер страницы (опционально)
+     * @return страница найденных инцидентов
+     */
+    @Operation(summary = "Полнотекстовый поиск инцидентов", description = "Ищет инциденты по описанию с учетом словоформ и ранжированием по релевантности")
+    @GetMapping("/search/text")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
+    public AlertTextSearchPage searchAlertsText(@RequestParam String q,
+                                                @RequestParam(required = false) Integer page,
+                                                @RequestParam(required = false) Integer size) {
+        log.debug("Полнотекстовый поиск инцидентов: запрос='{}', страница={}, размер={}", q, page, size);
+
+        AlertTextSearchPage result = alertService.searchText(q, page, size);
+        log.debug("Найдено {} инцидентов по полнотекстовому запросу", result.items().size());
+
+        return result;
     }
 
     /**
@@ -86,30 +217,68 @@ public class AlertController {
 
     /**
      * Получает список инцидентов по ID автобуса.
+     * Ответ содержит ETag версии данных; при совпадении If-None-Match возвращается 304.
      * Доступно пользователям с ролью USER, ADMIN или MANAGER.
      *
      * @param busId ID автобуса
-     * @return список инцидентов для указанного автобуса
+     * @param request текущий запрос (для проверки If-None-Match)
+     * @return список инцидентов для указанного автобуса или null, если ответ 304 уже сформирован
      */
     @Operation(summary = "Получить инциденты по автобусу", description = "Получает список инцидентов по ID автобуса")
     @GetMapping("/bus/{busId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
-    public List<Alert> getAlertsByBus(@PathVariable Long busId) {
-        return alertService.findByBusId(busId); // Метод есть в CachedAlertService
+    public List<AlertSummary> getAlertsByBus(@PathVariable Long busId, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(DataVersionTracker.DataSet.ALERTS))) {
+            return null;
+        }
+        return AlertMapper.toSummaries(alertService.findByBusId(busId));
     }
 
     /**
      * Получает список инцидентов, назначенных пользователю.
+     * Ответ содержит ETag версии данных; при совпадении If-None-Match возвращается 304.
      * Доступно пользователям с ролью USER, ADMIN или MANAGER.
      *
      * @param userId ID пользователя
-     * @return список инцидентов, назначенных пользователю
+     * @param request текущий запрос (для проверки If-None-Match)
+     * @return список инцидентов, назначенных пользователю, или null, если ответ 304 уже сформирован
      */
     @Operation(summary = "Получить инциденты по пользователю", description = "Получает список инцидентов, назначенных пользователю")
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
-    public List<Alert> getAlertsByUser(@PathVariable Long userId) {
-        return alertService.findByAssignedToUserId(userId);
+    public List<AlertSummary> getAlertsByUser(@PathVariable Long userId, ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(DataVersionTracker.DataSet.ALERTS))) {
+            return null;
+        }
+        return AlertMapper.toSummaries(alertService.findByAssignedToUserId(userId));
+    }
+
+    /**
+     * Получает входящие пользователя: открытые назначенные ему инциденты по убыванию приоритета и возрасту.
+     * Входящие хранятся в памяти и обновляются по изменениям инцидентов, поэтому запрос не обращается
+     * к базе данных. Если передана версия из предыдущего ответа, возвращаются только изменения после нее;
+     * если версия устарела, возвращается полный список. Ответ содержит ETag версии входящих;
+     * при совпадении If-None-Match возвращается 304.
+     * Доступно пользователям с ролью USER, ADMIN или MANAGER.
+     *
+     * @param userId ID пользователя
+     * @param since версия из предыдущего ответа (опционально)
+     * @param request текущий запрос (для проверки If-None-Match)
+     * @return входящие пользователя или null, если ответ 304 уже сформирован
+     */
+    @Operation(summary = "Получить входящие пользователя", description = "Получает открытые инциденты пользователя целиком или изменения после версии")
+    @GetMapping("/user/{userId}/inbox")
+    @PreAuthorize("hasAnyRole('USER', 'ADMIN', 'MANAGER')")
+    public AlertInbox getUserInbox(@PathVariable Long userId,
+                                   @RequestParam(required = false) String since,
+                                   ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, inboxService.etag(userId))) {
+            return null;
+        }
+        AlertInbox inbox = inboxService.inbox(userId, since);
+        log.debug("Входящие пользователя {}: версия={}, полный ответ={}, изменено={}, удалено={}",
+                userId, inbox.version(), inbox.full(), inbox.items().size(), inbox.removedIds().size());
+        return inbox;
     }
 
     /**
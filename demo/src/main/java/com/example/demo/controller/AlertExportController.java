@@ -0,0 +1,62 @@
+package com.example.demo.controller;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.example.demo.service.AlertExportService;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Контроллер для потоковой выгрузки инцидентов во внешние системы (BI и т.п.).
+ * Отдает всю историю инцидентов по мере чтения из базы данных, не собирая ее в памяти.
+ */
+@Tag(name = "Выгрузка инцидентов", description = "API для потоковой выгрузки истории инцидентов")
+@RestController
+@RequestMapping("/api/alerts")
+@RequiredArgsConstructor
+public class AlertExportController {
+    private static final Logger log = LoggerFactory.getLogger(AlertExportController.class);
+
+    /**
+     * Тип содержимого NDJSON (один JSON-объект на строку).
+     */
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+
+    private final AlertExportService alertExportService;
+
+    /**
+     * Выгружает все инциденты в формате NDJSON.
+     * Ответ передается частями (chunked) по мере чтения строк из курсора базы данных.
+     * Доступно пользователям с ролью ADMIN или MANAGER.
+     *
+     * @return потоковое тело ответа с инцидентами
+     */
+    @Operation(summary = "Потоковая выгрузка инцидентов",
+               description = "Выгружает всю историю инцидентов в формате NDJSON, читая данные курсором базы данных")
+    @GetMapping(value = "/export", produces = APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<StreamingResponseBody> exportAlerts() {
+        log.info("Запрос потоковой выгрузки инцидентов");
+
+        StreamingResponseBody body = out -> {
+            long exported = alertExportService.exportNdjson(out);
+            log.info("Потоковая выгрузка отправлена клиенту: {} инцидентов", exported);
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=alerts.ndjson")
+                .contentType(MediaType.parseMediaType(APPLICATION_NDJSON_VALUE))
+                .body(body);
+    }
+}
@@ -2,7 +2,12 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.BusDto;
 import com.example.demo.service.BusService;
+import com.example.demo.service.DataVersionTracker;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -10,6 +15,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.net.URI;
 import java.util.List;
@@ -26,21 +32,33 @@ import java.util.List;
 public class BusController {
 
     private final BusService busService;
+    private final DataVersionTracker dataVersions;
+    private final JsonResponseCache jsonResponses;
 
     /**
      * Получает список всех автобусов.
+     * Ответ содержит ETag версии данных; при совпадении If-None-Match возвращается 304.
+     * Готовый JSON берется из {@link JsonResponseCache}, пока список в кэше сервиса не изменился.
      * Доступно пользователям с ролью USER, MANAGER или ADMIN.
      *
-     * @return список автобусов
+     * @param request текущий запрос (для проверки If-None-Match и Accept-Encoding)
+     * @return JSON со списком автобусов или null, если ответ 304 уже сформирован
      */
     @Operation(summary = "Получить список всех автобусов")
+    @ApiResponse(responseCode = "200", description = "Список автобусов",
+            content = @Content(mediaType = "application/json",
+                    array = @ArraySchema(schema = @Schema(implementation = BusDto.class))))
     @GetMapping
     @PreAuthorize("hasAnyRole('USER', 'MANAGER', 'ADMIN')")
-    public ResponseEntity<List<BusDto>> getAllBuses() {
+    public ResponseEntity<byte[]> getAllBuses(ServletWebRequest request) {
+        if (ConditionalRequests.notModified(request, dataVersions.etag(DataVersionTracker.DataSet.BUSES))) {
+            log.debug("GET /api/buses - список автобусов не изменился, ответ 304");
+            return null;
+        }
         log.debug("GET /api/buses - получение всех автобусов");
         List<BusDto> buses = busService.getAllBuses();
         log.info("Возвращено {} автобусов", buses.size());
-        return ResponseEntity.ok(buses);
+        return jsonResponses.respond("buses", buses, request);
     }
 
     /**
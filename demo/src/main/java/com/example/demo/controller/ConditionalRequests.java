@@ -0,0 +1,35 @@
+package com.example.demo.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Вспомогательный класс для условных GET-запросов по ETag.
+ * Проверка выполняется до обращения к сервису, поэтому при совпадении If-None-Match
+ * ответ 304 формируется без чтения кэша, базы данных и сериализации JSON.
+ */
+final class ConditionalRequests {
+
+    /**
+     * Клиенты должны перепроверять ответ при каждом запросе; ответы содержат данные пользователя.
+     */
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ConditionalRequests() {
+    }
+
+    /**
+     * Проверяет заголовок If-None-Match и выставляет ETag и Cache-Control для ответа.
+     *
+     * @param request текущий запрос
+     * @param etag строгий ETag текущей версии данных
+     * @return true, если данные у клиента актуальны и ответ 304 уже сформирован
+     */
+    static boolean notModified(ServletWebRequest request, String etag) {
+        if (request.getResponse() != null) {
+            request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        }
+        return request.checkNotModified(etag);
+    }
+}
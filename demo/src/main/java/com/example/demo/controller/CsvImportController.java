@@ -1,16 +1,26 @@
 package com.example.demo.controller;
 
+import java.net.URI;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.dto.CsvImportJobStatus;
 import com.example.demo.dto.CsvImportResult;
+import com.example.demo.service.CsvImportJobService;
 import com.example.demo.service.CsvImportService;
 
 import io.swagger.v3.oas.annotations.Operation;
@@ -30,6 +40,7 @@ public class CsvImportController {
     private static final Logger log = LoggerFactory.getLogger(CsvImportController.class);
 
     private final CsvImportService csvImportService;
+    private final CsvImportJobService csvImportJobService;
 
     /**
      * Импортирует инциденты из CSV-файла.
@@ -42,36 +53,144 @@ public class CsvImportController {
     @PostMapping(value = "/import-csv", consumes = "multipart/form-data")
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<CsvImportResult> importCsv(@Parameter(description = "CSV-файл для импорта") @RequestParam("file") MultipartFile file) {
+        return importFile(file, csvImportService::importAlertsFromCsv);
+    }
+
+    /**
+     * Загружает инциденты из большого CSV-файла командой PostgreSQL COPY (ночные загрузки из систем депо).
+     * Строки проверяются так же, как при обычном импорте, но сохраняются одной транзакцией:
+     * при ошибке загрузки не сохраняется ни один инцидент.
+     * Доступно пользователям с ролью ADMIN.
+     *
+     * @param file CSV-файл для загрузки
+     * @return результат загрузки с информацией об успешных и неудачных операциях
+     */
+    @Operation(summary = "Массовая загрузка инцидентов из CSV",
+            description = "Загружает инциденты из большого CSV-файла командой COPY одной транзакцией")
+    @PostMapping(value = "/import-csv/copy", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<CsvImportResult> copyCsv(@Parameter(description = "CSV-файл для загрузки") @RequestParam("file") MultipartFile file) {
+        return importFile(file, csvImportService::copyAlertsFromCsv);
+    }
+
+    /**
+     * Ставит в очередь фоновое задание импорта инцидентов из CSV-файла.
+     * Файл сохраняется на диск, ход задания запрашивается по адресу из заголовка Location.
+     * Доступно пользователям с ролью ADMIN или MANAGER.
+     *
+     * @param file CSV-файл для импорта
+     * @return состояние задания (202), 400 для некорректного файла или 503, если очередь заданий заполнена
+     */
+    @Operation(summary = "Фоновый импорт инцидентов из CSV",
+            description = "Ставит в очередь задание импорта из CSV-файла и сразу возвращает его состояние")
+    @PostMapping(value = "/import-jobs", consumes = "multipart/form-data")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> submitImportJob(@Parameter(description = "CSV-файл для импорта") @RequestParam("file") MultipartFile file) {
+        return submitJob(file, CsvImportService.ImportMode.BATCH);
+    }
+
+    /**
+     * Ставит в очередь фоновое задание загрузки инцидентов из CSV-файла командой PostgreSQL COPY.
+     * Доступно пользователям с ролью ADMIN.
+     *
+     * @param file CSV-файл для загрузки
+     * @return состояние задания (202), 400 для некорректного файла или 503, если очередь заданий заполнена
+     */
+    @Operation(summary = "Фоновая массовая загрузка инцидентов из CSV",
+            description = "Ставит в очередь задание загрузки из CSV-файла командой COPY")
+    @PostMapping(value = "/import-jobs/copy", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> submitCopyJob(@Parameter(description = "CSV-файл для загрузки") @RequestParam("file") MultipartFile file) {
+        return submitJob(file, CsvImportService.ImportMode.COPY);
+    }
+
+    /**
+     * Возвращает состояние задания импорта: обработанные, сохраненные и ошибочные записи и скорость.
+     *
+     * @param id ID задания
+     * @return состояние задания или 404, если задание не найдено
+     */
+    @Operation(summary = "Состояние задания импорта", description = "Возвращает ход фонового задания импорта")
+    @GetMapping("/import-jobs/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CsvImportJobStatus> getImportJob(@PathVariable String id) {
+        return csvImportJobService.status(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Возвращает результат завершенного задания импорта.
+     *
+     * @param id ID задания
+     * @return результат импорта, 404, если задание не найдено, или 409, если задание еще выполняется
+     */
+    @Operation(summary = "Результат задания импорта", description = "Возвращает результат завершенного задания импорта")
+    @GetMapping("/import-jobs/{id}/result")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CsvImportResult> getImportJobResult(@PathVariable String id) {
+        CsvImportJobStatus status = csvImportJobService.status(id).orElse(null);
+        if (status == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!status.state().isFinished()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        return ResponseEntity.ok(csvImportJobService.result(id).orElseGet(CsvImportResult::new));
+    }
+
+    /**
+     * Отменяет задание импорта. При пакетной вставке остаются порции, зафиксированные до отмены,
+     * загрузка COPY откатывается целиком.
+     *
+     * @param id ID задания
+     * @return состояние задания или 404, если задание не найдено
+     */
+    @Operation(summary = "Отмена задания импорта", description = "Отменяет фоновое задание импорта")
+    @DeleteMapping("/import-jobs/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<CsvImportJobStatus> cancelImportJob(@PathVariable String id) {
+        return csvImportJobService.cancel(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<?> submitJob(MultipartFile file, CsvImportService.ImportMode mode) {
+        log.info("Запрос фонового импорта CSV - имя файла: {}, размер: {} байт, способ: {}",
+                file.getOriginalFilename(), file.getSize(), mode);
+
+        ResponseEntity<CsvImportResult> invalid = validateFile(file);
+        if (invalid != null) {
+            return invalid;
+        }
+        try {
+            CsvImportJobStatus status = csvImportJobService.submit(file, mode);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/alerts/import-jobs/" + status.id()))
+                    .body(status);
+        } catch (RejectedExecutionException e) {
+            log.warn("Фоновый импорт CSV отклонен: очередь заданий заполнена");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResult("Очередь заданий импорта заполнена, повторите позже"));
+        } catch (Exception e) {
+            log.error("Ошибка постановки задания импорта CSV: {}", e.getMessage(), e);
+            return ResponseEntity.badRequest().body(errorResult("Ошибка обработки файла: " + e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<CsvImportResult> importFile(MultipartFile file, Function<MultipartFile, CsvImportResult> importer) {
         log.info("Запрос импорта CSV - имя файла: {}, размер: {} байт",
                 file.getOriginalFilename(), file.getSize());
 
         try {
-            if (file.isEmpty()) {
-                log.warn("Импорт CSV не удался: файл пустой");
-                CsvImportResult emptyResult = new CsvImportResult();
-                emptyResult.setSuccessCount(0);
-                emptyResult.setFailedCount(0);
-                emptyResult.setErrors(java.util.List.of("Файл пустой"));
-                return ResponseEntity.badRequest().body(emptyResult);
-            }
-
-            String contentType = file.getContentType();
-            if (contentType == null ||
-                (!contentType.equals("text/csv") &&
-                 !contentType.equals("application/vnd.ms-excel") &&
-                 !file.getOriginalFilename().toLowerCase().endsWith(".csv"))) {
-                log.warn("Импорт CSV не удался: неверный тип файла - {}", contentType);
-                CsvImportResult invalidResult = new CsvImportResult();
-                invalidResult.setSuccessCount(0);
-                invalidResult.setFailedCount(0);
-                invalidResult.setErrors(java.util.List.of("Файл должен быть в формате CSV"));
-                return ResponseEntity.badRequest().body(invalidResult);
+            ResponseEntity<CsvImportResult> invalid = validateFile(file);
+            if (invalid != null) {
+                return invalid;
             }
 
-            CsvImportResult result = csvImportService.importAlertsFromCsv(file);
+            CsvImportResult result = importer.apply(file);
 
             log.info("Импорт CSV завершен - успешно: {}, неудачно: {}, ошибок: {}",
-                    result.getSuccessCount(), result.getFailedCount(), result.getErrors().size());
+                    result.getSuccessCount(), result.getFailedCount(), result.getErrorCount());
 
             if (result.hasError()) {
                 log.warn("Импорт CSV завершен с ошибками: {}", result.getErrors());
@@ -81,11 +200,37 @@ public class CsvImportController {
 
         } catch (Exception e) {
             log.error("Ошибка импорта CSV: {}", e.getMessage(), e);
-            CsvImportResult errorResult = new CsvImportResult();
-            errorResult.setSuccessCount(0);
-            errorResult.setFailedCount(0);
-            errorResult.setErrors(java.util.List.of("Ошибка обработки файла: " + e.getMessage()));
-            return ResponseEntity.badRequest().body(errorResult);
+            return ResponseEntity.badRequest().body(errorResult("Ошибка обработки файла: " + e.getMessage()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Проверяет, что файл не пустой и имеет формат CSV.
+     *
+     * @return ответ 400 с описанием ошибки или null, если файл корректный
+     */
+    private ResponseEntity<CsvImportResult> validateFile(MultipartFile file) {
+        if (file.isEmpty()) {
+            log.warn("Импорт CSV не удался: файл пустой");
+            return ResponseEntity.badRequest().body(errorResult("Файл пустой"));
+        }
+
+        String contentType = file.getContentType();
+        if (contentType == null ||
+            (!contentType.equals("text/csv") &&
+             !contentType.equals("application/vnd.ms-excel") &&
+             !file.getOriginalFilename().toLowerCase().endsWith(".csv"))) {
+            log.warn("Импорт CSV не удался: неверный тип файла - {}", contentType);
+            return ResponseEntity.badRequest().body(errorResult("Файл должен быть в формате CSV"));
+        }
+        return null;
+    }
+
+    private static CsvImportResult errorResult(String error) {
+        CsvImportResult result = new CsvImportResult();
+        result.setSuccessCount(0);
+        result.setFailedCount(0);
+        result.setErrors(java.util.List.of(error));
+        return result;
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.demo.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш сериализованных JSON-ответов часто опрашиваемых списочных эндпоинтов.
+ * Хранит для ключа ответа готовые байты JSON (и, если включено, их gzip-версию),
+ * поэтому при попадании ответ пишется в поток как есть, без повторной сериализации Jackson.
+ * Запись кэша привязана к экземпляру списка из кэша сервиса, по которому она построена:
+ * кэши сервисов при изменениях заменяют списки новыми (см. AlertCacheMaintainer),
+ * поэтому замена, вытеснение или обновление списка сразу делают байты неактуальными.
+ * Список хранится по слабой ссылке: запись ответа не удерживает в памяти список,
+ * уже вытесненный из кэша сервиса, и вес кэша ответов определяется только размером байтов.
+ */
+@Component
+public class JsonResponseCache {
+    private static final Logger log = LoggerFactory.getLogger(JsonResponseCache.class);
+
+    /**
+     * Имя кэша сериализованных ответов.
+     */
+    public static final String CACHE_NAME = "jsonResponses";
+
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${response-cache.gzip:true}")
+    private boolean gzipEnabled = true;
+
+    @Value("${response-cache.gzip-min-bytes:2048}")
+    private int gzipMinBytes = 2048;
+
+    public JsonResponseCache(CacheManager cacheManager, ObjectMapper objectMapper) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Сериализованный ответ.
+     *
+     * @param source слабая ссылка на значение кэша сервиса, из которого построен ответ
+     * @param json байты JSON
+     * @param gzip сжатые байты JSON (null, если сжатие отключено или ответ слишком мал)
+     */
+    public record SerializedJson(WeakReference<Object> source, byte[] json, byte[] gzip) {
+
+        /**
+         * Проверяет, что ответ построен по этому же экземпляру значения кэша сервиса.
+         *
+         * @param value текущее значение из кэша сервиса
+         * @return true, если байты актуальны
+         */
+        public boolean builtFrom(Object value) {
+            return source.get() == value;
+        }
+
+        /**
+         * Возвращает размер записи в байтах (для веса записи в кэше).
+         *
+         * @return суммарный размер JSON и его сжатой версии
+         */
+        public int size() {
+            return json.length + (gzip != null ? gzip.length : 0);
+        }
+    }
+
+    /**
+     * Формирует ответ из закэшированных байтов JSON.
+     * Если запись отсутствует или построена по другому экземпляру списка, список сериализуется заново.
+     * Сжатая версия отдается клиентам, передавшим Accept-Encoding: gzip.
+     *
+     * @param key ключ ответа (например, "alerts" или "alertsByStatus:NEW")
+     * @param body текущий список из кэша сервиса
+     * @param request текущий запрос
+     * @return ответ с байтами JSON
+     */
+    public ResponseEntity<byte[]> respond(String key, Object body, ServletWebRequest request) {
+        return respond(key, body, Function.identity(), request);
+    }
+
+    /**
+     * Формирует ответ из закэшированных байтов JSON для значения кэша сервиса,
+     * которое перед сериализацией преобразуется в представление API.
+     * Преобразование выполняется только при сериализации, а не при каждом запросе.
+     *
+     * @param key ключ ответа (например, "alerts" или "alertsByStatus:NEW")
+     * @param source текущее значение из кэша сервиса
+     * @param toBody преобразование значения кэша в тело ответа
+     * @param request текущий запрос
+     * @param <S> тип значения кэша сервиса
+     * @return ответ с байтами JSON
+     */
+    public <S> ResponseEntity<byte[]> respond(String key, S source, Function<? super S, ?> toBody,
+                                              ServletWebRequest request) {
+        SerializedJson serialized = serialized(key, source, toBody);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (serialized.gzip() != null && acceptsGzip(request)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serialized.gzip());
+        }
+        return response.body(serialized.json());
+    }
+
+    /**
+     * Возвращает сериализованный ответ для значения кэша сервиса, при необходимости сериализуя его.
+     *
+     * @param key ключ ответа
+     * @param source текущее значение из кэша сервиса
+     * @param toBody преобразование значения кэша в тело ответа
+     * @param <S> тип значения кэша сервиса
+     * @return сериализованный ответ
+     */
+    <S> SerializedJson serialized(String key, S source, Function<? super S, ?> toBody) {
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        Cache.ValueWrapper wrapper = cache != null ? cache.get(key) : null;
+        if (wrapper != null && wrapper.get() instanceof SerializedJson cached && cached.builtFrom(source)) {
+            return cached; // Список в кэше сервиса не менялся - байты актуальны
+        }
+
+        SerializedJson serialized = serialize(source, toBody.apply(source));
+        if (cache != null) {
+            cache.put(key, serialized);
+        }
+        log.debug("Ответ '{}' сериализован: {} байт JSON, {} байт gzip", key, serialized.json().length,
+                serialized.gzip() != null ? serialized.gzip().length : 0);
+        return serialized;
+    }
+
+    private SerializedJson serialize(Object source, Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            byte[] gzip = gzipEnabled && json.length >= gzipMinBytes ? gzip(json) : null;
+            return new SerializedJson(new WeakReference<>(source), json, gzip);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ в JSON", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Проверяет, что клиент принимает gzip: кодировка gzip (или «*», если gzip не указан явно)
+     * перечислена в Accept-Encoding с ненулевым весом q.
+     */
+    static boolean acceptsGzip(ServletWebRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase();
+            if (name.equals("gzip")) {
+                return quality(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = quality(parts) > 0;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.demo.dto;
+
+import com.example.demo.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Курсор для постраничного получения инцидентов.
+ * Указывает на последний инцидент предыдущей страницы по ключу (timestamp, id).
+ * Клиенту передается в виде непрозрачной строки, которую нужно вернуть без изменений.
+ *
+ * @param timestamp время последнего инцидента на странице
+ * @param id ID последнего инцидента на странице
+ */
+public record AlertCursor(LocalDateTime timestamp, Long id) {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+
+    /**
+     * Кодирует курсор в непрозрачную строку.
+     *
+     * @return строка курсора (Base64 URL без дополнения)
+     */
+    public String encode() {
+        String raw = VERSION + SEPARATOR + timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Декодирует курсор из строки, полученной от клиента.
+     *
+     * @param token строка курсора
+     * @return курсор
+     * @throws InvalidPageRequestException если строка не является корректным курсором
+     */
+    public static AlertCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3 || !VERSION.equals(parts[0])) {
+                throw new InvalidPageRequestException("Некорректный курсор страницы");
+            }
+            return new AlertCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidPageRequestException("Некорректный курсор страницы");
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * DTO для входящих инцидентов пользователя: открытых (не решенных) инцидентов, назначенных ему.
+ * Полный ответ содержит все открытые инциденты, ответ с изменениями - только инциденты,
+ * изменившиеся после переданной клиентом версии, и ID инцидентов, покинувших список.
+ *
+ * @param version версия списка, которую клиент передает в следующем запросе
+ * @param full признак полного ответа (клиент должен заменить свой список целиком)
+ * @param items открытые инциденты по убыванию приоритета и возрасту (в ответе с изменениями - только измененные)
+ * @param removedIds ID инцидентов, которые решены или переназначены другому пользователю
+ */
+public record AlertInbox(
+    String version,
+    boolean full,
+    List<AlertSummary> items,
+    List<Long> removedIds
+) {}
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import java.util.List;
+
+/**
+ * DTO для страницы инцидентов при курсорной пагинации.
+ *
+ * @param items инциденты текущей страницы в облегченном представлении
+ * @param nextCursor курсор для получения следующей страницы (null, если страница последняя)
+ * @param hasNext признак наличия следующей страницы
+ */
+public record AlertPage(
+    List<AlertSummary> items,
+    String nextCursor,
+    boolean hasNext
+) {}
@@ -0,0 +1,30 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Критерии поиска инцидентов.
+ * Все поля необязательны; незаданные критерии в поиске не участвуют.
+ *
+ * @param status статус инцидента
+ * @param type тип инцидента
+ * @param busId ID автобуса
+ * @param assignedToUserId ID назначенного пользователя
+ * @param from начало временного диапазона (включительно)
+ * @param to конец временного диапазона (не включительно)
+ * @param location часть местоположения
+ * @param text полнотекстовый запрос по описанию
+ */
+public record AlertSearchCriteria(
+    StatusType status,
+    EventType type,
+    Long busId,
+    Long assignedToUserId,
+    LocalDateTime from,
+    LocalDateTime to,
+    String location,
+    String text
+) {}
@@ -0,0 +1,106 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Сводная статистика по инцидентам за период: общее количество и распределения
+ * по статусам, типам, автобусам, а также самые частые местоположения.
+ * Распределения содержат только ненулевые значения.
+ *
+ * @param total общее количество инцидентов
+ * @param byStatus количество инцидентов по статусам
+ * @param byType количество инцидентов по типам
+ * @param byBus количество инцидентов по ID автобусов
+ * @param topLocations самые частые местоположения по убыванию количества
+ */
+public record AlertStatistics(long total, Map<StatusType, Long> byStatus, Map<EventType, Long> byType,
+                              Map<Long, Long> byBus, Map<String, Long> topLocations) {
+
+    /**
+     * Число местоположений в {@link #topLocations()}.
+     */
+    public static final int TOP_LOCATIONS = 10;
+
+    /**
+     * Подсчитывает статистику по загруженному списку инцидентов.
+     *
+     * @param alerts инциденты
+     * @return статистика
+     */
+    public static AlertStatistics of(Collection<Alert> alerts) {
+        Map<StatusType, Long> byStatus = alerts.stream()
+                .map(Alert::getStatus)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(status -> status, () -> new EnumMap<>(StatusType.class),
+                        Collectors.counting()));
+        Map<EventType, Long> byType = alerts.stream()
+                .map(Alert::getType)
+                .filter(Objects::nonNull)
+                .collect(Collectors.groupingBy(type -> type, () -> new EnumMap<>(EventType.class),
+                        Collectors.counting()));
+        Map<Long, Long> byBus = alerts.stream()
+                .collect(Collectors.groupingBy(Alert::getBusId, HashMap::new, Collectors.counting()));
+        Map<String, Long> byLocation = alerts.stream()
+                .filter(alert -> alert.getLocation() != null)
+                .collect(Collectors.groupingBy(Alert::getLocation, Collectors.counting()));
+        return new AlertStatistics(alerts.size(), byStatus, byType, byBus, top(byLocation, TOP_LOCATIONS));
+    }
+
+    /**
+     * Возвращает количество инцидентов с указанным статусом.
+     *
+     * @param status статус
+     * @return количество инцидентов
+     */
+    public long count(StatusType status) {
+        return byStatus.getOrDefault(status, 0L);
+    }
+
+    /**
+     * Возвращает автобусы с наибольшим количеством инцидентов.
+     *
+     * @param limit максимальное число автобусов
+     * @return пары "ID автобуса - количество" по убыванию количества
+     */
+    public List<Map.Entry<Long, Long>> topBuses(int limit) {
+        return List.copyOf(top(byBus, limit).entrySet());
+    }
+
+    /**
+     * Возвращает самый частый тип инцидентов.
+     *
+     * @return тип и количество или пустое значение, если инцидентов нет
+     */
+    public Optional<Map.Entry<EventType, Long>> mostFrequentType() {
+        return byType.entrySet().stream().max(Map.Entry.comparingByValue());
+    }
+
+    /**
+     * Выбирает наибольшие значения распределения; при равном количестве - в порядке ключей.
+     *
+     * @param counts распределение
+     * @param limit максимальное число элементов
+     * @param <K> тип ключа
+     * @return упорядоченная карта наибольших значений
+     */
+    public static <K extends Comparable<? super K>> Map<K, Long> top(Map<K, Long> counts, int limit) {
+        return counts.entrySet().stream()
+                .sorted(Map.Entry.<K, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey(Comparator.nullsLast(Comparator.naturalOrder()))))
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+}
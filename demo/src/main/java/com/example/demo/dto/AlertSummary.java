@@ -0,0 +1,42 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Облегченное представление инцидента для списков.
+ * Содержит только поля, необходимые для отображения списка, без описания и пути к файлу.
+ * Полный инцидент возвращается только при запросе по ID.
+ *
+ * @param id ID инцидента
+ * @param busId ID автобуса
+ * @param type тип инцидента
+ * @param status статус инцидента
+ * @param timestamp время возникновения инцидента
+ * @param location местоположение инцидента
+ * @param assignedToUserId ID назначенного пользователя (может быть null)
+ */
+public record AlertSummary(
+    Long id,
+    Long busId,
+    EventType type,
+    StatusType status,
+    LocalDateTime timestamp,
+    String location,
+    Long assignedToUserId
+) {
+
+    /**
+     * Создает облегченное представление из сущности инцидента.
+     *
+     * @param alert сущность инцидента
+     * @return облегченное представление инцидента
+     */
+    public static AlertSummary from(Alert alert) {
+        return new AlertSummary(alert.getId(), alert.getBusId(), alert.getType(), alert.getStatus(),
+                alert.getTimestamp(), alert.getLocation(), alert.getAssignedToUserId());
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.demo.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO для страницы результатов полнотекстового поиска инцидентов.
+ * Инциденты возвращаются в облегченном представлении, отсортированными по релевантности,
+ * а совпавший текст описания - фрагментами с выделенными словами запроса.
+ *
+ * @param items найденные инциденты текущей страницы в облегченном представлении
+ * @param headlines фрагменты описания с совпадениями по ID инцидента
+ * @param page номер страницы (с нуля)
+ * @param size размер страницы
+ * @param hasNext признак наличия следующей страницы
+ */
+public record AlertTextSearchPage(
+    List<AlertSummary> items,
+    Map<Long, String> headlines,
+    int page,
+    int size,
+    boolean hasNext
+) {}
@@ -0,0 +1,140 @@
+package com.example.demo.dto;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Компактное неизменяемое представление инцидента для хранения в кэшах списков.
+ * В отличие от {@link AlertSummary} не содержит объектов-оберток: идентификаторы хранятся как long,
+ * перечисления - как порядковые номера, время - как число микросекунд, поэтому запись
+ * занимает один объект без вложенных Long и LocalDateTime. В API запись отдается
+ * через AlertMapper в виде {@link AlertSummary}.
+ * Порядковые номера перечислений безопасны, так как кэши живут только в памяти процесса.
+ *
+ * @param id ID инцидента
+ * @param busId ID автобуса
+ * @param typeOrdinal порядковый номер типа инцидента ({@link #NONE}, если тип не задан)
+ * @param statusOrdinal порядковый номер статуса инцидента ({@link #NONE}, если статус не задан)
+ * @param timestampMicros время возникновения в микросекундах от 1970-01-01T00:00 ({@link #NO_TIMESTAMP}, если не задано)
+ * @param location местоположение инцидента
+ * @param assignedUserId ID назначенного пользователя ({@link #UNASSIGNED}, если не назначен)
+ */
+public record CachedAlert(
+    long id,
+    long busId,
+    byte typeOrdinal,
+    byte statusOrdinal,
+    long timestampMicros,
+    String location,
+    long assignedUserId
+) {
+
+    /**
+     * Порядковый номер для незаданного перечисления.
+     */
+    public static final byte NONE = -1;
+
+    /**
+     * Значение времени для незаданной метки времени.
+     */
+    public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+    /**
+     * Значение ID пользователя для неназначенного инцидента.
+     */
+    public static final long UNASSIGNED = -1L;
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final StatusType[] STATUSES = StatusType.values();
+    private static final long MICROS_PER_SECOND = 1_000_000L;
+
+    /**
+     * Создает компактное представление из полей инцидента.
+     * Используется в JPQL-проекциях репозитория.
+     *
+     * @param id ID инцидента
+     * @param busId ID автобуса
+     * @param type тип инцидента
+     * @param status статус инцидента
+     * @param timestamp время возникновения инцидента
+     * @param location местоположение инцидента
+     * @param assignedToUserId ID назначенного пользователя (может быть null)
+     */
+    public CachedAlert(Long id, Long busId, EventType type, StatusType status, LocalDateTime timestamp,
+                       String location, Long assignedToUserId) {
+        this(id, busId, ordinal(type), ordinal(status), toMicros(timestamp), location,
+                assignedToUserId != null ? assignedToUserId : UNASSIGNED);
+    }
+
+    /**
+     * Создает компактное представление из сущности инцидента.
+     *
+     * @param alert сущность инцидента
+     * @return компактное представление инцидента
+     */
+    public static CachedAlert from(Alert alert) {
+        return new CachedAlert(alert.getId(), alert.getBusId(), alert.getType(), alert.getStatus(),
+                alert.getTimestamp(), alert.getLocation(), alert.getAssignedToUserId());
+    }
+
+    /**
+     * Возвращает тип инцидента.
+     *
+     * @return тип инцидента или null
+     */
+    public EventType type() {
+        return typeOrdinal != NONE ? TYPES[typeOrdinal] : null;
+    }
+
+    /**
+     * Возвращает статус инцидента.
+     *
+     * @return статус инцидента или null
+     */
+    public StatusType status() {
+        return statusOrdinal != NONE ? STATUSES[statusOrdinal] : null;
+    }
+
+    /**
+     * Возвращает время возникновения инцидента.
+     *
+     * @return время возникновения или null
+     */
+    public LocalDateTime timestamp() {
+        if (timestampMicros == NO_TIMESTAMP) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(timestampMicros, MICROS_PER_SECOND),
+                (int) Math.floorMod(timestampMicros, MICROS_PER_SECOND) * 1000, ZoneOffset.UTC);
+    }
+
+    /**
+     * Возвращает ID назначенного пользователя.
+     *
+     * @return ID пользователя или null, если инцидент не назначен
+     */
+    public Long assignedToUserId() {
+        return assignedUserId != UNASSIGNED ? assignedUserId : null;
+    }
+
+    private static byte ordinal(Enum<?> value) {
+        return value != null ? (byte) value.ordinal() : NONE;
+    }
+
+    /**
+     * Переводит время в микросекунды. Точность микросекунд совпадает с точностью TIMESTAMP в базе данных.
+     *
+     * @param timestamp время (может быть null)
+     * @return число микросекунд от начала эпохи или {@link #NO_TIMESTAMP}
+     */
+    public static long toMicros(LocalDateTime timestamp) {
+        if (timestamp == null) {
+            return NO_TIMESTAMP;
+        }
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * MICROS_PER_SECOND + timestamp.getNano() / 1000;
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.demo.dto;
+
+/**
+ * DTO для контрольной точки импорта из CSV-файла, записываемой после фиксации каждой порции.
+ * Прерванный импорт продолжается с записи, следующей за rowsProcessed, а накопленный результат
+ * дополняется, поэтому итог совпадает с результатом непрерывного импорта.
+ *
+ * @param rowsProcessed число обработанных записей файла (сохраненных или отклоненных)
+ * @param result результат импорта по этим записям
+ */
+public record CsvImportCheckpoint(
+    long rowsProcessed,
+    CsvImportResult result
+) {}
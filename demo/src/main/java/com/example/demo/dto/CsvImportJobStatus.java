@@ -0,0 +1,57 @@
+package com.example.demo.dto;
+
+import java.time.Instant;
+
+/**
+ * DTO для состояния фонового задания импорта из CSV-файла.
+ *
+ * @param id ID задания
+ * @param fileName имя загруженного файла
+ * @param mode способ сохранения (BATCH или COPY)
+ * @param state состояние задания
+ * @param rowsRead число обработанных записей файла
+ * @param rowsPersisted число сохраненных инцидентов
+ * @param rowsFailed число ошибок (некорректные записи и несохраненные инциденты)
+ * @param rowsPerSecond скорость обработки записей с момента запуска
+ * @param resumedFromRow число записей, пропущенных при продолжении после перезапуска
+ * @param submittedAt время постановки в очередь
+ * @param startedAt время запуска (null, если задание в очереди)
+ * @param finishedAt время завершения (null, если задание не завершено)
+ * @param message сообщение об ошибке задания
+ */
+public record CsvImportJobStatus(
+    String id,
+    String fileName,
+    String mode,
+    State state,
+    long rowsRead,
+    long rowsPersisted,
+    long rowsFailed,
+    long rowsPerSecond,
+    long resumedFromRow,
+    Instant submittedAt,
+    Instant startedAt,
+    Instant finishedAt,
+    String message
+) {
+
+    /**
+     * Состояние задания импорта.
+     */
+    public enum State {
+        QUEUED,     // В очереди
+        RUNNING,    // Выполняется
+        COMPLETED,  // Завершено
+        FAILED,     // Завершено с ошибкой
+        CANCELLED;  // Отменено
+
+        /**
+         * Проверяет, завершено ли задание (успешно, с ошибкой или отменой).
+         *
+         * @return true, если задание завершено
+         */
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+}
@@ -9,29 +9,43 @@ import lombok.NoArgsConstructor;
 /**
  * Класс для представления результата импорта данных из CSV-файла.
  * Содержит информацию о количестве успешно обработанных записей,
- * количестве неудачных попыток, список ошибок и ID созданных инцидентов.
+ * количестве неудачных попыток, ошибки и ID созданных инцидентов.
+ * Размер результата не зависит от размера файла: ошибки возвращаются ограниченной выборкой
+ * вместе с их общим числом, а ID созданных инцидентов - непрерывными диапазонами.
+ * Строки, которые уже были импортированы ранее (совпал отпечаток), не сохраняются повторно
+ * и учитываются в duplicateCount, а не в failedCount.
  */
 @Data
 @NoArgsConstructor
 public class CsvImportResult {
     private int successCount;          // Количество успешно импортированных записей
     private int failedCount;           // Количество неудачных попыток импорта
-    private List<String> errors = new ArrayList<>();      // Список ошибок при импорте
-    private List<Long> createdAlertIds = new ArrayList<>(); // Список ID созданных инцидентов
+    private int duplicateCount;        // Количество пропущенных строк, импортированных ранее
+    private List<String> errors = new ArrayList<>();      // Первые ошибки при импорте (не более заданного числа)
+    private int errorCount;            // Общее количество ошибок, включая не попавшие в errors
+    private List<IdRange> createdIdRanges = new ArrayList<>(); // Диапазоны ID созданных инцидентов
+    private boolean createdIdRangesTruncated; // Признак того, что диапазонов больше, чем возвращено
 
     /**
      * Конструктор для создания результата импорта с заданными параметрами.
      *
      * @param successCount количество успешно импортированных записей
      * @param failedCount количество неудачных попыток импорта
-     * @param errors список ошибок при импорте
-     * @param createdAlertIds список ID созданных инцидентов
+     * @param duplicateCount количество пропущенных дубликатов
+     * @param errors первые ошибки при импорте
+     * @param errorCount общее количество ошибок
+     * @param createdIdRanges диапазоны ID созданных инцидентов
+     * @param createdIdRangesTruncated признак того, что возвращены не все диапазоны
      */
-    public CsvImportResult(int successCount, int failedCount, List<String> errors, List<Long> createdAlertIds) {
+    public CsvImportResult(int successCount, int failedCount, int duplicateCount, List<String> errors, int errorCount,
+                           List<IdRange> createdIdRanges, boolean createdIdRangesTruncated) {
         this.successCount = successCount;
         this.failedCount = failedCount;
+        this.duplicateCount = duplicateCount;
         this.errors = errors != null ? errors : new ArrayList<>();
-        this.createdAlertIds =createdAlertIds != null ? createdAlertIds : new ArrayList<>();
+        this.errorCount = Math.max(errorCount, this.errors.size());
+        this.createdIdRanges = createdIdRanges != null ? createdIdRanges : new ArrayList<>();
+        this.createdIdRangesTruncated = createdIdRangesTruncated;
     }
 
     /**
@@ -40,6 +54,6 @@ public class CsvImportResult {
      * @return true, если были ошибки, иначе false
      */
     public boolean hasError() {
-        return !errors.isEmpty();
+        return errorCount > 0 || !errors.isEmpty();
     }
-}
\ No newline at end of file
+}
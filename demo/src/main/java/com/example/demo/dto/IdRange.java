@@ -0,0 +1,22 @@
+package com.example.demo.dto;
+
+/**
+ * DTO для непрерывного диапазона ID, например ID инцидентов, созданных импортом.
+ *
+ * @param from первый ID диапазона (включительно)
+ * @param to последний ID диапазона (включительно)
+ */
+public record IdRange(
+    long from,
+    long to
+) {
+
+    /**
+     * Возвращает количество ID в диапазоне.
+     *
+     * @return количество ID
+     */
+    public long count() {
+        return to - from + 1;
+    }
+}
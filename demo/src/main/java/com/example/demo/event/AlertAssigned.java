@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Событие о назначении оповещения пользователю.
+ *
+ * @param before ключевые поля оповещения до назначения
+ * @param after оповещение после назначения
+ */
+public record AlertAssigned(AlertKeys before, CachedAlert after) implements AlertEvent {
+}
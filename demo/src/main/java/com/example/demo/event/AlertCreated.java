@@ -0,0 +1,16 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Событие о создании оповещения.
+ *
+ * @param after созданное оповещение
+ */
+public record AlertCreated(CachedAlert after) implements AlertEvent {
+
+    @Override
+    public AlertKeys before() {
+        return null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Событие об удалении оповещения.
+ *
+ * @param before ключевые поля удаленного оповещения
+ */
+public record AlertDeleted(AlertKeys before) implements AlertEvent {
+
+    @Override
+    public CachedAlert after() {
+        return null;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Доменное событие об изменении оповещения.
+ * Публикуется сервисом внутри транзакции; обработчики, обновляющие кэши,
+ * получают его только после фиксации транзакции.
+ */
+public sealed interface AlertEvent permits AlertCreated, AlertStatusChanged, AlertAssigned,
+        AlertFileAttached, AlertDeleted {
+
+    /**
+     * Возвращает ключевые поля оповещения до изменения.
+     *
+     * @return ключевые поля до изменения или null для нового оповещения
+     */
+    AlertKeys before();
+
+    /**
+     * Возвращает состояние оповещения после изменения.
+     *
+     * @return компактное представление оповещения или null для удаленного оповещения
+     */
+    CachedAlert after();
+}
@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Событие о прикреплении файла к оповещению.
+ *
+ * @param before ключевые поля оповещения до изменения
+ * @param after оповещение после изменения
+ */
+public record AlertFileAttached(AlertKeys before, CachedAlert after) implements AlertEvent {
+}
@@ -0,0 +1,26 @@
+package com.example.demo.event;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.StatusType;
+
+/**
+ * Ключевые поля оповещения, определяющие, в каких закэшированных списках оно находится.
+ * Снимок делается до изменения оповещения, чтобы знать, из каких списков его убрать.
+ *
+ * @param id ID оповещения
+ * @param status статус оповещения
+ * @param busId ID автобуса
+ * @param assignedToUserId ID назначенного пользователя (может быть null)
+ */
+public record AlertKeys(Long id, StatusType status, Long busId, Long assignedToUserId) {
+
+    /**
+     * Создает снимок ключевых полей оповещения.
+     *
+     * @param alert оповещение
+     * @return снимок ключевых полей
+     */
+    public static AlertKeys of(Alert alert) {
+        return new AlertKeys(alert.getId(), alert.getStatus(), alert.getBusId(), alert.getAssignedToUserId());
+    }
+}
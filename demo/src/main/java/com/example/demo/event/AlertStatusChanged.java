@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+import com.example.demo.dto.CachedAlert;
+
+/**
+ * Событие об изменении статуса оповещения.
+ *
+ * @param before ключевые поля оповещения до изменения
+ * @param after оповещение после изменения
+ */
+public record AlertStatusChanged(AlertKeys before, CachedAlert after) implements AlertEvent {
+}
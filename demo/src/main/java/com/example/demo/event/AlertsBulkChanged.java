@@ -0,0 +1,12 @@
+package com.example.demo.event;
+
+/**
+ * Событие о массовом изменении оповещений (например, импорте), для которого не публикуются
+ * события по каждому оповещению. Обработчики, поддерживающие кэши и производные структуры,
+ * не обновляют их по ключам, а сбрасывают и загружают заново.
+ * Публикуется внутри транзакции; обработчики получают его только после ее фиксации.
+ *
+ * @param count число затронутых оповещений
+ */
+public record AlertsBulkChanged(int count) {
+}
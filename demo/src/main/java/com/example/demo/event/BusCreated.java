@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * Событие о создании автобуса.
+ *
+ * @param busId ID созданного автобуса
+ */
+public record BusCreated(Long busId) implements BusEvent {
+}
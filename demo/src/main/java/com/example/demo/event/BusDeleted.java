@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * Событие об удалении автобуса.
+ *
+ * @param busId ID удаленного автобуса
+ */
+public record BusDeleted(Long busId) implements BusEvent {
+}
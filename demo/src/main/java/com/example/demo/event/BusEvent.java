@@ -0,0 +1,16 @@
+package com.example.demo.event;
+
+/**
+ * Доменное событие об изменении автобуса.
+ * Публикуется сервисом внутри транзакции; обработчики, обновляющие кэши,
+ * получают его только после фиксации транзакции.
+ */
+public sealed interface BusEvent permits BusCreated, BusUpdated, BusDeleted {
+
+    /**
+     * Возвращает ID измененного автобуса.
+     *
+     * @return ID автобуса
+     */
+    Long busId();
+}
@@ -0,0 +1,9 @@
+package com.example.demo.event;
+
+/**
+ * Событие об изменении автобуса.
+ *
+ * @param busId ID измененного автобуса
+ */
+public record BusUpdated(Long busId) implements BusEvent {
+}
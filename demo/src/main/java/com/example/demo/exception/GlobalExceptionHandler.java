@@ -53,6 +53,22 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
 
+    /**
+     * Обрабатывает исключение InvalidPageRequestException.
+     * Возвращает 400 статус и сообщение об ошибке.
+     *
+     * @param ex исключение InvalidPageRequestException
+     * @return ResponseEntity с сообщением об ошибке и статусом 400
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<Map<String, String>> handleInvalidPageRequest(InvalidPageRequestException ex) {
+        log.warn("Некорректный запрос страницы: {}", ex.getMessage());
+
+        Map<String, String> error = new HashMap<>();
+        error.put("error", ex.getMessage());
+        return ResponseEntity.badRequest().body(error);
+    }
+
     /**
      * Обрабатывает исключения валидации (MethodArgumentNotValidException).
      * Возвращает 400 статус и список ошибок валидации.
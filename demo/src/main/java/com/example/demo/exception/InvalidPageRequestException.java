@@ -0,0 +1,17 @@
+package com.example.demo.exception;
+
+/**
+ * Исключение, которое выбрасывается при некорректных параметрах постраничного запроса
+ * (поврежденный курсор, неизвестное направление сортировки и т.п.).
+ * Является наследником RuntimeException и преобразуется в ответ 400 Bad Request.
+ */
+public class InvalidPageRequestException extends RuntimeException {
+    /**
+     * Конструктор исключения с описанием ошибки.
+     *
+     * @param message описание ошибки
+     */
+    public InvalidPageRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.demo.mapper;
+
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.CachedAlert;
+
+import java.util.List;
+
+/**
+ * Класс маппера для преобразования закэшированных инцидентов в представление API.
+ * Кэши хранят компактные записи {@link CachedAlert}, а клиентам возвращается {@link AlertSummary}.
+ */
+public class AlertMapper {
+
+    /**
+     * Преобразует компактную запись кэша в облегченное представление инцидента.
+     *
+     * @param alert компактная запись инцидента
+     * @return облегченное представление или null, если запись была null
+     */
+    public static AlertSummary toSummary(CachedAlert alert) {
+        if (alert == null) {
+            return null;
+        }
+        return new AlertSummary(
+            alert.id(),
+            alert.busId(),
+            alert.type(),
+            alert.status(),
+            alert.timestamp(),
+            alert.location(),
+            alert.assignedToUserId()
+        );
+    }
+
+    /**
+     * Преобразует список компактных записей кэша в список облегченных представлений.
+     *
+     * @param alerts список компактных записей инцидентов
+     * @return неизменяемый список облегченных представлений
+     */
+    public static List<AlertSummary> toSummaries(List<CachedAlert> alerts) {
+        return alerts.stream().map(AlertMapper::toSummary).toList();
+    }
+}
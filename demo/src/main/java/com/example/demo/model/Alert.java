@@ -16,17 +16,31 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * о типе инцидента, времени, местоположении, описании и статусе.
  */
 @Entity
-@Table(name = "alerts")
+@Table(name = "alerts", indexes = {
+    @Index(name = "idx_alerts_timestamp_id", columnList = "timestamp, id"), // Курсорная пагинация по (timestamp, id)
+    // Поиск: равенство по столбцу + диапазон/сортировка по (timestamp, id)
+    @Index(name = "idx_alerts_status_timestamp", columnList = "status, timestamp, id"),
+    @Index(name = "idx_alerts_bus_timestamp", columnList = "bus_id, timestamp, id"),
+    @Index(name = "idx_alerts_assigned_user_timestamp", columnList = "assigned_to_user_id, timestamp, id")
+}, uniqueConstraints = {
+    @UniqueConstraint(name = "uk_alerts_fingerprint", columnNames = "fingerprint") // Повторный импорт той же строки
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class Alert {
 
+    /**
+     * Число ID, которое Hibernate получает из последовательности за одно обращение.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     private String filePath; // Путь к файлу, связанному с инцидентом
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id; // Уникальный идентификатор инцидента
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "alerts_seq")
+    @SequenceGenerator(name = "alerts_seq", sequenceName = "alerts_seq", allocationSize = Alert.ID_ALLOCATION_SIZE)
+    private Long id; // Уникальный идентификатор инцидента (блоками из последовательности, см. AlertIdSequenceConfig)
 
     @NotNull(message = "Bus ID не может быть пустым")
     @Column(name = "bus_id", nullable = false)
@@ -57,6 +71,10 @@ public class Alert {
     @Column(name = "assigned_to_user_id")
     private Long assignedToUserId; // ID пользователя, которому назначен инцидент
 
+    @JsonIgnore
+    @Column(length = 64)
+    private String fingerprint; // Отпечаток строки импорта (см. AlertFingerprint), null для созданных через API
+
     /**
      * Метод, вызываемый перед сохранением сущности.
      * Устанавливает текущее время, если временная метка не указана,
@@ -0,0 +1,29 @@
+package com.example.demo.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Сущность метки версии набора данных, хранимой в базе данных.
+ * Номер версии хранится в последовательности набора данных (см. CacheSnapshotManager), общей
+ * для всех узлов и переживающей перезапуск приложения; вместе с меткой он проверяет актуальность
+ * снимка кэшей, сохраненного на диск. Строка только создается и при изменениях данных не обновляется.
+ * Метка строки создается случайной вместе со строкой: если таблицу создали заново
+ * (например, при пересоздании базы данных), версии начнутся с нуля, но метка будет другой.
+ */
+@Entity
+@Table(name = "data_set_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DataSetVersion {
+
+    @Id
+    @Column(name = "data_set", length = 32)
+    private String dataSet; // Имя набора данных (DataVersionTracker.DataSet)
+
+    @Column(nullable = false, length = 36)
+    private String token; // Случайная метка строки
+}
@@ -1,13 +1,23 @@
 package com.example.demo.repository;
 
+import com.example.demo.dto.CachedAlert;
 import com.example.demo.model.Alert;
 import com.example.demo.model.StatusType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Репозиторий для работы с сущностью Alert (инцидент).
@@ -49,4 +59,116 @@ public interface AlertRepository extends JpaRepository<Alert, Long>, JpaSpecific
      */
     List<Alert> findByTimestampBetween(LocalDateTime startDate, LocalDateTime endDate);
 
-}
\ No newline at end of file
+    /**
+     * Находит компактные записи всех инцидентов для кэша списков.
+     * Выбираются только поля списка, без описания и пути к файлу, и сущности не загружаются
+     * в контекст персистентности.
+     *
+     * @return список компактных записей инцидентов, упорядоченных по ID
+     */
+    @Query("SELECT new com.example.demo.dto.CachedAlert(a.id, a.busId, a.type, a.status, a.timestamp, a.location, a.assignedToUserId) " +
+           "FROM Alert a ORDER BY a.id")
+    List<CachedAlert> findAllCached();
+
+    /**
+     * Находит компактные записи инцидентов по статусу.
+     *
+     * @param status статус инцидентов для поиска
+     * @return список компактных записей инцидентов с указанным статусом
+     */
+    @Query("SELECT new com.example.demo.dto.CachedAlert(a.id, a.busId, a.type, a.status, a.timestamp, a.location, a.assignedToUserId) " +
+           "FROM Alert a WHERE a.status = :status ORDER BY a.id")
+    List<CachedAlert> findCachedByStatus(@Param("status") StatusType status);
+
+    /**
+     * Находит компактные записи инцидентов по ID автобуса.
+     *
+     * @param busId ID автобуса для поиска
+     * @return список компактных записей инцидентов указанного автобуса
+     */
+    @Query("SELECT new com.example.demo.dto.CachedAlert(a.id, a.busId, a.type, a.status, a.timestamp, a.location, a.assignedToUserId) " +
+           "FROM Alert a WHERE a.busId = :busId ORDER BY a.id")
+    List<CachedAlert> findCachedByBusId(@Param("busId") Long busId);
+
+    /**
+     * Находит компактные записи инцидентов по ID назначенного пользователя.
+     *
+     * @param userId ID пользователя, которому назначены инциденты
+     * @return список компактных записей инцидентов, назначенных пользователю
+     */
+    @Query("SELECT new com.example.demo.dto.CachedAlert(a.id, a.busId, a.type, a.status, a.timestamp, a.location, a.assignedToUserId) " +
+           "FROM Alert a WHERE a.assignedToUserId = :userId ORDER BY a.id")
+    List<CachedAlert> findCachedByAssignedToUserId(@Param("userId") Long userId);
+
+    /**
+     * Возвращает все инциденты в виде потока, читаемого через однонаправленный курсор базы данных.
+     * Строки загружаются порциями по размеру выборки (fetch size), а не все сразу,
+     * поэтому поток подходит для выгрузки всей истории инцидентов.
+     * Должен вызываться внутри транзакции, поток необходимо закрыть после использования.
+     *
+     * @return поток инцидентов, упорядоченных по ID
+     */
+    @QueryHints({
+        @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true"),
+        @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT a FROM Alert a ORDER BY a.id")
+    Stream<Alert> streamAllOrderById();
+
+    /**
+     * Выполняет полнотекстовый поиск инцидентов по описанию с русской морфологией (только PostgreSQL).
+     * Результаты упорядочены по релевантности (ts_rank), затем по убыванию ID.
+     * Условие совпадает с выражением GIN-индекса idx_alerts_description_fts.
+     * Возвращаются только ID и фрагмент описания с совпадениями (ts_headline), а не сущности.
+     * Возвращается срез без подсчета общего количества, чтобы не выполнять отдельный COUNT.
+     *
+     * @param query поисковый запрос
+     * @param pageable номер и размер страницы
+     * @return срез найденных совпадений
+     */
+    @Query(value = "SELECT a.id AS id, " +
+                   "ts_headline('russian', a.description, plainto_tsquery('russian', :query), " +
+                   "'MaxFragments=1, MaxWords=20, MinWords=5') AS headline FROM alerts a " +
+                   "WHERE to_tsvector('russian', a.description) @@ plainto_tsquery('russian', :query) " +
+                   "ORDER BY ts_rank(to_tsvector('russian', a.description), plainto_tsquery('russian', :query)) DESC, a.id DESC",
+           nativeQuery = true)
+    Slice<TextMatch> searchByDescription(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Находит компактные записи инцидентов по набору ID.
+     *
+     * @param ids ID инцидентов
+     * @return список компактных записей найденных инцидентов
+     */
+    @Query("SELECT new com.example.demo.dto.CachedAlert(a.id, a.busId, a.type, a.status, a.timestamp, a.location, a.assignedToUserId) " +
+           "FROM Alert a WHERE a.id IN :ids")
+    List<CachedAlert> findCachedByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Совпадение полнотекстового поиска: ID инцидента и фрагмент описания с выделенными словами запроса.
+     */
+    interface TextMatch {
+
+        Long getId();
+
+        String getHeadline();
+    }
+
+    /**
+     * Находит, какие из отпечатков импортируемых строк уже сохранены (см. уникальный индекс uk_alerts_fingerprint).
+     *
+     * @param fingerprints отпечатки для проверки
+     * @return сохраненные отпечатки из переданных
+     */
+    @Query("SELECT a.fingerprint FROM Alert a WHERE a.fingerprint IN :fingerprints")
+    List<String> findExistingFingerprints(@Param("fingerprints") Collection<String> fingerprints);
+
+    /**
+     * Проверяет, сохранено ли оповещение с указанным отпечатком.
+     *
+     * @param fingerprint отпечаток строки импорта
+     * @return true, если оповещение с таким отпечатком существует
+     */
+    boolean existsByFingerprint(String fingerprint);
+}
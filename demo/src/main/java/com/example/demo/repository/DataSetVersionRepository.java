@@ -0,0 +1,12 @@
+package com.example.demo.repository;
+
+import com.example.demo.model.DataSetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий для работы с сущностью DataSetVersion (метка версии набора данных).
+ */
+@Repository
+public interface DataSetVersionRepository extends JpaRepository<DataSetVersion, String> {
+}
@@ -0,0 +1,348 @@
+package com.example.demo.service;
+
+import com.example.demo.event.AlertsBulkChanged;
+import com.example.demo.model.Alert;
+import com.example.demo.model.StatusType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Сервис для массовой вставки оповещений (импорт).
+ * В отличие от {@link AlertService#create}, который выполняет отдельную транзакцию и отдельный INSERT
+ * на каждое оповещение и точечно обновляет кэши, оповещения вставляются порциями:
+ * <ul>
+ *   <li>ID выдаются последовательностью alerts_seq блоками (allocationSize), без обращения к базе данных
+ *       на каждую строку, что позволяет Hibernate объединять INSERT в пакеты JDBC;</li>
+ *   <li>каждые batch-size оповещений отправляются одним пакетом JDBC, после чего контекст
+ *       персистентности очищается, чтобы его размер не рос с размером файла;</li>
+ *   <li>каждые chunk-size оповещений фиксируются отдельной транзакцией.</li>
+ * </ul>
+ * Если порция не сохранилась (например, из-за несуществующего автобуса), ее оповещения сохраняются
+ * по одному, чтобы ошибка была привязана к конкретному оповещению.
+ * Оповещения с отпечатком ({@link AlertFingerprint}), который уже сохранен или повторяется в порции,
+ * пропускаются как дубликаты: перед сохранением порции отпечатки проверяются через {@link AlertFingerprintIndex},
+ * а если порция все же нарушила уникальный индекс, при сохранении по одному такие оповещения
+ * также считаются дубликатами, а не ошибками.
+ * Кэши и версия данных обновляются один раз в конце через {@link AlertsBulkChanged}.
+ * Для больших файлов используется потоковая вставка ({@link #open}), которая не держит в памяти
+ * больше одной порции.
+ */
+@Service
+public class AlertBulkInsertService {
+    private static final Logger log = LoggerFactory.getLogger(AlertBulkInsertService.class);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final TransactionTemplate chunkTransaction;
+    private final DataVersionTracker dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlertFingerprintIndex fingerprintIndex;
+
+    @Value("${alerts.import.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${alerts.import.chunk-size:5000}")
+    private int chunkSize = 5000;
+
+    public AlertBulkInsertService(PlatformTransactionManager transactionManager, DataVersionTracker dataVersions,
+                                  ApplicationEventPublisher eventPublisher, AlertFingerprintIndex fingerprintIndex) {
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+        this.fingerprintIndex = fingerprintIndex;
+    }
+
+    /**
+     * Результат массовой вставки.
+     *
+     * @param createdIds ID сохраненных оповещений в порядке входного списка
+     * @param errors ошибки сохранения отдельных оповещений
+     */
+    public record InsertResult(List<Long> createdIds, List<String> errors) {
+    }
+
+    /**
+     * Сохраняет оповещения порциями.
+     * Незаданные время и статус заполняются так же, как при создании одного оповещения.
+     * Оповещения с уже сохраненным отпечатком пропускаются без ошибки.
+     *
+     * @param alerts новые оповещения (без ID)
+     * @return ID сохраненных оповещений и ошибки
+     */
+    public InsertResult insertAll(List<Alert> alerts) {
+        List<Long> createdIds = new ArrayList<>(alerts.size());
+        List<String> errors = new ArrayList<>();
+        try (BulkInsert insert = open(createdIds::add, errors::add, duplicates -> { })) {
+            alerts.forEach(insert::add);
+        }
+        return new InsertResult(createdIds, errors);
+    }
+
+    /**
+     * Открывает потоковую вставку: оповещения передаются по одному и сохраняются порциями
+     * по chunk-size, так что в памяти одновременно находится не больше одной порции.
+     * ID сохраненных оповещений и ошибки не накапливаются, а передаются обработчикам
+     * после сохранения каждой порции. Кэши и версия данных обновляются один раз при закрытии.
+     *
+     * @param onCreated обработчик ID сохраненного оповещения (в порядке передачи оповещений)
+     * @param onError обработчик ошибки сохранения отдельного оповещения
+     * @param onDuplicates обработчик числа пропущенных дубликатов (после каждой порции)
+     * @return открытая вставка, которую нужно закрыть после передачи всех оповещений
+     */
+    public BulkInsert open(LongConsumer onCreated, Consumer<String> onError, IntConsumer onDuplicates) {
+        return new BulkInsert(onCreated, onError, onDuplicates);
+    }
+
+    /**
+     * Потоковая вставка оповещений порциями. Не потокобезопасна.
+     */
+    public final class BulkInsert implements AlertImportSink {
+        private final LongConsumer onCreated;
+        private final Consumer<String> onError;
+        private final IntConsumer onDuplicates;
+        private final List<Alert> pending = new ArrayList<>();
+        private final long started = System.nanoTime();
+        private int inserted;
+        private int failed;
+        private int duplicates;
+        private boolean closed;
+
+        private BulkInsert(LongConsumer onCreated, Consumer<String> onError, IntConsumer onDuplicates) {
+            this.onCreated = onCreated;
+            this.onError = onError;
+            this.onDuplicates = onDuplicates;
+        }
+
+        /**
+         * Добавляет оповещение; при накоплении chunk-size оповещений сохраняет порцию.
+         *
+         * @param alert новое оповещение (без ID)
+         */
+        @Override
+        public void add(Alert alert) {
+            if (closed) {
+                throw new IllegalStateException("Вставка уже завершена");
+            }
+            applyDefaults(alert);
+            pending.add(alert);
+            if (pending.size() >= chunkSize) {
+                flushChunk();
+            }
+        }
+
+        @Override
+        public int pendingCount() {
+            return pending.size();
+        }
+
+        /**
+         * Возвращает количество сохраненных оповещений.
+         *
+         * @return количество сохраненных оповещений
+         */
+        public int insertedCount() {
+            return inserted;
+        }
+
+        /**
+         * Возвращает количество оповещений, которые не удалось сохранить.
+         *
+         * @return количество несохраненных оповещений
+         */
+        public int failedCount() {
+            return failed;
+        }
+
+        /**
+         * Возвращает количество пропущенных дубликатов.
+         *
+         * @return количество оповещений, отпечаток которых уже был сохранен
+         */
+        public int duplicateCount() {
+            return duplicates;
+        }
+
+        /**
+         * Сохраняет оставшиеся оповещения и, если что-то было сохранено, обновляет кэши и версию данных.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                flushChunk();
+            } finally {
+                if (inserted > 0) {
+                    publishChange(inserted);
+                }
+                long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+                log.info("Массовая вставка инцидентов: сохранено {}, ошибок {}, дубликатов {}, {} мс ({} строк/с)",
+                        inserted, failed, duplicates, elapsedMillis, inserted * 1000L / elapsedMillis);
+            }
+        }
+
+        /**
+         * Отбрасывает несохраненную порцию; если что-то уже было сохранено, обновляет кэши и версию данных.
+         */
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            log.info("Массовая вставка инцидентов прервана: сохранено {}, отброшено {}", inserted, pending.size());
+            pending.clear();
+            if (inserted > 0) {
+                publishChange(inserted);
+            }
+        }
+
+        private void flushChunk() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                List<Alert> chunk = skipDuplicates(pending);
+                if (chunk.isEmpty()) {
+                    return;
+                }
+                int duplicatesBefore = duplicates;
+                List<Long> ids;
+                try {
+                    ids = insertChunk(chunk);
+                } catch (RuntimeException e) {
+                    log.warn("Порция из {} инцидентов не сохранена ({}), сохранение по одному",
+                            chunk.size(), e.getMessage());
+                    ids = insertOneByOne(chunk);
+                }
+                inserted += ids.size();
+                failed += chunk.size() - ids.size() - (duplicates - duplicatesBefore);
+                for (Alert alert : chunk) {
+                    if (alert.getId() != null && alert.getFingerprint() != null) {
+                        fingerprintIndex.add(alert.getFingerprint());
+                    }
+                }
+                ids.forEach(onCreated::accept);
+            } finally {
+                pending.clear();
+            }
+        }
+
+        /**
+         * Убирает из порции оповещения, отпечаток которых уже сохранен или встречается в порции раньше.
+         */
+        private List<Alert> skipDuplicates(List<Alert> chunk) {
+            List<String> fingerprints = new ArrayList<>(chunk.size());
+            for (Alert alert : chunk) {
+                if (alert.getFingerprint() != null) {
+                    fingerprints.add(alert.getFingerprint());
+                }
+            }
+            if (fingerprints.isEmpty()) {
+                return chunk;
+            }
+            Set<String> existing = fingerprintIndex.findExisting(fingerprints);
+            Set<String> seen = new HashSet<>();
+            List<Alert> unique = new ArrayList<>(chunk.size());
+            for (Alert alert : chunk) {
+                String fingerprint = alert.getFingerprint();
+                if (fingerprint == null || (!existing.contains(fingerprint) && seen.add(fingerprint))) {
+                    unique.add(alert);
+                }
+            }
+            skipped(chunk.size() - unique.size());
+            return unique;
+        }
+
+        private void skipped(int count) {
+            if (count > 0) {
+                duplicates += count;
+                onDuplicates.accept(count);
+            }
+        }
+
+        private List<Long> insertOneByOne(List<Alert> chunk) {
+            List<Long> ids = new ArrayList<>(chunk.size());
+            int skippedDuplicates = 0;
+            for (Alert alert : chunk) {
+                alert.setId(null); // ID, выданный в откаченной транзакции, не используется
+                try {
+                    ids.addAll(insertChunk(List.of(alert)));
+                } catch (RuntimeException e) {
+                    alert.setId(null);
+                    if (alert.getFingerprint() != null && fingerprintIndex.exists(alert.getFingerprint())) {
+                        skippedDuplicates++; // Сохранено параллельно в обход фильтра, отсечено уникальным индексом
+                        continue;
+                    }
+                    onError.accept("Не удалось сохранить инцидент: автобус " + alert.getBusId() +
+                            ", тип " + alert.getType() + " - " + e.getMessage());
+                    log.debug("Инцидент не сохранен: автобус {}, тип {}", alert.getBusId(), alert.getType(), e);
+                }
+            }
+            skipped(skippedDuplicates);
+            return ids;
+        }
+    }
+
+    private List<Long> insertChunk(List<Alert> chunk) {
+        return chunkTransaction.execute(status -> {
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            List<Long> ids = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                Alert alert = chunk.get(i);
+                entityManager.persist(alert);
+                ids.add(alert.getId());
+                if ((i + 1) % batchSize == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+            entityManager.flush();
+            entityManager.clear();
+            return ids;
+        });
+    }
+
+    /**
+     * Отмечает изменение инцидентов одной транзакцией: увеличивает версию данных
+     * и после фиксации сбрасывает кэши и производные структуры.
+     */
+    private void publishChange(int count) {
+        chunkTransaction.executeWithoutResult(status -> {
+            dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
+            eventPublisher.publishEvent(new AlertsBulkChanged(count));
+        });
+    }
+
+    /**
+     * Заполняет незаданные время и статус так же, как при создании одного оповещения.
+     */
+    static void applyDefaults(Alert alert) {
+        if (alert.getTimestamp() == null) {
+            alert.setTimestamp(LocalDateTime.now());
+        }
+        if (alert.getStatus() == null) {
+            alert.setStatus(StatusType.NEW);
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertEvent;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.event.AlertsBulkChanged;
+import com.example.demo.model.StatusType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Компонент для точечного обновления кэшей оповещений.
+ * Вместо полной очистки кэшей после каждого изменения обновляет только те записи,
+ * которые затрагивает измененное оповещение: удаляет его из старых списков
+ * (по статусу, автобусу, пользователю) и добавляет в новые, а также обновляет общий список.
+ * Незакэшированные списки не создаются - они загрузятся из базы данных при следующем чтении.
+ * Кэши обновляются по доменным событиям {@link AlertEvent} только после фиксации транзакции,
+ * чтобы параллельное чтение не видело в кэше незафиксированных изменений.
+ */
+@Component
+public class AlertCacheMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(AlertCacheMaintainer.class);
+
+    static final String ALERTS = "alerts";
+    static final String ALERTS_BY_STATUS = "alertsByStatus";
+    static final String ALERTS_BY_BUS = "alertsByBus";
+    static final String ALERTS_BY_USER = "alertsByUser";
+
+    private final CacheManager cacheManager;
+
+    public AlertCacheMaintainer(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Обновляет кэши после фиксации транзакции, в которой изменилось оповещение.
+     * Вне транзакции событие обрабатывается сразу.
+     *
+     * @param event событие об изменении оповещения
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertEvent(AlertEvent event) {
+        if (event.after() != null) {
+            alertSaved(event.before(), event.after());
+        } else {
+            alertDeleted(event.before());
+        }
+    }
+
+    /**
+     * Очищает кэши оповещений после фиксации массового изменения:
+     * точечное обновление списков для каждого из тысяч оповещений обошлось бы дороже новой загрузки.
+     *
+     * @param event событие о массовом изменении оповещений
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onBulkChange(AlertsBulkChanged event) {
+        for (String cacheName : List.of(ALERTS, ALERTS_BY_STATUS, ALERTS_BY_BUS, ALERTS_BY_USER)) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        log.debug("Кэши инцидентов очищены после массового изменения {} инцидентов", event.count());
+    }
+
+    /**
+     * Обновляет кэши после создания или изменения оповещения.
+     *
+     * @param before ключевые поля оповещения до изменения (null для нового оповещения)
+     * @param after сохраненное оповещение
+     */
+    public synchronized void alertSaved(AlertKeys before, CachedAlert after) {
+        patch(ALERTS, SimpleKey.EMPTY, after.id(), after);
+        moveBetweenBuckets(ALERTS_BY_STATUS,
+                before != null ? statusKey(before.status()) : null, statusKey(after.status()), after);
+        moveBetweenBuckets(ALERTS_BY_BUS,
+                before != null ? before.busId() : null, after.busId(), after);
+        moveBetweenBuckets(ALERTS_BY_USER,
+                before != null ? before.assignedToUserId() : null, after.assignedToUserId(), after);
+
+        log.debug("Кэши инцидентов обновлены точечно после сохранения: id={}", after.id());
+    }
+
+    /**
+     * Удаляет оповещение из закэшированных списков, в которых оно находилось.
+     *
+     * @param before ключевые поля удаленного оповещения
+     */
+    public synchronized void alertDeleted(AlertKeys before) {
+        patch(ALERTS, SimpleKey.EMPTY, before.id(), null);
+        if (before.status() != null) {
+            patch(ALERTS_BY_STATUS, statusKey(before.status()), before.id(), null);
+        }
+        if (before.busId() != null) {
+            patch(ALERTS_BY_BUS, before.busId(), before.id(), null);
+        }
+        if (before.assignedToUserId() != null) {
+            patch(ALERTS_BY_USER, before.assignedToUserId(), before.id(), null);
+        }
+
+        log.debug("Инцидент удален из кэшей: id={}", before.id());
+    }
+
+    /**
+     * Переносит оповещение из списка по старому ключу в список по новому ключу.
+     * Если ключ не изменился, оповещение заменяется на месте.
+     *
+     * @param cacheName имя кэша
+     * @param oldKey ключ до изменения (может быть null)
+     * @param newKey ключ после изменения (может быть null)
+     * @param after компактное представление сохраненного оповещения
+     */
+    private void moveBetweenBuckets(String cacheName, Object oldKey, Object newKey, CachedAlert after) {
+        if (oldKey != null && !Objects.equals(oldKey, newKey)) {
+            patch(cacheName, oldKey, after.id(), null);
+        }
+        if (newKey != null) {
+            patch(cacheName, newKey, after.id(), after);
+        }
+    }
+
+    /**
+     * Заменяет, добавляет или удаляет оповещение в закэшированном списке.
+     * Закэшированный список не изменяется - вместо него в кэш кладется новый неизменяемый список,
+     * поэтому вызывающие стороны, уже получившие старый список, не видят частичных изменений.
+     * Для кэшей Caffeine замена выполняется атомарно через compute: если список по этому ключу
+     * сейчас загружается из базы данных, обновление дождется окончания загрузки и применится к ее
+     * результату, поэтому загрузка, начатая до фиксации изменения, не вернет в кэш старое состояние.
+     *
+     * @param cacheName имя кэша
+     * @param key ключ записи кэша
+     * @param alertId ID оповещения
+     * @param replacement новое состояние оповещения (null - удалить из списка)
+     */
+    private void patch(String cacheName, Object key, Long alertId, CachedAlert replacement) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache instanceof CaffeineCache caffeineCache) {
+            // compute, а не computeIfPresent: только compute ждет загрузку, которая выполняется по этому ключу
+            caffeineCache.getNativeCache().asMap().compute(key,
+                    (k, cached) -> cached instanceof List<?> list ? patched(list, alertId, replacement) : cached);
+        } else if (cache != null) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() instanceof List<?> list) {
+                cache.put(key, patched(list, alertId, replacement));
+            }
+        }
+        log.trace("Запись кэша {}[{}] обновлена: инцидентId={}", cacheName, key, alertId);
+    }
+
+    /**
+     * Возвращает копию списка с замененным, добавленным или удаленным оповещением.
+     *
+     * @param cached закэшированный список
+     * @param alertId ID оповещения
+     * @param replacement новое состояние оповещения (null - удалить из списка)
+     * @return новый неизменяемый список или исходный список, если изменений нет
+     */
+    private static List<?> patched(List<?> cached, Long alertId, CachedAlert replacement) {
+        List<CachedAlert> patched = new ArrayList<>(cached.size() + 1);
+        boolean found = false;
+        for (Object element : cached) {
+            CachedAlert alert = (CachedAlert) element;
+            if (Objects.equals(alert.id(), alertId)) {
+                found = true;
+                if (replacement != null) {
+                    patched.add(replacement);
+                }
+            } else {
+                patched.add(alert);
+            }
+        }
+        if (!found && replacement == null) {
+            return cached;
+        }
+        if (!found) {
+            patched.add(replacement);
+        }
+        return Collections.unmodifiableList(patched);
+    }
+
+    private static String statusKey(StatusType status) {
+        return status != null ? status.name() : null;
+    }
+}
@@ -0,0 +1,617 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AlertStatistics;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertEvent;
+import com.example.demo.event.AlertsBulkChanged;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Колоночное хранилище инцидентов в памяти для отчетной статистики.
+ * Инциденты хранятся не объектами, а столбцами примитивов: время в микросекундах,
+ * закодированные по словарю автобус и местоположение, порядковые номера типа и статуса.
+ * Для статусов и типов ведутся битовые индексы (по битовой карте строк на значение),
+ * для автобусов - списки строк, для времени - минимум и максимум по блокам из 64 строк,
+ * по которым блоки вне периода пропускаются, а блоки целиком внутри периода не проверяются построчно.
+ * Подсчеты по периоду сводятся к побитовым операциям над словами битовых карт.
+ * <p>
+ * Хранилище загружается целиком при старте (в фоне) и далее обновляется по доменным событиям
+ * {@link AlertEvent} после фиксации транзакций. Изменения, выполненные на других узлах,
+ * не приходят в виде событий, поэтому по {@link DataVersionTracker.RemoteDataSetChangedEvent}
+ * хранилище загружается заново, но не чаще одного раза за alerts.column-store.remote-reload-interval-ms:
+ * при частых записях на других узлах изменения накапливаются и применяются одной загрузкой,
+ * а до нее хранилище отвечает по загруженным данным. Когда удаленные строки составляют больше половины,
+ * хранилище уплотняется. Пока хранилище не загружено, запросы возвращают пустой результат,
+ * и вызывающие стороны считают статистику по данным из базы данных.
+ * Включается параметром alerts.column-store.enabled.
+ */
+@Component
+public class AlertColumnStore implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(AlertColumnStore.class);
+
+    private static final StatusType[] STATUSES = StatusType.values();
+    private static final EventType[] TYPES = EventType.values();
+
+    private final AlertRepository alertRepository;
+    private final TransactionTemplate readOnly;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "alert-column-store-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Value("${alerts.column-store.enabled:false}")
+    private boolean enabled = false;
+
+    @Value("${alerts.column-store.remote-reload-interval-ms:5000}")
+    private long remoteReloadIntervalMs = 5000;
+
+    // Состояние ниже защищено блокировкой lock
+    private Columns columns = new Columns();
+    private boolean ready;
+    private boolean loading;
+    private long nextRemoteReload; // Момент (System.nanoTime), раньше которого загрузка по удаленному изменению откладывается
+    private final List<AlertEvent> pendingEvents = new ArrayList<>();
+
+    public AlertColumnStore(AlertRepository alertRepository, PlatformTransactionManager transactionManager) {
+        this.alertRepository = alertRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+    }
+
+    /**
+     * Запускает первоначальную загрузку хранилища после старта приложения.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void onApplicationStarted() {
+        if (enabled) {
+            requestReload(0);
+        }
+    }
+
+    /**
+     * Применяет изменение инцидента после фиксации транзакции.
+     * Во время загрузки события откладываются и применяются к загруженным данным.
+     *
+     * @param event событие об изменении инцидента
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertEvent(AlertEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (loading) {
+                pendingEvents.add(event);
+            }
+            if (ready) {
+                apply(columns, event);
+                if (columns.shouldCompact()) {
+                    columns = columns.compacted();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Планирует повторную загрузку хранилища, если инциденты изменились на другом узле.
+     * Загрузка выполняется не раньше чем через remote-reload-interval-ms после начала предыдущей,
+     * события в этом промежутке объединяются в одну загрузку.
+     *
+     * @param event событие об изменении набора данных на другом узле
+     */
+    @EventListener
+    public void onRemoteChange(DataVersionTracker.RemoteDataSetChangedEvent event) {
+        if (!enabled || event.dataSet() != DataVersionTracker.DataSet.ALERTS) {
+            return;
+        }
+        long delay;
+        lock.readLock().lock();
+        try {
+            delay = ready ? Math.max(0, nextRemoteReload - System.nanoTime()) : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+        requestReload(delay);
+    }
+
+    /**
+     * Помечает хранилище устаревшим и загружает его заново после фиксации массового изменения инцидентов.
+     *
+     * @param event событие о массовом изменении инцидентов
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AlertsBulkChanged event) {
+        invalidate();
+    }
+
+    private void invalidate() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            ready = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        requestReload(0);
+    }
+
+    /**
+     * Возвращает статистику по инцидентам, время которых попадает в период (границы включены).
+     *
+     * @param from начало периода
+     * @param to конец периода
+     * @return статистика или пустое значение, если хранилище отключено или еще не загружено
+     */
+    public Optional<AlertStatistics> statistics(LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            return Optional.of(columns.statistics(CachedAlert.toMicros(from), CachedAlert.toMicros(to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Возвращает количество инцидентов автобуса за период (границы включены).
+     *
+     * @param busId ID автобуса
+     * @param from начало периода
+     * @param to конец периода
+     * @return количество инцидентов или пустое значение, если хранилище не загружено
+     */
+    public Optional<Long> countForBus(Long busId, LocalDateTime from, LocalDateTime to) {
+        lock.readLock().lock();
+        try {
+            if (!ready) {
+                return Optional.empty();
+            }
+            return Optional.of(columns.countForBus(busId, CachedAlert.toMicros(from), CachedAlert.toMicros(to)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Проверяет, загружено ли хранилище.
+     *
+     * @return true, если запросы обслуживаются хранилищем
+     */
+    public boolean isReady() {
+        lock.readLock().lock();
+        try {
+            return ready;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void requestReload(long delayNanos) {
+        if (reloadScheduled.compareAndSet(false, true)) {
+            loader.schedule(() -> {
+                reloadScheduled.set(false);
+                try {
+                    reload();
+                } catch (RuntimeException e) {
+                    log.warn("Не удалось загрузить колоночное хранилище инцидентов: {}", e.getMessage());
+                    lock.writeLock().lock();
+                    try {
+                        loading = false;
+                        pendingEvents.clear();
+                    } finally {
+                        lock.writeLock().unlock();
+                    }
+                }
+            }, delayNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Загружает все инциденты из базы данных и заменяет ими содержимое хранилища.
+     * События, пришедшие во время чтения, применяются после него: они относятся
+     * к зафиксированным изменениям и применяются как замена строки, поэтому повторное
+     * применение уже прочитанного изменения ничего не меняет.
+     */
+    void reload() {
+        long started = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            loading = true;
+            pendingEvents.clear();
+            nextRemoteReload = started + TimeUnit.MILLISECONDS.toNanos(remoteReloadIntervalMs);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<CachedAlert> alerts = readOnly.execute(status -> alertRepository.findAllCached());
+        Columns loaded = new Columns();
+        for (CachedAlert alert : alerts) {
+            loaded.upsert(alert);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (AlertEvent event : pendingEvents) {
+                apply(loaded, event);
+            }
+            pendingEvents.clear();
+            columns = loaded.shouldCompact() ? loaded.compacted() : loaded;
+            loading = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Колоночное хранилище инцидентов загружено: {} строк за {} мс", loaded.liveRows,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    private static void apply(Columns target, AlertEvent event) {
+        if (event.after() != null) {
+            target.upsert(event.after());
+        } else {
+            target.delete(event.before().id());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        loader.shutdownNow();
+    }
+
+    /**
+     * Столбцы и индексы хранилища. Не потокобезопасен: доступ защищается блокировкой хранилища.
+     * Удаленные строки не переиспользуются, а снимаются с битовой карты живых строк;
+     * они исчезают при уплотнении или при следующей полной загрузке.
+     */
+    static final class Columns {
+        private static final int INITIAL_CAPACITY = 1024;
+        private static final int COMPACT_MIN_ROWS = INITIAL_CAPACITY;
+
+        int rows;       // Число строк, включая удаленные
+        int liveRows;   // Число живых строк
+        long[] ids = new long[INITIAL_CAPACITY];
+        long[] timestamps = new long[INITIAL_CAPACITY];
+        int[] busCodes = new int[INITIAL_CAPACITY];
+        byte[] types = new byte[INITIAL_CAPACITY];
+        byte[] statuses = new byte[INITIAL_CAPACITY];
+        int[] locationCodes = new int[INITIAL_CAPACITY];
+
+        long[] live = new long[words(INITIAL_CAPACITY)];
+        final long[][] statusBitmaps = new long[STATUSES.length][words(INITIAL_CAPACITY)];
+        final long[][] typeBitmaps = new long[TYPES.length][words(INITIAL_CAPACITY)];
+        long[] blockMin = filled(words(INITIAL_CAPACITY), Long.MAX_VALUE);
+        long[] blockMax = filled(words(INITIAL_CAPACITY), Long.MIN_VALUE);
+
+        final Map<Long, Integer> rowById = new HashMap<>();
+        final Dictionary<Long> buses = new Dictionary<>();
+        final Dictionary<String> locations = new Dictionary<>();
+        int[][] rowsByBus = new int[16][];
+        int[] rowsByBusCount = new int[16];
+
+        /**
+         * Добавляет инцидент или заменяет строку существующего инцидента.
+         * Если автобус и время не изменились (смена статуса, назначение), строка обновляется на месте.
+         */
+        void upsert(CachedAlert alert) {
+            Integer existing = rowById.get(alert.id());
+            if (existing != null) {
+                int row = existing;
+                if (busCodes[row] == buses.code(alert.busId()) && timestamps[row] == alert.timestampMicros()) {
+                    unindex(row);
+                    types[row] = alert.typeOrdinal();
+                    statuses[row] = alert.statusOrdinal();
+                    locationCodes[row] = locations.code(alert.location());
+                    index(row);
+                    return;
+                }
+                delete(alert.id());
+            }
+            append(alert);
+        }
+
+        void delete(long id) {
+            Integer row = rowById.remove(id);
+            if (row != null) {
+                unindex(row);
+                clear(live, row);
+                liveRows--;
+            }
+        }
+
+        /**
+         * Проверяет, стоит ли уплотнить столбцы: удаленных строк больше, чем живых.
+         * После уплотнения следующее возможно не раньше, чем удалится столько строк, сколько осталось живых,
+         * поэтому стоимость уплотнения распределяется по изменениям.
+         */
+        boolean shouldCompact() {
+            return rows >= COMPACT_MIN_ROWS && liveRows < rows - liveRows;
+        }
+
+        /**
+         * Создает столбцы только из живых строк в прежнем порядке. Словари строятся заново,
+         * поэтому автобусы и местоположения, оставшиеся лишь в удаленных строках, в них не попадают.
+         */
+        Columns compacted() {
+            Columns result = new Columns();
+            for (int word = 0; word < words(rows); word++) {
+                long bits = live[word];
+                while (bits != 0) {
+                    int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    result.append(new CachedAlert(ids[row], buses.value(busCodes[row]), types[row], statuses[row],
+                            timestamps[row], locations.value(locationCodes[row]), CachedAlert.UNASSIGNED));
+                    bits &= bits - 1;
+                }
+            }
+            return result;
+        }
+
+        private void append(CachedAlert alert) {
+            ensureCapacity(rows + 1);
+            int row = rows++;
+            ids[row] = alert.id();
+            timestamps[row] = alert.timestampMicros();
+            busCodes[row] = buses.code(alert.busId());
+            types[row] = alert.typeOrdinal();
+            statuses[row] = alert.statusOrdinal();
+            locationCodes[row] = locations.code(alert.location());
+
+            int block = row >>> 6;
+            blockMin[block] = Math.min(blockMin[block], alert.timestampMicros());
+            blockMax[block] = Math.max(blockMax[block], alert.timestampMicros());
+            addBusRow(busCodes[row], row);
+
+            set(live, row);
+            index(row);
+            rowById.put(alert.id(), row);
+            liveRows++;
+        }
+
+        private void index(int row) {
+            if (statuses[row] >= 0) {
+                set(statusBitmaps[statuses[row]], row);
+            }
+            if (types[row] >= 0) {
+                set(typeBitmaps[types[row]], row);
+            }
+        }
+
+        private void unindex(int row) {
+            if (statuses[row] >= 0) {
+                clear(statusBitmaps[statuses[row]], row);
+            }
+            if (types[row] >= 0) {
+                clear(typeBitmaps[types[row]], row);
+            }
+        }
+
+        private void addBusRow(int busCode, int row) {
+            if (busCode >= rowsByBus.length) {
+                int capacity = Math.max(busCode + 1, rowsByBus.length * 2);
+                rowsByBus = Arrays.copyOf(rowsByBus, capacity);
+                rowsByBusCount = Arrays.copyOf(rowsByBusCount, capacity);
+            }
+            int[] busRows = rowsByBus[busCode];
+            int count = rowsByBusCount[busCode];
+            if (busRows == null) {
+                busRows = new int[8];
+            } else if (count == busRows.length) {
+                busRows = Arrays.copyOf(busRows, count * 2);
+            }
+            busRows[count] = row;
+            rowsByBus[busCode] = busRows;
+            rowsByBusCount[busCode] = count + 1;
+        }
+
+        /**
+         * Строит битовую карту живых строк, время которых попадает в период.
+         */
+        long[] range(long from, long to) {
+            int words = words(rows);
+            long[] result = new long[words];
+            for (int word = 0; word < words; word++) {
+                long liveWord = live[word];
+                if (liveWord == 0 || blockMax[word] < from || blockMin[word] > to) {
+                    continue; // Блок целиком вне периода
+                }
+                if (blockMin[word] >= from && blockMax[word] <= to) {
+                    result[word] = liveWord; // Блок целиком внутри периода
+                    continue;
+                }
+                int base = word << 6;
+                int end = Math.min(64, rows - base);
+                long bits = 0;
+                for (int i = 0; i < end; i++) {
+                    long timestamp = timestamps[base + i];
+                    if (timestamp >= from && timestamp <= to) {
+                        bits |= 1L << i;
+                    }
+                }
+                result[word] = bits & liveWord;
+            }
+            return result;
+        }
+
+        AlertStatistics statistics(long from, long to) {
+            long[] range = range(from, to);
+
+            long total = 0;
+            int[] busCounts = new int[buses.size()];
+            int[] locationCounts = new int[locations.size()];
+            for (int word = 0; word < range.length; word++) {
+                long bits = range[word];
+                total += Long.bitCount(bits);
+                while (bits != 0) {
+                    int row = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    busCounts[busCodes[row]]++;
+                    locationCounts[locationCodes[row]]++;
+                    bits &= bits - 1;
+                }
+            }
+
+            Map<StatusType, Long> byStatus = new EnumMap<>(StatusType.class);
+            for (StatusType status : STATUSES) {
+                putNonZero(byStatus, status, intersectionCount(range, statusBitmaps[status.ordinal()]));
+            }
+            Map<EventType, Long> byType = new EnumMap<>(EventType.class);
+            for (EventType type : TYPES) {
+                putNonZero(byType, type, intersectionCount(range, typeBitmaps[type.ordinal()]));
+            }
+            Map<Long, Long> byBus = new HashMap<>();
+            for (int code = 0; code < busCounts.length; code++) {
+                putNonZero(byBus, buses.value(code), busCounts[code]);
+            }
+            Map<String, Long> byLocation = new HashMap<>();
+            for (int code = 0; code < locationCounts.length; code++) {
+                if (locations.value(code) != null) {
+                    putNonZero(byLocation, locations.value(code), locationCounts[code]);
+                }
+            }
+            return new AlertStatistics(total, byStatus, byType, byBus,
+                    AlertStatistics.top(byLocation, AlertStatistics.TOP_LOCATIONS));
+        }
+
+        long countForBus(Long busId, long from, long to) {
+            Integer code = buses.find(busId);
+            if (code == null || code >= rowsByBusCount.length) {
+                return 0;
+            }
+            int[] busRows = rowsByBus[code];
+            long count = 0;
+            for (int i = 0; i < rowsByBusCount[code]; i++) {
+                int row = busRows[i];
+                long timestamp = timestamps[row];
+                if (timestamp >= from && timestamp <= to && get(live, row)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= ids.length) {
+                return;
+            }
+            int capacity = Math.max(required, ids.length * 2);
+            int oldWords = live.length;
+            int newWords = words(capacity);
+            ids = Arrays.copyOf(ids, capacity);
+            timestamps = Arrays.copyOf(timestamps, capacity);
+            busCodes = Arrays.copyOf(busCodes, capacity);
+            types = Arrays.copyOf(types, capacity);
+            statuses = Arrays.copyOf(statuses, capacity);
+            locationCodes = Arrays.copyOf(locationCodes, capacity);
+            live = Arrays.copyOf(live, newWords);
+            for (int i = 0; i < statusBitmaps.length; i++) {
+                statusBitmaps[i] = Arrays.copyOf(statusBitmaps[i], newWords);
+            }
+            for (int i = 0; i < typeBitmaps.length; i++) {
+                typeBitmaps[i] = Arrays.copyOf(typeBitmaps[i], newWords);
+            }
+            blockMin = Arrays.copyOf(blockMin, newWords);
+            blockMax = Arrays.copyOf(blockMax, newWords);
+            Arrays.fill(blockMin, oldWords, newWords, Long.MAX_VALUE);
+            Arrays.fill(blockMax, oldWords, newWords, Long.MIN_VALUE);
+        }
+
+        private static long intersectionCount(long[] range, long[] bitmap) {
+            long count = 0;
+            for (int word = 0; word < range.length; word++) {
+                count += Long.bitCount(range[word] & bitmap[word]);
+            }
+            return count;
+        }
+
+        private static <K> void putNonZero(Map<K, Long> counts, K key, long count) {
+            if (count > 0) {
+                counts.put(key, count);
+            }
+        }
+
+        private static int words(int bits) {
+            return (bits + 63) >>> 6;
+        }
+
+        private static long[] filled(int length, long value) {
+            long[] array = new long[length];
+            Arrays.fill(array, value);
+            return array;
+        }
+
+        private static void set(long[] bitmap, int row) {
+            bitmap[row >>> 6] |= 1L << row;
+        }
+
+        private static void clear(long[] bitmap, int row) {
+            bitmap[row >>> 6] &= ~(1L << row);
+        }
+
+        private static boolean get(long[] bitmap, int row) {
+            return (bitmap[row >>> 6] & (1L << row)) != 0;
+        }
+    }
+
+    /**
+     * Словарь для кодирования значений столбца плотными номерами.
+     *
+     * @param <T> тип значения
+     */
+    static final class Dictionary<T> {
+        private final Map<T, Integer> codes = new HashMap<>();
+        private final List<T> values = new ArrayList<>();
+
+        int code(T value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+            }
+            return code;
+        }
+
+        Integer find(T value) {
+            return codes.get(value);
+        }
+
+        T value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package com.example.demo.service;
+
+import com.example.demo.event.AlertsBulkChanged;
+import com.example.demo.model.Alert;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+
+/**
+ * Сервис для массовой загрузки оповещений командой PostgreSQL COPY (ночные загрузки из систем депо).
+ * Оповещения потоково передаются командой COPY ... FROM STDIN во временную промежуточную таблицу,
+ * после чего одним запросом переносятся в alerts. Вся загрузка выполняется одной транзакцией,
+ * поэтому при любой ошибке основная таблица не изменяется.
+ * Перед переносом из промежуточной таблицы удаляются дубликаты - строки, отпечаток которых
+ * ({@link AlertFingerprint}) уже сохранен или повторяется в файле, - и строки с несуществующими автобусами
+ * (они возвращаются как ошибки), чтобы одна такая строка не отменяла всю загрузку.
+ * ID выдаются той же последовательностью alerts_seq, что и Hibernate: на каждые
+ * {@link Alert#ID_ALLOCATION_SIZE} строк берется одно значение последовательности, и строки получают
+ * ID из блока, который это значение закрепляет, поэтому ID не пересекаются с выданными Hibernate.
+ * Значения меньше {@link Alert#ID_ALLOCATION_SIZE} (первые значения новой последовательности) пропускаются,
+ * так как их блок ушел бы в неположительные ID.
+ * Кэши и версия данных обновляются один раз после фиксации через {@link AlertsBulkChanged}.
+ * Работает только с PostgreSQL.
+ */
+@Service
+public class AlertCopyLoader {
+    private static final Logger log = LoggerFactory.getLogger(AlertCopyLoader.class);
+
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    static final String CREATE_STAGING = "CREATE TEMP TABLE alerts_staging (line bigint NOT NULL, bus_id bigint, "
+            + "type text, timestamp timestamp, location text, description text, status text, "
+            + "assigned_to_user_id bigint, fingerprint text) ON COMMIT DROP";
+
+    static final String COPY_STAGING = "COPY alerts_staging (line, bus_id, type, timestamp, location, description, "
+            + "status, assigned_to_user_id, fingerprint) FROM STDIN WITH (FORMAT csv)";
+
+    static final String REJECT_REPEATED_ROWS = "DELETE FROM alerts_staging s USING (SELECT line, "
+            + "row_number() OVER (PARTITION BY fingerprint ORDER BY line) AS r FROM alerts_staging "
+            + "WHERE fingerprint IS NOT NULL) d WHERE s.line = d.line AND d.r > 1";
+
+    static final String REJECT_STORED_ROWS = "DELETE FROM alerts_staging s WHERE s.fingerprint IS NOT NULL "
+            + "AND EXISTS (SELECT 1 FROM alerts a WHERE a.fingerprint = s.fingerprint)";
+
+    static final String REJECT_UNKNOWN_BUSES = "DELETE FROM alerts_staging s "
+            + "WHERE NOT EXISTS (SELECT 1 FROM buses b WHERE b.id = s.bus_id) RETURNING s.bus_id, s.type";
+
+    static final String ALLOCATE_IDS = "CREATE TEMP TABLE alerts_staging_ids ON COMMIT DROP AS "
+            + "SELECT row_number() OVER (ORDER BY v.hi) - 1 AS g, v.hi FROM "
+            + "(SELECT nextval('alerts_seq') AS hi FROM generate_series(0, %d)) v "
+            + "WHERE v.hi >= " + Alert.ID_ALLOCATION_SIZE;
+
+    static final String ALLOCATE_ONE_MORE_ID = "INSERT INTO alerts_staging_ids (g, hi) "
+            + "SELECT (SELECT count(*) FROM alerts_staging_ids), nextval('alerts_seq')";
+
+    static final String INSERT_FROM_STAGING = "INSERT INTO alerts (id, bus_id, type, timestamp, location, "
+            + "description, status, assigned_to_user_id, fingerprint) "
+            + "SELECT i.hi - " + (Alert.ID_ALLOCATION_SIZE - 1) + " + s.n % " + Alert.ID_ALLOCATION_SIZE + ", "
+            + "s.bus_id, s.type, s.timestamp, s.location, s.description, s.status, s.assigned_to_user_id, s.fingerprint "
+            + "FROM (SELECT st.*, row_number() OVER (ORDER BY st.line) - 1 AS n FROM alerts_staging st) s "
+            + "JOIN alerts_staging_ids i ON i.g = s.n / " + Alert.ID_ALLOCATION_SIZE;
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final DataVersionTracker dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AlertFingerprintIndex fingerprintIndex;
+    private volatile Boolean supported;
+
+    public AlertCopyLoader(DataSource dataSource, JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager, DataVersionTracker dataVersions,
+                           ApplicationEventPublisher eventPublisher, AlertFingerprintIndex fingerprintIndex) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionManager = transactionManager;
+        this.dataVersions = dataVersions;
+        this.eventPublisher = eventPublisher;
+        this.fingerprintIndex = fingerprintIndex;
+    }
+
+    /**
+     * Проверяет, поддерживает ли база данных загрузку командой COPY (только PostgreSQL).
+     *
+     * @return true, если база данных - PostgreSQL
+     */
+    public boolean isSupported() {
+        Boolean result = supported;
+        if (result == null) {
+            try (Connection connection = dataSource.getConnection()) {
+                result = "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+            } catch (SQLException e) {
+                log.warn("Не удалось определить СУБД для загрузки COPY: {}", e.getMessage());
+                return false;
+            }
+            supported = result;
+        }
+        return result;
+    }
+
+    /**
+     * Открывает загрузку: начинает транзакцию, создает промежуточную таблицу и команду COPY.
+     * Загрузку нужно использовать и закрыть в том же потоке.
+     *
+     * @param onCreated обработчик ID сохраненного оповещения (вызывается после фиксации)
+     * @param onError обработчик ошибки загрузки
+     * @param onDuplicates обработчик числа пропущенных дубликатов (вызывается после фиксации)
+     * @return открытая загрузка
+     */
+    public CopyLoad open(LongConsumer onCreated, Consumer<String> onError, IntConsumer onDuplicates) {
+        TransactionStatus transaction = transactionManager.getTransaction(TransactionDefinition.withDefaults());
+        Connection connection = null;
+        try {
+            jdbcTemplate.execute(CREATE_STAGING);
+            connection = DataSourceUtils.getConnection(dataSource);
+            PGCopyOutputStream copy = new PGCopyOutputStream(
+                    connection.unwrap(PGConnection.class), COPY_STAGING, COPY_BUFFER_SIZE);
+            return new CopyLoad(onCreated, onError, onDuplicates, transaction, connection, copy);
+        } catch (SQLException | RuntimeException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            transactionManager.rollback(transaction);
+            throw new IllegalStateException("Не удалось начать загрузку COPY: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Загрузка оповещений командой COPY. Не потокобезопасна.
+     * После первой ошибки записи оставшиеся оповещения отбрасываются, а при закрытии транзакция откатывается.
+     */
+    public final class CopyLoad implements AlertImportSink {
+        private final LongConsumer onCreated;
+        private final Consumer<String> onError;
+        private final IntConsumer onDuplicates;
+        private final TransactionStatus transaction;
+        private final Connection connection;
+        private final PGCopyOutputStream copy;
+        private final Writer writer;
+        private final StringBuilder line = new StringBuilder(256);
+        private final long started = System.nanoTime();
+        private long lines;
+        private String failure;
+        private boolean closed;
+
+        private CopyLoad(LongConsumer onCreated, Consumer<String> onError, IntConsumer onDuplicates,
+                         TransactionStatus transaction, Connection connection, PGCopyOutputStream copy) {
+            this.onCreated = onCreated;
+            this.onError = onError;
+            this.onDuplicates = onDuplicates;
+            this.transaction = transaction;
+            this.connection = connection;
+            this.copy = copy;
+            this.writer = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), COPY_BUFFER_SIZE);
+        }
+
+        @Override
+        public void add(Alert alert) {
+            if (closed) {
+                throw new IllegalStateException("Загрузка уже завершена");
+            }
+            if (failure != null) {
+                return;
+            }
+            AlertBulkInsertService.applyDefaults(alert);
+            line.setLength(0);
+            line.append(lines).append(',')
+                    .append(alert.getBusId()).append(',')
+                    .append(alert.getType().name()).append(',')
+                    .append(alert.getTimestamp()).append(',');
+            appendQuoted(alert.getLocation());
+            line.append(',');
+            appendQuoted(alert.getDescription());
+            line.append(',').append(alert.getStatus().name()).append(',');
+            if (alert.getAssignedToUserId() != null) {
+                line.append(alert.getAssignedToUserId());
+            }
+            line.append(',');
+            if (alert.getFingerprint() != null) {
+                line.append(alert.getFingerprint());
+                // Отпечаток попадает в фильтр до фиксации: при откате это лишь ложное срабатывание фильтра
+                fingerprintIndex.add(alert.getFingerprint());
+            }
+            line.append('\n');
+            try {
+                writer.append(line);
+                lines++;
+            } catch (IOException e) {
+                failure = e.getMessage();
+                log.warn("Запись в COPY прервана на строке {}: {}", lines, e.getMessage());
+            }
+        }
+
+        @Override
+        public int pendingCount() {
+            return (int) Math.min(Integer.MAX_VALUE, lines);
+        }
+
+        /**
+         * Отменяет COPY и откатывает транзакцию: основная таблица не изменяется.
+         */
+        @Override
+        public void abort() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            rollback();
+            log.info("Загрузка COPY прервана после {} строк, транзакция откачена", lines);
+        }
+
+        /**
+         * Завершает COPY, переносит строки из промежуточной таблицы в alerts и фиксирует транзакцию.
+         * При ошибке транзакция откатывается, и ни одно оповещение не сохраняется.
+         */
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            List<Long> blockIds = List.of();
+            long loaded = 0;
+            int duplicates = 0;
+            try {
+                if (failure == null) {
+                    writer.close();
+                    duplicates = jdbcTemplate.update(REJECT_REPEATED_ROWS) + jdbcTemplate.update(REJECT_STORED_ROWS);
+                    jdbcTemplate.query(REJECT_UNKNOWN_BUSES, (RowCallbackHandler) rs -> {
+                        onError.accept("Не удалось сохранить инцидент: автобус " + rs.getLong(1) +
+                                ", тип " + rs.getString(2) + " - автобус не найден");
+                    });
+                    loaded = jdbcTemplate.queryForObject("SELECT count(*) FROM alerts_staging", Long.class);
+                    if (loaded > 0) {
+                        long blocks = (loaded + Alert.ID_ALLOCATION_SIZE - 1) / Alert.ID_ALLOCATION_SIZE;
+                        jdbcTemplate.execute(String.format(ALLOCATE_IDS, blocks - 1));
+                        blockIds = jdbcTemplate.queryForList("SELECT hi FROM alerts_staging_ids ORDER BY g", Long.class);
+                        while (blockIds.size() < blocks) {
+                            // Взамен пропущенных значений новой последовательности
+                            jdbcTemplate.update(ALLOCATE_ONE_MORE_ID);
+                            blockIds = jdbcTemplate.queryForList("SELECT hi FROM alerts_staging_ids ORDER BY g",
+                                    Long.class);
+                        }
+                        jdbcTemplate.update(INSERT_FROM_STAGING);
+                        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
+                        eventPublisher.publishEvent(new AlertsBulkChanged((int) loaded));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                failure = e.getMessage();
+            }
+
+            try {
+                if (failure == null) {
+                    DataSourceUtils.releaseConnection(connection, dataSource);
+                    transactionManager.commit(transaction);
+                } else {
+                    rollback();
+                }
+            } catch (RuntimeException e) {
+                failure = e.getMessage();
+            }
+
+            if (failure != null) {
+                log.warn("Загрузка COPY отменена после {} строк: {}", lines, failure);
+                onError.accept("Загрузка не выполнена, инциденты не сохранены: " + failure);
+                return;
+            }
+            reportIds(blockIds, loaded);
+            if (duplicates > 0) {
+                onDuplicates.accept(duplicates);
+            }
+            long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Загрузка инцидентов через COPY: передано {}, сохранено {}, дубликатов {}, {} мс ({} строк/с)",
+                    lines, loaded, duplicates, elapsedMillis, loaded * 1000L / elapsedMillis);
+        }
+
+        private void rollback() {
+            try {
+                if (copy.isActive()) {
+                    copy.cancelCopy();
+                }
+            } catch (SQLException e) {
+                log.debug("Не удалось отменить COPY", e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+                if (!transaction.isCompleted()) {
+                    transactionManager.rollback(transaction);
+                }
+            }
+        }
+
+        /**
+         * Передает ID сохраненных оповещений: строка с номером n получила ID из блока n / размер блока.
+         */
+        private void reportIds(List<Long> blockIds, long loaded) {
+            for (int block = 0; block < blockIds.size(); block++) {
+                long first = blockIds.get(block) - Alert.ID_ALLOCATION_SIZE + 1;
+                long count = Math.min(Alert.ID_ALLOCATION_SIZE, loaded - (long) block * Alert.ID_ALLOCATION_SIZE);
+                for (long id = first; id < first + count; id++) {
+                    onCreated.accept(id);
+                }
+            }
+        }
+
+        /**
+         * Добавляет строку в кавычках формата CSV; пустое значение без кавычек означает NULL.
+         */
+        private void appendQuoted(String value) {
+            if (value == null) {
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+    }
+}
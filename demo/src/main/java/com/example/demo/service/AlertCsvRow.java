@@ -0,0 +1,108 @@
+package com.example.demo.service;
+
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Запись CSV-файла импорта оповещений. Значения столбцов обрезаются по краям, пустое значение
+ * считается отсутствующим. Реализуется записью commons-csv ({@link #of(CSVRecord)}) и разбором файла,
+ * отображенного в память ({@link MappedCsvTokenizer}), поэтому оба способа разбора преобразуют записи
+ * в оповещения одним кодом ({@link CsvImportService#toAlert(AlertCsvRow)}) и дают одинаковый результат.
+ */
+abstract class AlertCsvRow {
+
+    /**
+     * Столбцы CSV-файла импорта (имена заголовков без учета регистра).
+     */
+    enum Column {
+        BUS_ID("bus_id"),
+        TYPE("type"),
+        LOCATION("location"),
+        DESCRIPTION("description"),
+        STATUS("status"),
+        ASSIGNED_TO_USER_ID("assigned_to_user_id"),
+        TIMESTAMP("timestamp");
+
+        private final String header;
+
+        Column(String header) {
+            this.header = header;
+        }
+
+        String header() {
+            return header;
+        }
+    }
+
+    /**
+     * Возвращает номер записи в файле (первая запись после заголовка - 1).
+     *
+     * @return номер записи
+     */
+    abstract long recordNumber();
+
+    /**
+     * Проверяет, что столбец есть в записи и его значение не пустое.
+     *
+     * @param column столбец
+     * @return true, если значение задано
+     */
+    abstract boolean hasValue(Column column);
+
+    /**
+     * Возвращает обрезанное значение столбца.
+     *
+     * @param column столбец
+     * @return значение или null, если значение не задано
+     */
+    abstract String get(Column column);
+
+    /**
+     * Разбирает значение столбца как число так же, как {@link Long#parseLong(String)}.
+     *
+     * @param column столбец с заданным значением
+     * @return число
+     * @throws NumberFormatException если значение не является числом
+     */
+    long longValue(Column column) {
+        return Long.parseLong(get(column));
+    }
+
+    /**
+     * Разбирает значение столбца как константу перечисления без учета регистра,
+     * так же, как {@link Enum#valueOf} от значения в верхнем регистре.
+     *
+     * @param column столбец с заданным значением
+     * @param type класс перечисления
+     * @return константа перечисления
+     * @throws IllegalArgumentException если константы с таким именем нет
+     */
+    <E extends Enum<E>> E enumValue(Column column, Class<E> type) {
+        return Enum.valueOf(type, get(column).toUpperCase());
+    }
+
+    /**
+     * Представляет запись commons-csv как запись импорта.
+     *
+     * @param csvRecord запись, прочитанная форматом {@link CsvImportService#createCsvFormat()}
+     * @return запись импорта
+     */
+    static AlertCsvRow of(CSVRecord csvRecord) {
+        return new AlertCsvRow() {
+            @Override
+            long recordNumber() {
+                return csvRecord.getRecordNumber();
+            }
+
+            @Override
+            boolean hasValue(Column column) {
+                String value = get(column);
+                return value != null && !value.trim().isEmpty();
+            }
+
+            @Override
+            String get(Column column) {
+                return csvRecord.isSet(column.header()) ? csvRecord.get(column.header()) : null;
+            }
+        };
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Alert;
+import com.example.demo.repository.AlertRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Сервис для потоковой выгрузки инцидентов.
+ * Читает инциденты через однонаправленный курсор базы данных и сразу пишет их в выходной поток
+ * в формате NDJSON (один JSON-объект на строку). Контекст персистентности очищается порциями,
+ * поэтому расход памяти не зависит от количества выгружаемых строк.
+ */
+@Service
+public class AlertExportService {
+    private static final Logger log = LoggerFactory.getLogger(AlertExportService.class);
+
+    private final AlertRepository alertRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${alerts.export.batch-size:500}")
+    private int batchSize = 500;
+
+    public AlertExportService(AlertRepository alertRepository, ObjectMapper objectMapper) {
+        this.alertRepository = alertRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Выгружает все инциденты в выходной поток в формате NDJSON.
+     * После каждой порции из batchSize строк выходной поток сбрасывается клиенту,
+     * а прочитанные сущности удаляются из контекста персистентности.
+     *
+     * @param out выходной поток ответа (не закрывается методом)
+     * @return количество выгруженных инцидентов
+     * @throws IOException если не удалось записать данные в выходной поток
+     */
+    @Transactional(readOnly = true)
+    public long exportNdjson(OutputStream out) throws IOException {
+        log.info("Начало потоковой выгрузки инцидентов, размер порции: {}", batchSize);
+        long startTime = System.currentTimeMillis();
+        long count = 0;
+
+        // Генератор закрывается (и сбрасывает буфер) в конце выгрузки, но не закрывает поток ответа.
+        // Сброс после каждого значения отключен: поток сбрасывается клиенту только после порции.
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                     .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+             Stream<Alert> alerts = alertRepository.streamAllOrderById();
+             SequenceWriter writer = objectMapper.writerFor(Alert.class)
+                     .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                     .withRootValueSeparator("\n")
+                     .writeValues(generator)) {
+
+            Iterator<Alert> iterator = alerts.iterator();
+            while (iterator.hasNext()) {
+                writer.write(iterator.next());
+                count++;
+
+                if (count % batchSize == 0) {
+                    writer.flush();
+                    entityManager.clear(); // Освобождаем уже выгруженные сущности
+                    log.debug("Выгружено {} инцидентов", count);
+                }
+            }
+            if (count > 0) {
+                generator.writeRaw('\n'); // Завершаем последнюю строку NDJSON
+            }
+            generator.flush();
+        }
+
+        log.info("Потоковая выгрузка завершена: {} инцидентов за {} мс",
+                count, System.currentTimeMillis() - startTime);
+        return count;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Alert;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Отпечаток импортируемого оповещения: SHA-256 от ID автобуса, типа, времени, местоположения и описания.
+ * Одинаковые строки разных выгрузок депо дают одинаковый отпечаток, поэтому повторно присланная строка
+ * распознается как уже сохраненное оповещение. Статус и назначенный пользователь в отпечаток не входят:
+ * они меняются после создания оповещения. Отпечаток вычисляется только для строк со временем:
+ * без него повторная строка неотличима от нового инцидента с тем же автобусом, типом, местом и описанием,
+ * поэтому такие строки не проверяются на дубликаты.
+ */
+final class AlertFingerprint {
+
+    /**
+     * Длина отпечатка в шестнадцатеричном виде.
+     */
+    static final int LENGTH = 64;
+
+    private static final char SEPARATOR = '\u001F';
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    });
+
+    private AlertFingerprint() {
+    }
+
+    /**
+     * Вычисляет отпечаток оповещения до заполнения значений по умолчанию.
+     *
+     * @param alert оповещение
+     * @return отпечаток из {@link #LENGTH} шестнадцатеричных символов или null, если время в строке не задано
+     */
+    static String of(Alert alert) {
+        if (alert.getTimestamp() == null) {
+            return null;
+        }
+        String key = String.valueOf(alert.getBusId()) + SEPARATOR
+                + alert.getType().name() + SEPARATOR
+                + alert.getTimestamp() + SEPARATOR
+                + alert.getLocation() + SEPARATOR
+                + alert.getDescription();
+        MessageDigest digest = DIGEST.get();
+        return HexFormat.of().formatHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+}
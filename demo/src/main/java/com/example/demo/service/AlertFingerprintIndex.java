@@ -0,0 +1,180 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Индекс отпечатков сохраненных оповещений для пропуска повторно импортируемых строк.
+ * Отпечатки хранятся в столбце alerts.fingerprint с уникальным индексом, а в памяти - фильтром Блума.
+ * Фильтр отвечает «точно нет» для большинства новых строк, и запрос к базе данных выполняется только
+ * для строк, которые фильтр считает возможно сохраненными (повторы и редкие ложные срабатывания),
+ * одним запросом на lookup-batch-size отпечатков. Строки, сохраненные в обход фильтра
+ * (другим экземпляром приложения или параллельным импортом), отсекает уникальный индекс.
+ * <p>
+ * Фильтр загружается из базы данных при первой проверке, его размер рассчитан на
+ * max(expected-fingerprints, удвоенное число сохраненных отпечатков) с долей ложных срабатываний
+ * false-positive-rate. Удаленные оповещения из фильтра не удаляются: это только увеличивает число
+ * лишних запросов к базе данных, но не приводит к пропуску новых строк.
+ */
+@Service
+public class AlertFingerprintIndex {
+    private static final Logger log = LoggerFactory.getLogger(AlertFingerprintIndex.class);
+
+    private final AlertRepository alertRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private volatile BloomFilter filter;
+
+    @Value("${alerts.import.dedup.expected-fingerprints:1000000}")
+    private long expectedFingerprints = 1_000_000;
+
+    @Value("${alerts.import.dedup.false-positive-rate:0.01}")
+    private double falsePositiveRate = 0.01;
+
+    @Value("${alerts.import.dedup.lookup-batch-size:1000}")
+    private int lookupBatchSize = 1000;
+
+    public AlertFingerprintIndex(AlertRepository alertRepository, JdbcTemplate jdbcTemplate) {
+        this.alertRepository = alertRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Находит, какие из отпечатков уже сохранены. В базе данных проверяются только отпечатки,
+     * которые фильтр Блума считает возможно сохраненными.
+     *
+     * @param fingerprints отпечатки для проверки
+     * @return сохраненные отпечатки из переданных
+     */
+    public Set<String> findExisting(Collection<String> fingerprints) {
+        BloomFilter current = loadedFilter();
+        List<String> candidates = new ArrayList<>();
+        for (String fingerprint : fingerprints) {
+            if (current.mightContain(fingerprint)) {
+                candidates.add(fingerprint);
+            }
+        }
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < candidates.size(); from += lookupBatchSize) {
+            existing.addAll(alertRepository.findExistingFingerprints(
+                    candidates.subList(from, Math.min(candidates.size(), from + lookupBatchSize))));
+        }
+        log.debug("Проверка отпечатков: {}, запрошено в базе данных {}, найдено {}",
+                fingerprints.size(), candidates.size(), existing.size());
+        return existing;
+    }
+
+    /**
+     * Проверяет в базе данных, сохранено ли оповещение с отпечатком (без фильтра Блума).
+     *
+     * @param fingerprint отпечаток
+     * @return true, если оповещение с таким отпечатком существует
+     */
+    public boolean exists(String fingerprint) {
+        return alertRepository.existsByFingerprint(fingerprint);
+    }
+
+    /**
+     * Добавляет отпечаток сохраненного (или сохраняемого) оповещения в фильтр.
+     * Если фильтр еще не загружен, отпечаток будет прочитан из базы данных при загрузке.
+     *
+     * @param fingerprint отпечаток
+     */
+    public void add(String fingerprint) {
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(fingerprint);
+        }
+    }
+
+    private BloomFilter loadedFilter() {
+        BloomFilter current = filter;
+        if (current == null) {
+            synchronized (this) {
+                current = filter;
+                if (current == null) {
+                    current = load();
+                    filter = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private BloomFilter load() {
+        long started = System.nanoTime();
+        Long stored = jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM alerts WHERE fingerprint IS NOT NULL", Long.class);
+        long count = stored != null ? stored : 0;
+        BloomFilter loaded = new BloomFilter(Math.max(expectedFingerprints, 2 * count), falsePositiveRate);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT fingerprint FROM alerts WHERE fingerprint IS NOT NULL");
+            statement.setFetchSize(10_000);
+            return statement;
+        }, (RowCallbackHandler) rs -> loaded.put(rs.getString(1)));
+        log.info("Фильтр отпечатков импорта загружен: {} отпечатков, {} КБ, {} мс",
+                count, loaded.sizeInBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+        return loaded;
+    }
+
+    /**
+     * Фильтр Блума по отпечаткам SHA-256. Отпечаток уже равномерно распределен, поэтому позиции битов
+     * вычисляются двойным хешированием из первых 128 бит отпечатка. Потокобезопасен.
+     */
+    static final class BloomFilter {
+        private final AtomicLongArray words;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(long expectedEntries, double falsePositiveRate) {
+            long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+            this.words = new AtomicLongArray(wordCount);
+            this.bitCount = (long) wordCount * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+        }
+
+        void put(String fingerprint) {
+            long h1 = Long.parseUnsignedLong(fingerprint, 0, 16, 16);
+            long h2 = Long.parseUnsignedLong(fingerprint, 16, 32, 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value;
+                do {
+                    value = words.get(word);
+                } while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask));
+            }
+        }
+
+        boolean mightContain(String fingerprint) {
+            long h1 = Long.parseUnsignedLong(fingerprint, 0, 16, 16);
+            long h2 = Long.parseUnsignedLong(fingerprint, 16, 32, 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        long sizeInBytes() {
+            return (long) words.length() * Long.BYTES;
+        }
+    }
+}
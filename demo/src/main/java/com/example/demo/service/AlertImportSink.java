@@ -0,0 +1,37 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Alert;
+
+/**
+ * Стадия сохранения импорта: принимает оповещения по одному в порядке файла.
+ * Сохраненные ID и ошибки передаются обработчикам, заданным при открытии.
+ * Кэши и версия данных обновляются один раз при закрытии.
+ */
+public interface AlertImportSink extends AutoCloseable {
+
+    /**
+     * Добавляет оповещение для сохранения.
+     *
+     * @param alert новое оповещение (без ID)
+     */
+    void add(Alert alert);
+
+    /**
+     * Возвращает число добавленных, но еще не зафиксированных оповещений.
+     * Ноль означает, что все добавленные оповещения зафиксированы.
+     *
+     * @return число незафиксированных оповещений
+     */
+    int pendingCount();
+
+    /**
+     * Сохраняет оставшиеся оповещения и завершает импорт.
+     */
+    @Override
+    void close();
+
+    /**
+     * Прерывает импорт: незафиксированные оповещения отбрасываются, уже зафиксированные остаются.
+     */
+    void abort();
+}
@@ -0,0 +1,311 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AlertInbox;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertEvent;
+import com.example.demo.event.AlertsBulkChanged;
+import com.example.demo.mapper.AlertMapper;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Сервис входящих инцидентов пользователей.
+ * Для каждого пользователя, запрашивавшего свои входящие, в кэше {@value #ALERT_INBOX} хранится
+ * материализованный список открытых назначенных ему инцидентов, упорядоченный по приоритету и возрасту,
+ * и журнал последних изменений с номерами версий. Список загружается из базы данных один раз,
+ * а далее обновляется по доменным событиям {@link AlertEvent} после фиксации транзакций
+ * (назначение, смена статуса, удаление), поэтому повторный опрос с версией стоит
+ * столько, сколько изменений произошло с прошлого опроса, и не обращается к базе данных.
+ * <p>
+ * Версия включает метку запуска приложения: версия, выданная до перезапуска или другим узлом,
+ * а также слишком старая версия, вытесненная из журнала, приводят к полному ответу.
+ */
+@Service
+public class AlertInboxService {
+    private static final Logger log = LoggerFactory.getLogger(AlertInboxService.class);
+
+    static final String ALERT_INBOX = "alertInbox";
+
+    /**
+     * Максимальное число изменений в журнале одного списка.
+     */
+    static final int MAX_CHANGES = 256;
+
+    /**
+     * Порядок входящих: сначала более опасные типы (ДТП, тревожная кнопка, резкое торможение),
+     * внутри типа - более старые инциденты.
+     */
+    static final Comparator<CachedAlert> PRIORITY = Comparator
+            .comparingInt((CachedAlert alert) -> typeRank(alert.type()))
+            .thenComparingLong(CachedAlert::timestampMicros)
+            .thenComparingLong(CachedAlert::id);
+
+    private final AlertRepository alertRepository;
+    private final CacheManager cacheManager;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong versionSequence = new AtomicLong();
+
+    public AlertInboxService(AlertRepository alertRepository, CacheManager cacheManager) {
+        this.alertRepository = alertRepository;
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Возвращает входящие пользователя целиком или изменения после указанной версии.
+     *
+     * @param userId ID пользователя
+     * @param since версия из предыдущего ответа (null - полный ответ)
+     * @return входящие пользователя
+     */
+    public AlertInbox inbox(Long userId, String since) {
+        return inboxOf(userId).read(parseVersion(since));
+    }
+
+    /**
+     * Возвращает строгий ETag текущей версии входящих пользователя.
+     *
+     * @param userId ID пользователя
+     * @return значение ETag в кавычках
+     */
+    public String etag(Long userId) {
+        return "\"inbox-" + userId + "-" + formatVersion(inboxOf(userId).version()) + "\"";
+    }
+
+    /**
+     * Обновляет загруженные входящие после фиксации транзакции, в которой изменился инцидент.
+     * Инцидент убирается из входящих прежнего исполнителя и добавляется во входящие нового,
+     * если он не решен. Незагруженные входящие не создаются.
+     *
+     * @param event событие об изменении инцидента
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlertEvent(AlertEvent event) {
+        CachedAlert after = event.after();
+        Long previousUserId = event.before() != null ? event.before().assignedToUserId() : null;
+        Long userId = after != null ? after.assignedToUserId() : null;
+        Long alertId = after != null ? after.id() : event.before().id();
+
+        if (previousUserId != null && !previousUserId.equals(userId)) {
+            update(previousUserId, inbox -> inbox.remove(alertId));
+        }
+        if (userId != null) {
+            update(userId, inbox -> inbox.put(after));
+        }
+    }
+
+    /**
+     * Сбрасывает все входящие после фиксации массового изменения инцидентов;
+     * входящие загрузятся заново при следующем запросе.
+     *
+     * @param event событие о массовом изменении инцидентов
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBulkChange(AlertsBulkChanged event) {
+        Cache cache = cacheManager.getCache(ALERT_INBOX);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private UserInbox inboxOf(Long userId) {
+        Cache cache = cacheManager.getCache(ALERT_INBOX);
+        if (cache == null) {
+            return load(userId);
+        }
+        return Objects.requireNonNull(cache.get(userId, () -> load(userId)));
+    }
+
+    private UserInbox load(Long userId) {
+        List<CachedAlert> alerts = alertRepository.findCachedByAssignedToUserId(userId);
+        UserInbox inbox = new UserInbox(versionSequence.incrementAndGet());
+        alerts.forEach(inbox::load);
+        log.debug("Входящие пользователя {} загружены: {} открытых инцидентов", userId, inbox.size());
+        return inbox;
+    }
+
+    /**
+     * Применяет изменение к загруженным входящим пользователя.
+     * Для кэшей Caffeine изменение выполняется через compute: если входящие по этому ключу
+     * сейчас загружаются, изменение дождется окончания загрузки и применится к ее результату.
+     */
+    private void update(Long userId, Consumer<UserInbox> change) {
+        Cache cache = cacheManager.getCache(ALERT_INBOX);
+        if (cache instanceof CaffeineCache caffeineCache) {
+            caffeineCache.getNativeCache().asMap().compute(userId, (key, cached) -> {
+                if (cached instanceof UserInbox inbox) {
+                    change.accept(inbox);
+                }
+                return cached;
+            });
+        } else if (cache != null) {
+            Cache.ValueWrapper wrapper = cache.get(userId);
+            if (wrapper != null && wrapper.get() instanceof UserInbox inbox) {
+                change.accept(inbox);
+            }
+        }
+    }
+
+    private long parseVersion(String since) {
+        String prefix = epoch + "-";
+        if (since == null || !since.startsWith(prefix)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(since.substring(prefix.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private String formatVersion(long version) {
+        return epoch + "-" + version;
+    }
+
+    private static int typeRank(EventType type) {
+        if (type == null) {
+            return Integer.MAX_VALUE;
+        }
+        return switch (type) {
+            case ACCIDENT -> 0;
+            case BUTTON -> 1;
+            case HARD_BRAKING -> 2;
+        };
+    }
+
+    /**
+     * Запись журнала изменений входящих.
+     *
+     * @param version версия, присвоенная изменению
+     * @param alertId ID измененного инцидента
+     */
+    private record Change(long version, Long alertId) {
+    }
+
+    /**
+     * Материализованные входящие одного пользователя. Изменяются под блокировкой кэша по ключу,
+     * читаются параллельно, поэтому все методы синхронизированы.
+     * Открыт для конфигурации кэшей, чтобы вес записи учитывал журнал изменений.
+     */
+    public final class UserInbox {
+        private final Map<Long, CachedAlert> open = new HashMap<>();
+        private final NavigableSet<CachedAlert> ordered = new TreeSet<>(PRIORITY);
+        private final ArrayDeque<Change> changes = new ArrayDeque<>();
+        private long version;
+        private long oldestDelta; // Самая старая версия, от которой можно построить изменения
+
+        UserInbox(long version) {
+            this.version = version;
+            this.oldestDelta = version;
+        }
+
+        synchronized void load(CachedAlert alert) {
+            if (isOpen(alert)) {
+                open.put(alert.id(), alert);
+                ordered.add(alert);
+            }
+        }
+
+        synchronized void put(CachedAlert alert) {
+            if (!isOpen(alert)) {
+                remove(alert.id());
+                return;
+            }
+            CachedAlert previous = open.put(alert.id(), alert);
+            if (alert.equals(previous)) {
+                return;
+            }
+            if (previous != null) {
+                ordered.remove(previous);
+            }
+            ordered.add(alert);
+            record(alert.id());
+        }
+
+        synchronized void remove(Long alertId) {
+            CachedAlert previous = open.remove(alertId);
+            if (previous != null) {
+                ordered.remove(previous);
+                record(alertId);
+            }
+        }
+
+        synchronized long version() {
+            return version;
+        }
+
+        synchronized int size() {
+            return open.size();
+        }
+
+        /**
+         * Возвращает вес входящих для кэша: число открытых инцидентов и записей журнала изменений.
+         *
+         * @return вес входящих
+         */
+        public synchronized int weight() {
+            return open.size() + changes.size();
+        }
+
+        synchronized AlertInbox read(long since) {
+            if (since < oldestDelta || since > version) {
+                return new AlertInbox(formatVersion(version), true,
+                        AlertMapper.toSummaries(List.copyOf(ordered)), List.of());
+            }
+
+            Set<Long> changedIds = new LinkedHashSet<>();
+            for (var iterator = changes.descendingIterator(); iterator.hasNext(); ) {
+                Change change = iterator.next();
+                if (change.version() <= since) {
+                    break;
+                }
+                changedIds.add(change.alertId());
+            }
+            List<CachedAlert> items = new ArrayList<>();
+            List<Long> removedIds = new ArrayList<>();
+            for (Long alertId : changedIds) {
+                CachedAlert alert = open.get(alertId);
+                if (alert != null) {
+                    items.add(alert);
+                } else {
+                    removedIds.add(alertId);
+                }
+            }
+            items.sort(PRIORITY);
+            return new AlertInbox(formatVersion(version), false, AlertMapper.toSummaries(items), removedIds);
+        }
+
+        private void record(Long alertId) {
+            version = versionSequence.incrementAndGet();
+            changes.addLast(new Change(version, alertId));
+            if (changes.size() > MAX_CHANGES) {
+                oldestDelta = changes.removeFirst().version();
+            }
+        }
+
+        private static boolean isOpen(CachedAlert alert) {
+            return alert.status() != null && alert.status() != StatusType.RESOLVED;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.CachedAlert;
 import com.example.demo.model.Alert;
 import com.example.demo.model.StatusType;
 
@@ -8,7 +9,6 @@ import jakarta.transaction.Transactional;
 import java.util.List;
 import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 
 
@@ -20,24 +20,24 @@ import org.springframework.cache.annotation.Cacheable;
 public interface AlertService {
 
     /**
-     * Находит все оповещения.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит все оповещения в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @return Список всех оповещений
      */
-    @Cacheable(value = "alerts", unless = "#result.isEmpty()")
-    List<Alert> findAll();
+    @Cacheable(value = "alerts", sync = true)
+    List<CachedAlert> findAll();
 
 
     /**
-     * Находит оповещения по статусу.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит оповещения по статусу в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @param status Статус оповещений для поиска
      * @return Список оповещений с указанным статусом
      */
-    @Cacheable(value = "alertsByStatus", key = "#status.name()")
-    List<Alert> findByStatus(StatusType status);
+    @Cacheable(value = "alertsByStatus", key = "#status.name()", sync = true)
+    List<CachedAlert> findByStatus(StatusType status);
 
 
     /**
@@ -51,50 +51,46 @@ public interface AlertService {
 
     /**
      * Создает новое оповещение.
-     * После создания очищает соответствующие кэши.
+     * После создания добавляет оповещение в закэшированные списки.
      *
      * @param alert Объект оповещения для создания
      * @return Созданное оповещение
      */
     @Transactional
-    @CacheEvict(value = {"alerts", "alertsByStatus", "alertsByBus", "alertsByUser"}, allEntries = true)
     Alert create(Alert alert);
 
 
     /**
      * Обновляет статус оповещения.
-     * После обновления очищает соответствующие кэши.
+     * После обновления переносит оповещение из списка старого статуса в список нового.
      *
      * @param alertId Уникальный идентификатор оповещения для обновления
      * @param newStatus Новый статус для оповещения
      * @return Обновленное оповещение
      */
     @Transactional
-    @CacheEvict(value = {"alerts", "alertsByStatus", "alertsByBus", "alertsByUser"}, allEntries = true)
     Alert updateStatus(Long alertId, StatusType newStatus);
 
 
     /**
      * Назначает оповещение пользователю.
-     * После назначения очищает соответствующие кэши.
+     * После назначения точечно обновляет затронутые записи кэшей.
      *
      * @param alertId Уникальный идентификатор оповещения для назначения
      * @param userId Уникальный идентификатор пользователя, которому назначается оповещение
      * @return Обновленное оповещение
      */
     @Transactional
-    @CacheEvict(value = {"alerts", "alertsByStatus", "alertsByBus", "alertsByUser"}, allEntries = true)
     Alert assignToUser(Long alertId, Long userId);
 
 
     /**
      * Удаляет оповещение по его ID.
-     * После удаления очищает соответствующие кэши.
+     * После удаления убирает оповещение из закэшированных списков.
      *
      * @param id Уникальный идентификатор оповещения для удаления
      */
     @Transactional
-    @CacheEvict(value = {"alerts", "alertsByStatus", "alertsByBus", "alertsByUser"}, allEntries = true)
     void deleteById(Long id);
 
     /**
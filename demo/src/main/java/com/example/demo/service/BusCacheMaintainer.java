@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import com.example.demo.event.BusEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Компонент для инвалидации кэшей автобусов.
+ * По доменным событиям {@link BusEvent} после фиксации транзакции удаляет из кэшей
+ * список всех автобусов и запись измененного автобуса.
+ * Удаляются конкретные ключи, а не весь кэш: удаление ключа дожидается загрузки,
+ * которая выполняется по нему, поэтому загрузка, начатая до фиксации, не оставит в кэше старые данные.
+ */
+@Component
+public class BusCacheMaintainer {
+    private static final Logger log = LoggerFactory.getLogger(BusCacheMaintainer.class);
+
+    static final String BUSES = "buses";
+    static final String BUS = "bus";
+
+    private final CacheManager cacheManager;
+
+    public BusCacheMaintainer(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Инвалидирует кэши после фиксации транзакции, в которой изменился автобус.
+     * Вне транзакции событие обрабатывается сразу.
+     *
+     * @param event событие об изменении автобуса
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBusEvent(BusEvent event) {
+        evict(BUSES, SimpleKey.EMPTY);
+        evict(BUS, event.busId());
+        log.debug("Кэши автобусов инвалидированы: {}", event);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
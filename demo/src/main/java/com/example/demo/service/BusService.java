@@ -1,15 +1,17 @@
 package com.example.demo.service;
 
 import com.example.demo.dto.BusDto;
+import com.example.demo.event.BusCreated;
+import com.example.demo.event.BusDeleted;
+import com.example.demo.event.BusUpdated;
 import com.example.demo.exception.BusNotFoundException;
 import com.example.demo.mapper.BusMapper;
 import com.example.demo.model.Bus;
 import com.example.demo.repository.BusRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,6 +29,8 @@ import java.util.List;
 public class BusService {
 
     private final BusRepository busRepository;
+    private final DataVersionTracker dataVersions;
+    private final ApplicationEventPublisher eventPublisher;
     
     /**
      * Получает список всех автобусов.
@@ -34,7 +38,7 @@ public class BusService {
      *
      * @return Список объектов BusDto, представляющих все автобусы
      */
-    @Cacheable(value = "buses")
+    @Cacheable(value = "buses", sync = true)
     @Transactional(readOnly = true)
     public List<BusDto> getAllBuses() {
         log.debug("Получение всех автобусов");
@@ -51,7 +55,7 @@ public class BusService {
      * @return Объект BusDto, представляющий автобус с указанным ID
      * @throws BusNotFoundException Если автобус с указанным ID не найден
      */
-    @Cacheable(value = "bus", key = "#id")
+    @Cacheable(value = "bus", key = "#id", sync = true)
     @Transactional(readOnly = true)
     public BusDto getBusById(Long id) {
         log.debug("Получение автобуса по ID: {}", id);
@@ -79,15 +83,11 @@ public class BusService {
 
     /**
      * Создает новый автобус.
-     * После создания очищает соответствующие кэши.
+     * После фиксации транзакции соответствующие кэши очищаются (см. {@link BusCacheMaintainer}).
      *
      * @param busDto Объект BusDto с данными нового автобуса
      * @return Объект BusDto, представляющий созданный автобус
      */
-    @Caching(evict = {
-        @CacheEvict(value = "buses", allEntries = true),
-        @CacheEvict(value = "bus", key = "#result.id()")
-    })
     public BusDto createBus(BusDto busDto) {
         log.info("Создание нового автобуса: модель={}", busDto.model());
 
@@ -97,23 +97,21 @@ public class BusService {
         Bus savedBus = busRepository.save(bus);
         log.info("Автобус успешно создан: id={}, модель={}",
                 savedBus.getId(), savedBus.getModel());
+        eventPublisher.publishEvent(new BusCreated(savedBus.getId()));
+        dataVersions.changed(DataVersionTracker.DataSet.BUSES);
 
         return BusMapper.toDto(savedBus);
     }
 
     /**
      * Обновляет существующий автобус.
-     * После обновления очищает соответствующие кэши.
+     * После фиксации транзакции соответствующие кэши очищаются.
      *
      * @param id Уникальный идентификатор автобуса для обновления
      * @param busDto Объект BusDto с новыми данными автобуса
      * @return Объект BusDto, представляющий обновленный автобус
      * @throws BusNotFoundException Если автобус с указанным ID не найден
      */
-    @Caching(evict = {
-        @CacheEvict(value = "buses", allEntries = true),
-        @CacheEvict(value = "bus", key = "#id")
-    })
     public BusDto updateBus(Long id, BusDto busDto) {
         log.info("Обновление автобуса: id={}", id);
 
@@ -128,21 +126,19 @@ public class BusService {
         Bus updatedBus = busRepository.save(bus);
         log.info("Автобус успешно обновлен: id={}, модель={}",
                 updatedBus.getId(), updatedBus.getModel());
+        eventPublisher.publishEvent(new BusUpdated(id));
+        dataVersions.changed(DataVersionTracker.DataSet.BUSES);
 
         return BusMapper.toDto(updatedBus);
     }
 
     /**
      * Удаляет автобус по его ID.
-     * После удаления очищает соответствующие кэши.
+     * После фиксации транзакции соответствующие кэши очищаются.
      *
      * @param id Уникальный идентификатор автобуса для удаления
      * @throws BusNotFoundException Если автобус с указанным ID не найден
      */
-    @Caching(evict = {
-        @CacheEvict(value = "buses", allEntries = true),
-        @CacheEvict(value = "bus", key = "#id")
-    })
     public void deleteBus(Long id) {
         log.info("Удаление автобуса: id={}", id);
 
@@ -153,6 +149,8 @@ public class BusService {
 
         busRepository.deleteById(id);
         log.info("Автобус успешно удален: id={}", id);
+        eventPublisher.publishEvent(new BusDeleted(id));
+        dataVersions.changed(DataVersionTracker.DataSet.BUSES);
     }
 
     /**
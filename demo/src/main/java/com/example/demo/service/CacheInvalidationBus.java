@@ -0,0 +1,458 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheSpecProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Шина межузловой инвалидации локальных кэшей через PostgreSQL LISTEN/NOTIFY.
+ * Когда на узле фиксируется изменение набора данных ({@link DataVersionTracker.DataSetChangedEvent}),
+ * шина рассылает сообщение "узел|номер|набор данных" в канал NOTIFY. Остальные узлы очищают кэши
+ * этого набора и увеличивают его версию, чтобы сменился ETag.
+ * Сообщения отправляются не в потоке, фиксирующем транзакцию: событие только помещается в очередь
+ * ограниченного размера, а отдельный поток отправки забирает ее содержимое (повторы одного набора
+ * данных объединяются) и отправляет через собственное соединение. Поэтому фиксация не ждет ни
+ * соединения из пула, ни обмена с PostgreSQL.
+ * Номера сообщений каждого узла идут подряд: пропуск номера означает потерянное сообщение
+ * (ошибку отправки или переполнение очереди), и получатель очищает все кэши. Все кэши очищаются также
+ * при каждом подключении слушателя, так как пока он был отключен, сообщения не принимались.
+ * Слушатель и поток отправки занимают по одному соединению из пула на все время работы приложения.
+ * Шина работает только с PostgreSQL; для других СУБД (например, H2 в тестах) она не запускается.
+ */
+@Component
+public class CacheInvalidationBus implements SmartLifecycle, MeterBinder {
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationBus.class);
+
+    private static final String SEPARATOR = "|";
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    /**
+     * Кэши, содержимое которых зависит от набора данных.
+     */
+    static final Map<DataVersionTracker.DataSet, List<String>> CACHES_BY_DATA_SET = Map.of(
+        DataVersionTracker.DataSet.ALERTS, List.of("alerts", "alertsByStatus", "alertsByBus", "alertsByUser",
+                AlertInboxService.ALERT_INBOX),
+        DataVersionTracker.DataSet.BUSES, List.of("buses", "bus")
+    );
+
+    private final CacheManager cacheManager;
+    private final DataVersionTracker dataVersions;
+    private final DataSource dataSource;
+    private final CacheSpecProperties.Invalidation properties;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, Long> lastSequenceByNode = new ConcurrentHashMap<>();
+    private final CountDownLatch listening = new CountDownLatch(1);
+    private final BlockingQueue<DataVersionTracker.DataSet> outbox;
+    private final AtomicBoolean outboxOverflowed = new AtomicBoolean();
+    private final Object lifecycleLock = new Object();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder fullFlushes = new LongAdder();
+
+    private volatile boolean running;
+    private volatile boolean active;
+    private Thread listenerThread; // Потоки ниже защищены блокировкой lifecycleLock
+    private Thread senderThread;
+
+    public CacheInvalidationBus(CacheManager cacheManager, DataVersionTracker dataVersions, DataSource dataSource,
+                                CacheSpecProperties cacheProperties) {
+        this.cacheManager = cacheManager;
+        this.dataVersions = dataVersions;
+        this.dataSource = dataSource;
+        this.properties = cacheProperties.getInvalidation();
+        this.outbox = new LinkedBlockingQueue<>(properties.getOutboxCapacity());
+    }
+
+    /**
+     * Запускает слушателя канала и поток отправки, если инвалидация включена и база данных - PostgreSQL.
+     */
+    @Override
+    public void start() {
+        synchronized (lifecycleLock) {
+            running = true;
+            if (!properties.isEnabled()) {
+                log.info("Межузловая инвалидация кэшей отключена");
+                return;
+            }
+            if (!CHANNEL_NAME.matcher(properties.getChannel()).matches()) {
+                throw new IllegalStateException("Недопустимое имя канала инвалидации: " + properties.getChannel());
+            }
+            if (!isPostgres()) {
+                log.info("Межузловая инвалидация кэшей не запускается: база данных не PostgreSQL");
+                return;
+            }
+
+            active = true;
+            listenerThread = new Thread(this::listen, "cache-invalidation-listener");
+            listenerThread.setDaemon(true);
+            listenerThread.start();
+            senderThread = new Thread(this::sendQueued, "cache-invalidation-sender");
+            senderThread.setDaemon(true);
+            senderThread.start();
+            log.info("Межузловая инвалидация кэшей запущена: узел={}, канал={}", nodeId, properties.getChannel());
+        }
+    }
+
+    /**
+     * Останавливает слушателя и поток отправки. Поток отправки не прерывается:
+     * он отправляет оставшиеся в очереди сообщения и завершается сам.
+     */
+    @Override
+    public void stop() {
+        synchronized (lifecycleLock) {
+            running = false;
+            active = false;
+            long joinMillis = properties.getPollTimeout().multipliedBy(2).toMillis();
+            if (listenerThread != null) {
+                listenerThread.interrupt();
+                join(listenerThread, joinMillis);
+                listenerThread = null;
+            }
+            if (senderThread != null) {
+                join(senderThread, joinMillis);
+                senderThread = null;
+            }
+        }
+    }
+
+    private static void join(Thread thread, long millis) {
+        try {
+            thread.join(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Ставит в очередь сообщение об изменении набора данных на этом узле.
+     * Событие публикуется после фиксации транзакции, поэтому другие узлы не перечитают
+     * незафиксированные данные. Метод не блокируется: если очередь переполнена, сообщение
+     * отбрасывается, а следующий номер пропускается, и получатели очистят кэши целиком.
+     *
+     * @param event событие об изменении набора данных
+     */
+    @EventListener
+    public void onDataSetChanged(DataVersionTracker.DataSetChangedEvent event) {
+        if (active && !outbox.offer(event.dataSet()) && outboxOverflowed.compareAndSet(false, true)) {
+            log.warn("Очередь сообщений инвалидации переполнена, получатели очистят кэши целиком");
+        }
+    }
+
+    /**
+     * Поток отправки: забирает сообщения из очереди и отправляет их в канал через собственное соединение,
+     * которое открывается заново после ошибки. Номера присваиваются только в этом потоке, поэтому
+     * приходят получателям по порядку. После остановки шины отправляются оставшиеся сообщения.
+     */
+    private void sendQueued() {
+        Connection connection = null;
+        try {
+            while (running || !outbox.isEmpty()) {
+                DataVersionTracker.DataSet first = outbox.poll(properties.getPollTimeout().toMillis(),
+                        TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                Set<DataVersionTracker.DataSet> dataSets = EnumSet.of(first);
+                outbox.drainTo(dataSets);
+                if (outboxOverflowed.getAndSet(false)) {
+                    sequence.incrementAndGet(); // Пропуск номера вместо отброшенных сообщений
+                }
+                for (DataVersionTracker.DataSet dataSet : dataSets) {
+                    if (connection == null) {
+                        connection = openSenderConnection();
+                    }
+                    if (!send(connection, dataSet)) {
+                        closeQuietly(connection);
+                        connection = null;
+                    }
+                }
+                if (connection == null) {
+                    if (!running) {
+                        break; // Шина остановлена, а база данных недоступна - оставшиеся сообщения не ждем
+                    }
+                    TimeUnit.MILLISECONDS.sleep(properties.getReconnectDelay().toMillis());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private Connection openSenderConnection() {
+        try {
+            Connection connection = dataSource.getConnection();
+            connection.setAutoCommit(true); // NOTIFY должен зафиксироваться сразу
+            return connection;
+        } catch (SQLException e) {
+            log.warn("Не удалось получить соединение для отправки сообщений инвалидации: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Отправляет сообщение в канал. Номер присваивается до отправки: если отправка не удалась,
+     * получатели увидят пропуск номера и очистят кэши целиком.
+     *
+     * @return true, если сообщение отправлено, или false, если соединение нужно открыть заново
+     */
+    private boolean send(Connection connection, DataVersionTracker.DataSet dataSet) {
+        String payload = nodeId + SEPARATOR + sequence.incrementAndGet() + SEPARATOR + dataSet.name();
+        if (connection == null) {
+            log.warn("Сообщение инвалидации {} не отправлено: нет соединения", payload);
+            return false;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_notify(?, ?)")) {
+            statement.setString(1, properties.getChannel());
+            statement.setString(2, payload);
+            statement.execute();
+            published.increment();
+            log.debug("Отправлено сообщение инвалидации: {}", payload);
+            return true;
+        } catch (SQLException e) {
+            log.warn("Не удалось отправить сообщение инвалидации {}: {}", payload, e.getMessage());
+            return false;
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Ошибка закрытия соединения отправки сообщений инвалидации", e);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + properties.getChannel());
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                lastSequenceByNode.clear();
+                flushAll("подключение слушателя");
+                listening.countDown();
+
+                int timeoutMillis = (int) properties.getPollTimeout().toMillis();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(timeoutMillis);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            apply(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Слушатель инвалидации кэшей отключен: {}. Повторное подключение через {}",
+                        e.toString(), properties.getReconnectDelay());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(properties.getReconnectDelay().toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Применяет сообщение, полученное из канала, не прерывая работу слушателя.
+     * Обработчики {@link DataVersionTracker.RemoteDataSetChangedEvent} вызываются синхронно, поэтому
+     * их ошибка не должна останавливать поток слушателя: она записывается в журнал, а кэши очищаются
+     * целиком, так как сообщение могло быть применено не полностью.
+     *
+     * @param payload текст сообщения "узел|номер|набор данных"
+     */
+    void apply(String payload) {
+        try {
+            receive(payload);
+        } catch (RuntimeException e) {
+            log.error("Ошибка применения сообщения инвалидации {}, кэши очищаются целиком", payload, e);
+            flushAll("ошибка применения сообщения");
+        }
+    }
+
+    /**
+     * Применяет сообщение, полученное из канала.
+     * Собственные сообщения и повторы пропускаются; при пропуске номера все кэши очищаются.
+     *
+     * @param payload текст сообщения "узел|номер|набор данных"
+     */
+    void receive(String payload) {
+        String[] parts = payload.split(Pattern.quote(SEPARATOR));
+        if (parts.length != 3) {
+            log.warn("Пропущено сообщение инвалидации неизвестного формата: {}", payload);
+            return;
+        }
+        String senderId = parts[0];
+        if (nodeId.equals(senderId)) {
+            return; // Собственное сообщение: кэши этого узла уже обновлены
+        }
+        received.increment();
+
+        long messageSequence;
+        DataVersionTracker.DataSet dataSet;
+        try {
+            messageSequence = Long.parseLong(parts[1]);
+            dataSet = DataVersionTracker.DataSet.valueOf(parts[2]);
+        } catch (IllegalArgumentException e) {
+            log.warn("Пропущено некорректное сообщение инвалидации {}, кэши очищаются целиком", payload);
+            flushAll("некорректное сообщение");
+            return;
+        }
+
+        Long previous = lastSequenceByNode.put(senderId, messageSequence);
+        if (previous != null && messageSequence <= previous) {
+            lastSequenceByNode.put(senderId, previous);
+            return; // Повтор уже примененного сообщения
+        }
+        if (previous != null && messageSequence != previous + 1) {
+            log.warn("Пропущены сообщения инвалидации узла {}: ожидался номер {}, получен {}",
+                    senderId, previous + 1, messageSequence);
+            flushAll("пропуск сообщений");
+            return;
+        }
+
+        for (String cacheName : CACHES_BY_DATA_SET.get(dataSet)) {
+            clear(cacheName);
+        }
+        dataVersions.changedOnAnotherNode(dataSet);
+        log.debug("Применено сообщение инвалидации {}: очищены кэши {}", payload, CACHES_BY_DATA_SET.get(dataSet));
+    }
+
+    private void flushAll(String reason) {
+        for (String cacheName : cacheManager.getCacheNames()) {
+            try {
+                clear(cacheName);
+            } catch (RuntimeException e) {
+                log.error("Не удалось очистить кэш {}", cacheName, e);
+            }
+        }
+        fullFlushes.increment();
+        log.info("Все кэши очищены: {}", reason);
+        for (DataVersionTracker.DataSet dataSet : DataVersionTracker.DataSet.values()) {
+            try {
+                dataVersions.changedOnAnotherNode(dataSet);
+            } catch (RuntimeException e) {
+                log.error("Ошибка обработки изменения набора данных {} на другом узле", dataSet, e);
+            }
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+
+    private boolean isPostgres() {
+        try (Connection connection = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Не удалось определить СУБД для инвалидации кэшей: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Регистрирует метрики шины: отправленные и принятые сообщения и полные очистки кэшей.
+     *
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("cache.invalidation.published", published, LongAdder::sum)
+                .description("Отправленные сообщения межузловой инвалидации кэшей")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.received", received, LongAdder::sum)
+                .description("Принятые сообщения межузловой инвалидации от других узлов")
+                .register(registry);
+        FunctionCounter.builder("cache.invalidation.full.flushes", fullFlushes, LongAdder::sum)
+                .description("Полные очистки кэшей из-за пропущенных сообщений или переподключения")
+                .register(registry);
+    }
+
+    /**
+     * Ожидает первого подключения слушателя канала.
+     * Кэши, заполненные до подключения, очищаются при подключении, поэтому заполнять их
+     * заранее (например, из снимка) имеет смысл только после него.
+     *
+     * @param timeout максимальное время ожидания
+     * @return true, если слушатель подключен или шина не запущена; false, если время ожидания истекло
+     */
+    public boolean awaitListening(Duration timeout) {
+        if (!active) {
+            return true;
+        }
+        try {
+            return listening.await(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Возвращает идентификатор этого узла в сообщениях инвалидации.
+     *
+     * @return идентификатор узла
+     */
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Возвращает число полных очисток кэшей.
+     *
+     * @return число полных очисток
+     */
+    public long getFullFlushCount() {
+        return fullFlushes.sum();
+    }
+}
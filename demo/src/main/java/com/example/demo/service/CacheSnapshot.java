@@ -0,0 +1,234 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.BusDto;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Снимок данных кэшей инцидентов и автобусов для прогрева кэшей после перезапуска.
+ * Каждый набор данных помечен версией из базы данных, по которой снимок был прочитан.
+ * <p>
+ * Формат файла (big-endian): заголовок (сигнатура, версия формата, хэш имен перечислений,
+ * время создания), метки версий инцидентов и автобусов, записи инцидентов в компактном виде
+ * {@link CachedAlert}, записи автобусов и в конце контрольная сумма CRC32C всех предыдущих байтов.
+ * Хэш имен перечислений защищает от загрузки порядковых номеров типов и статусов,
+ * записанных другой версией приложения.
+ *
+ * @param alertsVersion версия инцидентов, по которой прочитаны записи
+ * @param busesVersion версия автобусов, по которой прочитаны записи
+ * @param alerts компактные записи всех инцидентов, упорядоченные по ID
+ * @param buses все автобусы
+ */
+record CacheSnapshot(VersionTag alertsVersion, VersionTag busesVersion, List<CachedAlert> alerts,
+                     List<BusDto> buses) {
+
+    private static final int MAGIC = 0x43534E50; // "CSNP"
+    private static final short FORMAT_VERSION = 1;
+    private static final int ENUMS_SIGNATURE = 31 * names(EventType.values()).hashCode()
+            + names(StatusType.values()).hashCode();
+    private static final int NULL_STRING = -1;
+    private static final int CHECKSUM_BYTES = Integer.BYTES;
+
+    /**
+     * Метка версии набора данных в базе данных.
+     *
+     * @param token случайная метка строки версии
+     * @param version номер версии
+     */
+    record VersionTag(String token, long version) {
+    }
+
+    /**
+     * Записывает снимок в файл. Снимок сначала пишется во временный файл рядом с целевым
+     * и сбрасывается на диск, затем атомарно заменяет целевой файл, поэтому при сбое
+     * во время записи остается предыдущий целый снимок.
+     *
+     * @param file файл снимка
+     * @throws IOException если запись не удалась
+     */
+    void writeTo(Path file) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                CRC32C checksum = new CRC32C();
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), checksum), 64 * 1024));
+                writeBody(out);
+                out.flush();
+                out.writeInt((int) checksum.getValue());
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private void writeBody(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(FORMAT_VERSION);
+        out.writeInt(ENUMS_SIGNATURE);
+        out.writeLong(System.currentTimeMillis());
+        writeTag(out, alertsVersion);
+        writeTag(out, busesVersion);
+
+        out.writeInt(alerts.size());
+        for (CachedAlert alert : alerts) {
+            out.writeLong(alert.id());
+            out.writeLong(alert.busId());
+            out.writeByte(alert.typeOrdinal());
+            out.writeByte(alert.statusOrdinal());
+            out.writeLong(alert.timestampMicros());
+            out.writeLong(alert.assignedUserId());
+            writeString(out, alert.location());
+        }
+
+        out.writeInt(buses.size());
+        for (BusDto bus : buses) {
+            out.writeLong(bus.id());
+            writeString(out, bus.model());
+        }
+    }
+
+    /**
+     * Читает снимок из файла. Файл отображается в память, контрольная сумма проверяется
+     * по отображенным байтам до разбора записей.
+     *
+     * @param file файл снимка
+     * @return прочитанный снимок
+     * @throws IOException если файл не читается, поврежден или записан в другом формате
+     */
+    static CacheSnapshot readFrom(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < CHECKSUM_BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Недопустимый размер файла снимка: " + size);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyLength = (int) size - CHECKSUM_BYTES;
+
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.slice(0, bodyLength));
+            if ((int) checksum.getValue() != buffer.getInt(bodyLength)) {
+                throw new IOException("Контрольная сумма снимка не совпадает");
+            }
+
+            try {
+                return readBody(buffer.slice(0, bodyLength));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Снимок поврежден", e);
+            }
+        }
+    }
+
+    private static CacheSnapshot readBody(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Файл не является снимком кэшей");
+        }
+        short format = in.getShort();
+        if (format != FORMAT_VERSION) {
+            throw new IOException("Неподдерживаемая версия формата снимка: " + format);
+        }
+        if (in.getInt() != ENUMS_SIGNATURE) {
+            throw new IOException("Снимок записан с другим набором типов или статусов инцидентов");
+        }
+        in.getLong(); // Время создания - только для диагностики
+        VersionTag alertsVersion = readTag(in);
+        VersionTag busesVersion = readTag(in);
+
+        int alertCount = readCount(in);
+        List<CachedAlert> alerts = new ArrayList<>(alertCount);
+        for (int i = 0; i < alertCount; i++) {
+            long id = in.getLong();
+            long busId = in.getLong();
+            byte typeOrdinal = in.get();
+            byte statusOrdinal = in.get();
+            long timestampMicros = in.getLong();
+            long assignedUserId = in.getLong();
+            String location = readString(in);
+            alerts.add(new CachedAlert(id, busId, typeOrdinal, statusOrdinal, timestampMicros, location,
+                    assignedUserId));
+        }
+
+        int busCount = readCount(in);
+        List<BusDto> buses = new ArrayList<>(busCount);
+        for (int i = 0; i < busCount; i++) {
+            long id = in.getLong();
+            buses.add(new BusDto(id, readString(in)));
+        }
+
+        if (in.hasRemaining()) {
+            throw new IOException("Лишние данные в конце снимка");
+        }
+        return new CacheSnapshot(alertsVersion, busesVersion, alerts, buses);
+    }
+
+    private static void writeTag(DataOutputStream out, VersionTag tag) throws IOException {
+        writeString(out, tag.token());
+        out.writeLong(tag.version());
+    }
+
+    private static VersionTag readTag(ByteBuffer in) {
+        String token = readString(in);
+        return new VersionTag(token, in.getLong());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length == NULL_STRING) {
+            return null;
+        }
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("Недопустимая длина строки: " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> names(Enum<?>[] values) {
+        return Arrays.stream(values).map(Enum::name).toList();
+    }
+
+    private static int readCount(ByteBuffer in) {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IllegalArgumentException("Недопустимое число записей: " + count);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,386 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.dto.BusDto;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.mapper.BusMapper;
+import com.example.demo.model.DataSetVersion;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import com.example.demo.repository.DataSetVersionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Компонент для сохранения кэшей инцидентов и автобусов на диск и прогрева кэшей при старте.
+ * Периодически и при остановке приложения записывает {@link CacheSnapshot} в локальный файл.
+ * Версия набора данных - метка строки {@link DataSetVersion} и значение последовательности набора
+ * PostgreSQL, которую {@link DataVersionTracker} увеличивает при каждом изменении (без блокировки строк).
+ * Версии читаются первыми, а данные снимка - в одной транзакции REPEATABLE READ после них: изменение,
+ * зафиксированное после чтения версий, увеличит версию, и снимок будет признан устаревшим;
+ * если версии не изменились с прошлой записи, снимок не перечитывается.
+ * Снимок поддерживается только для PostgreSQL.
+ * При старте, до того как приложение начнет принимать трафик, снимок отображается в память
+ * и загружается в кэши только для тех наборов данных, версии которых в базе данных совпадают
+ * с метками снимка. После заполнения версии проверяются повторно: если данные изменились
+ * во время загрузки, кэши этого набора очищаются.
+ */
+@Component
+public class CacheSnapshotManager implements SmartLifecycle {
+    private static final Logger log = LoggerFactory.getLogger(CacheSnapshotManager.class);
+
+    private final CacheManager cacheManager;
+    private final AlertRepository alertRepository;
+    private final BusRepository busRepository;
+    private final DataSetVersionRepository versionRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataVersionTracker dataVersions;
+    private final ObjectProvider<CacheInvalidationBus> invalidationBus;
+    private final TransactionTemplate snapshotRead;
+    private final CacheSpecProperties.Snapshot properties;
+
+    private final Object writeLock = new Object();
+    private volatile boolean running;
+    private volatile boolean active;
+    private ScheduledExecutorService scheduler;
+    private Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> lastWritten = Map.of();
+
+    public CacheSnapshotManager(CacheManager cacheManager, AlertRepository alertRepository,
+                                BusRepository busRepository, DataSetVersionRepository versionRepository,
+                                JdbcTemplate jdbcTemplate, DataVersionTracker dataVersions,
+                                ObjectProvider<CacheInvalidationBus> invalidationBus,
+                                PlatformTransactionManager transactionManager, CacheSpecProperties cacheProperties) {
+        this.cacheManager = cacheManager;
+        this.alertRepository = alertRepository;
+        this.busRepository = busRepository;
+        this.versionRepository = versionRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.dataVersions = dataVersions;
+        this.invalidationBus = invalidationBus;
+        this.properties = cacheProperties.getSnapshot();
+
+        this.snapshotRead = new TransactionTemplate(transactionManager);
+        this.snapshotRead.setReadOnly(true);
+        this.snapshotRead.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    /**
+     * Создает недостающие строки и последовательности версий, включает увеличение версий
+     * при изменениях и запускает периодическую запись снимка.
+     * Запускается раньше веб-сервера, чтобы версии увеличивались уже при первых запросах.
+     */
+    @Override
+    public synchronized void start() {
+        running = true;
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            if (!isPostgres()) {
+                log.warn("Снимок кэшей не включен: поддерживается только база данных PostgreSQL");
+                return;
+            }
+            ensureVersions();
+        } catch (DataAccessException e) {
+            log.warn("Снимок кэшей не включен: не удалось подготовить версии наборов данных: {}", e.getMessage());
+            return;
+        }
+        dataVersions.persistVersionsWith(this::incrementVersion);
+        active = true;
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-snapshot-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::writeSafely, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Снимок кэшей включен: файл={}, период={}", properties.getFile().toAbsolutePath(),
+                properties.getInterval());
+    }
+
+    /**
+     * Останавливает периодическую запись и записывает снимок в последний раз.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        active = false;
+        dataVersions.persistVersionsWith(null);
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        try {
+            scheduler.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        scheduler = null;
+        writeSafely();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096; // Раньше веб-сервера: запуск до приема запросов, остановка после
+    }
+
+    /**
+     * Прогревает кэши из снимка после запуска контекста, до перехода приложения
+     * в состояние готовности к приему трафика.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void warmUp() {
+        if (!active) {
+            return;
+        }
+        CacheInvalidationBus bus = invalidationBus.getIfAvailable();
+        if (bus != null && !bus.awaitListening(properties.getListenerTimeout())) {
+            log.warn("Слушатель инвалидации кэшей не подключился за {}, кэши прогреваются без него",
+                    properties.getListenerTimeout());
+        }
+        try {
+            restore(properties.getFile());
+        } catch (DataAccessException e) {
+            log.warn("Кэши не прогреты из снимка: не удалось прочитать версии данных: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Загружает снимок из файла в кэши.
+     *
+     * @param file файл снимка
+     * @return число наборов данных, загруженных в кэши
+     */
+    int restore(Path file) {
+        long started = System.nanoTime();
+        CacheSnapshot snapshot;
+        try {
+            snapshot = CacheSnapshot.readFrom(file);
+        } catch (NoSuchFileException e) {
+            log.info("Снимок кэшей не найден: {}", file.toAbsolutePath());
+            return 0;
+        } catch (IOException e) {
+            log.warn("Снимок кэшей {} не загружен: {}", file.toAbsolutePath(), e.getMessage());
+            return 0;
+        }
+
+        Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> current = currentVersions();
+        boolean alertsValid = snapshot.alertsVersion().equals(current.get(DataVersionTracker.DataSet.ALERTS));
+        boolean busesValid = snapshot.busesVersion().equals(current.get(DataVersionTracker.DataSet.BUSES));
+        if (alertsValid) {
+            putAlerts(snapshot.alerts());
+        }
+        if (busesValid) {
+            putBuses(snapshot.buses());
+        }
+
+        // Данные могли измениться между проверкой версий и заполнением кэшей
+        Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> after = currentVersions();
+        if (alertsValid && !snapshot.alertsVersion().equals(after.get(DataVersionTracker.DataSet.ALERTS))) {
+            clear(AlertCacheMaintainer.ALERTS, AlertCacheMaintainer.ALERTS_BY_STATUS,
+                    AlertCacheMaintainer.ALERTS_BY_BUS, AlertCacheMaintainer.ALERTS_BY_USER);
+            alertsValid = false;
+        }
+        if (busesValid && !snapshot.busesVersion().equals(after.get(DataVersionTracker.DataSet.BUSES))) {
+            clear(BusCacheMaintainer.BUSES, BusCacheMaintainer.BUS);
+            busesValid = false;
+        }
+
+        log.info("Кэши прогреты из снимка за {} мс: инциденты={} ({}), автобусы={} ({})",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started),
+                alertsValid ? snapshot.alerts().size() : 0, alertsValid ? "актуальны" : "устарели",
+                busesValid ? snapshot.buses().size() : 0, busesValid ? "актуальны" : "устарели");
+        return (alertsValid ? 1 : 0) + (busesValid ? 1 : 0);
+    }
+
+    /**
+     * Записывает снимок в файл, если версии данных изменились с прошлой записи.
+     *
+     * @param file файл снимка
+     * @return true, если снимок записан
+     * @throws IOException если запись файла не удалась
+     */
+    boolean write(Path file) throws IOException {
+        synchronized (writeLock) {
+            return writeIfChanged(file);
+        }
+    }
+
+    private boolean writeIfChanged(Path file) throws IOException {
+        // Версии читаются до начала транзакции чтения данных (последовательности не транзакционны)
+        Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> versions = currentVersions();
+        if (versions.size() < DataVersionTracker.DataSet.values().length || versions.equals(lastWritten)) {
+            return false;
+        }
+        CacheSnapshot snapshot = snapshotRead.execute(status -> {
+            List<CachedAlert> alerts = alertRepository.findAllCached();
+            List<BusDto> buses = busRepository.findAll().stream().map(BusMapper::toDto).toList();
+            return new CacheSnapshot(versions.get(DataVersionTracker.DataSet.ALERTS),
+                    versions.get(DataVersionTracker.DataSet.BUSES), alerts, buses);
+        });
+        if (snapshot == null) {
+            return false;
+        }
+
+        snapshot.writeTo(file);
+        lastWritten = Map.of(DataVersionTracker.DataSet.ALERTS, snapshot.alertsVersion(),
+                DataVersionTracker.DataSet.BUSES, snapshot.busesVersion());
+        log.debug("Снимок кэшей записан: {} инцидентов, {} автобусов, {} байт", snapshot.alerts().size(),
+                snapshot.buses().size(), Files.size(file));
+        return true;
+    }
+
+    private void writeSafely() {
+        try {
+            write(properties.getFile());
+        } catch (IOException | DataAccessException | IllegalStateException e) {
+            log.warn("Не удалось записать снимок кэшей: {}", e.getMessage());
+        }
+    }
+
+    private void putAlerts(List<CachedAlert> alerts) {
+        Map<String, List<CachedAlert>> byStatus = new LinkedHashMap<>();
+        for (StatusType status : StatusType.values()) {
+            byStatus.put(status.name(), new ArrayList<>());
+        }
+        Map<Long, List<CachedAlert>> byBus = new LinkedHashMap<>();
+        Map<Long, List<CachedAlert>> byUser = new LinkedHashMap<>();
+        for (CachedAlert alert : alerts) {
+            if (alert.status() != null) {
+                byStatus.get(alert.status().name()).add(alert);
+            }
+            byBus.computeIfAbsent(alert.busId(), busId -> new ArrayList<>()).add(alert);
+            if (alert.assignedToUserId() != null) {
+                byUser.computeIfAbsent(alert.assignedToUserId(), userId -> new ArrayList<>()).add(alert);
+            }
+        }
+
+        // Списки упорядочены по ID, как и результаты запросов репозитория
+        put(AlertCacheMaintainer.ALERTS, Map.of(SimpleKey.EMPTY, alerts));
+        put(AlertCacheMaintainer.ALERTS_BY_STATUS, byStatus);
+        put(AlertCacheMaintainer.ALERTS_BY_BUS, byBus);
+        put(AlertCacheMaintainer.ALERTS_BY_USER, byUser);
+    }
+
+    private void putBuses(List<BusDto> buses) {
+        put(BusCacheMaintainer.BUSES, Map.of(SimpleKey.EMPTY, buses));
+        Cache cache = cacheManager.getCache(BusCacheMaintainer.BUS);
+        if (cache != null) {
+            buses.forEach(bus -> cache.put(bus.id(), bus));
+        }
+    }
+
+    private void put(String cacheName, Map<?, ? extends List<?>> lists) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            lists.forEach((key, list) -> cache.put(key, Collections.unmodifiableList(list)));
+        }
+    }
+
+    private void clear(String... cacheNames) {
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> currentVersions() {
+        Map<DataVersionTracker.DataSet, CacheSnapshot.VersionTag> versions = new EnumMap<>(DataVersionTracker.DataSet.class);
+        for (DataSetVersion row : versionRepository.findAll()) {
+            if (isKnownDataSet(row.getDataSet())) {
+                DataVersionTracker.DataSet dataSet = DataVersionTracker.DataSet.valueOf(row.getDataSet());
+                Long version = jdbcTemplate.queryForObject("SELECT coalesce(last_value, 0) FROM pg_sequences "
+                        + "WHERE schemaname = current_schema() AND sequencename = ?", Long.class, versionSequence(dataSet));
+                versions.put(dataSet, new CacheSnapshot.VersionTag(row.getToken(), version != null ? version : 0));
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * Увеличивает версию набора данных в базе данных. Вызывается {@link DataVersionTracker} при изменениях.
+     */
+    private void incrementVersion(DataVersionTracker.DataSet dataSet) {
+        jdbcTemplate.queryForObject("SELECT nextval('" + versionSequence(dataSet) + "')", Long.class);
+    }
+
+    private void ensureVersions() {
+        for (DataVersionTracker.DataSet dataSet : DataVersionTracker.DataSet.values()) {
+            jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + versionSequence(dataSet));
+            if (versionRepository.existsById(dataSet.name())) {
+                continue;
+            }
+            try {
+                versionRepository.save(new DataSetVersion(dataSet.name(), UUID.randomUUID().toString()));
+                log.info("Создана строка версии набора данных {}", dataSet);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Строку версии набора данных {} уже создал другой узел", dataSet);
+            }
+        }
+    }
+
+    /**
+     * Возвращает имя последовательности версий набора данных.
+     *
+     * @param dataSet набор данных
+     * @return имя последовательности
+     */
+    static String versionSequence(DataVersionTracker.DataSet dataSet) {
+        return "data_set_version_" + dataSet.name().toLowerCase() + "_seq";
+    }
+
+    private boolean isPostgres() {
+        String product = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equalsIgnoreCase(product);
+    }
+
+    private static boolean isKnownDataSet(String name) {
+        for (DataVersionTracker.DataSet dataSet : DataVersionTracker.DataSet.values()) {
+            if (Objects.equals(dataSet.name(), name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
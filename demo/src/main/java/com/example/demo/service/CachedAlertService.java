@@ -1,27 +1,54 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AlertCursor;
+import com.example.demo.dto.AlertPage;
+import com.example.demo.dto.AlertSearchCriteria;
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.AlertTextSearchPage;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertAssigned;
+import com.example.demo.event.AlertCreated;
+import com.example.demo.event.AlertDeleted;
+import com.example.demo.event.AlertFileAttached;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.event.AlertStatusChanged;
 import com.example.demo.exception.AlertNotFoundException;
+import com.example.demo.exception.InvalidPageRequestException;
+import com.example.demo.mapper.AlertMapper;
 import com.example.demo.model.Alert;
 import com.example.demo.model.StatusType;
 import com.example.demo.repository.AlertRepository;
 import com.example.demo.specification.AlertSpecification;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Реализация сервиса управления оповещениями с кэшированием.
  * Предоставляет методы для выполнения операций CRUD над оповещениями
  * с использованием Spring Cache для повышения производительности.
+ * Каждое изменение оповещений увеличивает версию данных {@link DataVersionTracker.DataSet#ALERTS},
+ * по которой списочные эндпоинты формируют ETag.
  */
 @Service
 @Primary
@@ -30,46 +57,57 @@ public class CachedAlertService implements AlertService {
     private static final Logger log = LoggerFactory.getLogger(CachedAlertService.class);
 
     private final AlertRepository alertRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DataVersionTracker dataVersions;
 
-    public CachedAlertService(AlertRepository alertRepository) {
+    @Value("${alerts.page.default-size:50}")
+    private int defaultPageSize = 50;
+
+    @Value("${alerts.page.max-size:500}")
+    private int maxPageSize = 500;
+
+    public CachedAlertService(AlertRepository alertRepository, ApplicationEventPublisher eventPublisher,
+                              DataVersionTracker dataVersions) {
         this.alertRepository = alertRepository;
+        this.eventPublisher = eventPublisher;
+        this.dataVersions = dataVersions;
     }
 
     /**
-     * Находит все оповещения.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит все оповещения в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @return Список всех оповещений
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "alerts", unless = "#result.isEmpty()")
-    public List<Alert> findAll() {
+    @Cacheable(value = "alerts", sync = true)
+    public List<CachedAlert> findAll() {
         log.debug("Получение всех инцидентов (с кэшированием)");
 
-        List<Alert> alerts = alertRepository.findAll();
+        List<CachedAlert> alerts = alertRepository.findAllCached();
         log.info("Получено {} инцидентов из базы данных", alerts.size());
 
-        return alerts;
+        return Collections.unmodifiableList(alerts); // Закэшированный список не должен изменяться вызывающими
     }
 
     /**
-     * Находит оповещения по статусу.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит оповещения по статусу в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @param status Статус оповещений для поиска
      * @return Список оповещений с указанным статусом
      */
     @Override
     @Transactional(readOnly = true)
-    @Cacheable(value = "alertsByStatus", key = "#status.name()")
-    public List<Alert> findByStatus(StatusType status) {
+    @Cacheable(value = "alertsByStatus", key = "#status.name()", sync = true)
+    public List<CachedAlert> findByStatus(StatusType status) {
         log.debug("Получение инцидентов по статусу: {} (с кэшированием)", status);
 
-        List<Alert> alerts = alertRepository.findByStatus(status);
+        List<CachedAlert> alerts = alertRepository.findCachedByStatus(status);
         log.info("Получено {} инцидентов со статусом: {}", alerts.size(), status);
 
-        return alerts;
+        return Collections.unmodifiableList(alerts);
     }
 
     /**
@@ -95,18 +133,12 @@ public class CachedAlertService implements AlertService {
 
     /**
      * Создает новое оповещение.
-     * После создания очищает соответствующие кэши.
+     * После фиксации транзакции оповещение добавляется в закэшированные списки.
      *
      * @param alert Объект оповещения для создания
      * @return Созданное оповещение
      */
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "alerts", allEntries = true),
-        @CacheEvict(value = "alertsByStatus", allEntries = true),
-        @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
-    })
     public Alert create(Alert alert) {
         log.info("Создание нового инцидента: busId={}, тип={}, местоположение={}",
                 alert.getBusId(), alert.getType(), alert.getLocation());
@@ -124,26 +156,21 @@ public class CachedAlertService implements AlertService {
         log.info("Инцидент успешно создан: id={}, busId={}, тип={}, статус={}",
                 savedAlert.getId(), savedAlert.getBusId(), savedAlert.getType(), savedAlert.getStatus());
 
-        log.debug("Все кэши инцидентов инвалидированы после создания");
+        eventPublisher.publishEvent(new AlertCreated(CachedAlert.from(savedAlert)));
+        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
 
         return savedAlert;
     }
 
     /**
      * Обновляет статус оповещения.
-     * После обновления очищает соответствующие кэши.
+     * После фиксации транзакции оповещение переносится из списка старого статуса в список нового.
      *
      * @param alertId Уникальный идентификатор оповещения для обновления
      * @param newStatus Новый статус для оповещения
      * @return Обновленное оповещение
      */
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "alerts", allEntries = true),
-        @CacheEvict(value = "alertsByStatus", allEntries = true),
-        @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
-    })
     public Alert updateStatus(Long alertId, StatusType newStatus) {
         log.info("Обновление статуса инцидента: id={}, новый статус={}", alertId, newStatus);
 
@@ -153,6 +180,7 @@ public class CachedAlertService implements AlertService {
                     return new AlertNotFoundException(alertId);
                 });
 
+        AlertKeys before = AlertKeys.of(alert);
         StatusType oldStatus = alert.getStatus();
         alert.setStatus(newStatus);
 
@@ -160,26 +188,21 @@ public class CachedAlertService implements AlertService {
         log.info("Статус инцидента обновлен: id={}, старый статус={}, новый статус={}",
                 alertId, oldStatus, newStatus);
 
-        log.debug("Все кэши инцидентов инвалидированы после обновления статуса");
+        eventPublisher.publishEvent(new AlertStatusChanged(before, CachedAlert.from(updatedAlert)));
+        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
 
         return updatedAlert;
     }
 
     /**
      * Назначает оповещение пользователю.
-     * После назначения очищает соответствующие кэши.
+     * После фиксации транзакции затронутые записи кэшей обновляются точечно.
      *
      * @param alertId Уникальный идентификатор оповещения для назначения
      * @param userId Уникальный идентификатор пользователя, которому назначается оповещение
      * @return Обновленное оповещение
      */
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "alerts", allEntries = true),
-        @CacheEvict(value = "alertsByStatus", allEntries = true),
-        @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
-    })
     public Alert assignToUser(Long alertId, Long userId) {
         log.info("Назначение инцидента пользователю: инцидентId={}, пользовательId={}", alertId, userId);
 
@@ -189,6 +212,7 @@ public class CachedAlertService implements AlertService {
                     return new AlertNotFoundException(alertId);
                 });
 
+        AlertKeys before = AlertKeys.of(alert);
         alert.setAssignedToUserId(userId);
         alert.setStatus(StatusType.IN_PROGRESS);
 
@@ -196,52 +220,45 @@ public class CachedAlertService implements AlertService {
         log.info("Инцидент назначен: инцидентId={}, пользовательId={}, новый статус={}",
                 alertId, userId, StatusType.IN_PROGRESS);
 
-        log.debug("Все кэши инцидентов инвалидированы после назначения");
+        eventPublisher.publishEvent(new AlertAssigned(before, CachedAlert.from(updatedAlert)));
+        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
 
         return updatedAlert;
     }
 
     /**
      * Удаляет оповещение по его ID.
-     * После удаления очищает соответствующие кэши.
+     * После фиксации транзакции оповещение убирается из закэшированных списков.
      *
      * @param id Уникальный идентификатор оповещения для удаления
      */
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "alerts", allEntries = true),
-        @CacheEvict(value = "alertsByStatus", allEntries = true),
-        @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
-    })
     public void deleteById(Long id) {
         log.info("Удаление инцидента: id={}", id);
 
-        if (!alertRepository.existsById(id)) {
-            log.error("Инцидент не найден для удаления: id={}", id);
-            throw new AlertNotFoundException(id);
-        }
+        Alert alert = alertRepository.findById(id)
+                .orElseThrow(() -> {
+                    log.error("Инцидент не найден для удаления: id={}", id);
+                    return new AlertNotFoundException(id);
+                });
+        AlertKeys before = AlertKeys.of(alert);
 
         alertRepository.deleteById(id);
         log.info("Инцидент успешно удален: id={}", id);
 
-        log.debug("Все кэши инцидентов инвалидированы после удаления");
+        eventPublisher.publishEvent(new AlertDeleted(before));
+        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
     }
 
     /**
      * Добавляет файл к оповещению.
+     * После фиксации транзакции оповещение заменяется в закэшированных списках.
      *
      * @param alertId Уникальный идентификатор оповещения
      * @param filePath Путь к файлу для добавления
      * @return Обновленное оповещение с добавленным файлом
      */
     @Override
-    @Caching(evict = {
-        @CacheEvict(value = "alerts", allEntries = true),
-        @CacheEvict(value = "alertsByStatus", allEntries = true),
-        @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
-    })
     public Alert addFileToAlert(Long alertId, String filePath) {
         log.info("Добавление файла к инциденту: инцидентId={}, путь к файлу={}", alertId, filePath);
 
@@ -251,51 +268,53 @@ public class CachedAlertService implements AlertService {
                     return new AlertNotFoundException(alertId);
                 });
 
+        AlertKeys before = AlertKeys.of(alert);
         alert.setFilePath(filePath);
 
         Alert updatedAlert = alertRepository.save(alert);
         log.info("Файл добавлен к инциденту: инцидентId={}, путь к файлу={}", alertId, filePath);
 
-        log.debug("Все кэши инцидентов инвалидированы после добавления файла");
+        eventPublisher.publishEvent(new AlertFileAttached(before, CachedAlert.from(updatedAlert)));
+        dataVersions.changed(DataVersionTracker.DataSet.ALERTS);
 
         return updatedAlert;
     }
 
     
     /**
-     * Находит оповещения по ID автобуса.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит оповещения по ID автобуса в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @param busId ID автобуса для поиска
      * @return Список оповещений, связанных с указанным автобусом
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "alertsByBus", key = "#busId")
-    public List<Alert> findByBusId(Long busId) {
+    @Cacheable(value = "alertsByBus", key = "#busId", sync = true)
+    public List<CachedAlert> findByBusId(Long busId) {
         log.debug("Получение инцидентов по ID автобуса: {} (с кэшированием)", busId);
 
-        List<Alert> alerts = alertRepository.findByBusId(busId);
+        List<CachedAlert> alerts = alertRepository.findCachedByBusId(busId);
         log.info("Получено {} инцидентов для автобуса ID: {}", alerts.size(), busId);
 
-        return alerts;
+        return Collections.unmodifiableList(alerts);
     }
 
     /**
-     * Находит оповещения по ID назначенного пользователя.
-     * Результат кэшируется с использованием Spring Cache.
+     * Находит оповещения по ID назначенного пользователя в компактном представлении.
+     * Результат кэшируется с использованием Spring Cache в виде неизменяемого списка.
      *
      * @param userId ID пользователя, которому назначены оповещения
      * @return Список оповещений, назначенных указанному пользователю
      */
     @Transactional(readOnly = true)
-    @Cacheable(value = "alertsByUser", key = "#userId")
-    public List<Alert> findByAssignedToUserId(Long userId) {
+    @Cacheable(value = "alertsByUser", key = "#userId", sync = true)
+    public List<CachedAlert> findByAssignedToUserId(Long userId) {
         log.debug("Получение инцидентов по назначенному пользователю ID: {} (с кэшированием)", userId);
 
-        List<Alert> alerts = alertRepository.findByAssignedToUserId(userId);
+        List<CachedAlert> alerts = alertRepository.findCachedByAssignedToUserId(userId);
         log.info("Получено {} инцидентов назначенных пользователю ID: {}", alerts.size(), userId);
 
-        return alerts;
+        return Collections.unmodifiableList(alerts);
     }
 
 
@@ -321,6 +340,153 @@ public class CachedAlertService implements AlertService {
     }
 
 
+    /**
+     * Возвращает страницу оповещений с курсорной пагинацией по ключу (timestamp, id).
+     * Фильтры совпадают с {@link #findByFilters(StatusType, Long, String)}.
+     * Страница читается запросом с условием по ключу курсора и LIMIT, поэтому время ответа
+     * не зависит от того, насколько далеко от начала находится страница.
+     *
+     * @param status Статус оповещений для фильтрации (может быть null)
+     * @param busId ID автобуса для фильтрации (может быть null)
+     * @param location Местоположение для фильтрации (может быть null)
+     * @param cursor Курсор, полученный с предыдущей страницей (null - первая страница)
+     * @param size Размер страницы (null - размер по умолчанию)
+     * @param direction Направление сортировки по времени: asc или desc
+     * @return Страница оповещений и курсор следующей страницы
+     * @throws InvalidPageRequestException если курсор, размер страницы или направление некорректны
+     */
+    @Transactional(readOnly = true)
+    public AlertPage findPage(StatusType status, Long busId, String location,
+                              String cursor, Integer size, String direction) {
+        log.debug("Получение страницы инцидентов: статус={}, автобусId={}, местоположение={}",
+                 status, busId, location);
+
+        return readPage(AlertSpecification.filter(status, busId, location), cursor, size, direction);
+    }
+
+    /**
+     * Ищет оповещения по набору критериев с курсорной пагинацией по ключу (timestamp, id).
+     * Комбинации равенства по статусу, автобусу или пользователю с диапазоном по времени
+     * обслуживаются составными индексами (столбец, timestamp, id).
+     *
+     * @param criteria Критерии поиска
+     * @param cursor Курсор, полученный с предыдущей страницей (null - первая страница)
+     * @param size Размер страницы (null - размер по умолчанию)
+     * @param direction Направление сортировки по времени: asc или desc
+     * @return Страница найденных оповещений и курсор следующей страницы
+     * @throws InvalidPageRequestException если диапазон времени, курсор, размер страницы
+     *         или направление некорректны
+     */
+    @Transactional(readOnly = true)
+    public AlertPage search(AlertSearchCriteria criteria, String cursor, Integer size, String direction) {
+        if (criteria.from() != null && criteria.to() != null && !criteria.from().isBefore(criteria.to())) {
+            throw new InvalidPageRequestException("Начало диапазона должно быть раньше его конца");
+        }
+
+        log.debug("Поиск инцидентов: {}", criteria);
+
+        return readPage(AlertSpecification.search(criteria), cursor, size, direction);
+    }
+
+    /**
+     * Выполняет полнотекстовый поиск оповещений по описанию с ранжированием по релевантности.
+     * Поиск учитывает словоформы русского языка и использует GIN-индекс по tsvector.
+     * Как и другие списки, возвращает облегченное представление; вместо описания -
+     * фрагмент с совпадениями. Инциденты, удаленные между запросами, пропускаются.
+     *
+     * @param query Поисковый запрос
+     * @param page Номер страницы с нуля (null - первая страница)
+     * @param size Размер страницы (null - размер по умолчанию)
+     * @return Страница найденных оповещений
+     * @throws InvalidPageRequestException если запрос пустой или номер/размер страницы некорректны
+     */
+    @Transactional(readOnly = true)
+    public AlertTextSearchPage searchText(String query, Integer page, Integer size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidPageRequestException("Поисковый запрос не может быть пустым");
+        }
+        int pageNumber = page != null ? page : 0;
+        if (pageNumber < 0) {
+            throw new InvalidPageRequestException("Номер страницы не может быть отрицательным");
+        }
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidPageRequestException("Размер страницы должен быть от 1 до " + maxPageSize);
+        }
+
+        log.debug("Полнотекстовый поиск инцидентов: запрос='{}', страница={}, размер={}", query, pageNumber, pageSize);
+
+        Slice<AlertRepository.TextMatch> slice =
+                alertRepository.searchByDescription(query.trim(), PageRequest.of(pageNumber, pageSize));
+        List<Long> ids = slice.getContent().stream().map(AlertRepository.TextMatch::getId).toList();
+        Map<Long, CachedAlert> alerts = ids.isEmpty() ? Map.of() : alertRepository.findCachedByIdIn(ids).stream()
+                .collect(Collectors.toMap(CachedAlert::id, Function.identity()));
+
+        List<AlertSummary> items = new ArrayList<>(ids.size());
+        Map<Long, String> headlines = new LinkedHashMap<>();
+        for (AlertRepository.TextMatch match : slice) {
+            CachedAlert alert = alerts.get(match.getId());
+            if (alert != null) {
+                items.add(AlertMapper.toSummary(alert));
+                headlines.put(match.getId(), match.getHeadline());
+            }
+        }
+
+        log.info("Полнотекстовый поиск вернул {} инцидентов, есть следующая страница: {}",
+                items.size(), slice.hasNext());
+
+        return new AlertTextSearchPage(items, headlines, pageNumber, pageSize, slice.hasNext());
+    }
+
+    /**
+     * Читает одну страницу оповещений, удовлетворяющих спецификации, начиная после курсора.
+     */
+    private AlertPage readPage(Specification<Alert> filter, String cursor, Integer size, String direction) {
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new InvalidPageRequestException("Размер страницы должен быть от 1 до " + maxPageSize);
+        }
+
+        Sort.Direction sortDirection = parseDirection(direction);
+        boolean descending = sortDirection.isDescending();
+        AlertCursor after = cursor != null && !cursor.isBlank() ? AlertCursor.decode(cursor) : null;
+
+        log.debug("Чтение страницы инцидентов: размер={}, направление={}, курсор={}",
+                 pageSize, sortDirection, after);
+
+        Specification<Alert> spec = filter
+                .and(AlertSpecification.after(
+                        after != null ? after.timestamp() : null,
+                        after != null ? after.id() : null,
+                        descending));
+        Sort sort = Sort.by(sortDirection, "timestamp").and(Sort.by(sortDirection, "id"));
+
+        // Запрашиваем на одну запись больше, чтобы узнать о наличии следующей страницы без COUNT
+        List<Alert> rows = alertRepository.findBy(spec, query -> query.sortBy(sort).limit(pageSize + 1).all());
+
+        boolean hasNext = rows.size() > pageSize;
+        List<Alert> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            Alert last = items.get(items.size() - 1);
+            nextCursor = new AlertCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        log.info("Получена страница из {} инцидентов, есть следующая: {}", items.size(), hasNext);
+
+        return new AlertPage(items.stream().map(AlertSummary::from).toList(), nextCursor, hasNext);
+    }
+
+    private static Sort.Direction parseDirection(String direction) {
+        if (direction == null || direction.isBlank()) {
+            return Sort.Direction.DESC;
+        }
+        return Sort.Direction.fromOptionalString(direction.trim())
+                .orElseThrow(() -> new InvalidPageRequestException(
+                        "Некорректное направление сортировки: " + direction + ". Допустимые значения: asc, desc"));
+    }
+
+
     /**
      * Ручная очистка всех кэшей оповещений.
      * После выполнения очищает все соответствующие кэши.
@@ -329,7 +495,8 @@ public class CachedAlertService implements AlertService {
         @CacheEvict(value = "alerts", allEntries = true),
         @CacheEvict(value = "alertsByStatus", allEntries = true),
         @CacheEvict(value = "alertsByBus", allEntries = true),
-        @CacheEvict(value = "alertsByUser", allEntries = true)
+        @CacheEvict(value = "alertsByUser", allEntries = true),
+        @CacheEvict(value = "alertInbox", allEntries = true)
     })
     public void clearAllCache() {
         log.info("Ручная очистка всех кэшей инцидентов");
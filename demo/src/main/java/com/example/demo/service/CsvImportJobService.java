@@ -0,0 +1,403 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CsvImportCheckpoint;
+import com.example.demo.dto.CsvImportJobStatus;
+import com.example.demo.dto.CsvImportResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сервис фоновых заданий импорта из CSV-файлов.
+ * Загруженный файл сохраняется в каталог заданий, а импорт выполняется ограниченным пулом потоков,
+ * поэтому HTTP-запрос завершается сразу, а ход задания (обработанные, сохраненные и ошибочные записи,
+ * скорость) запрашивается отдельно. При переполнении очереди новые задания отклоняются.
+ * <p>
+ * Состояние каждого задания хранится в файле рядом с загруженным CSV-файлом и перезаписывается
+ * после фиксации каждой порции (контрольная точка). Задания, прерванные остановкой приложения,
+ * после запуска продолжаются с контрольной точки. Порция, зафиксированная непосредственно перед
+ * остановкой, но не попавшая в контрольную точку, при продолжении будет сохранена повторно.
+ * Загрузка COPY выполняется одной транзакцией и контрольных точек не имеет: прерванная загрузка
+ * выполняется заново целиком.
+ * Завершенные задания хранятся alerts.import.jobs.retention, после чего их файлы удаляются.
+ */
+@Service
+public class CsvImportJobService implements DisposableBean {
+    private static final Logger log = LoggerFactory.getLogger(CsvImportJobService.class);
+
+    private static final String DATA_SUFFIX = ".csv";
+    private static final String STATE_SUFFIX = ".job.json";
+
+    private final CsvImportService importService;
+    private final ObjectMapper objectMapper;
+    private final ThreadPoolExecutor workers;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private volatile boolean stopping;
+
+    @Value("${alerts.import.jobs.dir:import-jobs}")
+    private String directoryName = "import-jobs";
+
+    @Value("${alerts.import.jobs.retention:24h}")
+    private Duration retention = Duration.ofHours(24);
+
+    public CsvImportJobService(CsvImportService importService, ObjectMapper objectMapper,
+                               @Value("${alerts.import.jobs.workers:2}") int workerCount,
+                               @Value("${alerts.import.jobs.queue-capacity:8}") int queueCapacity) {
+        this.importService = importService;
+        this.objectMapper = objectMapper;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("csv-import-job-"),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Сохраняет загруженный файл в каталог заданий и ставит задание импорта в очередь.
+     *
+     * @param file загруженный CSV-файл
+     * @param mode способ сохранения
+     * @return состояние нового задания
+     * @throws RejectedExecutionException если очередь заданий заполнена
+     */
+    public CsvImportJobStatus submit(MultipartFile file, CsvImportService.ImportMode mode) {
+        purgeExpired();
+        Path directory = directory();
+        String id = UUID.randomUUID().toString();
+        Job job = new Job(id, file.getOriginalFilename(), mode, Instant.now());
+        try {
+            Files.createDirectories(directory);
+            file.transferTo(job.dataFile().toAbsolutePath());
+        } catch (IOException e) {
+            deleteFiles(job);
+            throw new UncheckedIOException("Не удалось сохранить файл задания импорта", e);
+        }
+        save(job);
+        jobs.put(id, job);
+        try {
+            workers.execute(job.task);
+        } catch (RejectedExecutionException e) {
+            jobs.remove(id);
+            deleteFiles(job);
+            throw e;
+        }
+        log.info("Задание импорта {} поставлено в очередь: файл {}, способ {}", id, job.fileName, mode);
+        return job.status();
+    }
+
+    /**
+     * Возвращает состояние задания.
+     *
+     * @param id ID задания
+     * @return состояние или пустой Optional, если задание не найдено
+     */
+    public Optional<CsvImportJobStatus> status(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(Job::status);
+    }
+
+    /**
+     * Возвращает результат завершенного задания.
+     *
+     * @param id ID задания
+     * @return результат или пустой Optional, если задание не найдено или не завершено
+     */
+    public Optional<CsvImportResult> result(String id) {
+        return Optional.ofNullable(jobs.get(id)).map(job -> job.result);
+    }
+
+    /**
+     * Отменяет задание. Задание в очереди снимается сразу, выполняемое останавливается
+     * перед следующим блоком записей. При пакетной вставке остаются порции, зафиксированные до отмены,
+     * а незафиксированные записи отбрасываются; загрузка COPY откатывается целиком.
+     *
+     * @param id ID задания
+     * @return состояние задания или пустой Optional, если задание не найдено
+     */
+    public Optional<CsvImportJobStatus> cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+        job.cancelRequested = true;
+        synchronized (job) {
+            if (job.state == CsvImportJobStatus.State.QUEUED) {
+                workers.remove(job.task);
+                finish(job, CsvImportJobStatus.State.CANCELLED, job.checkpointResult(), null);
+            }
+        }
+        return Optional.of(job.status());
+    }
+
+    /**
+     * Загружает задания из каталога после запуска: незавершенные задания ставятся в очередь
+     * с последней контрольной точки, завершенные доступны для запроса результата.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    void resumeInterrupted() {
+        Path directory = directory();
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + STATE_SUFFIX)) {
+            for (Path file : files) {
+                try {
+                    restore(objectMapper.readValue(file.toFile(), JobFile.class));
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Не удалось прочитать состояние задания импорта {}: {}", file, e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать каталог заданий импорта {}: {}", directory, e.getMessage());
+        }
+        purgeExpired();
+    }
+
+    private void restore(JobFile file) {
+        if (jobs.containsKey(file.id())) {
+            return;
+        }
+        Job job = new Job(file.id(), file.fileName(), file.mode(), file.submittedAt());
+        job.checkpoint = file.checkpoint();
+        job.resumedFromRow = file.checkpoint() != null ? file.checkpoint().rowsProcessed() : 0;
+        job.rowsRead = job.resumedFromRow;
+        if (file.state().isFinished()) {
+            job.state = file.state();
+            job.finishedAt = file.finishedAt();
+            job.message = file.message();
+            job.result = file.result();
+            jobs.put(job.id, job);
+            return;
+        }
+        if (!Files.exists(job.dataFile())) {
+            log.warn("Файл задания импорта {} не найден, задание завершено с ошибкой", job.id);
+            jobs.put(job.id, job);
+            finish(job, CsvImportJobStatus.State.FAILED, job.checkpointResult(), "Файл импорта не найден");
+            return;
+        }
+        jobs.put(job.id, job);
+        try {
+            workers.execute(job.task);
+            log.info("Задание импорта {} продолжено с записи {}", job.id, job.resumedFromRow + 1);
+        } catch (RejectedExecutionException e) {
+            finish(job, CsvImportJobStatus.State.FAILED, job.checkpointResult(),
+                    "Очередь заданий заполнена при продолжении");
+        }
+    }
+
+    private void run(Job job) {
+        synchronized (job) {
+            if (job.state != CsvImportJobStatus.State.QUEUED) {
+                return;
+            }
+            job.state = CsvImportJobStatus.State.RUNNING;
+            job.startedAt = Instant.now();
+            save(job);
+        }
+        try {
+            CsvImportResult result = importService.importAlerts(new FileSystemResource(job.dataFile()),
+                    job.fileName, job.mode, job.checkpoint, job);
+            finish(job, CsvImportJobStatus.State.COMPLETED, result, null);
+        } catch (CsvImportService.ImportCancelledException e) {
+            // Отмена, запрошенная после обработки последнего блока, не отменяет сохраненный импорт
+            finish(job, CsvImportJobStatus.State.CANCELLED, e.getResult(), null);
+        } catch (RuntimeException e) {
+            if (stopping) {
+                // Состояние на диске остается RUNNING: задание продолжится после перезапуска
+                log.info("Задание импорта {} прервано остановкой приложения после {} записей", job.id, job.rowsRead);
+                return;
+            }
+            log.error("Задание импорта {} завершено с ошибкой: {}", job.id, e.getMessage(), e);
+            finish(job, CsvImportJobStatus.State.FAILED, job.checkpointResult(), e.getMessage());
+        }
+    }
+
+    private void finish(Job job, CsvImportJobStatus.State state, CsvImportResult result, String message) {
+        synchronized (job) {
+            job.state = state;
+            job.result = result;
+            job.message = message;
+            job.finishedAt = Instant.now();
+            save(job);
+        }
+        try {
+            Files.deleteIfExists(job.dataFile());
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл задания импорта {}: {}", job.id, e.getMessage());
+        }
+        log.info("Задание импорта {} завершено: {}", job.id, state);
+    }
+
+    /**
+     * Атомарно перезаписывает файл состояния задания.
+     */
+    private void save(Job job) {
+        Path target = job.stateFile();
+        try {
+            Path temporary = Files.createTempFile(directory(), job.id, ".tmp");
+            try {
+                objectMapper.writeValue(temporary.toFile(), job.toFile());
+                Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+        } catch (IOException e) {
+            log.warn("Не удалось записать состояние задания импорта {}: {}", job.id, e.getMessage());
+        }
+    }
+
+    private Path directory() {
+        return Path.of(directoryName);
+    }
+
+    private void purgeExpired() {
+        Instant threshold = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(threshold)) {
+                return false;
+            }
+            deleteFiles(job);
+            return true;
+        });
+    }
+
+    private void deleteFiles(Job job) {
+        try {
+            Files.deleteIfExists(job.dataFile());
+            Files.deleteIfExists(job.stateFile());
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файлы задания импорта {}: {}", job.id, e.getMessage());
+        }
+    }
+
+    /**
+     * Останавливает выполнение заданий. Незавершенные задания остаются на диске и продолжатся после запуска.
+     */
+    @Override
+    public void destroy() {
+        stopping = true;
+        workers.shutdownNow();
+    }
+
+    /**
+     * Файл состояния задания.
+     *
+     * @param id ID задания
+     * @param fileName имя загруженного файла
+     * @param mode способ сохранения
+     * @param state состояние задания
+     * @param submittedAt время постановки в очередь
+     * @param finishedAt время завершения
+     * @param message сообщение об ошибке
+     * @param checkpoint последняя контрольная точка
+     * @param result результат завершенного задания
+     */
+    record JobFile(String id, String fileName, CsvImportService.ImportMode mode, CsvImportJobStatus.State state,
+                   Instant submittedAt, Instant finishedAt, String message, CsvImportCheckpoint checkpoint,
+                   CsvImportResult result) {
+    }
+
+    /**
+     * Задание импорта. Ход обновляется потоком задания, состояние меняется под блокировкой задания.
+     */
+    private final class Job implements CsvImportService.ImportObserver {
+        private final String id;
+        private final String fileName;
+        private final CsvImportService.ImportMode mode;
+        private final Instant submittedAt;
+        private final Runnable task = () -> run(this);
+        private volatile CsvImportJobStatus.State state = CsvImportJobStatus.State.QUEUED;
+        private volatile boolean cancelRequested;
+        private volatile CsvImportCheckpoint checkpoint;
+        private volatile CsvImportResult result;
+        private volatile String message;
+        private volatile Instant startedAt;
+        private volatile Instant finishedAt;
+        private volatile long resumedFromRow;
+        private volatile long rowsRead;
+        private volatile long rowsPersisted;
+        private volatile long rowsFailed;
+
+        private Job(String id, String fileName, CsvImportService.ImportMode mode, Instant submittedAt) {
+            this.id = id;
+            this.fileName = fileName;
+            this.mode = mode;
+            this.submittedAt = submittedAt;
+        }
+
+        private Path dataFile() {
+            return directory().resolve(id + DATA_SUFFIX);
+        }
+
+        private Path stateFile() {
+            return directory().resolve(id + STATE_SUFFIX);
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelRequested;
+        }
+
+        @Override
+        public void progress(long rowsProcessed, int rowsPersisted, int errorCount) {
+            this.rowsRead = rowsProcessed;
+            this.rowsPersisted = rowsPersisted;
+            this.rowsFailed = errorCount;
+        }
+
+        @Override
+        public void committed(CsvImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+            synchronized (this) {
+                save(this);
+            }
+        }
+
+        private CsvImportResult checkpointResult() {
+            CsvImportCheckpoint current = checkpoint;
+            return current != null ? current.result() : null;
+        }
+
+        private JobFile toFile() {
+            return new JobFile(id, fileName, mode, state, submittedAt, finishedAt, message, checkpoint, result);
+        }
+
+        private CsvImportJobStatus status() {
+            CsvImportResult finished = result;
+            long read = rowsRead;
+            long persisted = finished != null ? finished.getSuccessCount() : rowsPersisted;
+            long failed = finished != null ? finished.getErrorCount() : rowsFailed;
+            long rowsPerSecond = 0;
+            Instant started = startedAt;
+            if (started != null) {
+                Instant end = finishedAt != null ? finishedAt : Instant.now();
+                long elapsedMillis = Math.max(1, Duration.between(started, end).toMillis());
+                rowsPerSecond = (read - resumedFromRow) * 1000 / elapsedMillis;
+            }
+            return new CsvImportJobStatus(id, fileName, mode.name(), state, read, persisted, failed,
+                    rowsPerSecond, resumedFromRow, submittedAt, started, finishedAt, message);
+        }
+    }
+}
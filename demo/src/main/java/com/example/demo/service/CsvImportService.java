@@ -4,41 +4,88 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.example.demo.dto.CsvImportCheckpoint;
 import com.example.demo.dto.CsvImportResult;
+import com.example.demo.dto.IdRange;
 import com.example.demo.model.Alert;
 import com.example.demo.model.EventType;
 import com.example.demo.model.StatusType;
 
-import lombok.RequiredArgsConstructor;
-
 /**
  * Сервис для импорта оповещений из CSV-файлов.
  * Предоставляет методы для обработки CSV-файлов и преобразования их содержимого в оповещения.
+ * Файл читается потоково, записи разбираются параллельно блоками, а оповещения сохраняются порциями
+ * через {@link AlertBulkInsertService} или, для больших загрузок, командой COPY через {@link AlertCopyLoader}.
+ * Файлы фоновых заданий, сохраненные на диск, при alerts.import.mapped-parser.enabled разбираются
+ * без commons-csv через отображение в память ({@link MappedCsvTokenizer}) с тем же результатом.
+ * Строкам со временем вычисляется отпечаток ({@link AlertFingerprint}), поэтому такие строки, импортированные ранее
+ * (например, из пересекающихся выгрузок депо), пропускаются и учитываются в результате как дубликаты.
+ * Строки без времени сохраняются всегда.
  */
 @Service
-@RequiredArgsConstructor
-public class CsvImportService {
+public class CsvImportService implements DisposableBean {
     private static final Logger log = LoggerFactory.getLogger(CsvImportService.class);
 
-    private final AlertService alertService;
+    private final AlertBulkInsertService bulkInsertService;
+    private final AlertCopyLoader copyLoader;
+    private final int parseThreads;
+    private final ExecutorService parsePool;
+    private final ExecutorService readerPool = Executors.newCachedThreadPool(
+            new CustomizableThreadFactory("csv-import-reader-"));
+
+    @Value("${alerts.import.parse-block-size:1000}")
+    private int parseBlockSize = 1000;
+
+    @Value("${alerts.import.max-errors:100}")
+    private int maxErrors = 100;
+
+    @Value("${alerts.import.max-id-ranges:1000}")
+    private int maxIdRanges = 1000;
+
+    @Value("${alerts.import.mapped-parser.enabled:false}")
+    private boolean mappedParserEnabled = false;
+
+    public CsvImportService(AlertBulkInsertService bulkInsertService, AlertCopyLoader copyLoader,
+                            @Value("${alerts.import.parse-threads:0}") int parseThreads) {
+        this.bulkInsertService = bulkInsertService;
+        this.copyLoader = copyLoader;
+        this.parseThreads = parseThreads > 0 ? parseThreads : Runtime.getRuntime().availableProcessors();
+        this.parsePool = Executors.newFixedThreadPool(this.parseThreads,
+                new CustomizableThreadFactory("csv-import-parse-"));
+    }
 
     /**
      * Создает формат CSV-парсера с настройками.
      *
      * @return Объект CSVFormat с настроенными параметрами
      */
-    private CSVFormat createCsvFormat() {
+    static CSVFormat createCsvFormat() {
         return CSVFormat.DEFAULT.builder()
                 .setHeader()  // Использует заголовки из файла
                 .setSkipHeaderRecord(true)
@@ -51,115 +98,579 @@ public class CsvImportService {
 
     /**
      * Импортирует оповещения из CSV-файла.
-     * Обрабатывает каждый ряд CSV-файла и создает соответствующие оповещения.
+     * Импорт выполняется конвейером из трех стадий: поток чтения делит файл на блоки по parse-block-size
+     * записей, пул разбора (parse-threads потоков) проверяет блоки и преобразует их в оповещения,
+     * а текущий поток сохраняет их порциями через потоковую вставку. Блоки сохраняются в порядке файла,
+     * поэтому результат (ошибки и номера строк) не зависит от числа потоков. Число блоков в работе
+     * ограничено, поэтому чтение приостанавливается, если разбор или сохранение не успевают.
+     * Ошибки сохраняются выборкой не более max-errors, а ID созданных оповещений - диапазонами,
+     * поэтому потребление памяти не зависит от размера файла.
      *
      * @param file MultipartFile, представляющий CSV-файл для импорта
      * @return Объект CsvImportResult с результатами импорта (количество созданных,
-     *         неудачных попыток, ошибки и ID созданных оповещений)
+     *         неудачных попыток, ошибки и диапазоны ID созданных оповещений)
      */
     public CsvImportResult importAlertsFromCsv(MultipartFile file) {
-        log.info("Начало импорта CSV файла: {}", file.getOriginalFilename());
-
-        List<String> errors = new ArrayList<>();
-        List<Alert> validAlerts = new ArrayList<>();
-        List<Long> createdAlertIds = new ArrayList<>();
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
-             CSVParser csvParser = new CSVParser(reader, createCsvFormat())) {
-
-            int totalRows = 0;
-            for (CSVRecord csvRecord : csvParser) {
-                totalRows++;
-                try {
-                    Alert alert = processCsvRecord(csvRecord);
-                    validAlerts.add(alert);
-                    log.debug("Строка {} успешно обработана", csvRecord.getRecordNumber());
-                } catch (Exception e) {
-                    String errorMsg = "Строка " + csvRecord.getRecordNumber() + ": " + e.getMessage();
-                    errors.add(errorMsg);
-                    log.warn("Ошибка обработки строки {}: {}", csvRecord.getRecordNumber(), e.getMessage());
+        return importAlertsFromCsv(file, parseThreads);
+    }
+
+    /**
+     * Импортирует оповещения из CSV-файла, разбирая блоки заданным числом потоков.
+     * Если оно отличается от parse-threads, для импорта создается отдельный пул разбора.
+     *
+     * @param file CSV-файл для импорта
+     * @param parallelism число потоков разбора
+     * @return результат импорта
+     */
+    CsvImportResult importAlertsFromCsv(MultipartFile file, int parallelism) {
+        if (parallelism == parseThreads) {
+            return runImport(file, file.getOriginalFilename(), parsePool, parallelism, ImportMode.BATCH, null,
+                    ImportObserver.NONE);
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism,
+                new CustomizableThreadFactory("csv-import-parse-" + parallelism + "-"));
+        try {
+            return runImport(file, file.getOriginalFilename(), pool, parallelism, ImportMode.BATCH, null,
+                    ImportObserver.NONE);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Загружает оповещения из большого CSV-файла командой PostgreSQL COPY через промежуточную таблицу.
+     * Строки проверяются так же, как при обычном импорте, но сохраняются одной транзакцией:
+     * при ошибке загрузки не сохраняется ни одно оповещение. Если база данных не PostgreSQL,
+     * выполняется обычный импорт.
+     *
+     * @param file MultipartFile, представляющий CSV-файл для загрузки
+     * @return Объект CsvImportResult с результатами загрузки
+     */
+    public CsvImportResult copyAlertsFromCsv(MultipartFile file) {
+        return importAlerts(file, file.getOriginalFilename(), ImportMode.COPY, null, ImportObserver.NONE);
+    }
+
+    /**
+     * Импортирует оповещения из CSV-источника (например, файла фонового задания) с наблюдением за ходом.
+     * Если задана контрольная точка, уже обработанные записи пропускаются, а результат дополняет
+     * результат из контрольной точки.
+     *
+     * @param source источник CSV-данных
+     * @param fileName имя файла для журнала
+     * @param mode способ сохранения
+     * @param resumeFrom контрольная точка прерванного импорта или null
+     * @param observer наблюдатель за ходом импорта
+     * @return результат импорта
+     * @throws ImportCancelledException если импорт отменен до конца файла
+     */
+    public CsvImportResult importAlerts(InputStreamSource source, String fileName, ImportMode mode,
+                                        CsvImportCheckpoint resumeFrom, ImportObserver observer) {
+        return runImport(source, fileName, parsePool, parseThreads, mode, resumeFrom, observer);
+    }
+
+    /**
+     * Способ сохранения импортируемых оповещений.
+     */
+    public enum ImportMode {
+        BATCH, // Пакетная вставка, каждая порция - отдельная транзакция
+        COPY   // Загрузка командой PostgreSQL COPY одной транзакцией
+    }
+
+    /**
+     * Наблюдатель за ходом импорта. Методы вызываются в потоке сохранения.
+     */
+    public interface ImportObserver {
+
+        /**
+         * Наблюдатель, который ничего не делает.
+         */
+        ImportObserver NONE = new ImportObserver() {
+        };
+
+        /**
+         * Проверяет, запрошена ли отмена. Импорт останавливается перед следующим блоком,
+         * незафиксированные оповещения отбрасываются: при пакетной вставке остаются порции,
+         * зафиксированные до отмены, при загрузке COPY транзакция откатывается и не сохраняется ничего.
+         * Отмененный импорт завершается {@link ImportCancelledException} с результатом последней
+         * контрольной точки; если отмена запрошена после обработки последнего блока, импорт завершается обычно.
+         *
+         * @return true, если импорт нужно остановить
+         */
+        default boolean isCancelled() {
+            return false;
+        }
+
+        /**
+         * Сообщает о ходе импорта после каждого блока записей.
+         *
+         * @param rowsProcessed число обработанных записей
+         * @param rowsPersisted число сохраненных оповещений
+         * @param errorCount число ошибок
+         */
+        default void progress(long rowsProcessed, int rowsPersisted, int errorCount) {
+        }
+
+        /**
+         * Сообщает о фиксации порции: все записи до контрольной точки сохранены или отклонены.
+         *
+         * @param checkpoint контрольная точка
+         */
+        default void committed(CsvImportCheckpoint checkpoint) {
+        }
+    }
+
+    /**
+     * Исключение, которым завершается импорт, отмененный наблюдателем до конца файла.
+     */
+    public static class ImportCancelledException extends RuntimeException {
+        private final CsvImportResult result;
+
+        public ImportCancelledException(CsvImportResult result) {
+            super("Импорт CSV отменен");
+            this.result = result;
+        }
+
+        /**
+         * Возвращает результат импорта по последней контрольной точке.
+         *
+         * @return результат зафиксированных порций
+         */
+        public CsvImportResult getResult() {
+            return result;
+        }
+    }
+
+    private CsvImportResult runImport(InputStreamSource source, String fileName, ExecutorService pool,
+                                      int parallelism, ImportMode mode, CsvImportCheckpoint resumeFrom,
+                                      ImportObserver observer) {
+        if (mode == ImportMode.COPY && !copyLoader.isSupported()) {
+            log.warn("Загрузка COPY доступна только для PostgreSQL, выполняется обычный импорт");
+            mode = ImportMode.BATCH;
+        }
+        ImportProgress progress = new ImportProgress(maxErrors, maxIdRanges, resumeFrom);
+        long skipRows = progress.totalRows;
+        if (skipRows > 0) {
+            log.info("Продолжение импорта CSV файла {} с записи {}", fileName, skipRows + 1);
+        } else {
+            log.info("Начало импорта CSV файла: {}", fileName);
+        }
+
+        AlertImportSink insert = mode == ImportMode.COPY
+                ? copyLoader.open(progress::created, progress::error, progress::duplicates)
+                : bulkInsertService.open(progress::created, progress::error, progress::duplicates);
+        BlockingQueue<Future<ParsedBlock>> blocks = new ArrayBlockingQueue<>(2 * Math.max(1, parallelism));
+        MappedCsvTokenizer mapped = openMapped(source, fileName);
+        Runnable readTask = mapped != null
+                ? () -> readMappedBlocks(mapped, skipRows, pool, blocks)
+                : () -> readBlocks(source, skipRows, pool, blocks);
+        Future<?> reader = readerPool.submit(readTask);
+
+        boolean completed;
+        try {
+            completed = consumeBlocks(blocks, insert, progress, observer);
+        } catch (InterruptedException e) {
+            stopReader(reader, blocks);
+            insert.abort();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Импорт CSV прерван", e);
+        } catch (ExecutionException e) {
+            stopReader(reader, blocks);
+            insert.abort();
+            throw new IllegalStateException("Ошибка разбора CSV: " + e.getCause().getMessage(), e.getCause());
+        } catch (RuntimeException e) {
+            stopReader(reader, blocks);
+            insert.abort();
+            throw e;
+        }
+        stopReader(reader, blocks);
+        if (!completed) {
+            insert.abort();
+            throw new ImportCancelledException(progress.committed.result());
+        }
+        insert.close();
+
+        log.info("Импорт завершен: строк {}, валидных {}, успешно сохранено {}, дубликатов {}, не удалось {}, ошибок {}",
+                progress.totalRows, progress.validRows, progress.created, progress.duplicates,
+                progress.validRows - progress.created - progress.duplicates, progress.errorCount);
+        return progress.checkpoint().result();
+    }
+
+    /**
+     * Стадия сохранения: получает разобранные блоки в порядке файла и передает оповещения на сохранение.
+     * После каждой зафиксированной порции сообщает наблюдателю контрольную точку.
+     *
+     * @return true, если файл обработан до конца, или false, если импорт отменен
+     */
+    private boolean consumeBlocks(BlockingQueue<Future<ParsedBlock>> blocks, AlertImportSink insert,
+                                  ImportProgress progress, ImportObserver observer)
+            throws InterruptedException, ExecutionException {
+        while (!observer.isCancelled()) {
+            ParsedBlock block = blocks.take().get();
+            if (block == ParsedBlock.END) {
+                return true;
+            }
+            for (ParsedRow row : block.rows()) {
+                progress.totalRows++;
+                if (row.alert() == null) {
+                    progress.error(row.error());
+                    continue;
+                }
+                progress.validRows++;
+                insert.add(row.alert());
+                if (insert.pendingCount() == 0) {
+                    progress.committed = progress.checkpoint();
+                    observer.committed(progress.committed);
                 }
             }
+            if (block.readError() != null) {
+                log.error("Ошибка при чтении CSV файла: {}", block.readError());
+                progress.error("Не удалось прочитать файл: " + block.readError());
+            }
+            observer.progress(progress.totalRows, progress.created, progress.errorCount);
+        }
+        log.info("Импорт CSV отменен после {} записей, незафиксированные оповещения ({}) отброшены",
+                progress.totalRows, insert.pendingCount());
+        return false;
+    }
+
+    private static void stopReader(Future<?> reader, BlockingQueue<Future<ParsedBlock>> blocks) {
+        reader.cancel(true);
+        blocks.forEach(block -> block.cancel(true));
+    }
 
-            log.info("Файл прочитан, всего строк: {}, валидных: {}", totalRows, validAlerts.size());
-
-            for (Alert alert : validAlerts) {
-                try {
-                    Alert savedAlert = alertService.create(alert);
-                    createdAlertIds.add(savedAlert.getId());
-                    log.info("Успешно сохранен инцидент ID: {}, автобус: {}, тип: {}",
-                            savedAlert.getId(), savedAlert.getBusId(), savedAlert.getType());
-                } catch (Exception e) {
-                    String errorMsg = "Не удалось сохранить инцидент: автобус " + alert.getBusId() +
-                              ", тип " + alert.getType() + " - " + e.getMessage();
-                    errors.add(errorMsg);
-                    log.error("Ошибка сохранения инцидента: автобус {}, тип {}",
-                             alert.getBusId(), alert.getType(), e);
+    /**
+     * Стадия чтения: делит файл на блоки записей и передает их в пул разбора.
+     * Результаты разбора помещаются в очередь в порядке файла; при заполнении очереди чтение ждет.
+     * Ошибка чтения (в том числе ошибка заголовка commons-csv) передается последним блоком,
+     * после которого признак конца помещается в блоке finally при любом исходе, кроме прерывания сохранением.
+     */
+    private void readBlocks(InputStreamSource source, long skipRows, ExecutorService pool,
+                            BlockingQueue<Future<ParsedBlock>> blocks) {
+        List<CSVRecord> records = new ArrayList<>(parseBlockSize);
+        long skipped = 0;
+        String readError = null;
+        try {
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(source.getInputStream(), StandardCharsets.UTF_8));
+                 CSVParser csvParser = new CSVParser(reader, createCsvFormat())) {
+                for (CSVRecord csvRecord : csvParser) {
+                    if (skipped < skipRows) {
+                        skipped++; // Записи до контрольной точки уже обработаны
+                        continue;
+                    }
+                    records.add(csvRecord);
+                    if (records.size() == parseBlockSize) {
+                        submitBlock(records, pool, blocks);
+                        records = new ArrayList<>(parseBlockSize);
+                    }
                 }
+                submitBlock(records, pool, blocks);
+                records = List.of();
+            } catch (IOException | RuntimeException e) {
+                log.debug("Ошибка при чтении CSV файла", e); // В том числе ошибки заголовка и кавычек commons-csv
+                readError = Objects.requireNonNullElse(e.getMessage(), e.toString());
+                submitBlock(records, pool, blocks); // Записи, прочитанные до ошибки, сохраняются
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Импорт завершен или прерван сохранением
+        } catch (RuntimeException e) {
+            log.error("Ошибка при передаче блоков CSV на разбор", e);
+            readError = e.toString();
+        } finally {
+            endBlocks(blocks, readError);
+        }
+    }
 
-            log.info("Импорт завершен: успешно сохранено {}, не удалось {}",
-                    createdAlertIds.size(), validAlerts.size() - createdAlertIds.size());
-
-            return new CsvImportResult(
-                createdAlertIds.size(),
-                validAlerts.size() - createdAlertIds.size(),
-                errors,
-                createdAlertIds
-            );
+    /**
+     * Помещает в очередь блок ошибки чтения (если она была) и признак конца.
+     * Если поток чтения прерван, сохранение уже остановлено и признак конца не нужен.
+     */
+    private static void endBlocks(BlockingQueue<Future<ParsedBlock>> blocks, String readError) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            if (readError != null) {
+                blocks.put(CompletableFuture.completedFuture(ParsedBlock.failed(readError)));
+            }
+            blocks.put(CompletableFuture.completedFuture(ParsedBlock.END));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 
+    /**
+     * Открывает файл для разбора через отображение в память, если разбор включен, источник - файл на диске
+     * и его заголовок поддерживается; иначе файл разбирается через commons-csv.
+     */
+    private MappedCsvTokenizer openMapped(InputStreamSource source, String fileName) {
+        if (!mappedParserEnabled || !(source instanceof Resource resource) || !resource.isFile()) {
+            return null;
+        }
+        try {
+            MappedCsvTokenizer tokenizer = MappedCsvTokenizer.open(resource.getFile().toPath());
+            if (tokenizer == null) {
+                log.info("Заголовок или размер файла {} не поддерживается разбором из памяти, используется commons-csv",
+                        fileName);
+            }
+            return tokenizer;
         } catch (IOException e) {
-            log.error("Ошибка при чтении CSV файла", e);
-            errors.add("Не удалось прочитать файл: " + e.getMessage());
-            return new CsvImportResult(0, 0, errors, new ArrayList<>());
+            log.warn("Не удалось отобразить файл {} в память: {}", fileName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Стадия чтения для файла, отображенного в память: находит границы записей и передает в пул разбора
+     * диапазоны по parse-block-size записей. Ошибка кавычек передается так же, как при чтении через commons-csv:
+     * записи до нее разбираются, затем следует блок ошибки чтения.
+     */
+    private void readMappedBlocks(MappedCsvTokenizer csv, long skipRows, ExecutorService pool,
+                                  BlockingQueue<Future<ParsedBlock>> blocks) {
+        int blockStart = 0;
+        long blockFirstRecord = 0;
+        int blockRecords = 0;
+        int position = csv.nextRecord(csv.firstRecord());
+        long recordNumber = 0;
+        String readError = null;
+        try {
+            try {
+                while (position < csv.limit()) {
+                    int end = csv.endOfRecord(position);
+                    recordNumber++;
+                    if (recordNumber > skipRows) { // Записи до контрольной точки уже обработаны
+                        if (blockRecords == 0) {
+                            blockStart = position;
+                            blockFirstRecord = recordNumber;
+                        }
+                        blockRecords++;
+                    }
+                    position = end;
+                    if (blockRecords == parseBlockSize) {
+                        submitMappedBlock(csv, blockStart, position, blockFirstRecord, pool, blocks);
+                        blockRecords = 0;
+                    }
+                    position = csv.nextRecord(position);
+                }
+                if (blockRecords > 0) {
+                    submitMappedBlock(csv, blockStart, position, blockFirstRecord, pool, blocks);
+                }
+            } catch (IOException e) {
+                log.debug("Ошибка при чтении CSV файла", e);
+                readError = Objects.requireNonNullElse(e.getMessage(), e.toString());
+                if (blockRecords > 0) {
+                    submitMappedBlock(csv, blockStart, position, blockFirstRecord, pool, blocks);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // Импорт завершен или прерван сохранением
+        } catch (RuntimeException e) {
+            log.error("Ошибка при передаче блоков CSV на разбор", e);
+            readError = e.toString();
+        } finally {
+            endBlocks(blocks, readError);
+        }
+    }
+
+    private void submitMappedBlock(MappedCsvTokenizer csv, int start, int end, long firstRecordNumber,
+                                   ExecutorService pool, BlockingQueue<Future<ParsedBlock>> blocks)
+            throws InterruptedException {
+        blocks.put(pool.submit(() -> {
+            List<ParsedRow> rows = new ArrayList<>(parseBlockSize);
+            csv.parse(start, end, firstRecordNumber, row -> rows.add(parseRow(row)));
+            return new ParsedBlock(rows, null);
+        }));
+    }
+
+    private void submitBlock(List<CSVRecord> records, ExecutorService pool, BlockingQueue<Future<ParsedBlock>> blocks)
+            throws InterruptedException {
+        if (!records.isEmpty()) {
+            blocks.put(pool.submit(() -> parseBlock(records)));
+        }
+    }
+
+    /**
+     * Стадия разбора: преобразует блок записей в оповещения и ошибки строк.
+     */
+    private ParsedBlock parseBlock(List<CSVRecord> records) {
+        List<ParsedRow> rows = new ArrayList<>(records.size());
+        for (CSVRecord csvRecord : records) {
+            rows.add(parseRow(AlertCsvRow.of(csvRecord)));
+        }
+        return new ParsedBlock(rows, null);
+    }
+
+    private static ParsedRow parseRow(AlertCsvRow row) {
+        try {
+            ParsedRow parsed = new ParsedRow(toAlert(row), null);
+            log.debug("Строка {} успешно обработана", row.recordNumber());
+            return parsed;
+        } catch (Exception e) {
+            log.debug("Ошибка обработки строки {}: {}", row.recordNumber(), e.getMessage());
+            return new ParsedRow(null, "Строка " + row.recordNumber() + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Разобранная запись: оповещение или ошибка.
+     */
+    private record ParsedRow(Alert alert, String error) {
+    }
+
+    /**
+     * Разобранный блок записей.
+     *
+     * @param rows записи блока в порядке файла
+     * @param readError сообщение об ошибке чтения файла (только в блоке ошибки чтения)
+     */
+    private record ParsedBlock(List<ParsedRow> rows, String readError) {
+        private static final ParsedBlock END = new ParsedBlock(List.of(), null);
+
+        private static ParsedBlock failed(String message) {
+            return new ParsedBlock(List.of(), message);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        readerPool.shutdownNow();
+        parsePool.shutdownNow();
+    }
+
+    /**
+     * Накопитель результата импорта ограниченного размера: первые ошибки и их общее число,
+     * диапазоны последовательных ID созданных оповещений.
+     */
+    private static final class ImportProgress {
+        private final int maxErrors;
+        private final int maxIdRanges;
+        private final List<String> errors = new ArrayList<>();
+        private final List<IdRange> idRanges = new ArrayList<>();
+        private long totalRows;
+        private int validRows;
+        private int created;
+        private int duplicates;
+        private int errorCount;
+        private boolean idRangesTruncated;
+        private long rangeFrom;
+        private long rangeTo = Long.MIN_VALUE;
+        private CsvImportCheckpoint committed; // Последняя контрольная точка, все записи до которой зафиксированы
+
+        private ImportProgress(int maxErrors, int maxIdRanges, CsvImportCheckpoint resumeFrom) {
+            this.maxErrors = maxErrors;
+            this.maxIdRanges = maxIdRanges;
+            if (resumeFrom == null) {
+                committed = checkpoint();
+                return;
+            }
+            committed = resumeFrom;
+            CsvImportResult result = resumeFrom.result();
+            totalRows = resumeFrom.rowsProcessed();
+            created = result.getSuccessCount();
+            duplicates = result.getDuplicateCount();
+            validRows = result.getSuccessCount() + result.getFailedCount() + result.getDuplicateCount();
+            errorCount = result.getErrorCount();
+            errors.addAll(result.getErrors());
+            idRanges.addAll(result.getCreatedIdRanges());
+            idRangesTruncated = result.isCreatedIdRangesTruncated();
+            if (!idRangesTruncated && !idRanges.isEmpty()) {
+                IdRange last = idRanges.remove(idRanges.size() - 1); // Может продолжиться следующими ID
+                rangeFrom = last.from();
+                rangeTo = last.to();
+            }
+        }
+
+        private void error(String message) {
+            errorCount++;
+            if (errors.size() < maxErrors) {
+                errors.add(message);
+            }
+        }
+
+        private void duplicates(int count) {
+            duplicates += count;
+        }
+
+        private void created(long id) {
+            created++;
+            if (rangeTo != Long.MIN_VALUE && id == rangeTo + 1) {
+                rangeTo = id;
+                return;
+            }
+            if (rangeTo != Long.MIN_VALUE) {
+                if (idRanges.size() < maxIdRanges) {
+                    idRanges.add(new IdRange(rangeFrom, rangeTo));
+                } else {
+                    idRangesTruncated = true;
+                }
+            }
+            rangeFrom = id;
+            rangeTo = id;
+        }
+
+        /**
+         * Возвращает копию накопленного результата вместе с текущим незакрытым диапазоном ID.
+         */
+        private CsvImportCheckpoint checkpoint() {
+            List<IdRange> ranges = new ArrayList<>(idRanges);
+            boolean truncated = idRangesTruncated;
+            if (rangeTo != Long.MIN_VALUE) {
+                if (ranges.size() < maxIdRanges) {
+                    ranges.add(new IdRange(rangeFrom, rangeTo));
+                } else {
+                    truncated = true;
+                }
+            }
+            return new CsvImportCheckpoint(totalRows, new CsvImportResult(created, validRows - created - duplicates,
+                    duplicates, new ArrayList<>(errors), errorCount, ranges, truncated));
         }
     }
 
     /**
      * Обрабатывает одну запись из CSV-файла и преобразует её в объект Alert.
+     * Необязательный столбец timestamp задает время инцидента в формате ISO-8601.
+     * Оповещению присваивается отпечаток строки для пропуска повторного импорта.
+     * Используется обоими способами разбора файла, поэтому их результаты совпадают.
      *
-     * @param csvRecord Объект CSVRecord, представляющий одну строку CSV-файла
+     * @param row Запись CSV-файла
      * @return Объект Alert, созданный из данных CSV-записи
      * @throws IllegalArgumentException Если данные в CSV-записи некорректны
      */
-    private Alert processCsvRecord(CSVRecord csvRecord) {
-        log.debug("Обработка строки CSV: {}", csvRecord.getRecordNumber());
+    static Alert toAlert(AlertCsvRow row) {
+        log.debug("Обработка строки CSV: {}", row.recordNumber());
 
-        validateRequiredField(csvRecord, "bus_id", "ID автобуса");
-        validateRequiredField(csvRecord, "type", "Тип инцидента");
-        validateRequiredField(csvRecord, "location", "Местоположение");
-        validateRequiredField(csvRecord, "description", "Описание");
+        validateRequiredField(row, AlertCsvRow.Column.BUS_ID, "ID автобуса");
+        validateRequiredField(row, AlertCsvRow.Column.TYPE, "Тип инцидента");
+        validateRequiredField(row, AlertCsvRow.Column.LOCATION, "Местоположение");
+        validateRequiredField(row, AlertCsvRow.Column.DESCRIPTION, "Описание");
 
         Alert alert = new Alert();
 
         try {
-            alert.setBusId(Long.parseLong(csvRecord.get("bus_id").trim()));
+            alert.setBusId(row.longValue(AlertCsvRow.Column.BUS_ID));
             log.trace("ID автобуса установлен: {}", alert.getBusId());
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Некорректный ID автобуса: " + csvRecord.get("bus_id"));
+            throw new IllegalArgumentException("Некорректный ID автобуса: " + row.get(AlertCsvRow.Column.BUS_ID));
         }
 
         try {
-            String typeStr = csvRecord.get("type").trim().toUpperCase();
-            alert.setType(EventType.valueOf(typeStr));
+            alert.setType(row.enumValue(AlertCsvRow.Column.TYPE, EventType.class));
             log.trace("Тип инцидента установлен: {}", alert.getType());
         } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Некорректный тип инцидента: " + csvRecord.get("type") +
+            throw new IllegalArgumentException("Некорректный тип инцидента: " + row.get(AlertCsvRow.Column.TYPE) +
                                              ". Допустимые значения: ACCIDENT, HARD_BRAKING, BUTTON");
         }
 
-        alert.setLocation(csvRecord.get("location").trim());
-        alert.setDescription(csvRecord.get("description").trim());
+        alert.setLocation(row.get(AlertCsvRow.Column.LOCATION));
+        alert.setDescription(row.get(AlertCsvRow.Column.DESCRIPTION));
         log.trace("Местоположение и описание установлены");
 
-        if (csvRecord.isSet("status") && !csvRecord.get("status").trim().isEmpty()) {
+        if (row.hasValue(AlertCsvRow.Column.STATUS)) {
             try {
-                String statusStr = csvRecord.get("status").trim().toUpperCase();
-                alert.setStatus(StatusType.valueOf(statusStr));
+                alert.setStatus(row.enumValue(AlertCsvRow.Column.STATUS, StatusType.class));
                 log.trace("Статус установлен: {}", alert.getStatus());
             } catch (IllegalArgumentException e) {
-                throw new IllegalArgumentException("Некорректный статус: " + csvRecord.get("status") +
+                throw new IllegalArgumentException("Некорректный статус: " + row.get(AlertCsvRow.Column.STATUS) +
                                                  ". Допустимые значения: NEW, IN_PROGRESS, RESOLVED");
             }
         } else {
@@ -167,29 +678,43 @@ public class CsvImportService {
             log.trace("Статус установлен по умолчанию: NEW");
         }
 
-        if (csvRecord.isSet("assigned_to_user_id") && !csvRecord.get("assigned_to_user_id").trim().isEmpty()) {
+        if (row.hasValue(AlertCsvRow.Column.ASSIGNED_TO_USER_ID)) {
             try {
-                alert.setAssignedToUserId(Long.parseLong(csvRecord.get("assigned_to_user_id").trim()));
+                alert.setAssignedToUserId(row.longValue(AlertCsvRow.Column.ASSIGNED_TO_USER_ID));
                 log.trace("Назначенный пользователь ID установлен: {}", alert.getAssignedToUserId());
             } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("Некорректный ID пользователя: " + csvRecord.get("assigned_to_user_id"));
+                throw new IllegalArgumentException("Некорректный ID пользователя: " +
+                                                 row.get(AlertCsvRow.Column.ASSIGNED_TO_USER_ID));
             }
         }
 
+        if (row.hasValue(AlertCsvRow.Column.TIMESTAMP)) {
+            try {
+                alert.setTimestamp(LocalDateTime.parse(row.get(AlertCsvRow.Column.TIMESTAMP)));
+                log.trace("Время инцидента установлено: {}", alert.getTimestamp());
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Некорректное время инцидента: " + row.get(AlertCsvRow.Column.TIMESTAMP) +
+                                                 ". Ожидается формат 2024-01-31T14:30:00");
+            }
+        }
+
+        alert.setFingerprint(AlertFingerprint.of(alert));
+
         log.debug("Строка CSV успешно обработана в объект Alert");
         return alert;
     }
 
     /**
      * Проверяет обязательное поле в CSV-записи.
+     * Пустое значение читается как null, поэтому проверяется наличие значения, а не только столбца.
      *
-     * @param csvRecord Объект CSVRecord, представляющий строку CSV-файла
-     * @param fieldName Имя поля для проверки
+     * @param row Запись CSV-файла
+     * @param column Поле для проверки
      * @param fieldDescription Описание поля для сообщения об ошибке
      * @throws IllegalArgumentException Если поле отсутствует или пустое
      */
-    private void validateRequiredField(CSVRecord csvRecord, String fieldName, String fieldDescription) {
-        if (!csvRecord.isSet(fieldName) || csvRecord.get(fieldName).trim().isEmpty()) {
+    private static void validateRequiredField(AlertCsvRow row, AlertCsvRow.Column column, String fieldDescription) {
+        if (!row.hasValue(column)) {
             throw new IllegalArgumentException(fieldDescription + " не может быть пустым");
         }
     }
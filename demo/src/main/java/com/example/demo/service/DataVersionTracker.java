@@ -0,0 +1,178 @@
+package com.example.demo.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Компонент для отслеживания версий данных, отдаваемых списочными эндпоинтами.
+ * Каждое изменение данных увеличивает версию соответствующего набора, а версия используется
+ * как строгий ETag: если версия не изменилась, клиент получает 304 без обращения к кэшу,
+ * базе данных и сериализации.
+ * Версия увеличивается только после фиксации транзакции, поэтому новая версия никогда
+ * не выдается вместе со старыми данными. В ETag входит метка запуска приложения,
+ * чтобы ETag, выданные до перезапуска, не совпали с новыми.
+ * О каждом локальном изменении после фиксации публикуется {@link DataSetChangedEvent},
+ * по которому {@link CacheInvalidationBus} оповещает остальные узлы.
+ * Если включен снимок кэшей, каждое изменение также увеличивает общую версию набора в базе данных
+ * (последовательность, см. {@link CacheSnapshotManager}), по которой проверяется актуальность снимка
+ * после перезапуска. Последовательность не блокирует строк, поэтому записи разных транзакций
+ * и узлов не выстраиваются в очередь за общей строкой версии.
+ */
+@Component
+public class DataVersionTracker implements ApplicationEventPublisherAware {
+    private static final Logger log = LoggerFactory.getLogger(DataVersionTracker.class);
+
+    /**
+     * Наборы данных, для которых отслеживается версия.
+     */
+    public enum DataSet {
+        ALERTS,
+        BUSES
+    }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<DataSet, AtomicLong> versions = new EnumMap<>(DataSet.class);
+    private volatile Consumer<DataSet> persistentVersions;
+    private ApplicationEventPublisher eventPublisher;
+
+    public DataVersionTracker() {
+        for (DataSet dataSet : DataSet.values()) {
+            versions.put(dataSet, new AtomicLong());
+        }
+    }
+
+    /**
+     * Событие об изменении набора данных на этом узле, публикуемое после фиксации транзакции.
+     *
+     * @param dataSet измененный набор данных
+     */
+    public record DataSetChangedEvent(DataSet dataSet) {
+    }
+
+    /**
+     * Событие об изменении набора данных на другом узле.
+     * Позволяет обновить локальные структуры, которые не умеют применять изменения по ключам.
+     *
+     * @param dataSet измененный набор данных
+     */
+    public record RemoteDataSetChangedEvent(DataSet dataSet) {
+    }
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Включает увеличение версий наборов данных в базе данных при каждом изменении.
+     * Вызывается {@link CacheSnapshotManager}, когда снимок кэшей включен.
+     *
+     * @param persistentVersions увеличение версии набора данных в базе данных
+     */
+    public void persistVersionsWith(Consumer<DataSet> persistentVersions) {
+        this.persistentVersions = persistentVersions;
+    }
+
+    /**
+     * Возвращает текущую версию набора данных.
+     *
+     * @param dataSet набор данных
+     * @return текущая версия
+     */
+    public long version(DataSet dataSet) {
+        return versions.get(dataSet).get();
+    }
+
+    /**
+     * Возвращает строгий ETag для текущей версии набора данных.
+     *
+     * @param dataSet набор данных
+     * @return значение ETag в кавычках
+     */
+    public String etag(DataSet dataSet) {
+        return "\"" + dataSet.name().toLowerCase() + "-" + epoch + "-" + version(dataSet) + "\"";
+    }
+
+    /**
+     * Отмечает изменение набора данных.
+     * Внутри транзакции версия увеличивается после ее фиксации (при откате не меняется),
+     * вне транзакции - сразу.
+     * Версия в базе данных (если включена) внутри транзакции увеличивается дважды: перед фиксацией,
+     * чтобы снимок, прочитанный до фиксации, уже считался устаревшим, и после фиксации, чтобы устаревшим
+     * считался и снимок, прочитанный между первым увеличением и фиксацией.
+     *
+     * @param dataSet измененный набор данных
+     */
+    public void changed(DataSet dataSet) {
+        Consumer<DataSet> persistent = persistentVersions;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    persist(persistent, dataSet);
+                }
+
+                @Override
+                public void afterCommit() {
+                    persist(persistent, dataSet);
+                    increment(dataSet);
+                    publish(dataSet);
+                }
+            });
+        } else {
+            persist(persistent, dataSet);
+            increment(dataSet);
+            publish(dataSet);
+        }
+    }
+
+    /**
+     * Отмечает изменение набора данных, выполненное на другом узле.
+     * Версия увеличивается сразу; публикуется {@link RemoteDataSetChangedEvent},
+     * но не {@link DataSetChangedEvent}, чтобы изменение не рассылалось повторно.
+     *
+     * @param dataSet измененный набор данных
+     */
+    public void changedOnAnotherNode(DataSet dataSet) {
+        increment(dataSet);
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new RemoteDataSetChangedEvent(dataSet));
+        }
+    }
+
+    /**
+     * Увеличивает версию в базе данных. Ошибка не прерывает изменение данных:
+     * в худшем случае снимок кэшей не будет признан устаревшим, поэтому она записывается в журнал.
+     */
+    private void persist(Consumer<DataSet> persistent, DataSet dataSet) {
+        if (persistent == null) {
+            return;
+        }
+        try {
+            persistent.accept(dataSet);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось увеличить версию набора данных {} в базе данных: {}", dataSet, e.getMessage());
+        }
+    }
+
+    private void publish(DataSet dataSet) {
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new DataSetChangedEvent(dataSet));
+        }
+    }
+
+    private void increment(DataSet dataSet) {
+        long version = versions.get(dataSet).incrementAndGet();
+        log.debug("Версия данных {} увеличена до {}", dataSet, version);
+    }
+}
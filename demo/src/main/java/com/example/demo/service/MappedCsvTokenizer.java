@@ -0,0 +1,452 @@
+package com.example.demo.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Разбор CSV-файла импорта оповещений, отображенного в память.
+ * В отличие от commons-csv, который создает строку на каждое значение и {@link org.apache.commons.csv.CSVRecord}
+ * на каждую запись, записи разбираются прямо из байтов файла: запоминаются только границы значений,
+ * числа и константы перечислений разбираются из байтов, а строки создаются только для значений,
+ * которые хранятся строками (местоположение, описание, время).
+ * <p>
+ * Поддерживается формат {@link CsvImportService#createCsvFormat()} (разделитель «,», кавычки «"»,
+ * пропуск пустых строк, обрезка значений, пустое значение - null) в кодировке UTF-8 и заголовок
+ * из известных столбцов {@link AlertCsvRow.Column} (остальные столбцы пропускаются). Ошибки кавычек
+ * обнаруживаются на тех же записях, что и в commons-csv. Файлы с заголовком, который commons-csv
+ * обрабатывает особо (пустые или повторяющиеся имена), и файлы больше 2 ГБ не поддерживаются:
+ * {@link #open} возвращает null, и файл разбирается через commons-csv.
+ * <p>
+ * Разбор потокобезопасен: читающий поток находит границы записей ({@link #nextRecord}, {@link #endOfRecord}),
+ * а блоки записей разбираются параллельно ({@link #parse}), так как отображение читается только
+ * по абсолютным позициям.
+ */
+final class MappedCsvTokenizer {
+    private static final byte QUOTE = '"';
+    private static final byte DELIMITER = ',';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private static final ClassValue<Enum<?>[]> ENUM_CONSTANTS = new ClassValue<>() {
+        @Override
+        protected Enum<?>[] computeValue(Class<?> type) {
+            return (Enum<?>[]) type.getEnumConstants();
+        }
+    };
+
+    private final MappedByteBuffer buffer;
+    private final int limit;
+    private final int[] columnIndexes = new int[AlertCsvRow.Column.values().length];
+    private int firstRecord;
+
+    private MappedCsvTokenizer(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+        this.limit = buffer.limit();
+    }
+
+    /**
+     * Отображает файл в память и разбирает заголовок.
+     *
+     * @param file CSV-файл
+     * @return разбор файла или null, если файл нужно разбирать через commons-csv
+     * @throws IOException если файл не удалось прочитать
+     */
+    static MappedCsvTokenizer open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                return null;
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        MappedCsvTokenizer tokenizer = new MappedCsvTokenizer(buffer);
+        return tokenizer.readHeader() ? tokenizer : null;
+    }
+
+    /**
+     * Разбирает заголовок и сопоставляет столбцы. Возвращает false для заголовка с пустыми
+     * или повторяющимися (без учета регистра) именами и для ошибки в заголовке.
+     */
+    private boolean readHeader() {
+        Arrays.fill(columnIndexes, -1);
+        int start = nextRecord(0);
+        if (start == limit) {
+            firstRecord = limit;
+            return true;
+        }
+        Row header = new Row();
+        try {
+            firstRecord = tokenize(start, header);
+        } catch (IOException e) {
+            return false;
+        }
+        String[] names = new String[header.count];
+        for (int i = 0; i < header.count; i++) {
+            names[i] = header.value(i);
+            if (names[i] == null) {
+                return false;
+            }
+            for (int j = 0; j < i; j++) {
+                if (names[j].equalsIgnoreCase(names[i])) {
+                    return false;
+                }
+            }
+            for (AlertCsvRow.Column column : AlertCsvRow.Column.values()) {
+                if (column.header().equalsIgnoreCase(names[i])) {
+                    columnIndexes[column.ordinal()] = i;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Возвращает позицию первой записи после заголовка.
+     *
+     * @return позиция
+     */
+    int firstRecord() {
+        return firstRecord;
+    }
+
+    /**
+     * Возвращает размер файла.
+     *
+     * @return позиция конца файла
+     */
+    int limit() {
+        return limit;
+    }
+
+    /**
+     * Пропускает пустые строки.
+     *
+     * @param position позиция после конца предыдущей записи
+     * @return позиция начала следующей записи или {@link #limit()}, если записей больше нет
+     */
+    int nextRecord(int position) {
+        int p = position;
+        while (p < limit) {
+            byte b = buffer.get(p);
+            if (b != CR && b != LF) {
+                break;
+            }
+            p++;
+        }
+        return p;
+    }
+
+    /**
+     * Находит конец записи.
+     *
+     * @param position позиция начала записи
+     * @return позиция после конца строки записи
+     * @throws IOException если кавычки в записи не закрыты или после закрывающей кавычки нет разделителя
+     */
+    int endOfRecord(int position) throws IOException {
+        return tokenize(position, null);
+    }
+
+    /**
+     * Разбирает записи диапазона, границы которого найдены {@link #nextRecord} и {@link #endOfRecord},
+     * и передает их обработчику. Обработчику передается один и тот же объект записи,
+     * его нельзя сохранять после возврата.
+     *
+     * @param start позиция первой записи
+     * @param end позиция после последней записи
+     * @param firstRecordNumber номер первой записи
+     * @param handler обработчик записей
+     */
+    void parse(int start, int end, long firstRecordNumber, Consumer<AlertCsvRow> handler) {
+        Row row = new Row();
+        row.recordNumber = firstRecordNumber;
+        int p = nextRecord(start);
+        while (p < end) {
+            try {
+                p = tokenize(p, row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // Диапазон уже проверен при поиске границ
+            }
+            handler.accept(row);
+            row.recordNumber++;
+            p = nextRecord(p);
+        }
+    }
+
+    /**
+     * Разбирает все записи файла по порядку.
+     *
+     * @param handler обработчик записей (объект записи переиспользуется)
+     * @throws IOException при ошибке кавычек; записи до ошибки уже переданы обработчику
+     */
+    void forEach(Consumer<AlertCsvRow> handler) throws IOException {
+        Row row = new Row();
+        row.recordNumber = 1;
+        for (int p = nextRecord(firstRecord); p < limit; p = nextRecord(p)) {
+            p = tokenize(p, row);
+            handler.accept(row);
+            row.recordNumber++;
+        }
+    }
+
+    /**
+     * Разбирает запись так же, как лексер commons-csv: значение в кавычках может содержать
+     * разделители и переводы строк, «""» внутри кавычек означает кавычку, после закрывающей кавычки
+     * допускаются только пробельные символы до разделителя или конца строки; кавычка внутри значения
+     * без кавычек - обычный символ. Конец строки - CR, LF или CRLF.
+     *
+     * @param position позиция начала записи (не пустой строки)
+     * @param row запись для границ значений или null, если нужен только конец записи
+     * @return позиция после конца строки записи
+     */
+    private int tokenize(int position, Row row) throws IOException {
+        if (row != null) {
+            row.count = 0;
+        }
+        int p = position;
+        fields:
+        while (true) {
+            if (p == limit) {
+                if (row != null) {
+                    row.add(p, p, false); // Пустое значение после разделителя в конце файла
+                }
+                return p;
+            }
+            if (buffer.get(p) == QUOTE) {
+                int start = ++p;
+                boolean escaped = false;
+                while (true) {
+                    if (p == limit) {
+                        throw new IOException("EOF reached before encapsulated token finished (position " + start + ")");
+                    }
+                    if (buffer.get(p) == QUOTE) {
+                        if (p + 1 < limit && buffer.get(p + 1) == QUOTE) {
+                            escaped = true;
+                            p += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    p++;
+                }
+                if (row != null) {
+                    row.add(start, p, escaped);
+                }
+                p++;
+                while (p < limit) {
+                    byte b = buffer.get(p);
+                    if (b == DELIMITER) {
+                        p++;
+                        continue fields;
+                    }
+                    if (b == CR || b == LF) {
+                        return endOfLine(p);
+                    }
+                    int width = whitespaceWidth(p);
+                    if (width == 0) {
+                        throw new IOException("Invalid character between encapsulated token and delimiter (position " + p + ")");
+                    }
+                    p += width;
+                }
+                return p;
+            }
+            int start = p;
+            byte b = 0;
+            while (p < limit && (b = buffer.get(p)) != DELIMITER && b != CR && b != LF) {
+                p++;
+            }
+            if (row != null) {
+                row.add(start, p, false);
+            }
+            if (p == limit) {
+                return p;
+            }
+            if (b != DELIMITER) {
+                return endOfLine(p);
+            }
+            p++;
+        }
+    }
+
+    private int endOfLine(int position) {
+        if (buffer.get(position) == CR && position + 1 < limit && buffer.get(position + 1) == LF) {
+            return position + 2;
+        }
+        return position + 1;
+    }
+
+    /**
+     * Возвращает длину пробельного символа ({@link Character#isWhitespace(char)}) в байтах UTF-8
+     * или 0, если в позиции не пробельный символ.
+     */
+    private int whitespaceWidth(int position) {
+        int b = buffer.get(position) & 0xFF;
+        if (b < 0x80) {
+            return Character.isWhitespace((char) b) ? 1 : 0;
+        }
+        if (b >= 0xC2 && b <= 0xDF && position + 1 < limit) {
+            int b2 = buffer.get(position + 1) & 0xFF;
+            return (b2 & 0xC0) == 0x80 && Character.isWhitespace((char) (((b & 0x1F) << 6) | (b2 & 0x3F))) ? 2 : 0;
+        }
+        if (b >= 0xE0 && b <= 0xEF && position + 2 < limit) {
+            int b2 = buffer.get(position + 1) & 0xFF;
+            int b3 = buffer.get(position + 2) & 0xFF;
+            int codePoint = ((b & 0x0F) << 12) | ((b2 & 0x3F) << 6) | (b3 & 0x3F);
+            return (b2 & 0xC0) == 0x80 && (b3 & 0xC0) == 0x80 && codePoint >= 0x800
+                    && Character.isWhitespace((char) codePoint) ? 3 : 0;
+        }
+        return 0;
+    }
+
+    /**
+     * Запись, разобранная из отображения: границы значений в байтах файла.
+     */
+    private final class Row extends AlertCsvRow {
+        private int[] bounds = new int[32];
+        private boolean[] escaped = new boolean[16];
+        private byte[] scratch = new byte[256];
+        private int count;
+        private long recordNumber;
+        private final boolean asciiUpperCase = "i".toUpperCase().equals("I");
+
+        private void add(int start, int end, boolean quotesEscaped) {
+            if (count == escaped.length) {
+                bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                escaped = Arrays.copyOf(escaped, escaped.length * 2);
+            }
+            bounds[2 * count] = start;
+            bounds[2 * count + 1] = end;
+            escaped[count] = quotesEscaped;
+            count++;
+        }
+
+        @Override
+        long recordNumber() {
+            return recordNumber;
+        }
+
+        @Override
+        boolean hasValue(Column column) {
+            int index = index(column);
+            return index >= 0 && trimmedStart(index) < trimmedEnd(index);
+        }
+
+        @Override
+        String get(Column column) {
+            int index = index(column);
+            return index >= 0 ? value(index) : null;
+        }
+
+        @Override
+        long longValue(Column column) {
+            int index = index(column);
+            int start = trimmedStart(index);
+            int end = trimmedEnd(index);
+            boolean negative = false;
+            if (start < end && (buffer.get(start) == '-' || buffer.get(start) == '+')) {
+                negative = buffer.get(start) == '-';
+                start++;
+            }
+            if (start == end || end - start > 18) {
+                return super.longValue(column); // Пустое или слишком длинное число разбирается обычным образом
+            }
+            long value = 0;
+            for (int p = start; p < end; p++) {
+                int digit = buffer.get(p) - '0';
+                if (digit < 0 || digit > 9) {
+                    return super.longValue(column);
+                }
+                value = value * 10 + digit;
+            }
+            return negative ? -value : value;
+        }
+
+        @Override
+        <E extends Enum<E>> E enumValue(Column column, Class<E> type) {
+            int index = index(column);
+            int start = trimmedStart(index);
+            int length = trimmedEnd(index) - start;
+            if (asciiUpperCase && !escaped[index]) {
+                for (Enum<?> constant : ENUM_CONSTANTS.get(type)) {
+                    if (matchesIgnoreCase(start, length, constant.name())) {
+                        return type.cast(constant);
+                    }
+                }
+            }
+            return super.enumValue(column, type); // Символы не ASCII и неизвестные значения
+        }
+
+        private boolean matchesIgnoreCase(int start, int length, String name) {
+            if (length != name.length()) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                int b = buffer.get(start + i);
+                if (b >= 'a' && b <= 'z') {
+                    b -= 'a' - 'A';
+                }
+                if (b != name.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int index(Column column) {
+            int index = columnIndexes[column.ordinal()];
+            return index < count ? index : -1;
+        }
+
+        private int trimmedStart(int index) {
+            int p = bounds[2 * index];
+            int end = bounds[2 * index + 1];
+            while (p < end && (buffer.get(p) & 0xFF) <= ' ') {
+                p++;
+            }
+            return p;
+        }
+
+        private int trimmedEnd(int index) {
+            int start = bounds[2 * index];
+            int p = bounds[2 * index + 1];
+            while (p > start && (buffer.get(p - 1) & 0xFF) <= ' ') {
+                p--;
+            }
+            return p;
+        }
+
+        /**
+         * Декодирует обрезанное значение (обрезка по байтам совпадает с {@link String#trim()},
+         * так как байты до 0x20 в UTF-8 всегда означают сами себя).
+         */
+        private String value(int index) {
+            int start = trimmedStart(index);
+            int length = trimmedEnd(index) - start;
+            if (length <= 0) {
+                return null;
+            }
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(start, scratch, 0, length);
+            if (escaped[index]) {
+                int written = 0;
+                for (int i = 0; i < length; i++) {
+                    scratch[written++] = scratch[i];
+                    if (scratch[i] == QUOTE) {
+                        i++; // «""» внутри кавычек означает одну кавычку
+                    }
+                }
+                length = written;
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
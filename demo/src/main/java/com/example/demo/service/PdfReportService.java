@@ -1,5 +1,6 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AlertStatistics;
 import com.example.demo.dto.ReportRequest;
 import com.example.demo.model.Alert;
 import com.example.demo.model.EventType;
@@ -47,6 +48,7 @@ import java.util.stream.Collectors;
 public class PdfReportService {
 
     private final AlertRepository alertRepository;
+    private final AlertColumnStore alertColumnStore;
 
     private static final float HEADER_FONT_SIZE = 20f;
     private static final float SUBHEADER_FONT_SIZE = 14f;
@@ -81,7 +83,8 @@ public class PdfReportService {
             addHeader(document, "ЕЖЕДНЕВНЫЙ ОТЧЕТ ПО ИНЦИДЕНТАМ", russianFont);
             addReportPeriod(document, startDate, endDate, russianFont);
 
-            addStatisticsSection(document, alerts, startDate, endDate, russianFont);
+            AlertStatistics statistics = AlertStatistics.of(alerts);
+            addStatisticsSection(document, statistics, startDate, endDate, russianFont);
 
             if (!alerts.isEmpty()) {
                 addAlertsTable(document, alerts, "Детализация инцидентов за день", russianFont);
@@ -89,7 +92,7 @@ public class PdfReportService {
                 addNoDataMessage(document, russianFont);
             }
 
-            addEventTypeStatistics(document, alerts, russianFont);
+            addEventTypeStatistics(document, statistics, russianFont);
 
             addFooter(document, russianFont);
 
@@ -126,9 +129,10 @@ public class PdfReportService {
             addHeader(document, "ЕЖЕНЕДЕЛЬНЫЙ ОТЧЕТ ПО ИНЦИДЕНТАМ", russianFont);
             addReportPeriod(document, startDate, endDate, russianFont);
 
-            addStatisticsSection(document, alerts, startDate, endDate, russianFont);
+            AlertStatistics statistics = AlertStatistics.of(alerts);
+            addStatisticsSection(document, statistics, startDate, endDate, russianFont);
 
-            addTopBusesTable(document, alerts, russianFont);
+            addTopBusesTable(document, statistics, russianFont);
 
             if (!alerts.isEmpty()) {
                 List<Alert> recentAlerts = alerts.stream()
@@ -175,11 +179,12 @@ public class PdfReportService {
             addHeader(document, "ЕЖЕМЕСЯЧНЫЙ ОТЧЕТ ПО ИНЦИДЕНТАМ", russianFont);
             addReportPeriod(document, startDate, endDate, russianFont);
 
-            addStatisticsSection(document, alerts, startDate, endDate, russianFont);
+            AlertStatistics statistics = AlertStatistics.of(alerts);
+            addStatisticsSection(document, statistics, startDate, endDate, russianFont);
 
-            addEventTypeStatistics(document, alerts, russianFont);
+            addEventTypeStatistics(document, statistics, russianFont);
 
-            addTopBusesTable(document, alerts, russianFont);
+            addTopBusesTable(document, statistics, russianFont);
 
             if (!alerts.isEmpty()) {
                 List<Alert> criticalAlerts = alerts.stream()
@@ -193,7 +198,7 @@ public class PdfReportService {
                 }
             }
 
-            addRecommendationsSection(document, alerts, russianFont);
+            addRecommendationsSection(document, statistics, russianFont);
 
             addFooter(document, russianFont);
             document.close();
@@ -276,7 +281,8 @@ public class PdfReportService {
 
             document.add(createRussianParagraph("\n", russianFont));
 
-            addStatisticsSection(document, alerts, startDate, endDate, russianFont);
+            AlertStatistics statistics = AlertStatistics.of(alerts);
+            addStatisticsSection(document, statistics, startDate, endDate, russianFont);
 
             if (!alerts.isEmpty()) {
                 addAlertsTable(document, alerts, "Детализация инцидентов", russianFont);
@@ -331,16 +337,17 @@ public class PdfReportService {
             document.add(createRussianParagraph("\n", russianFont));
 
             if (!alerts.isEmpty()) {
+                AlertStatistics statistics = AlertStatistics.of(alerts);
                 String statsText = String.format(
                     "Всего инцидентов в системе: %d%n" +
                     "Из них:%n" +
                     "  • Новые: %d%n" +
                     "  • В работе: %d%n" +
                     "  • Решены: %d",
-                    alerts.size(),
-                    countByStatus(alerts, StatusType.NEW),
-                    countByStatus(alerts, StatusType.IN_PROGRESS),
-                    countByStatus(alerts, StatusType.RESOLVED)
+                    statistics.total(),
+                    statistics.count(StatusType.NEW),
+                    statistics.count(StatusType.IN_PROGRESS),
+                    statistics.count(StatusType.RESOLVED)
                 );
 
                 Paragraph stats = createRussianParagraph(statsText, russianFont)
@@ -392,33 +399,28 @@ public class PdfReportService {
 
     /**
      * Получает статистику по инцидентам за указанный период.
+     * Если колоночное хранилище инцидентов загружено, статистика считается по нему
+     * без чтения инцидентов из базы данных.
      *
      * @param startDate Начальная дата периода
      * @param endDate Конечная дата периода
      * @return Карта с различными метриками статистики
      */
     public Map<String, Object> getReportStatistics(LocalDateTime startDate, LocalDateTime endDate) {
-        List<Alert> alerts = alertRepository.findByTimestampBetween(startDate, endDate);
-
-        Map<EventType, Long> byEventType = alerts.stream()
-            .collect(Collectors.groupingBy(Alert::getType, Collectors.counting()));
-
-        Map<StatusType, Long> byStatus = alerts.stream()
-            .collect(Collectors.groupingBy(Alert::getStatus, Collectors.counting()));
-
-        Map<Long, Long> byBus = alerts.stream()
-            .collect(Collectors.groupingBy(Alert::getBusId, Collectors.counting()));
+        AlertStatistics statistics = alertColumnStore.statistics(startDate, endDate)
+            .orElseGet(() -> AlertStatistics.of(alertRepository.findByTimestampBetween(startDate, endDate)));
 
         Map<String, Object> result = new HashMap<>();
-        result.put("totalAlerts", alerts.size());
+        result.put("totalAlerts", statistics.total());
         result.put("startDate", startDate.format(DATE_FORMATTER));
         result.put("endDate", endDate.format(DATE_FORMATTER));
-        result.put("byEventType", byEventType);
-        result.put("byStatus", byStatus);
-        result.put("byBus", byBus);
-        result.put("newCount", countByStatus(alerts, StatusType.NEW));
-        result.put("inProgressCount", countByStatus(alerts, StatusType.IN_PROGRESS));
-        result.put("resolvedCount", countByStatus(alerts, StatusType.RESOLVED));
+        result.put("byEventType", statistics.byType());
+        result.put("byStatus", statistics.byStatus());
+        result.put("byBus", statistics.byBus());
+        result.put("topLocations", statistics.topLocations());
+        result.put("newCount", statistics.count(StatusType.NEW));
+        result.put("inProgressCount", statistics.count(StatusType.IN_PROGRESS));
+        result.put("resolvedCount", statistics.count(StatusType.RESOLVED));
         result.put("generationTime", LocalDateTime.now().format(DATE_TIME_FORMATTER));
 
         return result;
@@ -535,7 +537,7 @@ public class PdfReportService {
         }
     }
     
-    private void addStatisticsSection(Document document, List<Alert> alerts, 
+    private void addStatisticsSection(Document document, AlertStatistics statistics,
                                      LocalDateTime startDate, LocalDateTime endDate, PdfFont font) {
         try {
             document.add(createRussianParagraph("СТАТИСТИКА", font)
@@ -544,10 +546,10 @@ public class PdfReportService {
                 .setMarginBottom(10)
                 .setMarginTop(20));
             
-            long total = alerts.size();
-            long newCount = countByStatus(alerts, StatusType.NEW);
-            long inProgressCount = countByStatus(alerts, StatusType.IN_PROGRESS);
-            long resolvedCount = countByStatus(alerts, StatusType.RESOLVED);
+            long total = statistics.total();
+            long newCount = statistics.count(StatusType.NEW);
+            long inProgressCount = statistics.count(StatusType.IN_PROGRESS);
+            long resolvedCount = statistics.count(StatusType.RESOLVED);
             
             float resolvedPercentage = total > 0 ? (float) resolvedCount / total * 100 : 0;
             
@@ -632,12 +634,11 @@ public class PdfReportService {
         }
     }
     
-    private void addEventTypeStatistics(Document document, List<Alert> alerts, PdfFont font) {
-        if (alerts.isEmpty()) return;
+    private void addEventTypeStatistics(Document document, AlertStatistics statistics, PdfFont font) {
+        if (statistics.total() == 0) return;
         
         try {
-            Map<EventType, Long> byType = alerts.stream()
-                .collect(Collectors.groupingBy(Alert::getType, Collectors.counting()));
+            Map<EventType, Long> byType = statistics.byType();
             
             document.add(createRussianParagraph("РАСПРЕДЕЛЕНИЕ ПО ТИПАМ СОБЫТИЙ", font)
                 .setBold()
@@ -653,7 +654,7 @@ public class PdfReportService {
             typeTable.addHeaderCell(createHeaderCell("Количество", font));
             typeTable.addHeaderCell(createHeaderCell("Доля, %", font));
             
-            long total = alerts.size();
+            long total = statistics.total();
             
             for (Map.Entry<EventType, Long> entry : byType.entrySet()) {
                 long count = entry.getValue();
@@ -671,17 +672,11 @@ public class PdfReportService {
         }
     }
     
-    private void addTopBusesTable(Document document, List<Alert> alerts, PdfFont font) {
-        if (alerts.isEmpty()) return;
+    private void addTopBusesTable(Document document, AlertStatistics statistics, PdfFont font) {
+        if (statistics.total() == 0) return;
         
         try {
-            Map<Long, Long> busCounts = alerts.stream()
-                .collect(Collectors.groupingBy(Alert::getBusId, Collectors.counting()));
-            
-            List<Map.Entry<Long, Long>> topBuses = busCounts.entrySet().stream()
-                .sorted((e1, e2) -> Long.compare(e2.getValue(), e1.getValue()))
-                .limit(10)
-                .collect(Collectors.toList());
+            List<Map.Entry<Long, Long>> topBuses = statistics.topBuses(10);
             
             if (topBuses.isEmpty()) return;
             
@@ -713,12 +708,12 @@ public class PdfReportService {
         }
     }
     
-    private void addRecommendationsSection(Document document, List<Alert> alerts, PdfFont font) {
-        if (alerts.isEmpty()) return;
+    private void addRecommendationsSection(Document document, AlertStatistics statistics, PdfFont font) {
+        if (statistics.total() == 0) return;
         
         try {
-            long unresolved = countByStatus(alerts, StatusType.NEW) + 
-                             countByStatus(alerts, StatusType.IN_PROGRESS);
+            long unresolved = statistics.count(StatusType.NEW) + 
+                             statistics.count(StatusType.IN_PROGRESS);
             
             if (unresolved > 0) {
                 document.add(createRussianParagraph("РЕКОМЕНДАЦИИ", font)
@@ -730,14 +725,10 @@ public class PdfReportService {
                 StringBuilder recommendationsText = new StringBuilder();
                 recommendationsText.append(String.format("• Требуют внимания: %d нерешённых инцидентов%n", unresolved));
                 
-                if (countByStatus(alerts, StatusType.NEW) > 10)
+                if (statistics.count(StatusType.NEW) > 10)
                     recommendationsText.append("• Большое количество новых инцидентов - увеличьте количество операторов%n");
 
-                Map<EventType, Long> byType = alerts.stream()
-                    .collect(Collectors.groupingBy(Alert::getType, Collectors.counting()));
-                
-                byType.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
+                statistics.mostFrequentType()
                     .ifPresent(entry -> 
                         recommendationsText.append(String.format("• Наиболее частый тип: %s (%d случаев)%n", 
                             translateEventType(entry.getKey()), entry.getValue()))
@@ -909,12 +900,6 @@ public class PdfReportService {
         }
     }
     
-    private long countByStatus(List<Alert> alerts, StatusType status) {
-        return alerts.stream()
-            .filter(alert -> alert.getStatus() == status)
-            .count();
-    }
-    
     private String translateEventType(EventType type) {
         return switch (type) {
             case ACCIDENT -> "Авария";
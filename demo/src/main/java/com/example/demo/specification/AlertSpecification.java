@@ -1,9 +1,13 @@
 package com.example.demo.specification;
 
 import org.springframework.data.jpa.domain.Specification;
+import com.example.demo.config.SearchFunctionContributor;
+import com.example.demo.dto.AlertSearchCriteria;
 import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
 import com.example.demo.model.StatusType;
 import jakarta.persistence.criteria.Predicate;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -16,6 +20,8 @@ import java.util.List;
  */
 public class AlertSpecification {
 
+    private static final char LIKE_ESCAPE = '\\';
+
     /**
      * Создает спецификацию для фильтрации оповещений по статусу.
      *
@@ -46,8 +52,62 @@ public class AlertSpecification {
         };
     }
 
+    /**
+     * Создает спецификацию для фильтрации оповещений по типу.
+     *
+     * @param type Тип оповещения для фильтрации (может быть null)
+     * @return Спецификация для использования в запросах
+     */
+    public static Specification<Alert> hasType(EventType type) {
+        return (root, query, criteriaBuilder) -> {
+            if (type == null) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.equal(root.get("type"), type);
+        };
+    }
+
+    /**
+     * Создает спецификацию для фильтрации оповещений по ID назначенного пользователя.
+     *
+     * @param userId ID пользователя для фильтрации (может быть null)
+     * @return Спецификация для использования в запросах
+     */
+    public static Specification<Alert> hasAssignedToUserId(Long userId) {
+        return (root, query, criteriaBuilder) -> {
+            if (userId == null) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.equal(root.get("assignedToUserId"), userId);
+        };
+    }
+
+    /**
+     * Создает спецификацию для фильтрации оповещений по временному диапазону.
+     * Любая из границ может отсутствовать.
+     *
+     * @param from Начало диапазона, включительно (может быть null)
+     * @param to Конец диапазона, не включительно (может быть null)
+     * @return Спецификация для использования в запросах
+     */
+    public static Specification<Alert> timestampBetween(LocalDateTime from, LocalDateTime to) {
+        return (root, query, criteriaBuilder) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (from != null) {
+                predicates.add(criteriaBuilder.greaterThanOrEqualTo(root.get("timestamp"), from));
+            }
+            if (to != null) {
+                predicates.add(criteriaBuilder.lessThan(root.get("timestamp"), to));
+            }
+            return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
     /**
      * Создает спецификацию для фильтрации оповещений по местоположению (частичное совпадение).
+     * Условие строится как lower(location) LIKE '%x%', что на PostgreSQL обслуживается
+     * триграммным GIN-индексом по lower(location) (см. {@link com.example.demo.config.SearchIndexConfig}).
+     * Символы % и _ в строке поиска экранируются и ищутся буквально.
      *
      * @param location Местоположение для фильтрации (может быть null)
      * @return Спецификация для использования в запросах
@@ -59,11 +119,63 @@ public class AlertSpecification {
             }
             return criteriaBuilder.like(
                 criteriaBuilder.lower(root.get("location")),
-                "%" + location.toLowerCase().trim() + "%"
+                "%" + escapeLike(location.toLowerCase().trim()) + "%",
+                LIKE_ESCAPE
             );
         };
     }
 
+    /**
+     * Создает спецификацию для полнотекстового поиска по описанию оповещения.
+     * На PostgreSQL ищет по словоформам с русской морфологией через индекс tsvector,
+     * на других СУБД - по подстроке без учета регистра. Поисковый запрос передается
+     * параметром запроса, а не подставляется в текст SQL.
+     *
+     * @param text Поисковый запрос (может быть null)
+     * @return Спецификация для использования в запросах
+     */
+    public static Specification<Alert> descriptionMatches(String text) {
+        return (root, query, criteriaBuilder) -> {
+            if (text == null || text.trim().isEmpty()) {
+                return criteriaBuilder.conjunction();
+            }
+            return criteriaBuilder.isTrue(criteriaBuilder.function(
+                SearchFunctionContributor.FTS_MATCH, Boolean.class,
+                root.get("description"), ((HibernateCriteriaBuilder) criteriaBuilder).value(text.trim())));
+        };
+    }
+
+    /**
+     * Создает спецификацию для курсорной пагинации по ключу (timestamp, id).
+     * Отбирает оповещения, расположенные строго после курсора в заданном порядке сортировки,
+     * что позволяет читать страницы через диапазонное сканирование индекса (timestamp, id)
+     * без пропуска строк через OFFSET.
+     *
+     * @param timestamp время оповещения из курсора (может быть null - первая страница)
+     * @param id ID оповещения из курсора
+     * @param descending true для сортировки по убыванию, false - по возрастанию
+     * @return Спецификация для использования в запросах
+     */
+    public static Specification<Alert> after(LocalDateTime timestamp, Long id, boolean descending) {
+        return (root, query, criteriaBuilder) -> {
+            if (timestamp == null || id == null) {
+                return criteriaBuilder.conjunction();
+            }
+            if (descending) {
+                return criteriaBuilder.or(
+                    criteriaBuilder.lessThan(root.get("timestamp"), timestamp),
+                    criteriaBuilder.and(
+                        criteriaBuilder.equal(root.get("timestamp"), timestamp),
+                        criteriaBuilder.lessThan(root.get("id"), id)));
+            }
+            return criteriaBuilder.or(
+                criteriaBuilder.greaterThan(root.get("timestamp"), timestamp),
+                criteriaBuilder.and(
+                    criteriaBuilder.equal(root.get("timestamp"), timestamp),
+                    criteriaBuilder.greaterThan(root.get("id"), id)));
+        };
+    }
+
     /**
      * Создает комплексную спецификацию для фильтрации оповещений по нескольким параметрам.
      *
@@ -77,4 +189,29 @@ public class AlertSpecification {
                            .and(hasBusId(busId))
                            .and(locationContains(location));
     }
+
+    /**
+     * Создает спецификацию для поиска оповещений по набору критериев.
+     * Равенства по статусу, автобусу или пользователю вместе с диапазоном по времени
+     * соответствуют составным индексам (столбец, timestamp, id), поэтому такие запросы
+     * читают только нужный диапазон индекса.
+     *
+     * @param criteria Критерии поиска
+     * @return Комплексная спецификация для использования в запросах
+     */
+    public static Specification<Alert> search(AlertSearchCriteria criteria) {
+        return Specification.where(hasStatus(criteria.status()))
+                           .and(hasType(criteria.type()))
+                           .and(hasBusId(criteria.busId()))
+                           .and(hasAssignedToUserId(criteria.assignedToUserId()))
+                           .and(timestampBetween(criteria.from(), criteria.to()))
+                           .and(locationContains(criteria.location()))
+                           .and(descriptionMatches(criteria.text()));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                    .replace("%", "\\%")
+                    .replace("_", "\\_");
+    }
 }
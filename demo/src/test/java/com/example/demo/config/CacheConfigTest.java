@@ -0,0 +1,75 @@
+package com.example.demo.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки конфигурации кэширования.
+ * Проверяет ограничение кэшей по весу, сбор статистики и запрет неизвестных кэшей.
+ */
+class CacheConfigTest {
+
+    /**
+     * Тестирует, что менеджер кэша создает все кэши приложения и не создает неизвестные кэши.
+     */
+    @Test
+    void cacheManager_ShouldRegisterOnlyKnownCaches() {
+        CacheManager cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+
+        assertThat(cacheManager.getCacheNames()).containsExactlyInAnyOrderElementsOf(CacheConfig.CACHE_NAMES);
+        assertThat(cacheManager.getCache("unknown")).isNull();
+    }
+
+    /**
+     * Тестирует, что вес списка равен числу его элементов,
+     * а суммарный вес кэша не превышает заданного максимума.
+     */
+    @Test
+    void buildCache_ShouldBoundEntriesByListSize() {
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setMaximumWeight(100);
+        Cache<Object, Object> cache = CacheConfig.buildCache("test", spec);
+
+        for (long i = 0; i < 10; i++) {
+            cache.put(i, Collections.nCopies(30, "alert"));
+        }
+        cache.cleanUp();
+
+        assertThat(cache.policy().eviction()).isPresent();
+        assertThat(cache.policy().eviction().get().weightedSize().getAsLong()).isLessThanOrEqualTo(100);
+        assertThat(cache.stats().evictionCount()).isPositive();
+    }
+
+    /**
+     * Тестирует, что кэши собирают статистику попаданий и промахов.
+     */
+    @Test
+    void cacheManager_ShouldRecordHitAndMissStats() {
+        CacheManager cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        CaffeineCache alerts = (CaffeineCache) cacheManager.getCache("alerts");
+
+        alerts.get("all");
+        alerts.put("all", List.of("a", "b"));
+        alerts.get("all");
+
+        assertThat(alerts.getNativeCache().stats().missCount()).isEqualTo(1);
+        assertThat(alerts.getNativeCache().stats().hitCount()).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует вычисление веса записей.
+     */
+    @Test
+    void weigh_ShouldUseCollectionSize() {
+        assertThat(CacheConfig.weigh("key", List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(CacheConfig.weigh("key", List.of())).isEqualTo(1);
+        assertThat(CacheConfig.weigh("key", "value")).isEqualTo(1);
+    }
+}
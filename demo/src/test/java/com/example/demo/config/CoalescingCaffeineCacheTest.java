@@ -0,0 +1,86 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки объединения одновременных загрузок кэша.
+ * Проверяет, что одновременные промахи по одному ключу выполняют одну загрузку.
+ */
+class CoalescingCaffeineCacheTest {
+
+    private static final int CALLERS = 8;
+
+    /**
+     * Тестирует, что одновременные промахи ждут одну загрузку и получают ее результат.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void get_WhenConcurrentMisses_ShouldLoadOnce() throws Exception {
+        CacheManager cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        CoalescingCaffeineCache cache = (CoalescingCaffeineCache) cacheManager.getCache("alerts");
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loadStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoad = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+        try {
+            List<Future<List<String>>> results = new ArrayList<>();
+            results.add(executor.submit(() -> cache.get("all", () -> {
+                loads.incrementAndGet();
+                loadStarted.countDown();
+                releaseLoad.await(5, TimeUnit.SECONDS);
+                return List.of("a", "b");
+            })));
+            assertThat(loadStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            for (int i = 1; i < CALLERS; i++) {
+                results.add(executor.submit(() -> cache.get("all", () -> {
+                    loads.incrementAndGet();
+                    return List.of("other");
+                })));
+            }
+            while (cache.getCoalescedLoads() < CALLERS - 1) {
+                Thread.onSpinWait(); // Ждем, пока все вызывающие дойдут до кэша
+            }
+            releaseLoad.countDown();
+
+            for (Future<List<String>> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).containsExactly("a", "b");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(cache.getCoalescedLoads()).isEqualTo(CALLERS - 1);
+    }
+
+    /**
+     * Тестирует, что попадания в кэш не считаются объединенными загрузками.
+     */
+    @Test
+    void get_WhenValueCached_ShouldNotCountCoalescedLoad() {
+        CacheManager cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        CoalescingCaffeineCache cache = (CoalescingCaffeineCache) cacheManager.getCache("buses");
+
+        cache.get("all", () -> List.of("bus"));
+        cache.get("all", () -> List.of("other"));
+
+        assertThat(cache.getCoalescedLoads()).isZero();
+        assertThat(cache.getNativeCache().stats().loadCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.demo.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки опережающего обновления кэшей.
+ * Проверяет фоновую перезагрузку записей, сохранение текущего значения при ошибке
+ * и то, что обычные чтения не загружают отсутствующие записи.
+ */
+class RefreshAheadCacheLoaderTest {
+
+    private static final Duration REFRESH_AFTER = Duration.ofMillis(50);
+
+    /**
+     * Тестирует, что запись, к которой обращаются после refreshAfterWrite, перезагружается.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void reload_WhenEntryIsAccessedAfterRefreshInterval_ShouldReplaceValue() throws Exception {
+        AtomicInteger reloads = new AtomicInteger();
+        CoalescingCaffeineCache cache = alertsCache(CacheReloader.of("alerts",
+                key -> List.of("reloaded-" + reloads.incrementAndGet())));
+
+        cache.put(SimpleKey.EMPTY, List.of("initial"));
+        Thread.sleep(REFRESH_AFTER.toMillis() * 2);
+
+        cache.get(SimpleKey.EMPTY); // Обращение к устаревшей записи запускает обновление
+
+        assertThat(cache.get(SimpleKey.EMPTY).get()).isEqualTo(List.of("reloaded-1"));
+        RefreshAheadCacheLoader loader = cache.getRefreshLoader();
+        assertThat(loader.getRefreshCount()).isEqualTo(1);
+        assertThat(loader.getFailureCount()).isZero();
+        assertThat(loader.getLastStalenessSeconds()).isGreaterThanOrEqualTo(REFRESH_AFTER.toMillis() / 1000.0);
+    }
+
+    /**
+     * Тестирует, что при ошибке обновления в кэше остается текущее значение.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void reload_WhenReloaderFails_ShouldKeepCurrentValue() throws Exception {
+        CoalescingCaffeineCache cache = alertsCache(CacheReloader.of("alerts", key -> {
+            throw new IllegalStateException("База данных недоступна");
+        }));
+
+        cache.put(SimpleKey.EMPTY, List.of("initial"));
+        Thread.sleep(REFRESH_AFTER.toMillis() * 2);
+
+        cache.get(SimpleKey.EMPTY);
+
+        assertThat(cache.get(SimpleKey.EMPTY).get()).isEqualTo(List.of("initial"));
+        assertThat(cache.getRefreshLoader().getFailureCount()).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует, что обычное чтение отсутствующей записи не вызывает загрузку.
+     */
+    @Test
+    void lookup_WhenEntryMissing_ShouldNotLoad() {
+        AtomicInteger reloads = new AtomicInteger();
+        CoalescingCaffeineCache cache = alertsCache(CacheReloader.of("alerts", key -> {
+            reloads.incrementAndGet();
+            return List.of("loaded");
+        }));
+
+        assertThat(cache.get(SimpleKey.EMPTY)).isNull();
+        assertThat(reloads.get()).isZero();
+    }
+
+    /**
+     * Тестирует, что кэши без refreshAfterWrite не получают загрузчик.
+     */
+    @Test
+    void buildCacheManager_WhenRefreshNotConfigured_ShouldNotAttachLoader() {
+        CacheManager cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(),
+                List.of(CacheReloader.of("alerts", key -> List.of())), Runnable::run);
+
+        assertThat(((CoalescingCaffeineCache) cacheManager.getCache("alerts")).getRefreshLoader()).isNull();
+    }
+
+    private static CoalescingCaffeineCache alertsCache(CacheReloader reloader) {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        CacheSpecProperties.Spec spec = new CacheSpecProperties.Spec();
+        spec.setRefreshAfterWrite(REFRESH_AFTER);
+        properties.getSpecs().put("alerts", spec);
+
+        CacheManager cacheManager = CacheConfig.buildCacheManager(properties, List.of(reloader), Runnable::run);
+        return (CoalescingCaffeineCache) cacheManager.getCache("alerts");
+    }
+}
@@ -1,9 +1,18 @@
 package com.example.demo.controller;
 
+import com.example.demo.dto.AlertInbox;
+import com.example.demo.dto.AlertPage;
+import com.example.demo.dto.AlertSearchCriteria;
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.AlertTextSearchPage;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.exception.InvalidPageRequestException;
 import com.example.demo.model.Alert;
 import com.example.demo.model.EventType;
 import com.example.demo.model.StatusType;
+import com.example.demo.service.AlertInboxService;
 import com.example.demo.service.CachedAlertService;
+import com.example.demo.service.DataVersionTracker;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,11 +30,13 @@ import org.springframework.web.context.WebApplicationContext;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -50,6 +62,12 @@ class AlertControllerIntegrationTest {
     @MockBean
     private CachedAlertService alertService;
 
+    @MockBean
+    private AlertInboxService inboxService;
+
+    @Autowired
+    private DataVersionTracker dataVersions;
+
     private Alert testAlert;
 
     /**
@@ -77,7 +95,7 @@ class AlertControllerIntegrationTest {
     @Test
     @WithMockUser(roles = {"USER"})
     void getAllAlerts_ShouldReturnAlerts() throws Exception {
-        List<Alert> alerts = Arrays.asList(testAlert);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert));
         when(alertService.findAll()).thenReturn(alerts);
 
         mockMvc.perform(get("/api/alerts")
@@ -86,7 +104,8 @@ class AlertControllerIntegrationTest {
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].busId", is(101)))
-                .andExpect(jsonPath("$[0].type", is("ACCIDENT")));
+                .andExpect(jsonPath("$[0].type", is("ACCIDENT")))
+                .andExpect(jsonPath("$[0].description").doesNotExist());
     }
 
     /**
@@ -98,7 +117,7 @@ class AlertControllerIntegrationTest {
     @Test
     @WithMockUser(roles = {"USER"})
     void getAllAlerts_WithStatusFilter_ShouldReturnFilteredAlerts() throws Exception {
-        List<Alert> alerts = Arrays.asList(testAlert);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert));
         when(alertService.findByStatus(StatusType.NEW)).thenReturn(alerts);
 
         mockMvc.perform(get("/api/alerts")
@@ -109,6 +128,149 @@ class AlertControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].status", is("NEW")));
     }
 
+    /**
+     * Тестирует условный запрос списка оповещений с актуальным ETag.
+     * Проверяет, что эндпоинт возвращает 304 без обращения к сервису.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getAllAlerts_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        String etag = dataVersions.etag(DataVersionTracker.DataSet.ALERTS);
+
+        mockMvc.perform(get("/api/alerts/bus/101")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+
+        mockMvc.perform(get("/api/alerts")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        verify(alertService, never()).findAll();
+        verify(alertService, never()).findByBusId(anyLong());
+    }
+
+    /**
+     * Тестирует условный запрос списка оповещений с устаревшим ETag.
+     * Проверяет, что эндпоинт возвращает данные и новый ETag.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getAllAlerts_WhenETagIsStale_ShouldReturnAlerts() throws Exception {
+        when(alertService.findAll()).thenReturn(List.of(CachedAlert.from(testAlert)));
+
+        mockMvc.perform(get("/api/alerts")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"alerts-stale-0\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string(HttpHeaders.ETAG, dataVersions.etag(DataVersionTracker.DataSet.ALERTS)));
+    }
+
+    /**
+     * Тестирует получение страницы оповещений.
+     * Проверяет, что эндпоинт возвращает элементы страницы и курсор следующей страницы.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getAlertsPage_ShouldReturnPageWithCursor() throws Exception {
+        AlertPage page = new AlertPage(List.of(AlertSummary.from(testAlert)), "next-cursor", true);
+        when(alertService.findPage(StatusType.NEW, null, null, null, 1, "desc")).thenReturn(page);
+
+        mockMvc.perform(get("/api/alerts/page")
+                .param("status", "NEW")
+                .param("size", "1")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.nextCursor", is("next-cursor")))
+                .andExpect(jsonPath("$.hasNext", is(true)));
+    }
+
+    /**
+     * Тестирует получение страницы оповещений с некорректным курсором.
+     * Проверяет, что эндпоинт возвращает статус 400 Bad Request.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getAlertsPage_WithInvalidCursor_ShouldReturnBadRequest() throws Exception {
+        when(alertService.findPage(any(), any(), any(), eq("broken"), any(), any()))
+                .thenThrow(new InvalidPageRequestException("Некорректный курсор страницы"));
+
+        mockMvc.perform(get("/api/alerts/page")
+                .param("cursor", "broken")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error", is("Некорректный курсор страницы")));
+    }
+
+    /**
+     * Тестирует поиск оповещений по нескольким критериям.
+     * Проверяет, что все параметры запроса передаются в сервис в виде критериев поиска.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void searchAlerts_ShouldPassAllCriteriaToService() throws Exception {
+        AlertSearchCriteria criteria = new AlertSearchCriteria(StatusType.NEW, EventType.ACCIDENT, 101L, 5L,
+                LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0), "Москва", "столкновение");
+        AlertPage page = new AlertPage(List.of(AlertSummary.from(testAlert)), null, false);
+        when(alertService.search(criteria, null, 20, "asc")).thenReturn(page);
+
+        mockMvc.perform(get("/api/alerts/search")
+                .param("status", "NEW")
+                .param("type", "ACCIDENT")
+                .param("busId", "101")
+                .param("assignedToUserId", "5")
+                .param("from", "2024-01-01T00:00:00")
+                .param("to", "2024-02-01T00:00:00")
+                .param("location", "Москва")
+                .param("q", "столкновение")
+                .param("size", "20")
+                .param("direction", "asc")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].busId", is(101)))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
+    /**
+     * Тестирует полнотекстовый поиск оповещений по описанию.
+     * Проверяет, что эндпоинт возвращает найденные оповещения в облегченном представлении
+     * (без описания) и фрагменты описания с совпадениями.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void searchAlertsText_ShouldReturnRankedResults() throws Exception {
+        AlertTextSearchPage result = new AlertTextSearchPage(List.of(AlertSummary.from(testAlert)),
+                Map.of(1L, "<b>Столкновение</b>"), 0, 10, false);
+        when(alertService.searchText("столкновение", 0, 10)).thenReturn(result);
+
+        mockMvc.perform(get("/api/alerts/search/text")
+                .param("q", "столкновение")
+                .param("page", "0")
+                .param("size", "10")
+                .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.headlines['1']", is("<b>Столкновение</b>")))
+                .andExpect(jsonPath("$.hasNext", is(false)));
+    }
+
     /**
      * Тестирует получение оповещения по ID, когда оповещение существует.
      * Проверяет, что эндпоинт возвращает корректное оповещение.
@@ -255,4 +417,43 @@ class AlertControllerIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string("Кеш успешно очищен"));
     }
-}
\ No newline at end of file
+
+    /**
+     * Тестирует получение изменений входящих пользователя после версии.
+     * Проверяет, что версия передается в сервис, а ответ содержит ETag входящих.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getUserInbox_WithVersion_ShouldReturnChanges() throws Exception {
+        when(inboxService.etag(5L)).thenReturn("\"inbox-5-e-12\"");
+        when(inboxService.inbox(5L, "e-10")).thenReturn(new AlertInbox("e-12", false,
+                List.of(AlertSummary.from(testAlert)), List.of(2L)));
+
+        mockMvc.perform(get("/api/alerts/user/5/inbox").param("since", "e-10"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"inbox-5-e-12\""))
+                .andExpect(jsonPath("$.version", is("e-12")))
+                .andExpect(jsonPath("$.full", is(false)))
+                .andExpect(jsonPath("$.items[0].id", is(1)))
+                .andExpect(jsonPath("$.removedIds[0]", is(2)));
+    }
+
+    /**
+     * Тестирует, что входящие с неизменной версией не запрашиваются у сервиса повторно.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getUserInbox_WhenNotModified_ShouldReturn304() throws Exception {
+        when(inboxService.etag(5L)).thenReturn("\"inbox-5-e-12\"");
+
+        mockMvc.perform(get("/api/alerts/user/5/inbox")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"inbox-5-e-12\""))
+                .andExpect(status().isNotModified());
+
+        verify(inboxService, never()).inbox(anyLong(), any());
+    }
+}
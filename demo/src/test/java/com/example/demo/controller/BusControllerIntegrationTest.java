@@ -2,12 +2,14 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.BusDto;
 import com.example.demo.service.BusService;
+import com.example.demo.service.DataVersionTracker;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -39,6 +41,9 @@ class BusControllerIntegrationTest {
     @MockBean
     private BusService busService;
 
+    @Autowired
+    private DataVersionTracker dataVersions;
+
     /**
      * Тестирует получение всех автобусов.
      * Проверяет, что эндпоинт возвращает список автобусов с правильными данными.
@@ -62,7 +67,28 @@ class BusControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].id", is(1)))
                 .andExpect(jsonPath("$[0].model", is("Mercedes-Benz")))
                 .andExpect(jsonPath("$[1].id", is(2)))
-                .andExpect(jsonPath("$[1].model", is("Volvo")));
+                .andExpect(jsonPath("$[1].model", is("Volvo")))
+                .andExpect(header().string(HttpHeaders.ETAG, dataVersions.etag(DataVersionTracker.DataSet.BUSES)));
+    }
+
+    /**
+     * Тестирует условный запрос списка автобусов с актуальным ETag.
+     * Проверяет, что эндпоинт возвращает 304 без обращения к сервису.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    @WithMockUser(roles = {"USER"})
+    void getAllBuses_WhenETagMatches_ShouldReturnNotModified() throws Exception {
+        String etag = dataVersions.etag(DataVersionTracker.DataSet.BUSES);
+
+        mockMvc.perform(get("/api/buses")
+                .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(busService, never()).getAllBuses();
     }
 
     /**
@@ -0,0 +1,143 @@
+package com.example.demo.controller;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.dto.BusDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки кэша сериализованных JSON-ответов.
+ * Проверяет повторное использование байтов, их обновление при замене списка
+ * и отдачу сжатой версии клиентам, поддерживающим gzip (с учетом веса q).
+ */
+class JsonResponseCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JsonResponseCache jsonResponses;
+
+    /**
+     * Подготавливает кэш ответов перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        jsonResponses = new JsonResponseCache(
+                CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run), objectMapper);
+    }
+
+    /**
+     * Тестирует, что для того же экземпляра списка повторно отдаются те же байты.
+     */
+    @Test
+    void serialized_WhenListIsUnchanged_ShouldReuseBytes() {
+        List<BusDto> buses = List.of(new BusDto(1L, "Volvo"));
+
+        byte[] first = jsonResponses.serialized("buses", buses, Function.identity()).json();
+        byte[] second = jsonResponses.serialized("buses", buses, Function.identity()).json();
+
+        assertThat(second).isSameAs(first);
+    }
+
+    /**
+     * Тестирует, что замена списка в кэше сервиса приводит к повторной сериализации.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void serialized_WhenListIsReplaced_ShouldSerializeNewList() throws Exception {
+        jsonResponses.serialized("buses", List.of(new BusDto(1L, "Volvo")), Function.identity());
+
+        byte[] json = jsonResponses.serialized("buses", List.of(new BusDto(2L, "Scania")), Function.identity()).json();
+
+        assertThat(objectMapper.readTree(json).get(0).get("model").asText()).isEqualTo("Scania");
+    }
+
+    /**
+     * Тестирует отдачу сжатого ответа клиенту с Accept-Encoding: gzip.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void respond_WhenClientAcceptsGzip_ShouldReturnCompressedJson() throws Exception {
+        ReflectionTestUtils.setField(jsonResponses, "gzipMinBytes", 0);
+        List<BusDto> buses = List.of(new BusDto(1L, "Volvo"));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+
+        ResponseEntity<byte[]> response = jsonResponses.respond("buses", buses,
+                new ServletWebRequest(request, new MockHttpServletResponse()));
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(gunzip(response.getBody())).isEqualTo(objectMapper.writeValueAsBytes(buses));
+    }
+
+    /**
+     * Тестирует отдачу несжатого ответа клиенту без поддержки gzip.
+     */
+    @Test
+    void respond_WhenClientDoesNotAcceptGzip_ShouldReturnPlainJson() {
+        ReflectionTestUtils.setField(jsonResponses, "gzipMinBytes", 0);
+        List<BusDto> buses = List.of(new BusDto(1L, "Volvo"));
+
+        ResponseEntity<byte[]> response = jsonResponses.respond("buses", buses,
+                new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse()));
+
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)).isFalse();
+        assertThat(response.getHeaders().getFirst(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(new String(response.getBody())).isEqualTo("[{\"id\":1,\"model\":\"Volvo\"}]");
+    }
+
+    /**
+     * Тестирует, что gzip с нулевым весом (gzip;q=0) не отдается, а «*» без явного gzip разрешает сжатие.
+     */
+    @Test
+    void acceptsGzip_ShouldHonourQualityValues() {
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("gzip;q=0, deflate"))).isFalse();
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("deflate, gzip; q=0.0"))).isFalse();
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("*;q=1, gzip;q=0"))).isFalse();
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("gzip;q=0.5"))).isTrue();
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("br, *"))).isTrue();
+        assertThat(JsonResponseCache.acceptsGzip(requestWithAcceptEncoding("identity"))).isFalse();
+    }
+
+    /**
+     * Тестирует, что запись ответа не удерживает список, из которого она построена.
+     */
+    @Test
+    void serialized_ShouldNotRetainSourceList() {
+        JsonResponseCache.SerializedJson serialized = jsonResponses.serialized("buses",
+                new ArrayList<>(List.of(new BusDto(1L, "Volvo"))), Function.identity());
+
+        assertThat(serialized.source()).isInstanceOf(WeakReference.class);
+        assertThat(serialized.builtFrom(new ArrayList<>(List.of(new BusDto(1L, "Volvo"))))).isFalse();
+    }
+
+    private static ServletWebRequest requestWithAcceptEncoding(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        return new ServletWebRequest(request, new MockHttpServletResponse());
+    }
+
+    private static byte[] gunzip(byte[] bytes) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.demo.dto;
+
+import com.example.demo.mapper.AlertMapper;
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки компактного представления инцидента в кэше.
+ * Проверяет, что преобразование в представление API не теряет данных,
+ * и сравнивает занимаемую память с сущностью {@link Alert}, которая хранилась в кэше раньше.
+ */
+class CachedAlertTest {
+    private static final Logger log = LoggerFactory.getLogger(CachedAlertTest.class);
+
+    private static final int BENCHMARK_SIZE = 200_000;
+
+    /**
+     * Тестирует, что компактная запись преобразуется в то же представление API, что и сущность.
+     */
+    @Test
+    void toSummary_ShouldMatchSummaryOfEntity() {
+        Alert alert = alert(1_000L, 2_000L, StatusType.IN_PROGRESS, 3_000L);
+        alert.setTimestamp(LocalDateTime.of(2026, 3, 14, 15, 9, 26, 535_897_000));
+
+        AlertSummary summary = AlertMapper.toSummary(CachedAlert.from(alert));
+
+        assertThat(summary).isEqualTo(AlertSummary.from(alert));
+    }
+
+    /**
+     * Тестирует преобразование записи с незаданными необязательными полями.
+     */
+    @Test
+    void toSummary_WhenOptionalFieldsMissing_ShouldReturnNulls() {
+        Alert alert = alert(1L, 101L, null, null);
+        alert.setTimestamp(LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000));
+
+        AlertSummary summary = AlertMapper.toSummary(CachedAlert.from(alert));
+
+        assertThat(summary.status()).isNull();
+        assertThat(summary.assignedToUserId()).isNull();
+        assertThat(summary.timestamp()).isEqualTo(alert.getTimestamp());
+    }
+
+    /**
+     * Сравнивает объем кучи, удерживаемый списками сущностей {@link Alert} и {@link CachedAlert}
+     * одинакового содержания ({@link AlertSummary} приводится для сравнения). Значения создаются заново
+     * для каждого элемента, как при загрузке из базы данных; строки местоположения и описания общие,
+     * чтобы сравнивались только сами записи. Запускается с -Dbenchmarks=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_RetainedHeap_ShouldBeSmallerForCachedAlert() {
+        String location = "Москва, Ленинский проспект";
+        String description = "Резкое торможение";
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+        long entityBytes = retainedBytes(i -> {
+            Alert alert = alert(1_000L + i, 500L + i % 300, StatusType.NEW, i % 2 == 0 ? 200L + i % 50 : null);
+            alert.setTimestamp(base.plusSeconds(i));
+            alert.setLocation(location);
+            alert.setDescription(description);
+            return alert;
+        });
+        long summaryBytes = retainedBytes(i -> new AlertSummary(1_000L + i, 500L + i % 300, EventType.ACCIDENT,
+                StatusType.NEW, base.plusSeconds(i), location, i % 2 == 0 ? 200L + i % 50 : null));
+        long cachedBytes = retainedBytes(i -> new CachedAlert(1_000L + i, 500L + i % 300, EventType.ACCIDENT,
+                StatusType.NEW, base.plusSeconds(i), location, i % 2 == 0 ? 200L + i % 50 : null));
+
+        log.info("Удерживаемая память на инцидент: Alert={} байт, AlertSummary={} байт, CachedAlert={} байт",
+                entityBytes / BENCHMARK_SIZE, summaryBytes / BENCHMARK_SIZE, cachedBytes / BENCHMARK_SIZE);
+        assertThat(cachedBytes).isLessThan(entityBytes / 2);
+    }
+
+    private static long retainedBytes(IntFunction<Object> factory) {
+        long before = usedHeap();
+        List<Object> retained = new ArrayList<>(BENCHMARK_SIZE);
+        for (int i = 0; i < BENCHMARK_SIZE; i++) {
+            retained.add(factory.apply(i));
+        }
+        long after = usedHeap();
+        assertThat(retained).hasSize(BENCHMARK_SIZE); // Список удерживается до замера
+        return after - before;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static Alert alert(Long id, Long busId, StatusType status, Long userId) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(busId);
+        alert.setType(EventType.ACCIDENT);
+        alert.setLocation("Москва");
+        alert.setDescription("Описание");
+        alert.setStatus(status);
+        alert.setAssignedToUserId(userId);
+        return alert;
+    }
+}
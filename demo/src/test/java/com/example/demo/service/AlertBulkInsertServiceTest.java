@@ -0,0 +1,157 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.Bus;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки массовой вставки оповещений.
+ * Проверяет сохранение порциями, обработку ошибок отдельных оповещений
+ * и однократное обновление кэшей и версии данных.
+ */
+@SpringBootTest
+class AlertBulkInsertServiceTest {
+    private static final Logger log = LoggerFactory.getLogger(AlertBulkInsertServiceTest.class);
+
+    @Autowired
+    private AlertBulkInsertService bulkInsertService;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private DataVersionTracker dataVersions;
+
+    private Bus bus;
+    private final List<Long> alertIds = new ArrayList<>();
+
+    /**
+     * Создает автобус для теста и очищает кэши.
+     */
+    @BeforeEach
+    void setUp() {
+        clearCaches();
+        Bus newBus = new Bus();
+        newBus.setModel("Тестовый автобус");
+        bus = busRepository.save(newBus);
+    }
+
+    /**
+     * Удаляет созданные данные и очищает кэши.
+     */
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAllById(alertIds);
+        busRepository.deleteById(bus.getId());
+        alertIds.clear();
+        clearCaches();
+    }
+
+    /**
+     * Тестирует сохранение нескольких порций: все оповещения сохранены с уникальными ID,
+     * закэшированный список сброшен, версия данных увеличена один раз.
+     */
+    @Test
+    void insertAll_ShouldSaveAllAlertsAndInvalidateCachesOnce() {
+        alertService.findAll(); // Заполняет кэш
+        long version = dataVersions.version(DataVersionTracker.DataSet.ALERTS);
+
+        AlertBulkInsertService.InsertResult result = bulkInsertService.insertAll(alerts(12_345, bus.getId()));
+        alertIds.addAll(result.createdIds());
+
+        assertThat(result.errors()).isEmpty();
+        assertThat(result.createdIds()).hasSize(12_345).doesNotContainNull();
+        assertThat(new HashSet<>(result.createdIds())).hasSize(12_345);
+        assertThat(alertRepository.findAllById(result.createdIds())).hasSize(12_345)
+                .allSatisfy(alert -> assertThat(alert.getStatus()).isEqualTo(StatusType.NEW));
+        assertThat(cacheManager.getCache("alerts").get(SimpleKey.EMPTY)).isNull();
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(version + 1);
+    }
+
+    /**
+     * Тестирует, что оповещение с несуществующим автобусом не мешает сохранению остальных
+     * оповещений порции и попадает в ошибки.
+     */
+    @Test
+    void insertAll_WhenRowFails_ShouldSaveOtherRowsAndReportError() {
+        List<Alert> alerts = alerts(10, bus.getId());
+        alerts.get(4).setBusId(-1L);
+
+        AlertBulkInsertService.InsertResult result = bulkInsertService.insertAll(alerts);
+        alertIds.addAll(result.createdIds());
+
+        assertThat(result.createdIds()).hasSize(9);
+        assertThat(result.errors()).hasSize(1);
+        assertThat(result.errors().get(0)).startsWith("Не удалось сохранить инцидент: автобус -1");
+        assertThat(alertRepository.findAllById(result.createdIds())).hasSize(9);
+    }
+
+    /**
+     * Сравнивает скорость сохранения по одному оповещению и массовой вставки.
+     * Запускается только с -Dbenchmarks=true; число строк задается -Dbenchmarks.rows (по умолчанию 100000).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_BulkInsertVersusCreate() {
+        int rows = Integer.getInteger("benchmarks.rows", 100_000);
+
+        long started = System.nanoTime();
+        for (Alert alert : alerts(rows, bus.getId())) {
+            alertIds.add(alertService.create(alert).getId());
+        }
+        long createNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        alertIds.addAll(bulkInsertService.insertAll(alerts(rows, bus.getId())).createdIds());
+        long bulkNanos = System.nanoTime() - started;
+
+        log.info("Вставка {} инцидентов: по одному {} строк/с, пакетами {} строк/с (в {} раза быстрее)",
+                rows, Math.round(rows / (createNanos / 1e9)), Math.round(rows / (bulkNanos / 1e9)),
+                String.format("%.1f", (double) createNanos / bulkNanos));
+    }
+
+    private static List<Alert> alerts(int count, Long busId) {
+        List<Alert> alerts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Alert alert = new Alert();
+            alert.setBusId(busId);
+            alert.setType(EventType.values()[i % EventType.values().length]);
+            alert.setLocation("Москва, остановка " + (i % 100));
+            alert.setDescription("Импортированное оповещение " + i);
+            alerts.add(alert);
+        }
+        return alerts;
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
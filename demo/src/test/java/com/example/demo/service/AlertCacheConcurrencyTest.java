@@ -0,0 +1,160 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.model.Alert;
+import com.example.demo.model.Bus;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки согласованности кэшей оповещений при параллельной работе.
+ * Писатели меняют статусы оповещений, пока читатели заполняют кэши списков;
+ * после завершения закэшированные списки должны совпадать с базой данных.
+ */
+@SpringBootTest
+class AlertCacheConcurrencyTest {
+
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int ALERTS_PER_WRITER = 5;
+    private static final int UPDATES_PER_WRITER = 100;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Bus bus;
+    private final List<Long> alertIds = new ArrayList<>();
+
+    /**
+     * Создает автобус и оповещения для теста и очищает кэши.
+     */
+    @BeforeEach
+    void setUp() {
+        clearCaches();
+        Bus newBus = new Bus();
+        newBus.setModel("Тестовый автобус");
+        bus = busRepository.save(newBus);
+
+        for (int i = 0; i < WRITERS * ALERTS_PER_WRITER; i++) {
+            Alert alert = new Alert();
+            alert.setBusId(bus.getId());
+            alert.setType(EventType.ACCIDENT);
+            alert.setLocation("Москва");
+            alert.setDescription("Оповещение " + i);
+            alertIds.add(alertService.create(alert).getId());
+        }
+    }
+
+    /**
+     * Удаляет созданные данные и очищает кэши.
+     */
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAllById(alertIds);
+        busRepository.deleteById(bus.getId());
+        alertIds.clear();
+        clearCaches();
+    }
+
+    /**
+     * Тестирует, что после параллельных изменений и чтений закэшированные списки
+     * по статусу и общий список совпадают с базой данных.
+     * Каждый писатель меняет только свои оповещения, чтобы итоговое состояние каждого
+     * оповещения определялось одной последовательностью изменений.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void concurrentUpdatesAndReads_ShouldLeaveCachesConsistentWithDatabase() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> writers = new ArrayList<>();
+        List<Future<?>> readers = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                List<Long> own = alertIds.subList(w * ALERTS_PER_WRITER, (w + 1) * ALERTS_PER_WRITER);
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    StatusType[] statuses = StatusType.values();
+                    for (int i = 0; i < UPDATES_PER_WRITER; i++) {
+                        Long id = own.get(random.nextInt(own.size()));
+                        alertService.updateStatus(id, statuses[random.nextInt(statuses.length)]);
+                    }
+                    return null;
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    while (writing.get()) {
+                        alertService.findAll();
+                        for (StatusType status : StatusType.values()) {
+                            alertService.findByStatus(status);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(60, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (StatusType status : StatusType.values()) {
+            assertThat(statusesById(alertService.findByStatus(status)))
+                    .as("Список по статусу %s", status)
+                    .isEqualTo(statusesById(alertRepository.findCachedByStatus(status)));
+        }
+        assertThat(statusesById(alertService.findAll()))
+                .isEqualTo(statusesById(alertRepository.findAllCached()));
+    }
+
+    private static Map<Long, String> statusesById(List<CachedAlert> alerts) {
+        return alerts.stream().collect(Collectors.toMap(CachedAlert::id, alert -> String.valueOf(alert.status())));
+    }
+
+    private void clearCaches() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+}
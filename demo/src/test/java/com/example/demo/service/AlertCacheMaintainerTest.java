@@ -0,0 +1,142 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки точечного обновления кэшей оповещений.
+ * Проверяет, что изменения оповещения затрагивают только связанные с ним записи кэшей.
+ */
+class AlertCacheMaintainerTest {
+
+    private CacheManager cacheManager;
+    private AlertCacheMaintainer cacheMaintainer;
+
+    private Alert first;
+    private Alert second;
+
+    /**
+     * Подготавливает кэши с закэшированными списками перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        cacheMaintainer = new AlertCacheMaintainer(cacheManager);
+
+        first = alert(1L, 101L, StatusType.NEW, null);
+        second = alert(2L, 102L, StatusType.IN_PROGRESS, 5L);
+
+        CachedAlert firstSummary = CachedAlert.from(first);
+        CachedAlert secondSummary = CachedAlert.from(second);
+        cache("alerts").put(SimpleKey.EMPTY, List.of(firstSummary, secondSummary));
+        cache("alertsByStatus").put("NEW", List.of(firstSummary));
+        cache("alertsByStatus").put("IN_PROGRESS", List.of(secondSummary));
+        cache("alertsByStatus").put("RESOLVED", List.of());
+        cache("alertsByBus").put(101L, List.of(firstSummary));
+        cache("alertsByBus").put(102L, List.of(secondSummary));
+        cache("alertsByUser").put(5L, List.of(secondSummary));
+    }
+
+    /**
+     * Тестирует добавление нового оповещения в закэшированные списки.
+     */
+    @Test
+    void alertSaved_WhenNewAlert_ShouldAppendToMatchingLists() {
+        Alert created = alert(3L, 101L, StatusType.NEW, null);
+
+        cacheMaintainer.alertSaved(null, CachedAlert.from(created));
+
+        assertThat(ids("alerts", SimpleKey.EMPTY)).containsExactly(1L, 2L, 3L);
+        assertThat(ids("alertsByStatus", "NEW")).containsExactly(1L, 3L);
+        assertThat(ids("alertsByStatus", "IN_PROGRESS")).containsExactly(2L);
+        assertThat(ids("alertsByBus", 101L)).containsExactly(1L, 3L);
+        assertThat(ids("alertsByBus", 102L)).containsExactly(2L);
+    }
+
+    /**
+     * Тестирует перенос оповещения между списками по статусу при смене статуса.
+     * Остальные записи кэшей должны остаться на месте.
+     */
+    @Test
+    void alertSaved_WhenStatusChanged_ShouldMoveBetweenStatusLists() {
+        AlertKeys before = AlertKeys.of(first);
+        Alert updated = alert(1L, 101L, StatusType.RESOLVED, null);
+
+        cacheMaintainer.alertSaved(before, CachedAlert.from(updated));
+
+        assertThat(ids("alertsByStatus", "NEW")).isEmpty();
+        assertThat(ids("alertsByStatus", "RESOLVED")).containsExactly(1L);
+        assertThat(ids("alertsByStatus", "IN_PROGRESS")).containsExactly(2L);
+        assertThat(list("alerts", SimpleKey.EMPTY).get(0).status()).isEqualTo(StatusType.RESOLVED);
+        assertThat(list("alertsByBus", 101L).get(0).status()).isEqualTo(StatusType.RESOLVED);
+    }
+
+    /**
+     * Тестирует, что незакэшированные списки не создаются при изменении оповещения.
+     */
+    @Test
+    void alertSaved_WhenTargetListNotCached_ShouldNotCreateIt() {
+        AlertKeys before = AlertKeys.of(first);
+        Alert assigned = alert(1L, 101L, StatusType.IN_PROGRESS, 7L);
+
+        cacheMaintainer.alertSaved(before, CachedAlert.from(assigned));
+
+        assertThat(cache("alertsByUser").get(7L)).isNull();
+        assertThat(ids("alertsByStatus", "IN_PROGRESS")).containsExactly(2L, 1L);
+    }
+
+    /**
+     * Тестирует удаление оповещения из всех закэшированных списков.
+     */
+    @Test
+    void alertDeleted_ShouldRemoveFromAllLists() {
+        cacheMaintainer.alertDeleted(AlertKeys.of(second));
+
+        assertThat(ids("alerts", SimpleKey.EMPTY)).containsExactly(1L);
+        assertThat(ids("alertsByStatus", "IN_PROGRESS")).isEmpty();
+        assertThat(ids("alertsByBus", 102L)).isEmpty();
+        assertThat(ids("alertsByUser", 5L)).isEmpty();
+        assertThat(ids("alertsByStatus", "NEW")).containsExactly(1L);
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CachedAlert> list(String cacheName, Object key) {
+        return (List<CachedAlert>) cache(cacheName).get(key).get();
+    }
+
+    private List<Long> ids(String cacheName, Object key) {
+        return list(cacheName, key).stream().map(CachedAlert::id).toList();
+    }
+
+    private static Alert alert(Long id, Long busId, StatusType status, Long userId) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(busId);
+        alert.setType(EventType.ACCIDENT);
+        alert.setTimestamp(LocalDateTime.now());
+        alert.setLocation("Москва");
+        alert.setDescription("Описание");
+        alert.setStatus(status);
+        alert.setAssignedToUserId(userId);
+        return alert;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AlertStatistics;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertCreated;
+import com.example.demo.event.AlertDeleted;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.event.AlertStatusChanged;
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Класс тестов для проверки колоночного хранилища инцидентов.
+ * Сравнивает статистику хранилища с подсчетом по списку инцидентов после загрузки,
+ * после инкрементальных изменений и после уплотнения, а также проверяет ограничение частоты
+ * загрузок по изменениям на других узлах.
+ */
+class AlertColumnStoreTest {
+    private static final Logger log = LoggerFactory.getLogger(AlertColumnStoreTest.class);
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 0, 0);
+    private static final String[] LOCATIONS = {"Москва", "Тверь", "Казань", null, "Самара", "Уфа"};
+
+    private AlertRepository alertRepository;
+    private AlertColumnStore store;
+    private List<Alert> alerts;
+
+    /**
+     * Подготавливает хранилище со случайным набором инцидентов перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        alertRepository = mock(AlertRepository.class);
+        store = new AlertColumnStore(alertRepository, mock(PlatformTransactionManager.class));
+        alerts = randomAlerts(5_000, new Random(42));
+        when(alertRepository.findAllCached()).thenAnswer(invocation ->
+                alerts.stream().map(CachedAlert::from).toList());
+    }
+
+    /**
+     * Тестирует, что до загрузки хранилище не отвечает на запросы.
+     */
+    @Test
+    void statistics_BeforeLoad_ShouldBeEmpty() {
+        assertThat(store.isReady()).isFalse();
+        assertThat(store.statistics(START, START.plusDays(30))).isEmpty();
+    }
+
+    /**
+     * Тестирует совпадение статистики хранилища с подсчетом по списку для разных периодов.
+     */
+    @Test
+    void statistics_AfterLoad_ShouldMatchListStatistics() {
+        store.reload();
+
+        assertThat(store.isReady()).isTrue();
+        assertStatistics(START, START.plusDays(30));
+        assertStatistics(START.plusDays(3).plusHours(5), START.plusDays(11).plusMinutes(17));
+        assertStatistics(START.plusDays(29), START.plusDays(29).plusSeconds(1));
+        assertStatistics(START.minusDays(10), START.minusDays(1));
+    }
+
+    /**
+     * Тестирует, что границы периода включаются в подсчет.
+     */
+    @Test
+    void statistics_ShouldIncludePeriodBoundaries() {
+        alerts = List.of(alert(1L, 10L, START, StatusType.NEW), alert(2L, 10L, START.plusHours(1), StatusType.NEW));
+        store.reload();
+
+        assertThat(store.statistics(START, START.plusHours(1)).orElseThrow().total()).isEqualTo(2);
+        assertThat(store.statistics(START.plusNanos(1000), START.plusHours(1)).orElseThrow().total()).isEqualTo(1);
+        assertThat(store.countForBus(10L, START, START).orElseThrow()).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует применение событий создания, смены статуса и удаления после загрузки.
+     */
+    @Test
+    void onAlertEvent_AfterLoad_ShouldUpdateStatistics() {
+        store.reload();
+
+        Alert created = alert(10_001L, 7L, START.plusDays(2), StatusType.NEW);
+        store.onAlertEvent(new AlertCreated(CachedAlert.from(created)));
+        alerts = new ArrayList<>(alerts);
+        alerts.add(created);
+
+        Alert changed = alerts.get(100);
+        AlertKeys before = AlertKeys.of(changed);
+        changed.setStatus(changed.getStatus() == StatusType.RESOLVED ? StatusType.NEW : StatusType.RESOLVED);
+        store.onAlertEvent(new AlertStatusChanged(before, CachedAlert.from(changed)));
+
+        Alert moved = alerts.get(200);
+        AlertKeys movedBefore = AlertKeys.of(moved);
+        moved.setBusId(moved.getBusId() + 1);
+        moved.setTimestamp(moved.getTimestamp().plusDays(5));
+        store.onAlertEvent(new AlertStatusChanged(movedBefore, CachedAlert.from(moved)));
+
+        Alert deleted = alerts.remove(300);
+        store.onAlertEvent(new AlertDeleted(AlertKeys.of(deleted)));
+
+        assertStatistics(START, START.plusDays(40));
+        assertStatistics(START.plusDays(1), START.plusDays(9));
+        assertThat(store.countForBus(7L, START, START.plusDays(40)).orElseThrow())
+                .isEqualTo(alerts.stream().filter(alert -> alert.getBusId() == 7L).count());
+    }
+
+    /**
+     * Тестирует перезагрузку хранилища после изменения инцидентов на другом узле.
+     *
+     * @throws InterruptedException Если ожидание перезагрузки прервано
+     */
+    @Test
+    void onRemoteChange_ShouldReloadFromDatabase() throws InterruptedException {
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "remoteReloadIntervalMs", 0L);
+        store.reload();
+        alerts = alerts.subList(0, 1_000);
+
+        store.onRemoteChange(new DataVersionTracker.RemoteDataSetChangedEvent(DataVersionTracker.DataSet.ALERTS));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (store.statistics(START, START.plusDays(30)).orElseThrow().total() != alerts.size()
+                && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertStatistics(START, START.plusDays(30));
+        store.destroy();
+    }
+
+    /**
+     * Тестирует, что частые изменения на другом узле не вызывают загрузку на каждое изменение,
+     * а хранилище до отложенной загрузки продолжает отвечать.
+     *
+     * @throws InterruptedException Если ожидание прервано
+     */
+    @Test
+    void onRemoteChange_WhenChangesAreFrequent_ShouldDebounceReloads() throws InterruptedException {
+        ReflectionTestUtils.setField(store, "enabled", true);
+        ReflectionTestUtils.setField(store, "remoteReloadIntervalMs", 60_000L);
+        store.reload();
+
+        for (int i = 0; i < 100; i++) {
+            store.onRemoteChange(new DataVersionTracker.RemoteDataSetChangedEvent(DataVersionTracker.DataSet.ALERTS));
+        }
+        Thread.sleep(200);
+
+        verify(alertRepository, times(1)).findAllCached();
+        assertThat(store.isReady()).isTrue();
+        store.destroy();
+    }
+
+    /**
+     * Тестирует уплотнение столбцов, когда удаленных строк становится больше, чем живых.
+     */
+    @Test
+    void onAlertEvent_WhenMostRowsAreDeleted_ShouldCompactColumns() {
+        store.reload();
+        alerts = new ArrayList<>(alerts);
+
+        for (int i = 0; i < 3_000; i++) {
+            store.onAlertEvent(new AlertDeleted(AlertKeys.of(alerts.remove(alerts.size() - 1))));
+        }
+        Alert moved = alerts.get(10);
+        AlertKeys movedBefore = AlertKeys.of(moved);
+        moved.setTimestamp(moved.getTimestamp().plusDays(1));
+        store.onAlertEvent(new AlertStatusChanged(movedBefore, CachedAlert.from(moved)));
+
+        AlertColumnStore.Columns columns = (AlertColumnStore.Columns) ReflectionTestUtils.getField(store, "columns");
+        assertThat(columns.rows).isLessThan(5_000);
+        assertThat(columns.liveRows).isEqualTo(alerts.size());
+        assertStatistics(START, START.plusDays(40));
+        assertStatistics(START.plusDays(2), START.plusDays(17));
+        assertThat(store.countForBus(7L, START, START.plusDays(40)).orElseThrow())
+                .isEqualTo(alerts.stream().filter(alert -> alert.getBusId() == 7L).count());
+    }
+
+    /**
+     * Сравнивает время подсчета статистики хранилищем и по списку объектов.
+     * Запускается только с -Dbenchmarks=true.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_StatisticsOverLargeDataSet() {
+        alerts = randomAlerts(1_000_000, new Random(7));
+        store.reload();
+        LocalDateTime from = START.plusDays(5);
+        LocalDateTime to = START.plusDays(20);
+
+        long storeNanos = measure(() -> store.statistics(from, to).orElseThrow().total());
+        long listNanos = measure(() -> AlertStatistics.of(alerts.stream()
+                .filter(alert -> !alert.getTimestamp().isBefore(from) && !alert.getTimestamp().isAfter(to))
+                .toList()).total());
+
+        log.info("Статистика по 1 000 000 инцидентов: хранилище {} мс, список {} мс",
+                String.format("%.2f", storeNanos / 1e6), String.format("%.2f", listNanos / 1e6));
+    }
+
+    private void assertStatistics(LocalDateTime from, LocalDateTime to) {
+        List<Alert> inPeriod = alerts.stream()
+                .filter(alert -> !alert.getTimestamp().isBefore(from) && !alert.getTimestamp().isAfter(to))
+                .toList();
+        assertThat(store.statistics(from, to)).contains(AlertStatistics.of(inPeriod));
+    }
+
+    private static long measure(Runnable query) {
+        for (int i = 0; i < 5; i++) {
+            query.run();
+        }
+        int iterations = 20;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            query.run();
+        }
+        return (System.nanoTime() - started) / iterations;
+    }
+
+    private static List<Alert> randomAlerts(int count, Random random) {
+        List<Alert> result = new ArrayList<>(count);
+        StatusType[] statuses = StatusType.values();
+        EventType[] types = EventType.values();
+        for (int i = 1; i <= count; i++) {
+            Alert alert = alert((long) i, 1L + random.nextInt(50),
+                    START.plusSeconds(random.nextInt(30 * 24 * 3600)), statuses[random.nextInt(statuses.length)]);
+            alert.setType(types[random.nextInt(types.length)]);
+            alert.setLocation(LOCATIONS[random.nextInt(LOCATIONS.length)]);
+            result.add(alert);
+        }
+        return result;
+    }
+
+    private static Alert alert(Long id, Long busId, LocalDateTime timestamp, StatusType status) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(busId);
+        alert.setType(EventType.ACCIDENT);
+        alert.setTimestamp(timestamp);
+        alert.setLocation("Москва");
+        alert.setStatus(status);
+        return alert;
+    }
+}
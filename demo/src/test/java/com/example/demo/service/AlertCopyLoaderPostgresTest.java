@@ -0,0 +1,166 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CsvImportResult;
+import com.example.demo.dto.IdRange;
+import com.example.demo.model.Alert;
+import com.example.demo.model.Bus;
+import com.example.demo.model.EventType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Класс тестов загрузки инцидентов командой COPY на локальном PostgreSQL.
+ * Проверяет перенос строк из промежуточной таблицы, отклонение строк с несуществующими автобусами
+ * и то, что неудачная загрузка не изменяет таблицу инцидентов, а также загрузку в новую последовательность ID.
+ * Запускается, если задана переменная окружения COPY_IMPORT_TEST_DB_URL
+ * (например, jdbc:postgresql://localhost:5432/emergencydb), а также
+ * COPY_IMPORT_TEST_DB_USER и COPY_IMPORT_TEST_DB_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "COPY_IMPORT_TEST_DB_URL", matches = "jdbc:postgresql:.+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${COPY_IMPORT_TEST_DB_URL}",
+        "spring.datasource.username=${COPY_IMPORT_TEST_DB_USER}",
+        "spring.datasource.password=${COPY_IMPORT_TEST_DB_PASSWORD}",
+        "spring.jpa.hibernate.ddl-auto=update"
+})
+class AlertCopyLoaderPostgresTest {
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private AlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Bus bus;
+    private final List<Long> alertIds = new ArrayList<>();
+
+    /**
+     * Создает автобус для теста.
+     */
+    @BeforeEach
+    void setUp() {
+        Bus newBus = new Bus();
+        newBus.setModel("Тестовый автобус");
+        bus = busRepository.save(newBus);
+    }
+
+    /**
+     * Удаляет созданные данные.
+     */
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAllById(alertIds);
+        busRepository.deleteById(bus.getId());
+        alertIds.clear();
+    }
+
+    /**
+     * Тестирует загрузку: строки с существующим автобусом сохраняются с ID, не пересекающимися
+     * с ID, выданными Hibernate, а строка с несуществующим автобусом возвращается как ошибка.
+     */
+    @Test
+    void copyAlertsFromCsv_ShouldLoadValidRowsAndRejectUnknownBuses() {
+        StringBuilder csv = new StringBuilder("bus_id,type,location,description\n");
+        for (int i = 0; i < 120; i++) {
+            long busId = i == 7 ? -1 : bus.getId();
+            csv.append(busId).append(",BUTTON,\"Москва, остановка \"\"Центр\"\"\",Загрузка ").append(i).append('\n');
+        }
+
+        CsvImportResult result = csvImportService.copyAlertsFromCsv(file(csv.toString()));
+        result.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+        alertIds.add(alertService.create(alert()).getId());
+
+        assertThat(result.getSuccessCount()).isEqualTo(119);
+        assertThat(result.getErrors()).singleElement().asString().contains("автобус -1");
+        assertThat(result.getCreatedIdRanges().stream().mapToLong(IdRange::count).sum()).isEqualTo(119);
+        assertThat(alertRepository.findAllById(alertIds)).hasSize(120)
+                .filteredOn(alert -> alert.getDescription().startsWith("Загрузка"))
+                .allSatisfy(alert -> assertThat(alert.getLocation()).isEqualTo("Москва, остановка \"Центр\""));
+    }
+
+    /**
+     * Тестирует, что ошибка при переносе из промежуточной таблицы не сохраняет ни одного инцидента.
+     */
+    @Test
+    void copyAlertsFromCsv_WhenLoadFails_ShouldLeaveAlertsUntouched() {
+        String csv = "bus_id,type,location,description\n"
+                + bus.getId() + ",BUTTON,Москва,Первая\n"
+                + bus.getId() + ",BUTTON," + "x".repeat(300) + ",Слишком длинное местоположение\n";
+
+        CsvImportResult result = csvImportService.copyAlertsFromCsv(file(csv));
+
+        assertThat(result.getSuccessCount()).isZero();
+        assertThat(result.getFailedCount()).isEqualTo(2);
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error).startsWith("Загрузка не выполнена"));
+        assertThat(alertRepository.findByBusId(bus.getId())).isEmpty();
+    }
+
+    /**
+     * Тестирует загрузку в новую последовательность ID, из которой еще ничего не выдавалось:
+     * все инциденты получают положительные ID.
+     * Последовательность сбрасывается только в пустой базе данных и затем восстанавливается.
+     */
+    @Test
+    void copyAlertsFromCsv_WhenSequenceIsNew_ShouldAssignPositiveIds() {
+        assumeTrue(alertRepository.count() == 0, "Сброс последовательности возможен только в пустой таблице");
+        Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM alerts_seq", Long.class);
+        jdbcTemplate.execute("ALTER SEQUENCE alerts_seq RESTART WITH 1");
+        try {
+            StringBuilder csv = new StringBuilder("bus_id,type,location,description\n");
+            for (int i = 0; i < 60; i++) {
+                csv.append(bus.getId()).append(",BUTTON,Москва,Загрузка ").append(i).append('\n');
+            }
+
+            CsvImportResult result = csvImportService.copyAlertsFromCsv(file(csv.toString()));
+            result.getCreatedIdRanges().forEach(range ->
+                    LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+            assertThat(result.getSuccessCount()).isEqualTo(60);
+            assertThat(alertIds).hasSize(60).allSatisfy(id -> assertThat(id).isPositive());
+            assertThat(alertRepository.findAllById(alertIds)).hasSize(60);
+        } finally {
+            jdbcTemplate.queryForObject("SELECT setval('alerts_seq', GREATEST(?, "
+                    + "(SELECT COALESCE(MAX(id), 0) FROM alerts) + " + Alert.ID_ALLOCATION_SIZE + "))",
+                    Long.class, lastValue);
+        }
+    }
+
+    private static MockMultipartFile file(String csv) {
+        return new MockMultipartFile("file", "alerts.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Alert alert() {
+        Alert alert = new Alert();
+        alert.setBusId(bus.getId());
+        alert.setType(EventType.ACCIDENT);
+        alert.setLocation("Москва");
+        alert.setDescription("Создано после загрузки");
+        return alert;
+    }
+}
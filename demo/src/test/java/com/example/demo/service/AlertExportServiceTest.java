@@ -0,0 +1,114 @@
+package com.example.demo.service;
+
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс тестов для проверки потоковой выгрузки инцидентов.
+ * Проверяет формат NDJSON, сброс потока и очистку контекста персистентности порциями.
+ */
+@ExtendWith(MockitoExtension.class)
+class AlertExportServiceTest {
+
+    @Mock
+    private AlertRepository alertRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AlertExportService exportService;
+
+    /**
+     * Создает сервис выгрузки с маленьким размером порции перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        exportService = new AlertExportService(alertRepository, objectMapper);
+        ReflectionTestUtils.setField(exportService, "entityManager", entityManager);
+        ReflectionTestUtils.setField(exportService, "batchSize", 2);
+    }
+
+    /**
+     * Тестирует, что каждый инцидент записывается отдельной строкой JSON,
+     * а контекст персистентности очищается после каждой порции.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void exportNdjson_ShouldWriteOneJsonObjectPerLine() throws Exception {
+        Stream<Alert> alerts = LongStream.rangeClosed(1, 5).mapToObj(AlertExportServiceTest::alert);
+        when(alertRepository.streamAllOrderById()).thenReturn(alerts);
+        AtomicInteger flushes = new AtomicInteger();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void flush() {
+                flushes.incrementAndGet();
+            }
+        };
+
+        long exported = exportService.exportNdjson(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(exported).isEqualTo(5);
+        assertThat(lines).hasSize(5);
+        for (int i = 0; i < lines.length; i++) {
+            JsonNode node = objectMapper.readTree(lines[i]);
+            assertThat(node.get("id").asLong()).isEqualTo(i + 1);
+            assertThat(node.has("bus")).isFalse();
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("\n");
+        verify(entityManager, times(2)).clear();
+        assertThat(flushes.get()).isLessThan(5); // Поток сбрасывается после порции, а не после каждой строки
+    }
+
+    /**
+     * Тестирует выгрузку пустой таблицы.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void exportNdjson_WhenNoAlerts_ShouldWriteNothing() throws Exception {
+        when(alertRepository.streamAllOrderById()).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long exported = exportService.exportNdjson(out);
+
+        assertThat(exported).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    private static Alert alert(long id) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(100L + id);
+        alert.setType(EventType.BUTTON);
+        alert.setTimestamp(LocalDateTime.of(2024, 1, 1, 12, 0).plusMinutes(id));
+        alert.setLocation("Москва");
+        alert.setDescription("Описание " + id);
+        alert.setStatus(StatusType.NEW);
+        return alert;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.dto.AlertInbox;
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertAssigned;
+import com.example.demo.event.AlertDeleted;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.event.AlertStatusChanged;
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс тестов для проверки входящих инцидентов пользователей.
+ * Проверяет порядок входящих, обновление по событиям без обращения к базе данных,
+ * выдачу изменений после версии и вес входящих в кэше.
+ */
+class AlertInboxServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 4, 1, 8, 0);
+
+    private AlertRepository alertRepository;
+    private CacheManager cacheManager;
+    private AlertInboxService inboxService;
+
+    /**
+     * Подготавливает сервис с кэшем входящих и инциденты пользователя 5 перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        alertRepository = mock(AlertRepository.class);
+        cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        inboxService = new AlertInboxService(alertRepository, cacheManager);
+
+        when(alertRepository.findCachedByAssignedToUserId(5L)).thenReturn(List.of(
+                cached(alert(1L, EventType.HARD_BRAKING, START, StatusType.NEW, 5L)),
+                cached(alert(2L, EventType.ACCIDENT, START.plusHours(1), StatusType.IN_PROGRESS, 5L)),
+                cached(alert(3L, EventType.ACCIDENT, START, StatusType.NEW, 5L)),
+                cached(alert(4L, EventType.BUTTON, START, StatusType.RESOLVED, 5L))));
+        when(alertRepository.findCachedByAssignedToUserId(7L)).thenReturn(List.of());
+    }
+
+    /**
+     * Тестирует, что полный ответ содержит только открытые инциденты по приоритету и возрасту.
+     */
+    @Test
+    void inbox_WithoutVersion_ShouldReturnOpenAlertsByPriority() {
+        AlertInbox inbox = inboxService.inbox(5L, null);
+
+        assertThat(inbox.full()).isTrue();
+        assertThat(ids(inbox)).containsExactly(3L, 2L, 1L);
+        assertThat(inbox.removedIds()).isEmpty();
+    }
+
+    /**
+     * Тестирует, что повторный опрос без изменений не обращается к базе данных и ничего не возвращает.
+     */
+    @Test
+    void inbox_WithCurrentVersion_ShouldReturnNoChanges() {
+        AlertInbox first = inboxService.inbox(5L, null);
+
+        AlertInbox second = inboxService.inbox(5L, first.version());
+
+        assertThat(second.full()).isFalse();
+        assertThat(second.items()).isEmpty();
+        assertThat(second.removedIds()).isEmpty();
+        assertThat(second.version()).isEqualTo(first.version());
+        assertThat(inboxService.etag(5L)).contains(first.version());
+        verify(alertRepository, times(1)).findCachedByAssignedToUserId(5L);
+    }
+
+    /**
+     * Тестирует выдачу изменений после назначения, решения и удаления инцидентов.
+     */
+    @Test
+    void inbox_AfterEvents_ShouldReturnOnlyChanges() {
+        AlertInbox first = inboxService.inbox(5L, null);
+        inboxService.inbox(7L, null);
+
+        // Инцидент 2 переназначен пользователю 7
+        Alert reassigned = alert(2L, EventType.ACCIDENT, START.plusHours(1), StatusType.IN_PROGRESS, 7L);
+        inboxService.onAlertEvent(new AlertAssigned(
+                new AlertKeys(2L, StatusType.IN_PROGRESS, 101L, 5L), cached(reassigned)));
+        // Инцидент 1 решен
+        Alert resolved = alert(1L, EventType.HARD_BRAKING, START, StatusType.RESOLVED, 5L);
+        inboxService.onAlertEvent(new AlertStatusChanged(
+                new AlertKeys(1L, StatusType.NEW, 101L, 5L), cached(resolved)));
+        // Инцидент 4 открыт повторно
+        Alert reopened = alert(4L, EventType.BUTTON, START, StatusType.IN_PROGRESS, 5L);
+        inboxService.onAlertEvent(new AlertStatusChanged(
+                new AlertKeys(4L, StatusType.RESOLVED, 101L, 5L), cached(reopened)));
+
+        AlertInbox delta = inboxService.inbox(5L, first.version());
+        assertThat(delta.full()).isFalse();
+        assertThat(ids(delta)).containsExactly(4L);
+        assertThat(delta.removedIds()).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(ids(inboxService.inbox(5L, null))).containsExactly(3L, 4L);
+        assertThat(ids(inboxService.inbox(7L, null))).containsExactly(2L);
+
+        inboxService.onAlertEvent(new AlertDeleted(new AlertKeys(3L, StatusType.NEW, 101L, 5L)));
+        AlertInbox afterDelete = inboxService.inbox(5L, delta.version());
+        assertThat(afterDelete.items()).isEmpty();
+        assertThat(afterDelete.removedIds()).containsExactly(3L);
+        verify(alertRepository, times(1)).findCachedByAssignedToUserId(5L);
+    }
+
+    /**
+     * Тестирует полный ответ для версии другого запуска и для версии, вытесненной из журнала.
+     */
+    @Test
+    void inbox_WithUnknownOrEvictedVersion_ShouldReturnFullInbox() {
+        AlertInbox first = inboxService.inbox(5L, null);
+
+        assertThat(inboxService.inbox(5L, "other-1").full()).isTrue();
+        assertThat(inboxService.inbox(5L, "garbage").full()).isTrue();
+
+        for (int i = 0; i <= AlertInboxService.MAX_CHANGES; i++) {
+            StatusType status = i % 2 == 0 ? StatusType.IN_PROGRESS : StatusType.NEW;
+            inboxService.onAlertEvent(new AlertStatusChanged(new AlertKeys(1L, null, 101L, 5L),
+                    cached(alert(1L, EventType.HARD_BRAKING, START, status, 5L))));
+        }
+
+        AlertInbox stale = inboxService.inbox(5L, first.version());
+        assertThat(stale.full()).isTrue();
+        assertThat(ids(stale)).containsExactly(3L, 2L, 1L);
+    }
+
+    /**
+     * Тестирует, что события для незагруженных входящих не загружают их.
+     */
+    @Test
+    void onAlertEvent_WhenInboxNotLoaded_ShouldNotQueryDatabase() {
+        inboxService.onAlertEvent(new AlertAssigned(new AlertKeys(9L, StatusType.NEW, 101L, null),
+                cached(alert(9L, EventType.ACCIDENT, START, StatusType.NEW, 5L))));
+
+        verifyNoInteractions(alertRepository);
+    }
+
+    /**
+     * Тестирует, что вес входящих в кэше учитывает открытые инциденты и журнал изменений.
+     */
+    @Test
+    void weigh_ShouldCountOpenAlertsAndChanges() {
+        inboxService.inbox(5L, null);
+        assertThat(CacheConfig.weigh(5L, cachedInbox(5L))).isEqualTo(3);
+
+        for (int i = 0; i < 10; i++) {
+            StatusType status = i % 2 == 0 ? StatusType.IN_PROGRESS : StatusType.NEW;
+            inboxService.onAlertEvent(new AlertStatusChanged(new AlertKeys(1L, null, 101L, 5L),
+                    cached(alert(1L, EventType.HARD_BRAKING, START, status, 5L))));
+        }
+
+        assertThat(CacheConfig.weigh(5L, cachedInbox(5L))).isEqualTo(13);
+    }
+
+    private Object cachedInbox(Long userId) {
+        return cacheManager.getCache(AlertInboxService.ALERT_INBOX).get(userId).get();
+    }
+
+    private static List<Long> ids(AlertInbox inbox) {
+        return inbox.items().stream().map(AlertSummary::id).toList();
+    }
+
+    private static CachedAlert cached(Alert alert) {
+        return CachedAlert.from(alert);
+    }
+
+    private static Alert alert(Long id, EventType type, LocalDateTime timestamp, StatusType status, Long userId) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(101L);
+        alert.setType(type);
+        alert.setTimestamp(timestamp);
+        alert.setLocation("Москва");
+        alert.setStatus(status);
+        alert.setAssignedToUserId(userId);
+        return alert;
+    }
+}
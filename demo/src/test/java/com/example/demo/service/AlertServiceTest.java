@@ -1,6 +1,16 @@
 package com.example.demo.service;
 
+import com.example.demo.dto.AlertSearchCriteria;
+import com.example.demo.dto.AlertSummary;
+import com.example.demo.dto.AlertTextSearchPage;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.event.AlertAssigned;
+import com.example.demo.event.AlertCreated;
+import com.example.demo.event.AlertDeleted;
+import com.example.demo.event.AlertKeys;
+import com.example.demo.event.AlertStatusChanged;
 import com.example.demo.exception.AlertNotFoundException;
+import com.example.demo.exception.InvalidPageRequestException;
 import com.example.demo.model.Alert;
 import com.example.demo.model.EventType;
 import com.example.demo.model.StatusType;
@@ -13,6 +23,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -35,6 +48,12 @@ class AlertServiceTest {
     @Mock
     private AlertRepository alertRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private DataVersionTracker dataVersions;
+
     @InjectMocks
     private CachedAlertService alertService;
 
@@ -60,18 +79,20 @@ class AlertServiceTest {
 
     /**
      * Тестирует получение всех оповещений.
-     * Проверяет, что метод возвращает список всех оповещений.
+     * Проверяет, что метод возвращает неизменяемый список всех оповещений.
      */
     @Test
     void findAll_ShouldReturnAllAlerts() {
-        List<Alert> alerts = Arrays.asList(testAlert, testAlert);
-        when(alertRepository.findAll()).thenReturn(alerts);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert), CachedAlert.from(testAlert));
+        when(alertRepository.findAllCached()).thenReturn(alerts);
 
-        List<Alert> result = alertService.findAll();
+        List<CachedAlert> result = alertService.findAll();
 
         assertThat(result).hasSize(2);
-        assertThat(result.get(0).getBusId()).isEqualTo(101L);
-        verify(alertRepository, times(1)).findAll();
+        assertThat(result.get(0).busId()).isEqualTo(101L);
+        verify(alertRepository, times(1)).findAllCached();
+        assertThatThrownBy(() -> result.add(CachedAlert.from(testAlert)))
+                .isInstanceOf(UnsupportedOperationException.class);
     }
 
     /**
@@ -108,13 +129,13 @@ class AlertServiceTest {
      */
     @Test
     void findByStatus_ShouldReturnAlertsWithStatus() {
-        List<Alert> alerts = Arrays.asList(testAlert);
-        when(alertRepository.findByStatus(StatusType.NEW)).thenReturn(alerts);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert));
+        when(alertRepository.findCachedByStatus(StatusType.NEW)).thenReturn(alerts);
 
-        List<Alert> result = alertService.findByStatus(StatusType.NEW);
+        List<CachedAlert> result = alertService.findByStatus(StatusType.NEW);
 
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getStatus()).isEqualTo(StatusType.NEW);
+        assertThat(result.get(0).status()).isEqualTo(StatusType.NEW);
     }
 
     /**
@@ -143,6 +164,8 @@ class AlertServiceTest {
         assertThat(result.getStatus()).isEqualTo(StatusType.NEW);
         assertThat(result.getTimestamp()).isNotNull();
         verify(alertRepository, times(1)).save(any(Alert.class));
+        verify(eventPublisher).publishEvent(new AlertCreated(CachedAlert.from(result)));
+        verify(dataVersions).changed(DataVersionTracker.DataSet.ALERTS);
     }
 
     /**
@@ -153,7 +176,9 @@ class AlertServiceTest {
     void updateStatus_WhenAlertExists_ShouldUpdateStatus() {
         Alert existingAlert = new Alert();
         existingAlert.setId(1L);
+        existingAlert.setBusId(101L);
         existingAlert.setStatus(StatusType.NEW);
+        AlertKeys before = AlertKeys.of(existingAlert);
 
         when(alertRepository.findById(1L)).thenReturn(Optional.of(existingAlert));
         when(alertRepository.save(any(Alert.class))).thenReturn(existingAlert);
@@ -163,6 +188,7 @@ class AlertServiceTest {
         assertThat(result.getStatus()).isEqualTo(StatusType.IN_PROGRESS);
         verify(alertRepository, times(1)).findById(1L);
         verify(alertRepository, times(1)).save(existingAlert);
+        verify(eventPublisher).publishEvent(new AlertStatusChanged(before, CachedAlert.from(existingAlert)));
     }
 
     /**
@@ -188,7 +214,9 @@ class AlertServiceTest {
     void assignToUser_ShouldAssignUserAndChangeStatus() {
         Alert alert = new Alert();
         alert.setId(1L);
+        alert.setBusId(101L);
         alert.setStatus(StatusType.NEW);
+        AlertKeys before = AlertKeys.of(alert);
 
         when(alertRepository.findById(1L)).thenReturn(Optional.of(alert));
         when(alertRepository.save(any(Alert.class))).thenReturn(alert);
@@ -198,6 +226,7 @@ class AlertServiceTest {
         assertThat(result.getAssignedToUserId()).isEqualTo(5L);
         assertThat(result.getStatus()).isEqualTo(StatusType.IN_PROGRESS);
         verify(alertRepository, times(1)).save(alert);
+        verify(eventPublisher).publishEvent(new AlertAssigned(before, CachedAlert.from(alert)));
     }
 
     /**
@@ -206,13 +235,14 @@ class AlertServiceTest {
      */
     @Test
     void deleteById_WhenAlertExists_ShouldDelete() {
-        when(alertRepository.existsById(1L)).thenReturn(true);
+        when(alertRepository.findById(1L)).thenReturn(Optional.of(testAlert));
         doNothing().when(alertRepository).deleteById(1L);
 
         alertService.deleteById(1L);
 
         verify(alertRepository, times(1)).deleteById(1L);
-        verify(alertRepository, times(1)).existsById(1L);
+        verify(alertRepository, times(1)).findById(1L);
+        verify(eventPublisher).publishEvent(new AlertDeleted(AlertKeys.of(testAlert)));
     }
 
     /**
@@ -221,12 +251,13 @@ class AlertServiceTest {
      */
     @Test
     void deleteById_WhenAlertNotExists_ShouldThrowException() {
-        when(alertRepository.existsById(999L)).thenReturn(false);
+        when(alertRepository.findById(999L)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> alertService.deleteById(999L))
                 .isInstanceOf(AlertNotFoundException.class);
 
         verify(alertRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(eventPublisher);
     }
 
     /**
@@ -235,13 +266,13 @@ class AlertServiceTest {
      */
     @Test
     void findByBusId_ShouldReturnAlertsForBus() {
-        List<Alert> alerts = Arrays.asList(testAlert);
-        when(alertRepository.findByBusId(101L)).thenReturn(alerts);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert));
+        when(alertRepository.findCachedByBusId(101L)).thenReturn(alerts);
 
-        List<Alert> result = alertService.findByBusId(101L);
+        List<CachedAlert> result = alertService.findByBusId(101L);
 
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getBusId()).isEqualTo(101L);
+        assertThat(result.get(0).busId()).isEqualTo(101L);
     }
 
     /**
@@ -251,12 +282,78 @@ class AlertServiceTest {
     @Test
     void findByAssignedToUserId_ShouldReturnAlertsForUser() {
         testAlert.setAssignedToUserId(5L);
-        List<Alert> alerts = Arrays.asList(testAlert);
-        when(alertRepository.findByAssignedToUserId(5L)).thenReturn(alerts);
+        List<CachedAlert> alerts = Arrays.asList(CachedAlert.from(testAlert));
+        when(alertRepository.findCachedByAssignedToUserId(5L)).thenReturn(alerts);
 
-        List<Alert> result = alertService.findByAssignedToUserId(5L);
+        List<CachedAlert> result = alertService.findByAssignedToUserId(5L);
 
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getAssignedToUserId()).isEqualTo(5L);
+        assertThat(result.get(0).assignedToUserId()).isEqualTo(5L);
+    }
+
+    /**
+     * Тестирует поиск с пустым временным диапазоном.
+     * Проверяет, что метод выбрасывает исключение и не обращается к базе данных.
+     */
+    @Test
+    void search_WhenRangeIsEmpty_ShouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+        AlertSearchCriteria criteria = new AlertSearchCriteria(null, null, null, null, now, now.minusDays(1), null, null);
+
+        assertThatThrownBy(() -> alertService.search(criteria, null, null, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+
+        verifyNoInteractions(alertRepository);
+    }
+
+    /**
+     * Тестирует полнотекстовый поиск по описанию.
+     * Проверяет, что запрос передается в репозиторий без лишних пробелов и с заданной страницей,
+     * а найденные инциденты возвращаются в облегченном представлении с фрагментами в порядке релевантности.
+     */
+    @Test
+    void searchText_ShouldQueryRepositoryWithPage() {
+        when(alertRepository.searchByDescription("столкновение", PageRequest.of(1, 10)))
+                .thenReturn(new SliceImpl<>(List.of(textMatch(2L, "<b>Столкновение</b> у депо"),
+                        textMatch(1L, "<b>Столкновение</b>"), textMatch(3L, "Удален")), PageRequest.of(1, 10), true));
+        Alert other = new Alert();
+        other.setId(2L);
+        other.setBusId(102L);
+        when(alertRepository.findCachedByIdIn(List.of(2L, 1L, 3L)))
+                .thenReturn(List.of(CachedAlert.from(testAlert), CachedAlert.from(other)));
+
+        AlertTextSearchPage result = alertService.searchText("  столкновение ", 1, 10);
+
+        assertThat(result.items()).extracting(AlertSummary::id).containsExactly(2L, 1L);
+        assertThat(result.headlines()).containsEntry(2L, "<b>Столкновение</b> у депо")
+                .containsEntry(1L, "<b>Столкновение</b>").doesNotContainKey(3L);
+        assertThat(result.page()).isEqualTo(1);
+        assertThat(result.hasNext()).isTrue();
+    }
+
+    private static AlertRepository.TextMatch textMatch(Long id, String headline) {
+        return new AlertRepository.TextMatch() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getHeadline() {
+                return headline;
+            }
+        };
+    }
+
+    /**
+     * Тестирует полнотекстовый поиск с пустым запросом.
+     * Проверяет, что метод выбрасывает исключение и не обращается к базе данных.
+     */
+    @Test
+    void searchText_WhenQueryIsBlank_ShouldThrowException() {
+        assertThatThrownBy(() -> alertService.searchText("  ", null, null))
+                .isInstanceOf(InvalidPageRequestException.class);
+
+        verifyNoInteractions(alertRepository);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,129 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов межузловой инвалидации кэшей на локальном PostgreSQL.
+ * Поднимает два контекста приложения с отдельными кэшами и общей базой данных
+ * и проверяет, что изменение на одном узле очищает кэши другого.
+ * Запускается, если задана переменная окружения CACHE_INVALIDATION_TEST_DB_URL
+ * (например, jdbc:postgresql://localhost:5432/emergencydb), а также
+ * CACHE_INVALIDATION_TEST_DB_USER и CACHE_INVALIDATION_TEST_DB_PASSWORD.
+ */
+@EnabledIfEnvironmentVariable(named = "CACHE_INVALIDATION_TEST_DB_URL", matches = "jdbc:postgresql:.+")
+class CacheInvalidationBusPostgresTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private AnnotationConfigApplicationContext nodeA;
+    private AnnotationConfigApplicationContext nodeB;
+
+    /**
+     * Запускает два узла и дожидается подключения их слушателей.
+     */
+    @BeforeEach
+    void setUp() {
+        nodeA = startNode();
+        nodeB = startNode();
+        await(() -> bus(nodeA).getFullFlushCount() > 0 && bus(nodeB).getFullFlushCount() > 0);
+    }
+
+    /**
+     * Останавливает узлы после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    /**
+     * Тестирует, что изменение на одном узле очищает кэши и меняет версию данных на другом.
+     */
+    @Test
+    void changeOnOneNode_ShouldClearCachesOnOtherNode() {
+        CacheManager cachesB = nodeB.getBean(CacheManager.class);
+        DataVersionTracker versionsB = nodeB.getBean(DataVersionTracker.class);
+        cachesB.getCache("alertsByStatus").put("NEW", List.of());
+        cachesB.getCache("buses").put(SimpleKey.EMPTY, List.of());
+        long versionBefore = versionsB.version(DataVersionTracker.DataSet.ALERTS);
+
+        nodeA.getBean(DataVersionTracker.class).changed(DataVersionTracker.DataSet.ALERTS);
+
+        await(() -> cachesB.getCache("alertsByStatus").get("NEW") == null);
+        assertThat(versionsB.version(DataVersionTracker.DataSet.ALERTS)).isGreaterThan(versionBefore);
+        assertThat(cachesB.getCache("buses").get(SimpleKey.EMPTY)).isNotNull();
+    }
+
+    /**
+     * Тестирует полную очистку кэшей другого узла, если сообщение потеряно.
+     */
+    @Test
+    void missedMessage_ShouldFlushAllCachesOnOtherNode() {
+        CacheInvalidationBus busA = bus(nodeA);
+        CacheInvalidationBus busB = bus(nodeB);
+        nodeA.getBean(DataVersionTracker.class).changed(DataVersionTracker.DataSet.BUSES);
+        await(() -> busB.getFullFlushCount() == 1 && nodeB.getBean(DataVersionTracker.class)
+                .version(DataVersionTracker.DataSet.BUSES) >= 2);
+        nodeB.getBean(CacheManager.class).getCache("buses").put(SimpleKey.EMPTY, List.of());
+
+        // Сообщение с номером 2 "потеряно": сразу отправляется номер 3
+        new JdbcTemplate(nodeA.getBean(DataSource.class)).queryForObject(
+                "SELECT pg_notify(?, ?)", String.class, "cache_invalidation", busA.getNodeId() + "|3|ALERTS");
+
+        await(() -> busB.getFullFlushCount() == 2);
+        assertThat(nodeB.getBean(CacheManager.class).getCache("buses").get(SimpleKey.EMPTY)).isNull();
+    }
+
+    private static AnnotationConfigApplicationContext startNode() {
+        CacheSpecProperties properties = new CacheSpecProperties();
+        properties.getInvalidation().setPollTimeout(Duration.ofMillis(100));
+
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> new DriverManagerDataSource(
+                System.getenv("CACHE_INVALIDATION_TEST_DB_URL"),
+                System.getenv("CACHE_INVALIDATION_TEST_DB_USER"),
+                System.getenv("CACHE_INVALIDATION_TEST_DB_PASSWORD")));
+        context.registerBean(CacheSpecProperties.class, () -> properties);
+        context.registerBean(CacheManager.class,
+                () -> CacheConfig.buildCacheManager(properties, List.of(), Runnable::run));
+        context.registerBean(DataVersionTracker.class);
+        context.registerBean(CacheInvalidationBus.class);
+        context.refresh();
+        return context;
+    }
+
+    private static CacheInvalidationBus bus(AnnotationConfigApplicationContext context) {
+        return context.getBean(CacheInvalidationBus.class);
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("условие не выполнилось за %s", TIMEOUT).isLessThan(deadline);
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
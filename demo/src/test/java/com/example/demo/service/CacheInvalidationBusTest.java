@@ -0,0 +1,123 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+/**
+ * Класс тестов для проверки применения сообщений межузловой инвалидации кэшей.
+ * Проверяет очистку кэшей измененного набора данных, пропуск собственных сообщений и повторов
+ * и полную очистку кэшей при пропуске номера сообщения или ошибке его применения.
+ */
+class CacheInvalidationBusTest {
+
+    private CacheManager cacheManager;
+    private DataVersionTracker dataVersions;
+    private CacheInvalidationBus bus;
+
+    /**
+     * Подготавливает заполненные кэши перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        dataVersions = new DataVersionTracker();
+        bus = new CacheInvalidationBus(cacheManager, dataVersions, null, new CacheSpecProperties());
+
+        cacheManager.getCache("alerts").put(SimpleKey.EMPTY, List.of());
+        cacheManager.getCache("alertsByStatus").put("NEW", List.of());
+        cacheManager.getCache("buses").put(SimpleKey.EMPTY, List.of());
+    }
+
+    /**
+     * Тестирует, что сообщение другого узла очищает только кэши измененного набора данных.
+     */
+    @Test
+    void receive_WhenMessageFromAnotherNode_ShouldClearCachesOfDataSet() {
+        bus.receive("node-b|1|ALERTS");
+
+        assertThat(cacheManager.getCache("alerts").get(SimpleKey.EMPTY)).isNull();
+        assertThat(cacheManager.getCache("alertsByStatus").get("NEW")).isNull();
+        assertThat(cacheManager.getCache("buses").get(SimpleKey.EMPTY)).isNotNull();
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(1);
+        assertThat(bus.getFullFlushCount()).isZero();
+    }
+
+    /**
+     * Тестирует, что собственные сообщения узла не очищают его кэши.
+     */
+    @Test
+    void receive_WhenOwnMessage_ShouldIgnoreIt() {
+        bus.receive(bus.getNodeId() + "|1|ALERTS");
+
+        assertThat(cacheManager.getCache("alerts").get(SimpleKey.EMPTY)).isNotNull();
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.ALERTS)).isZero();
+    }
+
+    /**
+     * Тестирует полную очистку кэшей при пропуске номера сообщения.
+     */
+    @Test
+    void receive_WhenSequenceHasGap_ShouldFlushAllCaches() {
+        bus.receive("node-b|1|BUSES");
+        cacheManager.getCache("buses").put(SimpleKey.EMPTY, List.of());
+
+        bus.receive("node-b|3|BUSES");
+
+        assertThat(bus.getFullFlushCount()).isEqualTo(1);
+        assertThat(cacheManager.getCache("alerts").get(SimpleKey.EMPTY)).isNull();
+        assertThat(cacheManager.getCache("buses").get(SimpleKey.EMPTY)).isNull();
+    }
+
+    /**
+     * Тестирует, что повтор уже примененного сообщения пропускается.
+     */
+    @Test
+    void receive_WhenMessageRepeated_ShouldIgnoreIt() {
+        bus.receive("node-b|1|BUSES");
+        cacheManager.getCache("buses").put(SimpleKey.EMPTY, List.of());
+
+        bus.receive("node-b|1|BUSES");
+
+        assertThat(cacheManager.getCache("buses").get(SimpleKey.EMPTY)).isNotNull();
+        assertThat(bus.getFullFlushCount()).isZero();
+    }
+
+    /**
+     * Тестирует, что ошибка обработчика изменения не прерывает слушателя, а приводит к полной очистке кэшей.
+     */
+    @Test
+    void apply_WhenListenerFails_ShouldFlushAllCachesAndKeepListening() {
+        dataVersions.setApplicationEventPublisher(event -> {
+            throw new IllegalStateException("Ошибка обработчика");
+        });
+
+        assertThatCode(() -> bus.apply("node-b|1|ALERTS")).doesNotThrowAnyException();
+
+        assertThat(bus.getFullFlushCount()).isEqualTo(1);
+        assertThat(cacheManager.getCache("buses").get(SimpleKey.EMPTY)).isNull();
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.BUSES)).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует, что номера сообщений разных узлов отслеживаются независимо.
+     */
+    @Test
+    void receive_WhenMessagesFromSeveralNodes_ShouldTrackSequencesSeparately() {
+        bus.receive("node-b|1|ALERTS");
+        bus.receive("node-c|1|ALERTS");
+        bus.receive("node-b|2|BUSES");
+
+        assertThat(bus.getFullFlushCount()).isZero();
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(2);
+        assertThat(dataVersions.version(DataVersionTracker.DataSet.BUSES)).isEqualTo(1);
+    }
+}
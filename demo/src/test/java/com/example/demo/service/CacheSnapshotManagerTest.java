@@ -0,0 +1,189 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.dto.BusDto;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.model.Alert;
+import com.example.demo.model.Bus;
+import com.example.demo.model.DataSetVersion;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import com.example.demo.repository.DataSetVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс тестов для проверки снимка кэшей на диске.
+ * Проверяет запись снимка, прогрев кэшей из него и отказ от устаревшего или поврежденного снимка.
+ */
+class CacheSnapshotManagerTest {
+
+    @TempDir
+    Path directory;
+
+    private CacheManager cacheManager;
+    private AlertRepository alertRepository;
+    private BusRepository busRepository;
+    private DataSetVersionRepository versionRepository;
+    private JdbcTemplate jdbcTemplate;
+    private CacheSnapshotManager snapshotManager;
+    private Path file;
+
+    /**
+     * Подготавливает данные репозиториев и менеджер снимков перед каждым тестом.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        cacheManager = CacheConfig.buildCacheManager(new CacheSpecProperties(), List.of(), Runnable::run);
+        alertRepository = mock(AlertRepository.class);
+        busRepository = mock(BusRepository.class);
+        versionRepository = mock(DataSetVersionRepository.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        snapshotManager = new CacheSnapshotManager(cacheManager, alertRepository, busRepository, versionRepository,
+                jdbcTemplate, new DataVersionTracker(), mock(ObjectProvider.class), mock(PlatformTransactionManager.class), new CacheSpecProperties());
+        file = directory.resolve("cache-snapshot.bin");
+
+        when(alertRepository.findAllCached()).thenReturn(List.of(
+                CachedAlert.from(alert(1L, 101L, StatusType.NEW, null)),
+                CachedAlert.from(alert(2L, 102L, StatusType.IN_PROGRESS, 5L)),
+                CachedAlert.from(alert(3L, 101L, StatusType.IN_PROGRESS, 5L))));
+        when(busRepository.findAll()).thenReturn(List.of(new Bus(101L, "Volvo"), new Bus(102L, "Scania")));
+        versions(3, 7);
+    }
+
+    /**
+     * Тестирует прогрев всех кэшей из снимка, когда версии данных не изменились.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void restore_WhenVersionsMatch_ShouldWarmAllCaches() throws Exception {
+        assertThat(snapshotManager.write(file)).isTrue();
+
+        assertThat(snapshotManager.restore(file)).isEqualTo(2);
+
+        assertThat(ids("alerts", SimpleKey.EMPTY)).containsExactly(1L, 2L, 3L);
+        assertThat(ids("alertsByStatus", "IN_PROGRESS")).containsExactly(2L, 3L);
+        assertThat(ids("alertsByStatus", "RESOLVED")).isEmpty();
+        assertThat(ids("alertsByBus", 101L)).containsExactly(1L, 3L);
+        assertThat(ids("alertsByUser", 5L)).containsExactly(2L, 3L);
+        assertThat(list("alerts", SimpleKey.EMPTY).get(1)).isEqualTo(alertRepository.findAllCached().get(1));
+        assertThat(cache("buses").get(SimpleKey.EMPTY).get())
+                .isEqualTo(List.of(new BusDto(101L, "Volvo"), new BusDto(102L, "Scania")));
+        assertThat(cache("bus").get(102L).get()).isEqualTo(new BusDto(102L, "Scania"));
+    }
+
+    /**
+     * Тестирует, что при неизменных версиях снимок не перечитывается из базы данных.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void write_WhenVersionsUnchanged_ShouldSkipRead() throws Exception {
+        snapshotManager.write(file);
+
+        assertThat(snapshotManager.write(file)).isFalse();
+        verify(alertRepository, times(1)).findAllCached();
+
+        versions(4, 7);
+        assertThat(snapshotManager.write(file)).isTrue();
+        verify(alertRepository, times(2)).findAllCached();
+    }
+
+    /**
+     * Тестирует, что устаревший набор данных не загружается, а актуальный загружается.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void restore_WhenAlertsChangedSinceSnapshot_ShouldWarmOnlyBuses() throws Exception {
+        snapshotManager.write(file);
+        versions(4, 7);
+
+        assertThat(snapshotManager.restore(file)).isEqualTo(1);
+
+        assertThat(cache("alerts").get(SimpleKey.EMPTY)).isNull();
+        assertThat(cache("alertsByStatus").get("NEW")).isNull();
+        assertThat(cache("buses").get(SimpleKey.EMPTY)).isNotNull();
+    }
+
+    /**
+     * Тестирует, что поврежденный снимок отклоняется по контрольной сумме.
+     *
+     * @throws Exception Если возникла ошибка при выполнении теста
+     */
+    @Test
+    void restore_WhenFileCorrupted_ShouldNotWarmCaches() throws Exception {
+        snapshotManager.write(file);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(file, bytes);
+
+        assertThat(snapshotManager.restore(file)).isZero();
+
+        assertThat(cache("alerts").get(SimpleKey.EMPTY)).isNull();
+        assertThat(cache("buses").get(SimpleKey.EMPTY)).isNull();
+    }
+
+    /**
+     * Тестирует, что отсутствие файла снимка не мешает старту.
+     */
+    @Test
+    void restore_WhenFileMissing_ShouldReturnZero() {
+        assertThat(snapshotManager.restore(file)).isZero();
+    }
+
+    private void versions(long alerts, long buses) {
+        when(versionRepository.findAll()).thenReturn(List.of(
+                new DataSetVersion("ALERTS", "alerts-token"), new DataSetVersion("BUSES", "buses-token")));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class),
+                eq(CacheSnapshotManager.versionSequence(DataVersionTracker.DataSet.ALERTS)))).thenReturn(alerts);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class),
+                eq(CacheSnapshotManager.versionSequence(DataVersionTracker.DataSet.BUSES)))).thenReturn(buses);
+    }
+
+    private Cache cache(String name) {
+        return cacheManager.getCache(name);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<CachedAlert> list(String cacheName, Object key) {
+        return (List<CachedAlert>) cache(cacheName).get(key).get();
+    }
+
+    private List<Long> ids(String cacheName, Object key) {
+        return list(cacheName, key).stream().map(CachedAlert::id).toList();
+    }
+
+    private static Alert alert(Long id, Long busId, StatusType status, Long userId) {
+        Alert alert = new Alert();
+        alert.setId(id);
+        alert.setBusId(busId);
+        alert.setType(EventType.ACCIDENT);
+        alert.setTimestamp(LocalDateTime.of(2026, 5, 1, 12, 30, 15, 123_456_000));
+        alert.setLocation(id == 2L ? null : "Москва, Тверская улица");
+        alert.setDescription("Описание");
+        alert.setStatus(status);
+        alert.setAssignedToUserId(userId);
+        return alert;
+    }
+}
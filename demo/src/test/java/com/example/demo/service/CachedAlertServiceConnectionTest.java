@@ -0,0 +1,135 @@
+package com.example.demo.service;
+
+import com.example.demo.config.CacheConfig;
+import com.example.demo.config.CacheSpecProperties;
+import com.example.demo.config.TransactionConfig;
+import com.example.demo.dto.CachedAlert;
+import com.example.demo.model.Alert;
+import com.example.demo.model.EventType;
+import com.example.demo.model.StatusType;
+import com.example.demo.repository.AlertRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Класс тестов для проверки порядка перехватчиков кэша и транзакций.
+ * Проверяет, что ответ из кэша возвращается без открытия транзакции
+ * и без получения соединения из пула.
+ */
+@SpringJUnitConfig(CachedAlertServiceConnectionTest.Config.class)
+class CachedAlertServiceConnectionTest {
+
+    @Autowired
+    private CachedAlertService alertService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    /**
+     * Минимальный контекст: конфигурации кэша и транзакций приложения,
+     * сервис оповещений и источник данных, считающий выдачу соединений.
+     */
+    @Configuration
+    @EnableAspectJAutoProxy(proxyTargetClass = true) // Как в Spring Boot: прокси на основе классов
+    @Import({CacheConfig.class, CacheSpecProperties.class, TransactionConfig.class,
+            CachedAlertService.class, AlertCacheMaintainer.class, DataVersionTracker.class})
+    static class Config {
+
+        @Bean
+        DataSource dataSource() throws SQLException {
+            DataSource dataSource = mock(DataSource.class);
+            when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+            return dataSource;
+        }
+
+        @Bean
+        PlatformTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        AlertRepository alertRepository() {
+            return mock(AlertRepository.class);
+        }
+    }
+
+    /**
+     * Очищает кэши и счетчики перед каждым тестом.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        clearInvocations(dataSource, alertRepository);
+
+        Alert alert = new Alert();
+        alert.setId(1L);
+        alert.setBusId(101L);
+        alert.setType(EventType.ACCIDENT);
+        alert.setTimestamp(LocalDateTime.now());
+        alert.setLocation("Москва");
+        alert.setDescription("Описание");
+        alert.setStatus(StatusType.NEW);
+
+        when(alertRepository.findAllCached()).thenReturn(List.of(CachedAlert.from(alert)));
+        when(alertRepository.findCachedByStatus(StatusType.NEW)).thenReturn(List.of(CachedAlert.from(alert)));
+    }
+
+    /**
+     * Тестирует, что повторный вызов findAll отвечает из кэша без получения соединения.
+     *
+     * @throws SQLException не возникает при работе с mock-объектами
+     */
+    @Test
+    void findAll_OnCacheHit_ShouldNotAcquireConnection() throws SQLException {
+        alertService.findAll();
+        verify(dataSource, times(1)).getConnection();
+
+        List<CachedAlert> cached = alertService.findAll();
+
+        assertThat(cached).hasSize(1);
+        verify(dataSource, times(1)).getConnection();
+        verify(alertRepository, times(1)).findAllCached();
+    }
+
+    /**
+     * Тестирует, что повторный вызов findByStatus отвечает из кэша без получения соединения.
+     *
+     * @throws SQLException не возникает при работе с mock-объектами
+     */
+    @Test
+    void findByStatus_OnCacheHit_ShouldNotAcquireConnection() throws SQLException {
+        alertService.findByStatus(StatusType.NEW);
+        clearInvocations(dataSource);
+
+        for (int i = 0; i < 10; i++) {
+            alertService.findByStatus(StatusType.NEW);
+        }
+
+        verify(dataSource, never()).getConnection();
+        verify(alertRepository, times(1)).findCachedByStatus(StatusType.NEW);
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CsvImportCheckpoint;
+import com.example.demo.dto.CsvImportJobStatus;
+import com.example.demo.dto.CsvImportResult;
+import com.example.demo.dto.IdRange;
+import com.example.demo.model.Bus;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов фоновых заданий импорта из CSV.
+ * Проверяет выполнение задания с опросом состояния, продолжение прерванного задания
+ * с контрольной точки и отмену задания.
+ */
+@SpringBootTest(properties = {
+        "alerts.import.chunk-size=100",
+        "alerts.import.parse-block-size=64",
+        "alerts.import.jobs.workers=1"
+})
+class CsvImportJobServiceTest {
+
+    @TempDir
+    static Path jobsDir;
+
+    @DynamicPropertySource
+    static void jobsDirectory(DynamicPropertyRegistry registry) {
+        registry.add("alerts.import.jobs.dir", () -> jobsDir.toString());
+    }
+
+    @Autowired
+    private CsvImportJobService jobService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private Bus bus;
+    private final List<Long> alertIds = new ArrayList<>();
+
+    /**
+     * Создает автобус для теста.
+     */
+    @BeforeEach
+    void setUp() {
+        Bus newBus = new Bus();
+        newBus.setModel("Тестовый автобус");
+        bus = busRepository.save(newBus);
+    }
+
+    /**
+     * Удаляет созданные данные.
+     */
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAllById(alertIds);
+        alertRepository.deleteAll(alertRepository.findByBusId(bus.getId()));
+        busRepository.deleteById(bus.getId());
+        alertIds.clear();
+    }
+
+    /**
+     * Тестирует, что задание выполняется в фоне, а его состояние и результат доступны по ID.
+     */
+    @Test
+    void submit_ShouldRunJobAndReportResult() throws InterruptedException {
+        CsvImportJobStatus submitted = jobService.submit(csvFile(500), CsvImportService.ImportMode.BATCH);
+
+        CsvImportJobStatus finished = awaitFinished(submitted.id());
+        CsvImportResult result = jobService.result(submitted.id()).orElseThrow();
+        collectIds(result);
+
+        assertThat(finished.state()).isEqualTo(CsvImportJobStatus.State.COMPLETED);
+        assertThat(finished.rowsRead()).isEqualTo(500);
+        assertThat(finished.rowsPersisted()).isEqualTo(490);
+        assertThat(finished.rowsFailed()).isEqualTo(10);
+        assertThat(result.getSuccessCount()).isEqualTo(490);
+        assertThat(Files.exists(jobsDir.resolve(submitted.id() + ".csv"))).isFalse();
+    }
+
+    /**
+     * Тестирует продолжение задания, прерванного остановкой: записи до контрольной точки пропускаются,
+     * а результат дополняет результат из контрольной точки.
+     */
+    @Test
+    void resumeInterrupted_ShouldContinueFromCheckpoint() throws Exception {
+        String id = "resumed-job";
+        Files.write(jobsDir.resolve(id + ".csv"), csvFile(300).getBytes());
+        CsvImportResult saved = new CsvImportResult(98, 0, 0, List.of("Строка 2: Некорректный тип инцидента"), 2,
+                List.of(new IdRange(1_000_000, 1_000_097)), false);
+        CsvImportJobService.JobFile jobFile = new CsvImportJobService.JobFile(id, "alerts.csv",
+                CsvImportService.ImportMode.BATCH, CsvImportJobStatus.State.RUNNING, Instant.now(), null, null,
+                new CsvImportCheckpoint(100, saved), null);
+        objectMapper.writeValue(jobsDir.resolve(id + ".job.json").toFile(), jobFile);
+
+        jobService.resumeInterrupted();
+        CsvImportJobStatus finished = awaitFinished(id);
+        CsvImportResult result = jobService.result(id).orElseThrow();
+        collectIds(result);
+
+        assertThat(finished.state()).isEqualTo(CsvImportJobStatus.State.COMPLETED);
+        assertThat(finished.resumedFromRow()).isEqualTo(100);
+        assertThat(result.getSuccessCount()).isEqualTo(98 + 196);
+        assertThat(result.getErrorCount()).isEqualTo(6);
+        assertThat(result.getCreatedIdRanges()).first().isEqualTo(new IdRange(1_000_000, 1_000_097));
+        assertThat(alertRepository.findByBusId(bus.getId())).hasSize(196);
+    }
+
+    /**
+     * Тестирует отмену: отмененное задание завершается, в базе данных остаются только порции,
+     * зафиксированные до отмены, и результат совпадает с ними, а отмена неизвестного задания ничего не находит.
+     */
+    @Test
+    void cancel_ShouldStopJob() throws InterruptedException {
+        CsvImportJobStatus submitted = jobService.submit(csvFile(20_000), CsvImportService.ImportMode.BATCH);
+
+        assertThat(jobService.cancel(submitted.id())).isPresent();
+        CsvImportJobStatus finished = awaitFinished(submitted.id());
+        int saved = jobService.result(submitted.id()).map(result -> { // Нет результата, если снято из очереди
+            collectIds(result);
+            return result.getSuccessCount();
+        }).orElse(0);
+
+        assertThat(finished.state()).isEqualTo(CsvImportJobStatus.State.CANCELLED);
+        assertThat(finished.rowsRead()).isLessThan(20_000);
+        assertThat(alertRepository.findByBusId(bus.getId())).hasSize(saved);
+        assertThat(jobService.cancel("unknown")).isEmpty();
+    }
+
+    private CsvImportJobStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 30_000;
+        while (System.currentTimeMillis() < deadline) {
+            CsvImportJobStatus status = jobService.status(id).orElseThrow();
+            if (status.state().isFinished()) {
+                return status;
+            }
+            Thread.sleep(20);
+        }
+        throw new AssertionError("Задание импорта " + id + " не завершилось");
+    }
+
+    private void collectIds(CsvImportResult result) {
+        result.getCreatedIdRanges().stream()
+                .filter(range -> range.from() < 1_000_000)
+                .forEach(range -> LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+    }
+
+    /**
+     * Создает CSV-файл, в котором каждая 50-я строка содержит некорректный тип инцидента.
+     */
+    private MockMultipartFile csvFile(int rows) {
+        StringBuilder csv = new StringBuilder("bus_id,type,location,description,status\n");
+        for (int i = 0; i < rows; i++) {
+            String type = i % 50 == 0 ? "UNKNOWN" : "ACCIDENT";
+            csv.append(bus.getId()).append(',').append(type).append(",Москва,Импорт ").append(i).append(",NEW\n");
+        }
+        return new MockMultipartFile("file", "alerts.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
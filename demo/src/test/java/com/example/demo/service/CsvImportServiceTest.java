@@ -0,0 +1,345 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.CsvImportResult;
+import com.example.demo.dto.IdRange;
+import com.example.demo.model.Bus;
+import com.example.demo.repository.AlertRepository;
+import com.example.demo.repository.BusRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Класс тестов для проверки потокового импорта оповещений из CSV.
+ * Проверяет сохранение несколькими порциями, ограничение выборки ошибок,
+ * возврат ID созданных оповещений диапазонами, независимость результата от числа потоков разбора
+ * и от способа разбора файла, пропуск строк, импортированных ранее, сохранение повторов строк без времени и отмену импорта.
+ */
+@SpringBootTest(properties = {
+        "alerts.import.chunk-size=100",
+        "alerts.import.parse-block-size=64",
+        "alerts.import.max-errors=5"
+})
+class CsvImportServiceTest {
+    private static final Logger log = LoggerFactory.getLogger(CsvImportServiceTest.class);
+
+    private static final LocalDateTime FILE_START = LocalDateTime.of(2024, 1, 31, 8, 0);
+
+    @Autowired
+    private CsvImportService csvImportService;
+
+    @Autowired
+    private AlertRepository alertRepository;
+
+    @Autowired
+    private BusRepository busRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    private Bus bus;
+    private final List<Long> alertIds = new ArrayList<>();
+
+    /**
+     * Создает автобус для теста.
+     */
+    @BeforeEach
+    void setUp() {
+        Bus newBus = new Bus();
+        newBus.setModel("Тестовый автобус");
+        bus = busRepository.save(newBus);
+    }
+
+    /**
+     * Удаляет созданные данные и очищает кэши.
+     */
+    @AfterEach
+    void tearDown() {
+        alertRepository.deleteAllById(alertIds);
+        busRepository.deleteById(bus.getId());
+        alertIds.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    /**
+     * Тестирует импорт файла из нескольких порций с некорректными строками:
+     * возвращается не больше max-errors ошибок с их общим числом, а диапазоны ID
+     * покрывают все сохраненные оповещения.
+     */
+    @Test
+    void importAlertsFromCsv_ShouldStreamRowsAndReturnBoundedResult() {
+        MockMultipartFile file = csvFile(1000);
+
+        CsvImportResult result = csvImportService.importAlertsFromCsv(file);
+        result.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+        assertThat(result.getSuccessCount()).isEqualTo(980);
+        assertThat(result.getFailedCount()).isZero();
+        assertThat(result.getErrorCount()).isEqualTo(20);
+        assertThat(result.getErrors()).hasSize(5)
+                .allSatisfy(error -> assertThat(error).contains("Некорректный тип инцидента"));
+        assertThat(result.isCreatedIdRangesTruncated()).isFalse();
+        assertThat(result.getCreatedIdRanges().stream().mapToLong(IdRange::count).sum()).isEqualTo(980);
+        assertThat(result.getCreatedIdRanges().size()).isLessThan(100);
+        assertThat(alertRepository.findAllById(alertIds)).hasSize(980);
+    }
+
+    /**
+     * Тестирует, что строки, сохраненные до ошибки разбора файла, учитываются в результате.
+     */
+    @Test
+    void importAlertsFromCsv_WhenFileIsMalformed_ShouldKeepSavedRows() {
+        String csv = "bus_id,type,location,description\n"
+                + bus.getId() + ",BUTTON,Москва,Первая\n"
+                + bus.getId() + ",BUTTON,\"Москва\"x,Вторая\n";
+        MockMultipartFile file = new MockMultipartFile("file", "alerts.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        CsvImportResult result = csvImportService.importAlertsFromCsv(file);
+        result.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+        assertThat(result.getSuccessCount()).isEqualTo(1);
+        assertThat(result.hasError()).isTrue();
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error).startsWith("Не удалось прочитать файл"));
+    }
+
+    /**
+     * Тестирует, что ошибка заголовка (пустое имя столбца) возвращается в результате, а импорт не зависает.
+     */
+    @Test
+    @Timeout(10)
+    void importAlertsFromCsv_WhenHeaderIsInvalid_ShouldReturnReadError() {
+        String csv = "bus_id,,location,description\n" + bus.getId() + ",BUTTON,Москва,Первая\n";
+        MockMultipartFile file = new MockMultipartFile("file", "alerts.csv", "text/csv",
+                csv.getBytes(StandardCharsets.UTF_8));
+
+        CsvImportResult result = csvImportService.importAlertsFromCsv(file);
+
+        assertThat(result.getSuccessCount()).isZero();
+        assertThat(result.getErrors()).anySatisfy(error -> assertThat(error).startsWith("Не удалось прочитать файл"));
+    }
+
+    /**
+     * Тестирует, что ошибки и номера строк не зависят от числа блоков, разбираемых параллельно.
+     */
+    @Test
+    void importAlertsFromCsv_ShouldReturnSameErrorsForAnyParallelism() {
+        MockMultipartFile file = csvFile(1000);
+
+        CsvImportResult sequential = csvImportService.importAlertsFromCsv(file, 1);
+        deleteCreated(sequential); // Иначе повторный импорт пропустит все строки как дубликаты
+        CsvImportResult parallel = csvImportService.importAlertsFromCsv(file, 8);
+        parallel.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+        assertThat(parallel.getErrors()).isEqualTo(sequential.getErrors());
+        assertThat(parallel.getErrorCount()).isEqualTo(sequential.getErrorCount());
+        assertThat(parallel.getSuccessCount()).isEqualTo(sequential.getSuccessCount()).isEqualTo(980);
+    }
+
+    /**
+     * Тестирует, что разбор файла, отображенного в память, дает те же ошибки и число сохраненных строк,
+     * что и разбор через commons-csv.
+     */
+    @Test
+    void importAlerts_WithMappedParser_ShouldReturnSameResult(@TempDir Path dir) throws IOException {
+        MockMultipartFile file = csvFile(1000);
+        Path spooled = dir.resolve("alerts.csv");
+        file.transferTo(spooled);
+
+        CsvImportResult commons = csvImportService.importAlerts(new FileSystemResource(spooled), "alerts.csv",
+                CsvImportService.ImportMode.BATCH, null, CsvImportService.ImportObserver.NONE);
+        deleteCreated(commons);
+        ReflectionTestUtils.setField(csvImportService, "mappedParserEnabled", true);
+        CsvImportResult mapped;
+        try {
+            mapped = csvImportService.importAlerts(new FileSystemResource(spooled), "alerts.csv",
+                    CsvImportService.ImportMode.BATCH, null, CsvImportService.ImportObserver.NONE);
+        } finally {
+            ReflectionTestUtils.setField(csvImportService, "mappedParserEnabled", false);
+        }
+        mapped.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+        assertThat(mapped.getErrors()).isEqualTo(commons.getErrors());
+        assertThat(mapped.getErrorCount()).isEqualTo(commons.getErrorCount());
+        assertThat(mapped.getSuccessCount()).isEqualTo(commons.getSuccessCount()).isEqualTo(980);
+    }
+
+    /**
+     * Тестирует, что отмененный импорт завершается исключением с результатом зафиксированных порций
+     * и не сохраняет оповещений.
+     */
+    @Test
+    void importAlerts_WhenCancelled_ShouldThrowWithCommittedResult() {
+        CsvImportService.ImportObserver cancelled = new CsvImportService.ImportObserver() {
+            @Override
+            public boolean isCancelled() {
+                return true;
+            }
+        };
+
+        assertThatThrownBy(() -> csvImportService.importAlerts(csvFile(1000), "alerts.csv",
+                CsvImportService.ImportMode.BATCH, null, cancelled))
+                .isInstanceOfSatisfying(CsvImportService.ImportCancelledException.class,
+                        e -> assertThat(e.getResult().getSuccessCount()).isZero());
+        assertThat(alertRepository.findByBusId(bus.getId())).isEmpty();
+    }
+
+    /**
+     * Тестирует, что повторный импорт того же файла не создает оповещений, а пропускает строки
+     * как дубликаты, в том числе строки, повторяющиеся внутри файла, и что время строки входит в отпечаток.
+     */
+    @Test
+    void importAlertsFromCsv_WhenRowsWereImported_ShouldSkipDuplicates() {
+        MockMultipartFile file = csvFile(300);
+        String repeated = bus.getId() + ",ACCIDENT,Москва,Повтор,NEW,2024-01-31T14:30:00\n";
+        MockMultipartFile withRepeats = new MockMultipartFile("file", "alerts.csv", "text/csv",
+                ("bus_id,type,location,description,status,timestamp\n" + repeated + repeated
+                        + bus.getId() + ",ACCIDENT,Москва,Повтор,NEW,2024-01-31T15:30:00\n")
+                        .getBytes(StandardCharsets.UTF_8));
+
+        CsvImportResult first = csvImportService.importAlertsFromCsv(file);
+        CsvImportResult second = csvImportService.importAlertsFromCsv(file);
+        CsvImportResult repeats = csvImportService.importAlertsFromCsv(withRepeats);
+        for (CsvImportResult result : List.of(first, second, repeats)) {
+            result.getCreatedIdRanges().forEach(range ->
+                    LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+        }
+
+        assertThat(first.getSuccessCount()).isEqualTo(294);
+        assertThat(first.getDuplicateCount()).isZero();
+        assertThat(second.getSuccessCount()).isZero();
+        assertThat(second.getDuplicateCount()).isEqualTo(294);
+        assertThat(second.getFailedCount()).isZero();
+        assertThat(second.getErrorCount()).isEqualTo(6);
+        assertThat(second.getCreatedIdRanges()).isEmpty();
+        assertThat(repeats.getSuccessCount()).isEqualTo(2);
+        assertThat(repeats.getDuplicateCount()).isEqualTo(1);
+        assertThat(alertRepository.findByBusId(bus.getId())).hasSize(296);
+    }
+
+    /**
+     * Тестирует, что одинаковые строки без времени не считаются дубликатами:
+     * они могут описывать разные инциденты, поэтому сохраняются все.
+     */
+    @Test
+    void importAlertsFromCsv_WhenRowsHaveNoTimestamp_ShouldSaveRepeats() {
+        String repeated = bus.getId() + ",BUTTON,Москва,Нажата тревожная кнопка,NEW\n";
+        MockMultipartFile file = new MockMultipartFile("file", "alerts.csv", "text/csv",
+                ("bus_id,type,location,description,status\n" + repeated + repeated).getBytes(StandardCharsets.UTF_8));
+
+        CsvImportResult first = csvImportService.importAlertsFromCsv(file);
+        CsvImportResult second = csvImportService.importAlertsFromCsv(file);
+        for (CsvImportResult result : List.of(first, second)) {
+            result.getCreatedIdRanges().forEach(range ->
+                    LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+        }
+
+        assertThat(first.getSuccessCount()).isEqualTo(2);
+        assertThat(second.getSuccessCount()).isEqualTo(2);
+        assertThat(first.getDuplicateCount() + second.getDuplicateCount()).isZero();
+        assertThat(alertRepository.findByBusId(bus.getId())).hasSize(4)
+                .allSatisfy(alert -> assertThat(alert.getFingerprint()).isNull());
+    }
+
+    /**
+     * Тестирует, что загрузка COPY на базе данных не PostgreSQL выполняется обычным импортом.
+     */
+    @Test
+    void copyAlertsFromCsv_WhenDatabaseIsNotPostgres_ShouldFallBackToBatchImport() {
+        CsvImportResult result = csvImportService.copyAlertsFromCsv(csvFile(100));
+        result.getCreatedIdRanges().forEach(range ->
+                LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+
+        assertThat(result.getSuccessCount()).isEqualTo(98);
+        assertThat(result.getErrorCount()).isEqualTo(2);
+        assertThat(alertRepository.findAllById(alertIds)).hasSize(98);
+    }
+
+    /**
+     * Измеряет скорость импорта при разборе на 1..N ядрах.
+     * Запускается только с -Dbenchmarks=true; число строк задается -Dbenchmarks.rows (по умолчанию 200000).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_ImportScalingByParallelism() {
+        int rows = Integer.getInteger("benchmarks.rows", 200_000);
+        MockMultipartFile file = csvFile(rows);
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        for (int parallelism = 1; parallelism <= cores; parallelism *= 2) {
+            long started = System.nanoTime();
+            CsvImportResult result = csvImportService.importAlertsFromCsv(file, parallelism);
+            long elapsedNanos = System.nanoTime() - started;
+            deleteCreated(result);
+            log.info("Импорт {} строк, параллельность {}: {} строк/с",
+                    rows, parallelism, Math.round(rows / (elapsedNanos / 1e9)));
+        }
+    }
+
+    /**
+     * Сравнивает первый и повторный импорт одного файла: повторный импорт не записывает строк.
+     * Запускается только с -Dbenchmarks=true; число строк задается -Dbenchmarks.rows (по умолчанию 100000).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_ReimportOfSameFile() {
+        int rows = Integer.getInteger("benchmarks.rows", 100_000);
+        MockMultipartFile file = csvFile(rows);
+
+        for (String run : List.of("первый", "повторный")) {
+            long started = System.nanoTime();
+            CsvImportResult result = csvImportService.importAlertsFromCsv(file);
+            long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+            result.getCreatedIdRanges().forEach(range ->
+                    LongStream.rangeClosed(range.from(), range.to()).forEach(alertIds::add));
+            log.info("Импорт {} строк, {}: сохранено {}, дубликатов {}, {} мс",
+                    rows, run, result.getSuccessCount(), result.getDuplicateCount(), elapsedMillis);
+        }
+    }
+
+    private void deleteCreated(CsvImportResult result) {
+        List<Long> ids = new ArrayList<>();
+        result.getCreatedIdRanges().forEach(range -> LongStream.rangeClosed(range.from(), range.to()).forEach(ids::add));
+        alertRepository.deleteAllById(ids);
+    }
+
+    /**
+     * Создает CSV-файл, в котором каждая 50-я строка содержит некорректный тип инцидента.
+     * У строк задано время, поэтому повторный импорт файла распознает их как дубликаты.
+     */
+    private MockMultipartFile csvFile(int rows) {
+        StringBuilder csv = new StringBuilder("bus_id,type,location,description,status,timestamp\n");
+        for (int i = 0; i < rows; i++) {
+            String type = i % 50 == 0 ? "UNKNOWN" : "ACCIDENT";
+            csv.append(bus.getId()).append(',').append(type).append(",Москва,Импорт ").append(i).append(",NEW,")
+                    .append(FILE_START.plusSeconds(i)).append('\n');
+        }
+        return new MockMultipartFile("file", "alerts.csv", "text/csv", csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
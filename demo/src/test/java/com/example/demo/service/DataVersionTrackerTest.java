@@ -0,0 +1,122 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Класс тестов для проверки отслеживания версий данных.
+ * Проверяет, что версия меняется только после фиксации транзакции,
+ * и увеличение версии в базе данных для снимка кэшей.
+ */
+class DataVersionTrackerTest {
+
+    private final DataVersionTracker tracker = new DataVersionTracker();
+
+    /**
+     * Сбрасывает синхронизацию транзакций после каждого теста.
+     */
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /**
+     * Тестирует изменение версии вне транзакции.
+     */
+    @Test
+    void changed_WithoutTransaction_ShouldIncrementImmediately() {
+        String etag = tracker.etag(DataVersionTracker.DataSet.ALERTS);
+
+        tracker.changed(DataVersionTracker.DataSet.ALERTS);
+
+        assertThat(tracker.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(1);
+        assertThat(tracker.etag(DataVersionTracker.DataSet.ALERTS)).isNotEqualTo(etag);
+        assertThat(tracker.version(DataVersionTracker.DataSet.BUSES)).isZero();
+    }
+
+    /**
+     * Тестирует, что внутри транзакции версия меняется только после фиксации.
+     */
+    @Test
+    void changed_InsideTransaction_ShouldIncrementAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.changed(DataVersionTracker.DataSet.BUSES);
+        assertThat(tracker.version(DataVersionTracker.DataSet.BUSES)).isZero();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(tracker.version(DataVersionTracker.DataSet.BUSES)).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует, что при откате транзакции версия не меняется.
+     */
+    @Test
+    void changed_WhenTransactionRolledBack_ShouldKeepVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        tracker.changed(DataVersionTracker.DataSet.ALERTS);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(tracker.version(DataVersionTracker.DataSet.ALERTS)).isZero();
+    }
+
+    /**
+     * Тестирует, что версия в базе данных по умолчанию не увеличивается, а после включения
+     * увеличивается перед фиксацией транзакции и после нее.
+     */
+    @Test
+    void changed_WithPersistentVersions_ShouldIncrementDatabaseVersionBeforeAndAfterCommit() {
+        List<DataVersionTracker.DataSet> persisted = new ArrayList<>();
+        tracker.changed(DataVersionTracker.DataSet.ALERTS);
+        assertThat(persisted).isEmpty();
+
+        tracker.persistVersionsWith(persisted::add);
+        TransactionSynchronizationManager.initSynchronization();
+        tracker.changed(DataVersionTracker.DataSet.ALERTS);
+        assertThat(persisted).isEmpty();
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(sync -> sync.beforeCommit(false));
+        assertThat(persisted).containsExactly(DataVersionTracker.DataSet.ALERTS);
+        assertThat(tracker.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(1);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(persisted).hasSize(2);
+        assertThat(tracker.version(DataVersionTracker.DataSet.ALERTS)).isEqualTo(2);
+    }
+
+    /**
+     * Тестирует, что ошибка увеличения версии в базе данных не прерывает изменение данных.
+     */
+    @Test
+    void changed_WhenPersistentVersionFails_ShouldStillIncrementVersion() {
+        tracker.persistVersionsWith(dataSet -> {
+            throw new IllegalStateException("База данных недоступна");
+        });
+
+        tracker.changed(DataVersionTracker.DataSet.BUSES);
+
+        assertThat(tracker.version(DataVersionTracker.DataSet.BUSES)).isEqualTo(1);
+    }
+
+    /**
+     * Тестирует формат строгого ETag.
+     */
+    @Test
+    void etag_ShouldBeQuotedStrongValidator() {
+        String etag = tracker.etag(DataVersionTracker.DataSet.ALERTS);
+
+        assertThat(etag).startsWith("\"alerts-").endsWith("-0\"");
+        assertThat(etag).doesNotStartWith("W/");
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.demo.service;
+
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Класс тестов разбора CSV-файла, отображенного в память.
+ * Проверяет, что записи преобразуются в те же оповещения и ошибки, что и при разборе через commons-csv,
+ * на файле test_alerts.csv, на случайно сгенерированных файлах (кавычки, переводы строк внутри значений,
+ * пустые строки, разный регистр, некорректные числа) и на файлах с ошибкой кавычек.
+ */
+class MappedCsvTokenizerTest {
+    private static final Logger log = LoggerFactory.getLogger(MappedCsvTokenizerTest.class);
+
+    private static final String READ_ERROR = "ошибка чтения файла";
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Тестирует совпадение результатов на файле test_alerts.csv из корня репозитория.
+     */
+    @Test
+    void parse_TestAlertsFile_ShouldMatchCommonsCsv() throws IOException {
+        Path file = Path.of("..", "test_alerts.csv");
+        assumeTrue(Files.exists(file), "test_alerts.csv не найден");
+
+        List<String> expected = parseWithCommonsCsv(file);
+
+        assertThat(expected).isNotEmpty().doesNotContain(READ_ERROR);
+        assertThat(parseMapped(file)).isEqualTo(expected);
+    }
+
+    /**
+     * Тестирует совпадение результатов на случайно сгенерированных файлах.
+     */
+    @Test
+    void parse_FuzzedFiles_ShouldMatchCommonsCsv() throws IOException {
+        Random random = new Random(20240131);
+        for (int i = 0; i < 300; i++) {
+            Path file = tempDir.resolve("fuzz-" + i + ".csv");
+            Files.writeString(file, fuzzedCsv(random), StandardCharsets.UTF_8);
+
+            assertThat(parseMapped(file)).as("файл %d:%n%s", i, Files.readString(file))
+                    .isEqualTo(parseWithCommonsCsv(file));
+        }
+    }
+
+    /**
+     * Тестирует, что при ошибке кавычек записи до ошибки разбираются, а затем сообщается об ошибке чтения.
+     */
+    @Test
+    void parse_WhenQuotesAreMalformed_ShouldStopAtSameRecord() throws IOException {
+        for (String broken : List.of("1,BUTTON,\"Москва\"x,Вторая\n", "1,BUTTON,\"Москва,Незакрытая\n")) {
+            Path file = tempDir.resolve("broken.csv");
+            Files.writeString(file, "bus_id,type,location,description\n1,BUTTON,Москва,Первая\n" + broken
+                    + "1,BUTTON,Москва,Третья\n", StandardCharsets.UTF_8);
+
+            List<String> expected = parseWithCommonsCsv(file);
+
+            assertThat(expected).hasSize(2).endsWith(READ_ERROR);
+            assertThat(parseMapped(file)).isEqualTo(expected);
+        }
+    }
+
+    /**
+     * Тестирует, что заголовок с повторяющимися именами не поддерживается (файл разбирается через commons-csv).
+     */
+    @Test
+    void open_WhenHeaderHasDuplicateNames_ShouldReturnNull() throws IOException {
+        Path file = tempDir.resolve("duplicates.csv");
+        Files.writeString(file, "bus_id,type,location,description,BUS_ID\n1,BUTTON,Москва,Первая,2\n");
+
+        assertThat(MappedCsvTokenizer.open(file)).isNull();
+    }
+
+    /**
+     * Сравнивает скорость разбора и преобразования записей через commons-csv и через отображение в память.
+     * Запускается только с -Dbenchmarks=true; число строк задается -Dbenchmarks.rows (по умолчанию 1000000).
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+    void benchmark_ParseRowsPerSecond() throws IOException {
+        int rows = Integer.getInteger("benchmarks.rows", 1_000_000);
+        Path file = tempDir.resolve("benchmark.csv");
+        StringBuilder csv = new StringBuilder("bus_id,type,location,description,status,assigned_to_user_id\n");
+        for (int i = 0; i < rows; i++) {
+            csv.append(i % 1000 + 1).append(",ACCIDENT,\"ул. Ленина, ").append(i % 200)
+                    .append("\",Столкновение на перекрестке ").append(i).append(",NEW,").append(i % 7 + 1).append('\n');
+        }
+        Files.writeString(file, csv, StandardCharsets.UTF_8);
+
+        for (int run = 0; run < 3; run++) {
+            long started = System.nanoTime();
+            int commons = parseWithCommonsCsv(file).size();
+            long commonsNanos = System.nanoTime() - started;
+            started = System.nanoTime();
+            int mapped = parseMapped(file).size();
+            long mappedNanos = System.nanoTime() - started;
+            log.info("Разбор {} строк: commons-csv {} строк/с, отображение в память {} строк/с",
+                    rows, Math.round(commons / (commonsNanos / 1e9)), Math.round(mapped / (mappedNanos / 1e9)));
+        }
+    }
+
+    private static List<String> parseWithCommonsCsv(Path file) throws IOException {
+        List<String> outcomes = new ArrayList<>();
+        try (Reader reader = new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8);
+             CSVParser parser = new CSVParser(reader, CsvImportService.createCsvFormat())) {
+            for (CSVRecord csvRecord : parser) {
+                outcomes.add(outcome(AlertCsvRow.of(csvRecord)));
+            }
+        } catch (IOException | RuntimeException e) {
+            outcomes.add(READ_ERROR);
+        }
+        return outcomes;
+    }
+
+    private static List<String> parseMapped(Path file) throws IOException {
+        MappedCsvTokenizer tokenizer = MappedCsvTokenizer.open(file);
+        assertThat(tokenizer).as("заголовок должен поддерживаться").isNotNull();
+        List<String> outcomes = new ArrayList<>();
+        Consumer<AlertCsvRow> collector = row -> outcomes.add(outcome(row));
+        try {
+            tokenizer.forEach(collector);
+        } catch (IOException e) {
+            outcomes.add(READ_ERROR);
+        }
+        return outcomes;
+    }
+
+    private static String outcome(AlertCsvRow row) {
+        try {
+            return row.recordNumber() + ": " + CsvImportService.toAlert(row);
+        } catch (Exception e) {
+            return row.recordNumber() + ": " + e.getMessage();
+        }
+    }
+
+    /**
+     * Создает случайный CSV-файл с заголовком схемы импорта и записями из значений разного вида.
+     */
+    private static String fuzzedCsv(Random random) {
+        StringBuilder csv = new StringBuilder();
+        String[] header = {"bus_id", "type", "location", "description", "status", "assigned_to_user_id", "timestamp"};
+        int columns = 4 + random.nextInt(header.length - 3);
+        for (int i = 0; i < columns; i++) {
+            String name = random.nextBoolean() ? header[i] : header[i].toUpperCase();
+            csv.append(i > 0 ? "," : "").append(random.nextInt(4) == 0 ? "\"" + name + "\"" : name);
+        }
+        csv.append(lineBreak(random));
+        int rows = random.nextInt(40);
+        for (int r = 0; r < rows; r++) {
+            if (random.nextInt(10) == 0) {
+                csv.append(lineBreak(random)); // Пустая строка
+            }
+            int fields = 1 + random.nextInt(columns + 2);
+            for (int f = 0; f < fields; f++) {
+                csv.append(f > 0 ? "," : "").append(field(random, f < header.length ? header[f] : "extra"));
+            }
+            if (r < rows - 1 || random.nextBoolean()) {
+                csv.append(lineBreak(random));
+            }
+        }
+        if (random.nextInt(20) == 0) {
+            csv.append(random.nextBoolean() ? "1,BUTTON,\"x\"y,z\n" : "1,BUTTON,\"незакрытая");
+        }
+        return csv.toString();
+    }
+
+    /**
+     * Создает значение столбца. Значения с разделителями, переводами строк и кавычками записываются
+     * в кавычках, остальные - в кавычках случайно, иногда с пробельными символами после закрывающей кавычки.
+     */
+    private static String field(Random random, String column) {
+        String value = switch (column) {
+            case "bus_id", "assigned_to_user_id" -> pick(random, String.valueOf(random.nextInt(1000)),
+                    String.valueOf(random.nextLong()), "+" + random.nextInt(100), "-0", "99999999999999999999",
+                    "12a", "+", "", " 42 ", "\u0663");
+            case "type" -> pick(random, "ACCIDENT", "accident", "Hard_Braking", "BUTTON", "button ", "UNKNOWN",
+                    "", "ACC\u0130DENT", "acc\u0131dent", "ACC\"IDENT");
+            case "status" -> pick(random, "NEW", "in_progress", "Resolved", "", "CLOSED");
+            case "timestamp" -> pick(random, "2024-01-31T14:30:00", "2024-01-31T14:30", "31.01.2024", "");
+            default -> text(random);
+        };
+        boolean special = value.chars().anyMatch(c -> c == ',' || c == '"' || c == '\r' || c == '\n');
+        if (special || random.nextInt(3) == 0) {
+            String trailing = random.nextInt(5) == 0 ? pick(random, " ", "\t", "\u2003") : "";
+            return "\"" + value.replace("\"", "\"\"") + "\"" + trailing;
+        }
+        return value;
+    }
+
+    private static String text(Random random) {
+        String alphabet = "abcXYZ Москваул.ё0123456789\t,;\"\n\r\u2003é";
+        StringBuilder text = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(20) == 0) {
+                text.append("\uD83D\uDE00"); // Символ из четырех байтов UTF-8
+            } else {
+                text.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+        }
+        return text.toString();
+    }
+
+    private static String lineBreak(Random random) {
+        return pick(random, "\n", "\n", "\r\n", "\r");
+    }
+
+    private static String pick(Random random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+}
@@ -34,9 +34,11 @@ CREATE TABLE alerts (
 );
 
 -- Индексы для производительности
-CREATE INDEX idx_alerts_status ON alerts(status);
-CREATE INDEX idx_alerts_bus_id ON alerts(bus_id);
-CREATE INDEX idx_alerts_timestamp ON alerts(timestamp);
-CREATE INDEX idx_alerts_assigned_user ON alerts(assigned_to_user_id);
+CREATE INDEX idx_alerts_timestamp_id ON alerts(timestamp, id);
+-- Составные индексы для поиска: равенство по столбцу + диапазон/сортировка по времени.
+-- Заменяют одностолбцовые индексы по status, bus_id и assigned_to_user_id (покрывают их как префикс)
+CREATE INDEX idx_alerts_status_timestamp ON alerts(status, timestamp, id);
+CREATE INDEX idx_alerts_bus_timestamp ON alerts(bus_id, timestamp, id);
+CREATE INDEX idx_alerts_assigned_user_timestamp ON alerts(assigned_to_user_id, timestamp, id);
 CREATE INDEX idx_users_username ON users(username);
 CREATE INDEX idx_role_name ON role(name);
\ No newline at end of file